@@ -0,0 +1,45 @@
+package benchmark;
+
+import iguana.utils.input.GraphFileWriter;
+import iguana.utils.input.GraphInput;
+import iguana.utils.input.MappedGraphInput;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+public class BenchmarkGraphMapped extends BenchmarkGraphStorage {
+
+    private MappedGraphInput graph = null;
+
+    /**
+     * Maps graph.bin in the graph directory, which is converted from nodes.csv and edges.csv first if it
+     * does not exist yet.
+     */
+    @Override
+    public void loadGraph(String path) throws IOException {
+        Path file = Paths.get(path + File.separator + "graph.bin");
+        if (!Files.exists(file)) {
+            GraphFileWriter.fromCsv(Paths.get(path + File.separator + "nodes.csv"),
+                                    Paths.get(path + File.separator + "edges.csv"), file);
+        }
+        graph = MappedGraphInput.open(file);
+    }
+
+    @Override
+    public GraphInput getGraphInput(Stream<Integer> startVertices) {
+        return graph.withVertices(startVertices, graph.getFinalVertices());
+    }
+
+    @Override
+    protected void close() {
+    }
+
+    @Override
+    public String toString() {
+        return "MAPPED";
+    }
+}
@@ -6,7 +6,8 @@ import apoc.export.csv.ImportCsv;
 import apoc.help.Help;
 import apoc.periodic.Periodic;
 import iguana.utils.input.GraphInput;
-import iguana.utils.input.Neo4jBenchmarkInput;
+import iguana.utils.input.CachedNeo4jGraphInput;
+import iguana.utils.input.Neo4jRelationshipFilter;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.configuration.connectors.BoltConnector;
 import org.neo4j.dbms.api.DatabaseManagementService;
@@ -23,7 +24,10 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.stream.Stream;
 
@@ -32,13 +36,23 @@ import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAM
 
 public class BenchmarkGraphNeo4j extends BenchmarkGraphStorage {
 
-    private int nodesCount;
+    // The maximum number of relationships cached by each graph input
+    private static final long ADJACENCY_CACHE_CAPACITY = 50_000_000;
+
+    // The maximum number of neighbors loaded with a vertex that is not cached. The embedded database has no
+    // round trip for prefetching to save, so vertices are loaded when they are touched.
+    private static final int PREFETCH_BATCH_SIZE = 0;
+
+    int nodesCount;
+
+    // The relationships with a label of the grammar, or null to read all of them
+    Neo4jRelationshipFilter relationshipFilter;
 
     BenchmarkGraphNeo4j() {
 
     }
 
-    private final BiFunction<Relationship, Direction, String> relationship2Label =
+    final BiFunction<Relationship, Direction, String> relationship2Label =
             (Relationship relationship, Direction direction) ->
                     switch (direction) {
                         case INCOMING -> relationship.getType().name() + "_r";
@@ -46,7 +60,7 @@ public class BenchmarkGraphNeo4j extends BenchmarkGraphStorage {
                         default -> throw new RuntimeException("Unexpected direction");
                     };
     private final File databaseDirectory = new File("target/neo4j-hello-db");
-    private GraphDatabaseService graphDb;
+    GraphDatabaseService graphDb;
     private DatabaseManagementService managementService;
 
     private void registerProcedure(GraphDatabaseService graphDb, List<Class<?>> procedures) {
@@ -62,7 +76,8 @@ public class BenchmarkGraphNeo4j extends BenchmarkGraphStorage {
         }
     }
 
-    private Neo4jBenchmarkInput graphInput = null;
+    // Sharded runs open one input per shard from several threads
+    private final List<CachedNeo4jGraphInput> graphInputs = Collections.synchronizedList(new ArrayList<>());
 
     @Override
     public void loadGraph(String path) throws IOException {
@@ -107,14 +122,28 @@ public class BenchmarkGraphNeo4j extends BenchmarkGraphStorage {
 
     @Override
     public GraphInput getGraphInput(Stream<Integer> startVertices) {
-        graphInput = new Neo4jBenchmarkInput(graphDb, relationship2Label, startVertices, nodesCount);
+        CachedNeo4jGraphInput graphInput = new CachedNeo4jGraphInput(graphDb, relationship2Label, startVertices, nodesCount,
+                ADJACENCY_CACHE_CAPACITY, relationshipFilter, PREFETCH_BATCH_SIZE);
+        graphInputs.add(graphInput);
         return graphInput;
     }
 
+    @Override
+    protected void setEdgeLabels(Set<String> labels) {
+        relationshipFilter = Neo4jRelationshipFilter.fromLabels(labels);
+    }
+
     @Override
     protected void onIterationFinish() {
-        graphInput.close();
-        graphInput = null;
+        long hits = 0;
+        long misses = 0;
+        for (CachedNeo4jGraphInput graphInput : graphInputs) {
+            hits += graphInput.getAdjacencyCache().getHitsCount();
+            misses += graphInput.getAdjacencyCache().getMissesCount();
+            graphInput.close();
+        }
+        System.out.println("Adjacency cache hits: " + hits + ", misses: " + misses);
+        graphInputs.clear();
     }
 
     @Override
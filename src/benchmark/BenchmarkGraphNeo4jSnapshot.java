@@ -0,0 +1,47 @@
+package benchmark;
+
+import iguana.utils.input.CSRGraphInput;
+import iguana.utils.input.GraphInput;
+import iguana.utils.input.Neo4jGraphExporter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Loads the graph into Neo4j as {@link BenchmarkGraphNeo4j} does, and runs the queries on an in-memory snapshot
+ * of the database.
+ */
+public class BenchmarkGraphNeo4jSnapshot extends BenchmarkGraphNeo4j {
+
+    private List<Integer> finalVertices = null;
+    private CSRGraphInput graph = null;
+
+    @Override
+    public void loadGraph(String path) throws IOException {
+        super.loadGraph(path);
+        long startTime = System.nanoTime();
+        Neo4jGraphExporter exporter = new Neo4jGraphExporter(graphDb, relationship2Label, relationshipFilter,
+                                                             Runtime.getRuntime().availableProcessors());
+        graph = exporter.export(nodesCount);
+        finalVertices = IntStream.range(0, nodesCount).boxed().collect(Collectors.toList());
+        System.out.printf("Graph exported: %d edges in %d ms%n", graph.getEdgesCount(),
+                          (System.nanoTime() - startTime) / 1_000_000);
+    }
+
+    @Override
+    public GraphInput getGraphInput(Stream<Integer> startVertices) {
+        return graph.withVertices(startVertices, finalVertices);
+    }
+
+    @Override
+    protected void onIterationFinish() {
+    }
+
+    @Override
+    public String toString() {
+        return "NEO4J_SNAPSHOT";
+    }
+}
@@ -3,6 +3,7 @@ package benchmark;
 import iguana.utils.input.GraphInput;
 
 import java.io.IOException;
+import java.util.Set;
 import java.util.stream.Stream;
 
 public abstract class BenchmarkGraphStorage {
@@ -10,7 +11,9 @@ public abstract class BenchmarkGraphStorage {
     public static BenchmarkGraphStorage createBenchmarkStorage(GraphStorage storageType) {
         return switch (storageType) {
             case NEO4J -> new BenchmarkGraphNeo4j();
+            case NEO4J_SNAPSHOT -> new BenchmarkGraphNeo4jSnapshot();
             case IN_MEMORY -> new BenchmarkGraphInMemory();
+            case MAPPED -> new BenchmarkGraphMapped();
         };
     }
 
@@ -18,6 +21,19 @@ public abstract class BenchmarkGraphStorage {
 
     public abstract GraphInput getGraphInput(Stream<Integer> startVertices);
 
+    /**
+     * The edge labels the grammar can match, which storages may use to skip the other edges
+     */
+    protected void setEdgeLabels(Set<String> labels) {
+    }
+
+    /**
+     * Drops the edges whose labels are not in the labels and, if removeVertices, the vertices left without
+     * edges, from the loaded graph. Storages that cannot be pruned keep their graph.
+     */
+    protected void pruneGraph(Set<String> labels, boolean removeVertices) {
+    }
+
     protected void onIterationStart() {
     }
 
@@ -5,9 +5,9 @@ import org.iguana.parser.IguanaParser;
 
 public abstract class BenchmarkProblem {
 
-    public static BenchmarkProblem createBenchmarkProblem(Problem problem) {
+    public static BenchmarkProblem createBenchmarkProblem(Problem problem, boolean reuseGSS) {
         return switch (problem) {
-            case REACHABILITY -> new BenchmarkProblemReachability();
+            case REACHABILITY -> new BenchmarkProblemReachability(reuseGSS);
             case ALL_PATHS -> new BenchmarkProblemAllPaths();
         };
     }
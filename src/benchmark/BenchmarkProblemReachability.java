@@ -2,27 +2,46 @@ package benchmark;
 
 import iguana.utils.input.GraphInput;
 import org.iguana.parser.IguanaParser;
-import org.iguana.parser.Pair;
+import org.iguana.parser.PairSet;
 import org.iguana.parser.ParseOptions;
+import org.iguana.parser.ShardedIguanaParser;
 
+import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 public class BenchmarkProblemReachability extends BenchmarkProblem {
 
-    private Stream<Pair> parseResults = null;
+    private PairSet parseResults = null;
+
+    private final boolean reuseGSS;
+
+    public BenchmarkProblemReachability(boolean reuseGSS) {
+        this.reuseGSS = reuseGSS;
+    }
 
     @Override
     public void runAlgo(IguanaParser parser, GraphInput input) {
-        parseResults = parser.getReachabilities(input,
+        parseResults = parser.getReachabilitySet(input,
+                new ParseOptions
+                        .Builder()
+                        .setAmbiguous(false)
+                        .setReuseGSS(reuseGSS)
+                        .build());
+    }
+
+    public void runAlgo(ShardedIguanaParser parser, List<Integer> startVertices, Function<Stream<Integer>, GraphInput> inputFactory) {
+        parseResults = parser.getReachabilities(startVertices, inputFactory,
                 new ParseOptions
                         .Builder()
                         .setAmbiguous(false)
+                        .setReuseGSS(reuseGSS)
                         .build());
     }
 
     @Override
     public long getResult() {
-        return parseResults.count();
+        return parseResults.size();
     }
 
     @Override
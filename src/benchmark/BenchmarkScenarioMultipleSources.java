@@ -1,5 +1,8 @@
 package benchmark;
 
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -11,13 +14,15 @@ public class BenchmarkScenarioMultipleSources extends BenchmarkScenario {
     private final List<List<Integer>> startVerticesChunks = new ArrayList<>();
 
     public BenchmarkScenarioMultipleSources(String path) {
-        try (Scanner scanner = new Scanner(path)) {
+        try (Scanner scanner = new Scanner(new File(path))) {
             while (scanner.hasNextLine()) {
                 startVerticesChunks.add(Arrays
                         .stream(scanner.nextLine().split(" "))
                         .map(Integer::parseInt)
                         .collect(Collectors.toList()));
             }
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException("Cannot read the vertices chunks from " + path, e);
         }
     }
 
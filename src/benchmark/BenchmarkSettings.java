@@ -7,6 +7,9 @@ import java.util.Properties;
 
 public class BenchmarkSettings {
 
+    public static final int DEFAULT_THREADS = 1;
+    public static final int DEFAULT_SHARD_SIZE = 100;
+
     public static BenchmarkSettings parseCli(CommandLine cmd) throws ParseException {
         Properties scenarioProperties = cmd.getOptionProperties(CliParser.SCENARIO_OPT);
         return new BenchmarkSettings(
@@ -19,7 +22,11 @@ public class BenchmarkSettings {
                 cmd.getOptionValue(CliParser.GRAPH_OPT),
                 cmd.getOptionValue(CliParser.DATASET_OPT),
                 Integer.parseInt(cmd.getOptionValue(CliParser.WARMUP_ITERATIONS_OPT)),
-                Integer.parseInt(cmd.getOptionValue(CliParser.MEASUREMENT_ITERATIONS_OPT)));
+                Integer.parseInt(cmd.getOptionValue(CliParser.MEASUREMENT_ITERATIONS_OPT)),
+                Integer.parseInt(cmd.getOptionValue(CliParser.THREADS_OPT, String.valueOf(DEFAULT_THREADS))),
+                Integer.parseInt(cmd.getOptionValue(CliParser.SHARD_SIZE_OPT, String.valueOf(DEFAULT_SHARD_SIZE))),
+                cmd.hasOption(CliParser.REUSE_GSS_OPT),
+                cmd.hasOption(CliParser.PRUNE_GRAPH_OPT));
 
     }
 
@@ -31,6 +38,10 @@ public class BenchmarkSettings {
     private final String graphPath;
     private final int warmupIterations;
     private final int measurementIterations;
+    private final int threads;
+    private final int shardSize;
+    private final boolean reuseGSS;
+    private final boolean pruneGraph;
 
     private BenchmarkSettings(GraphStorage storageType,
                               Problem problem,
@@ -39,7 +50,15 @@ public class BenchmarkSettings {
                               String graphPath,
                               String datasetName,
                               int warmupIterations,
-                              int measurementIterations) {
+                              int measurementIterations,
+                              int threads,
+                              int shardSize,
+                              boolean reuseGSS,
+                              boolean pruneGraph) throws ParseException {
+        if (threads < 1)
+            throw new ParseException("The number of threads should be at least 1, but was " + threads);
+        if (threads > 1 && problem != Problem.REACHABILITY)
+            throw new ParseException("More than one thread is only supported for " + Problem.REACHABILITY + ", but the problem was " + problem);
         this.storageType = storageType;
         this.problem = problem;
         this.scenario = scenario;
@@ -48,6 +67,10 @@ public class BenchmarkSettings {
         this.graphPath = graphPath;
         this.warmupIterations = warmupIterations;
         this.measurementIterations = measurementIterations;
+        this.threads = threads;
+        this.shardSize = shardSize;
+        this.reuseGSS = reuseGSS;
+        this.pruneGraph = pruneGraph;
     }
 
     public GraphStorage getStorageType() {
@@ -82,6 +105,22 @@ public class BenchmarkSettings {
         return measurementIterations;
     }
 
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getShardSize() {
+        return shardSize;
+    }
+
+    public boolean reuseGSS() {
+        return reuseGSS;
+    }
+
+    public boolean pruneGraph() {
+        return pruneGraph;
+    }
+
     public static class ScenarioSettings {
 
         private final Scenario scenario;
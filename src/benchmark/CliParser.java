@@ -17,6 +17,10 @@ public class CliParser {
     public static final String GRAPH_OPT = "gp";
     public static final String WARMUP_ITERATIONS_OPT = "w";
     public static final String MEASUREMENT_ITERATIONS_OPT = "m";
+    public static final String THREADS_OPT = "t";
+    public static final String SHARD_SIZE_OPT = "ss";
+    public static final String REUSE_GSS_OPT = "r";
+    public static final String PRUNE_GRAPH_OPT = "pg";
     private final Option helpOption;
     private final Options allOptions;
 
@@ -105,6 +109,34 @@ public class CliParser {
                 .optionalArg(false)
                 .required(true)
                 .build());
+        allOptions.addOption(Option.builder(THREADS_OPT)
+                .longOpt("threads")
+                .argName("number")
+                .hasArg(true)
+                .desc("Number of threads running shards of start vertices in parallel, " + BenchmarkSettings.DEFAULT_THREADS + " by default, more than one only for " + Problem.REACHABILITY)
+                .optionalArg(false)
+                .required(false)
+                .build());
+        allOptions.addOption(Option.builder(SHARD_SIZE_OPT)
+                .longOpt("shard_size")
+                .argName("number")
+                .hasArg(true)
+                .desc("Number of start vertices in a shard if more than one thread is used, " + BenchmarkSettings.DEFAULT_SHARD_SIZE + " by default")
+                .optionalArg(false)
+                .required(false)
+                .build());
+        allOptions.addOption(Option.builder(REUSE_GSS_OPT)
+                .longOpt("reuse_gss")
+                .hasArg(false)
+                .desc("Keep the GSS of reachability queries between the chunks of start vertices of an iteration")
+                .required(false)
+                .build());
+        allOptions.addOption(Option.builder(PRUNE_GRAPH_OPT)
+                .longOpt("prune_graph")
+                .hasArg(false)
+                .desc("Drop the edges whose labels are not terminals of the grammar before the queries, for in-memory graphs")
+                .required(false)
+                .build());
     }
 
     public boolean hasHelp(String[] args) {
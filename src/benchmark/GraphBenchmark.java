@@ -3,7 +3,13 @@ package benchmark;
 import iguana.utils.input.GraphInput;
 import org.apache.commons.cli.ParseException;
 import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.GrammarGraphCache;
+import org.iguana.grammar.operations.FirstFollowSets;
+import org.iguana.grammar.symbol.Nonterminal;
 import org.iguana.parser.IguanaParser;
+import org.iguana.parser.ShardedIguanaParser;
+import org.iguana.util.Configuration;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -11,6 +17,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.util.List;
+import java.util.Set;
 
 public class GraphBenchmark {
     private static final String RESULTS_DIR = "results";
@@ -41,21 +48,42 @@ public class GraphBenchmark {
     private final String graphPath;
     private final int warmupIterations;
     private final int measurementIterations;
+    private final int threads;
+    private final int shardSize;
+    private final boolean reuseGSS;
+    private final boolean pruneGraph;
 
     private GraphBenchmark(BenchmarkSettings settings) {
         graphStorage = BenchmarkGraphStorage.createBenchmarkStorage(settings.getStorageType());
-        problem = BenchmarkProblem.createBenchmarkProblem(settings.getProblem());
+        problem = BenchmarkProblem.createBenchmarkProblem(settings.getProblem(), settings.reuseGSS());
         scenario = BenchmarkScenario.createBenchmarkScenario(settings.getScenario());
         datasetName = settings.getDatasetName();
         grammarPath = settings.getGrammarPath();
         graphPath = settings.getGraphPath();
         warmupIterations = settings.getWarmupIterations();
         measurementIterations = settings.getMeasurementIterations();
+        threads = settings.getThreads();
+        shardSize = settings.getShardSize();
+        reuseGSS = settings.reuseGSS();
+        pruneGraph = settings.pruneGraph();
     }
 
     void benchmark() throws IOException {
         Grammar grammar = Grammar.load(grammarPath, "json");
+        Configuration config = Configuration.load();
+        // The grammar graphs are built once and reused by the parsers of later chunks and iterations
+        GrammarGraphCache grammarGraphs = new GrammarGraphCache();
+        GrammarGraph grammarGraph = grammarGraphs.acquire(grammar, config);
+        Set<String> terminalLabels = grammarGraph.getTerminalLabels();
+        grammarGraphs.release(grammarGraph);
+        graphStorage.setEdgeLabels(terminalLabels);
         graphStorage.loadGraph(graphPath);
+        if (pruneGraph) {
+            // Vertices without edges only have the empty path, which is an answer if the start symbol is nullable
+            boolean nullableStart = new FirstFollowSets(grammar).getNullableNonterminals()
+                    .contains(Nonterminal.withName(grammar.getStartSymbol().getName()));
+            graphStorage.pruneGraph(terminalLabels, !nullableStart);
+        }
         File outFile = new File("%s%s%s_%s_%s_%s.csv".formatted(
                 RESULTS_DIR,
                 File.separator,
@@ -76,16 +104,35 @@ public class GraphBenchmark {
             for (int iter = 0; iter < maxIters; ++iter) {
 
                 final var chunks = scenario.getStartVerticesChunks();
+                // With GSS reuse, the parsers live for all chunks of an iteration
+                ShardedIguanaParser shardedParser = null;
+                IguanaParser parser = null;
                 for (int chunkIndex = 0; chunkIndex < chunks.size(); chunkIndex++) {
                     graphStorage.onIterationStart();
                     List<Integer> chunk = chunks.get(chunkIndex);
 
                     final long stepStartPrepareTime = System.nanoTime();
-                    IguanaParser parser = new IguanaParser(grammar);
-                    GraphInput input = graphStorage.getGraphInput(chunk.stream());
-                    final long stepStartTime = System.nanoTime();
+                    final long stepStartTime;
+                    if (threads > 1) {
+                        if (shardedParser == null || !reuseGSS) {
+                            if (shardedParser != null)
+                                shardedParser.close();
+                            shardedParser = new ShardedIguanaParser(grammar, config, threads, shardSize, grammarGraphs);
+                        }
+                        stepStartTime = System.nanoTime();
+                        // The settings only allow more than one thread for reachability
+                        ((BenchmarkProblemReachability) problem).runAlgo(shardedParser, chunk, graphStorage::getGraphInput);
+                    } else {
+                        if (parser == null || !reuseGSS) {
+                            if (parser != null)
+                                grammarGraphs.release(parser.getGrammarGraph());
+                            parser = new IguanaParser(grammarGraphs.acquire(grammar, config), config);
+                        }
+                        GraphInput input = graphStorage.getGraphInput(chunk.stream());
+                        stepStartTime = System.nanoTime();
+                        problem.runAlgo(parser, input);
+                    }
                     final double stepPrepareTime = (double) (stepStartTime - stepStartPrepareTime) / 1_000_000_000.;
-                    problem.runAlgo(parser, input);
                     final long stepStopTime = System.nanoTime();
                     final double stepRunTime = (double) (stepStopTime - stepStartTime) / 1_000_000_000.;
 
@@ -94,6 +141,10 @@ public class GraphBenchmark {
                     }
                     graphStorage.onIterationFinish();
                 }
+                if (shardedParser != null)
+                    shardedParser.close();
+                if (parser != null)
+                    grammarGraphs.release(parser.getGrammarGraph());
 
             }
         }
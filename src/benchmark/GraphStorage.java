@@ -2,5 +2,7 @@ package benchmark;
 
 public enum GraphStorage {
     NEO4J,
+    NEO4J_SNAPSHOT,
     IN_MEMORY,
+    MAPPED,
 }
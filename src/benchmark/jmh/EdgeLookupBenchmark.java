@@ -0,0 +1,71 @@
+package benchmark.jmh;
+
+import iguana.utils.collections.primitive.IntArray;
+import iguana.utils.input.EdgeLabels;
+import iguana.utils.input.GraphInput;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the edge lookups terminals do, over all vertices of a graph and the labels of a grammar, per label
+ * string as the old matchers did and per interned label id as {@link iguana.regex.matcher.GraphMatcher} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EdgeLookupBenchmark {
+
+    @Param({"CORE", "POWER_LAW"})
+    public GraphShape shape;
+
+    @Param({"false", "true"})
+    public boolean csr;
+
+    @Param("10000")
+    public int size;
+
+    private static final String[] LABELS = {"subClassOf", "subClassOf_r", "type", "type_r"};
+
+    private GraphInput input;
+
+    private int verticesCount;
+
+    private int[] labelIds;
+
+    @Setup
+    public void setup() {
+        var edges = GraphFixtures.createGraph(shape, "g1", size, 42);
+        verticesCount = edges.size();
+        input = GraphFixtures.createInput(edges, csr);
+        labelIds = new int[LABELS.length];
+        for (int i = 0; i < LABELS.length; i++) {
+            labelIds[i] = EdgeLabels.intern(LABELS[i]);
+        }
+    }
+
+    @Benchmark
+    public void lookupByLabel(Blackhole blackhole) {
+        for (int v = 0; v < verticesCount; v++) {
+            for (String label : LABELS) {
+                blackhole.consume(input.getDestVertex(v, label).size());
+            }
+        }
+    }
+
+    @Benchmark
+    public void lookupByLabelId(Blackhole blackhole) {
+        for (int v = 0; v < verticesCount; v++) {
+            for (int labelId : labelIds) {
+                IntArray destinations = input.getDestVertices(v, labelId);
+                for (int i = 0; i < destinations.size(); i++) {
+                    blackhole.consume(destinations.get(i));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package benchmark.jmh;
+
+import iguana.utils.input.CSRGraphInput;
+import iguana.utils.input.Edge;
+import org.iguana.grammar.Grammar;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.ParseOptions;
+import org.iguana.util.Configuration;
+import org.iguana.util.Configuration.HashMapImpl;
+import org.iguana.util.Configuration.LookupImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Measures all-pairs reachability with each map backend of the GSS: dense vertex-indexed arrays, the open
+ * addressing map or the Java hash map for the GSS nodes of a nonterminal, and either hash map for the popped
+ * elements of a GSS node.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GSSLookupBenchmark {
+
+    @Param({"CORE", "CHAIN", "POWER_LAW"})
+    public GraphShape shape;
+
+    @Param({"g1", "pointsTo"})
+    public String grammarName;
+
+    @Param("1000")
+    public int size;
+
+    @Param({"HASH_MAP", "ARRAY"})
+    public LookupImpl gssLookup;
+
+    @Param({"INT_OPEN_ADDRESSING", "JAVA"})
+    public HashMapImpl hashMap;
+
+    private List<Integer> vertices;
+
+    private CSRGraphInput graph;
+
+    private IguanaParser parser;
+
+    private ParseOptions options;
+
+    @Setup
+    public void setup() {
+        Grammar grammar = GraphFixtures.loadGrammar(grammarName);
+        List<List<Edge>> edges = GraphFixtures.createGraph(shape, grammarName, size, 42);
+        vertices = IntStream.range(0, edges.size()).boxed().collect(Collectors.toList());
+        graph = CSRGraphInput.fromAdjacencyList(edges, Stream.empty(), vertices);
+        Configuration defaults = Configuration.load();
+        Configuration config = new Configuration.Builder()
+                .setMatcherType(defaults.getMatcherType())
+                .setLookaheadCount(defaults.getLookAheadCount())
+                .setEnvironmentImpl(defaults.getEnvImpl())
+                .setGSSLookupImpl(gssLookup)
+                .setHashmapImpl(hashMap)
+                .build();
+        parser = new IguanaParser(grammar, config);
+        // Popped index sets would bypass the popped elements maps
+        options = new ParseOptions.Builder().setAmbiguous(false).setPoppedIndexSets(false).build();
+    }
+
+    @Benchmark
+    public long reachability() {
+        return parser.getReachabilitySet(graph.withVertices(vertices.stream(), vertices), options).size();
+    }
+}
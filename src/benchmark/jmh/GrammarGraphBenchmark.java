@@ -0,0 +1,39 @@
+package benchmark.jmh;
+
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.GrammarGraphBuilder;
+import org.iguana.util.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the grammar graph, which every {@link org.iguana.parser.IguanaParser} does once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GrammarGraphBenchmark {
+
+    @Param({"g1", "g2", "geo", "pointsTo"})
+    public String grammarName;
+
+    private Grammar grammar;
+
+    private Configuration config;
+
+    @Setup
+    public void setup() {
+        grammar = GraphFixtures.loadGrammar(grammarName);
+        config = Configuration.load();
+    }
+
+    @Benchmark
+    public GrammarGraph buildGrammarGraph() {
+        return GrammarGraphBuilder.from(grammar, config);
+    }
+}
@@ -0,0 +1,146 @@
+package benchmark.jmh;
+
+import iguana.utils.input.CSRGraphInput;
+import iguana.utils.input.Edge;
+import iguana.utils.input.GraphInput;
+import iguana.utils.input.InMemGraphInput;
+import org.iguana.grammar.Grammar;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Grammars and graphs shared by the JMH benchmarks. Graphs are built as adjacency lists, and every edge is
+ * also added reversed with the "_r" suffix, as the benchmark loaders do, so they can be wrapped in any
+ * graph input.
+ */
+final class GraphFixtures {
+
+    static final String GRAMMARS_DIR = "test/resources/grammars/graph/";
+
+    static final String CORE_GRAPH_DIR = "data/core/";
+
+    /**
+     * The labels of the forward edges of the synthetic graphs for each grammar
+     */
+    private static final Map<String, List<String>> LABELS = Map.of(
+            "g1", List.of("subClassOf", "type"),
+            "g2", List.of("subClassOf"),
+            "geo", List.of("broaderTransitive"),
+            "pointsTo", List.of("a", "d")
+    );
+
+    private GraphFixtures() {
+    }
+
+    static Grammar loadGrammar(String name) {
+        try {
+            return Grammar.load(GRAMMARS_DIR + name + "/grammar.json", "json");
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param size the number of vertices of the synthetic graphs; the core graph has a fixed size
+     */
+    static List<List<Edge>> createGraph(GraphShape shape, String grammar, int size, long seed) {
+        List<String> labels = LABELS.get(grammar);
+        if (labels == null)
+            throw new IllegalArgumentException("No labels for grammar " + grammar);
+
+        Random random = new Random(seed);
+        switch (shape) {
+            case CORE:
+                return loadCore();
+            case CHAIN: {
+                List<List<Edge>> edges = vertices(size);
+                for (int v = 0; v + 1 < size; v++) {
+                    addEdge(edges, v, labels.get(v % labels.size()), v + 1);
+                }
+                return edges;
+            }
+            case CYCLE: {
+                List<List<Edge>> edges = vertices(size);
+                for (int v = 0; v < size; v++) {
+                    addEdge(edges, v, labels.get(v % labels.size()), (v + 1) % size);
+                }
+                return edges;
+            }
+            case BINARY_TREE: {
+                List<List<Edge>> edges = vertices(size);
+                for (int v = 1; v < size; v++) {
+                    addEdge(edges, (v - 1) / 2, labels.get(random.nextInt(labels.size())), v);
+                }
+                return edges;
+            }
+            case POWER_LAW: {
+                // Preferential attachment: each new vertex links to two vertices picked with a probability
+                // proportional to their degree, by picking a random endpoint of an existing edge
+                List<List<Edge>> edges = vertices(size);
+                int[] endpoints = new int[4 * size];
+                int count = 0;
+                endpoints[count++] = 0;
+                for (int v = 1; v < size; v++) {
+                    for (int i = 0; i < 2; i++) {
+                        int target = endpoints[random.nextInt(count)];
+                        addEdge(edges, v, labels.get(random.nextInt(labels.size())), target);
+                        endpoints[count++] = target;
+                    }
+                    endpoints[count++] = v;
+                }
+                return edges;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+    }
+
+    static GraphInput createInput(List<List<Edge>> edges, boolean csr) {
+        List<Integer> vertices = IntStream.range(0, edges.size()).boxed().collect(Collectors.toList());
+        if (csr) {
+            return CSRGraphInput.fromAdjacencyList(edges, vertices.stream(), vertices);
+        }
+        return new InMemGraphInput(edges, vertices.stream(), vertices);
+    }
+
+    private static List<List<Edge>> loadCore() {
+        try (Stream<String> lines = Files.lines(Paths.get(CORE_GRAPH_DIR + "edges.csv"))) {
+            List<String[]> rows = lines.skip(1).map(line -> line.split(" ")).collect(Collectors.toList());
+            int verticesCount;
+            try (Stream<String> nodes = Files.lines(Paths.get(CORE_GRAPH_DIR + "nodes.csv"))) {
+                verticesCount = (int) nodes.skip(1).count();
+            }
+            List<List<Edge>> edges = vertices(verticesCount);
+            for (String[] row : rows) {
+                addEdge(edges, Integer.parseInt(row[0]), row[1], Integer.parseInt(row[2]));
+            }
+            return edges;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<List<Edge>> vertices(int size) {
+        List<List<Edge>> edges = new ArrayList<>(size);
+        for (int v = 0; v < size; v++) {
+            edges.add(new ArrayList<>());
+        }
+        return edges;
+    }
+
+    private static void addEdge(List<List<Edge>> edges, int source, String label, int destination) {
+        edges.get(source).add(new Edge(label, destination));
+        edges.get(destination).add(new Edge(label + "_r", source));
+    }
+}
@@ -0,0 +1,12 @@
+package benchmark.jmh;
+
+/**
+ * The graphs the benchmarks run on: the bundled core graph, or a synthetic graph
+ */
+public enum GraphShape {
+    CORE,
+    CHAIN,
+    CYCLE,
+    BINARY_TREE,
+    POWER_LAW
+}
@@ -0,0 +1,28 @@
+package benchmark.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of this package with allocation profiling. Takes the usual JMH command line
+ * options, for example a regular expression to select benchmarks or -p to restrict parameters.
+ */
+public class JmhRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(JmhRunner.class.getPackage().getName() + "\\.");
+        }
+        Options options = builder
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new org.openjdk.jmh.runner.Runner(options).run();
+    }
+}
@@ -0,0 +1,99 @@
+package benchmark.jmh;
+
+import iguana.utils.input.CSRGraphInput;
+import iguana.utils.input.Edge;
+import iguana.utils.input.GraphInput;
+import iguana.utils.input.InMemGraphInput;
+import org.iguana.grammar.Grammar;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.ParseOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Measures all-pairs reachability and SPPF runs of the GLL runtime. The parser, hence its grammar graph, is
+ * created once per trial, so an invocation measures only the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"CORE", "CHAIN", "CYCLE", "BINARY_TREE", "POWER_LAW"})
+    public GraphShape shape;
+
+    @Param({"g1", "g2", "geo", "pointsTo"})
+    public String grammarName;
+
+    @Param("1000")
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean csr;
+
+    private List<List<Edge>> edges;
+
+    private List<Integer> vertices;
+
+    private CSRGraphInput csrGraph;
+
+    private IguanaParser parser;
+
+    private ParseOptions options;
+
+    private ParseOptions sppfNodesOptions;
+
+    @Setup
+    public void setup() {
+        Grammar grammar = GraphFixtures.loadGrammar(grammarName);
+        edges = GraphFixtures.createGraph(shape, grammarName, size, 42);
+        vertices = IntStream.range(0, edges.size()).boxed().collect(Collectors.toList());
+        csrGraph = CSRGraphInput.fromAdjacencyList(edges, Stream.empty(), vertices);
+        parser = new IguanaParser(grammar);
+        options = new ParseOptions.Builder().setAmbiguous(false).build();
+        sppfNodesOptions = new ParseOptions.Builder().setAmbiguous(false).setPoppedIndexSets(false).build();
+    }
+
+    /**
+     * A graph input holds the stream of its start vertices, so each invocation wraps the graph in a new one
+     */
+    private GraphInput input() {
+        if (csr) {
+            return csrGraph.withVertices(vertices.stream(), vertices);
+        }
+        return new InMemGraphInput(edges, vertices.stream(), vertices);
+    }
+
+    @Benchmark
+    public long reachability() {
+        return parser.getReachabilitySet(input(), options).size();
+    }
+
+    /**
+     * Reachability with SPPF nodes as the popped elements of the GSS nodes, as before popped index sets
+     */
+    @Benchmark
+    public long reachabilitySPPFNodes() {
+        return parser.getReachabilitySet(input(), sppfNodesOptions).size();
+    }
+
+    @Benchmark
+    public int sppf() {
+        var sppf = parser.getSPPF(input(), options);
+        return sppf == null ? 0 : sppf.size();
+    }
+
+    @Benchmark
+    public int compactSppf() {
+        var sppf = parser.getCompactSPPF(input(), options);
+        return sppf == null ? 0 : sppf.getNodesCount();
+    }
+}
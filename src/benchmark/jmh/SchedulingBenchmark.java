@@ -0,0 +1,64 @@
+package benchmark.jmh;
+
+import iguana.utils.input.CSRGraphInput;
+import iguana.utils.input.Edge;
+import org.iguana.grammar.Grammar;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.ParseOptions;
+import org.iguana.parser.descriptor.SchedulingPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Measures all-pairs reachability with each descriptor scheduling policy on larger graphs, where the order in
+ * which vertices are visited matters for the caches. Run with {@code -prof perfnorm} on Linux for the cache
+ * misses per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SchedulingBenchmark {
+
+    @Param({"CORE", "CHAIN", "POWER_LAW"})
+    public GraphShape shape;
+
+    @Param("g1")
+    public String grammarName;
+
+    @Param("10000")
+    public int size;
+
+    @Param({"LIFO", "FIFO", "VERTEX_BUCKETED"})
+    public SchedulingPolicy policy;
+
+    private List<Integer> vertices;
+
+    private CSRGraphInput graph;
+
+    private IguanaParser parser;
+
+    private ParseOptions options;
+
+    @Setup
+    public void setup() {
+        Grammar grammar = GraphFixtures.loadGrammar(grammarName);
+        List<List<Edge>> edges = GraphFixtures.createGraph(shape, grammarName, size, 42);
+        vertices = IntStream.range(0, edges.size()).boxed().collect(Collectors.toList());
+        graph = CSRGraphInput.fromAdjacencyList(edges, Stream.empty(), vertices);
+        parser = new IguanaParser(grammar);
+        options = new ParseOptions.Builder().setAmbiguous(false).setSchedulingPolicy(policy).build();
+    }
+
+    @Benchmark
+    public long reachability() {
+        return parser.getReachabilitySet(graph.withVertices(vertices.stream(), vertices), options).size();
+    }
+}
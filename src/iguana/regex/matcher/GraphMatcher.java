@@ -1,24 +1,45 @@
 package iguana.regex.matcher;
 
+import iguana.utils.collections.primitive.IntArray;
+import iguana.utils.input.EdgeLabels;
 import iguana.utils.input.GraphInput;
 import iguana.utils.input.Input;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class GraphMatcher implements Matcher {
     private final String label;
 
+    // Resolved once when the grammar graph is built, so matching never compares label strings
+    private final int labelId;
+
     public GraphMatcher(String label) {
         this.label = label;
+        this.labelId = EdgeLabels.intern(label);
+    }
+
+    public int getLabelId() {
+        return labelId;
+    }
+
+    @Override
+    public IntArray matchIndices(Input input, int vertexIndex) {
+        if (input instanceof GraphInput) {
+            return ((GraphInput) input).getDestVertices(vertexIndex, labelId);
+        }
+        return IntArray.EMPTY;
     }
 
     @Override
     public List<Integer> match(Input input, int vertexIndex) {
         if (input instanceof GraphInput) {
-            GraphInput graphInput = (GraphInput) input;
-            return graphInput.getDestVertex(vertexIndex, label);
+            IntArray destinations = ((GraphInput) input).getDestVertices(vertexIndex, labelId);
+            List<Integer> result = new ArrayList<>(destinations.size());
+            for (int i = 0; i < destinations.size(); i++) {
+                result.add(destinations.get(i));
+            }
+            return result;
         }
         return new ArrayList<>();
     }
@@ -26,8 +47,13 @@ public class GraphMatcher implements Matcher {
     @Override
     public boolean match(Input input, int startIndex, int endIndex) {
         if (input instanceof GraphInput) {
-            GraphInput graphInput = (GraphInput) input;
-            return graphInput.getDestVertex(startIndex, label).contains(endIndex);
+            IntArray destinations = ((GraphInput) input).getDestVertices(startIndex, labelId);
+            for (int i = 0; i < destinations.size(); i++) {
+                if (destinations.get(i) == endIndex) {
+                    return true;
+                }
+            }
+            return false;
         }
         return false;
     }
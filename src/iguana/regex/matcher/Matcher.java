@@ -27,6 +27,7 @@
 
 package iguana.regex.matcher;
 
+import iguana.utils.collections.primitive.IntArray;
 import iguana.utils.input.Input;
 
 import java.util.List;
@@ -40,6 +41,18 @@ public interface Matcher {
 
     List<Integer> match(Input input, int i);
 
+    /**
+     * Same as {@link #match(Input, int)}, but returns the end indices without boxing them.
+     */
+    default IntArray matchIndices(Input input, int i) {
+        List<Integer> endIndices = match(input, i);
+        int[] result = new int[endIndices.size()];
+        for (int j = 0; j < result.length; j++) {
+            result[j] = endIndices.get(j);
+        }
+        return IntArray.of(result);
+    }
+
 //	default boolean match(Input input) {
 //		return match(input, 0) == input.length() - 1;
 //	}
@@ -0,0 +1,172 @@
+package iguana.utils.collections;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * An int map for small non-negative keys, such as the vertices of a graph, stored in an array indexed by the key.
+ * Lookups do not hash or probe, at the cost of memory proportional to the largest key rather than the number of
+ * entries. The array grows to the largest key added if the initial capacity is too small.
+ */
+public class ArrayIntHashMap<T> implements IntHashMap<T> {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    private final int initialCapacity;
+
+    private T[] values;
+
+    private int size;
+
+    public ArrayIntHashMap() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ArrayIntHashMap(int initialCapacity) {
+        this.initialCapacity = initialCapacity < 0 ? DEFAULT_INITIAL_CAPACITY : initialCapacity;
+        this.values = (T[]) new Object[this.initialCapacity];
+    }
+
+    private void ensureCapacity(int key) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Negative key: " + key);
+        }
+        if (key >= values.length) {
+            values = Arrays.copyOf(values, Math.max(key + 1, values.length << 1));
+        }
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public T computeIfAbsent(int key, IntFunction<T> f) {
+        ensureCapacity(key);
+        T value = values[key];
+        if (value == null) {
+            value = f.apply(key);
+            values[key] = value;
+            size++;
+        }
+        return value;
+    }
+
+    @Override
+    public T compute(int key, IntKeyMapper<T> mapper) {
+        ensureCapacity(key);
+        T value = values[key];
+        values[key] = mapper.apply(key, value);
+        if (value == null) {
+            size++;
+            return values[key];
+        }
+        return null;
+    }
+
+    @Override
+    public T put(int key, T value) {
+        ensureCapacity(key);
+        T oldValue = values[key];
+        values[key] = value;
+        if (oldValue == null) size++;
+        return oldValue;
+    }
+
+    @Override
+    public T remove(int key) {
+        if (key < 0 || key >= values.length) return null;
+        T oldValue = values[key];
+        values[key] = null;
+        if (oldValue != null) size--;
+        return oldValue;
+    }
+
+    @Override
+    public T get(int key) {
+        if (key < 0 || key >= values.length) return null;
+        return values[key];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getInitialCapacity() {
+        return initialCapacity;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void clear() {
+        values = (T[]) new Object[initialCapacity];
+        size = 0;
+    }
+
+    @Override
+    public void clearKeepingCapacity() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @Override
+    public Iterable<T> values() {
+        return () -> new ArrayIterator<T>() {
+            @Override
+            T get(int key) {
+                return values[key];
+            }
+        };
+    }
+
+    @Override
+    public Iterator<Entry<T>> iterator() {
+        return new ArrayIterator<Entry<T>>() {
+            @Override
+            Entry<T> get(int key) {
+                return new Entry<>(key, values[key]);
+            }
+        };
+    }
+
+    private abstract class ArrayIterator<E> implements Iterator<E> {
+        int count = 0;
+        int i = 0;
+
+        abstract E get(int key);
+
+        @Override
+        public boolean hasNext() {
+            return count < size;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            while (values[i] == null) i++;
+            count++;
+            return get(i++);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (Entry<T> entry : this) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(entry);
+        }
+        return sb.append("}").toString();
+    }
+}
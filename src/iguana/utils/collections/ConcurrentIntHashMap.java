@@ -0,0 +1,173 @@
+package iguana.utils.collections;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * Thread-safe int map made of lock-striped {@link OpenAddressingIntHashMap} segments. Every operation on a key
+ * holds the lock of the key's segment, so {@link #computeIfAbsent} and {@link #compute} are atomic.
+ * Iteration is not synchronized and is only meaningful once no thread modifies the map anymore.
+ */
+public class ConcurrentIntHashMap<T> implements IntHashMap<T> {
+
+    private static final int DEFAULT_SEGMENTS = 64;
+
+    private final OpenAddressingIntHashMap<T>[] segments;
+
+    private final int shift;
+
+    public ConcurrentIntHashMap() {
+        this(DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * @param segments the number of segments, rounded up to a power of two
+     */
+    public ConcurrentIntHashMap(int segments) {
+        int count = 1;
+        while (count < segments) count <<= 1;
+        // Generic arrays cannot be created; the array is private and only ever holds the maps of T created here
+        @SuppressWarnings("unchecked")
+        OpenAddressingIntHashMap<T>[] maps = (OpenAddressingIntHashMap<T>[]) new OpenAddressingIntHashMap<?>[count];
+        for (int i = 0; i < count; i++) {
+            maps[i] = new OpenAddressingIntHashMap<>();
+        }
+        this.segments = maps;
+        this.shift = 32 - Integer.numberOfTrailingZeros(count);
+    }
+
+    private OpenAddressingIntHashMap<T> segmentFor(int key) {
+        // Fibonacci hashing; uses the high bits so that the segment does not correlate with the slot in the segment
+        return shift == 32 ? segments[0] : segments[(key * 0x9E3779B9) >>> shift];
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        OpenAddressingIntHashMap<T> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.containsKey(key);
+        }
+    }
+
+    @Override
+    public T computeIfAbsent(int key, IntFunction<T> f) {
+        OpenAddressingIntHashMap<T> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.computeIfAbsent(key, f);
+        }
+    }
+
+    @Override
+    public T compute(int key, IntKeyMapper<T> mapper) {
+        OpenAddressingIntHashMap<T> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.compute(key, mapper);
+        }
+    }
+
+    @Override
+    public T put(int key, T value) {
+        OpenAddressingIntHashMap<T> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.put(key, value);
+        }
+    }
+
+    @Override
+    public T remove(int key) {
+        OpenAddressingIntHashMap<T> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.remove(key);
+        }
+    }
+
+    @Override
+    public T get(int key) {
+        OpenAddressingIntHashMap<T> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (OpenAddressingIntHashMap<T> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public int getInitialCapacity() {
+        return segments.length * segments[0].getInitialCapacity();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        for (OpenAddressingIntHashMap<T> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    @Override
+    public Iterable<T> values() {
+        return () -> new SegmentsIterator<T>() {
+            @Override
+            Iterator<T> iterator(OpenAddressingIntHashMap<T> segment) {
+                return segment.values().iterator();
+            }
+        };
+    }
+
+    @Override
+    public Iterator<Entry<T>> iterator() {
+        return new SegmentsIterator<Entry<T>>() {
+            @Override
+            Iterator<Entry<T>> iterator(OpenAddressingIntHashMap<T> segment) {
+                return segment.iterator();
+            }
+        };
+    }
+
+    private abstract class SegmentsIterator<E> implements Iterator<E> {
+        int segment = 0;
+        Iterator<E> current = iterator(segments[0]);
+
+        abstract Iterator<E> iterator(OpenAddressingIntHashMap<T> segment);
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (++segment == segments.length) return false;
+                current = iterator(segments[segment]);
+            }
+            return true;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return current.next();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Entry<T> entry : this) {
+            sb.append(entry).append(", ");
+        }
+        return sb.toString();
+    }
+}
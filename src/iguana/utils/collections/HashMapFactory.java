@@ -1,5 +1,50 @@
 package iguana.utils.collections;
 
+/**
+ * Creates the int maps of a data structure, so that the map implementation can be chosen by configuration.
+ */
 public interface HashMapFactory {
-	
+
+	HashMapFactory JAVA = new HashMapFactory() {
+		@Override
+		public <T> IntHashMap<T> newIntHashMap(int keysCount) {
+			return new JavaIntHashMap<>();
+		}
+	};
+
+	HashMapFactory OPEN_ADDRESSING = new HashMapFactory() {
+		@Override
+		public <T> IntHashMap<T> newIntHashMap(int keysCount) {
+			return new OpenAddressingIntHashMap<>();
+		}
+
+		@Override
+		public <T> IntHashMap<T> newIntHashMap(int keysCount, int expectedSize) {
+			return OpenAddressingIntHashMap.withExpectedSize(expectedSize);
+		}
+	};
+
+	/**
+	 * Dense arrays indexed by the key, sized to the number of keys if it is known
+	 */
+	HashMapFactory ARRAY = new HashMapFactory() {
+		@Override
+		public <T> IntHashMap<T> newIntHashMap(int keysCount) {
+			return keysCount > 0 ? new ArrayIntHashMap<>(keysCount) : new ArrayIntHashMap<>();
+		}
+	};
+
+	/**
+	 * @param keysCount the number of keys if the keys are 0 to keysCount - 1, or -1 if it is not known
+	 */
+	<T> IntHashMap<T> newIntHashMap(int keysCount);
+
+	/**
+	 * @param expectedSize the number of entries the map is expected to hold, for example the size of the same map
+	 *                     in an earlier run
+	 */
+	default <T> IntHashMap<T> newIntHashMap(int keysCount, int expectedSize) {
+		return newIntHashMap(keysCount);
+	}
+
 }
@@ -33,6 +33,13 @@ public interface IntHashMap<T> extends Iterable<Entry<T>> {
 
 	void clear();
 
+	/**
+	 * Removes all the entries, but keeps the allocated capacity for the entries of the next use of the map
+	 */
+	default void clearKeepingCapacity() {
+		clear();
+	}
+
 	Iterable<T> values();
 
 }
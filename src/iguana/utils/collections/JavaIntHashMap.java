@@ -0,0 +1,104 @@
+package iguana.utils.collections;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * An int map backed by a {@link HashMap} with boxed keys, as a baseline for the primitive maps.
+ */
+public class JavaIntHashMap<T> implements IntHashMap<T> {
+
+    private final int initialCapacity;
+
+    private final Map<Integer, T> map;
+
+    public JavaIntHashMap() {
+        this(16);
+    }
+
+    public JavaIntHashMap(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+        this.map = new HashMap<>(initialCapacity);
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public T computeIfAbsent(int key, IntFunction<T> f) {
+        return map.computeIfAbsent(key, f::apply);
+    }
+
+    @Override
+    public T compute(int key, IntKeyMapper<T> mapper) {
+        T value = map.get(key);
+        map.put(key, mapper.apply(key, value));
+        return value == null ? map.get(key) : null;
+    }
+
+    @Override
+    public T put(int key, T value) {
+        return map.put(key, value);
+    }
+
+    @Override
+    public T remove(int key) {
+        return map.remove(key);
+    }
+
+    @Override
+    public T get(int key) {
+        return map.get(key);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public int getInitialCapacity() {
+        return initialCapacity;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public Iterable<T> values() {
+        return map.values();
+    }
+
+    @Override
+    public Iterator<Entry<T>> iterator() {
+        Iterator<Map.Entry<Integer, T>> it = map.entrySet().iterator();
+        return new Iterator<Entry<T>>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Entry<T> next() {
+                Map.Entry<Integer, T> next = it.next();
+                return new Entry<>(next.getKey(), next.getValue());
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return map.toString();
+    }
+}
@@ -37,6 +37,13 @@ public class OpenAddressingHashMap<K, T> implements Map<K, T> {
         this(initalCapacity, DEFAULT_LOAD_FACTOR);
     }
 
+    /**
+     * @return a map in which the given number of entries fit without rehashing
+     */
+    public static <K, T> OpenAddressingHashMap<K, T> withExpectedSize(int expectedSize) {
+        return new OpenAddressingHashMap<>((int) (expectedSize / DEFAULT_LOAD_FACTOR) + 1);
+    }
+
     public OpenAddressingHashMap(int initialCapacity, float loadFactor) {
         this.initialCapacity = initialCapacity < 0 ? DEFAULT_INITIAL_CAPACITY : initialCapacity;
         this.loadFactor = (loadFactor < 0 || loadFactor > 1) ? DEFAULT_LOAD_FACTOR : loadFactor;
@@ -83,6 +90,29 @@ public class OpenAddressingHashMap<K, T> implements Map<K, T> {
         } while (true);
     }
 
+    @Override
+    public T putIfAbsent(K key, T value) {
+        int j = 0;
+        int index = hash(key, j);
+
+        do {
+            if (keys[index] == null) {
+                keys[index] = key;
+                values[index] = value;
+                size++;
+                if (size >= threshold) {
+                    rehash();
+                }
+                return null;
+            } else if (keys[index].equals(key)) {
+                return values[index];
+            }
+
+            index = hash(key, ++j);
+
+        } while (true);
+    }
+
     @Override
     public T remove(Object key) {
         return null;
@@ -4,6 +4,10 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.function.IntFunction;
 
+/**
+ * An open addressing hash map with primitive int keys. An entry is in the map if its stamp is the current epoch,
+ * so that {@link #clearKeepingCapacity()} removes all the entries by moving to the next epoch.
+ */
 public class OpenAddressingIntHashMap<T> implements IntHashMap<T> {
 
     private static final int DEFAULT_INITIAL_CAPACITY = 16;
@@ -28,6 +32,13 @@ public class OpenAddressingIntHashMap<T> implements IntHashMap<T> {
 
     private T[] values;
 
+    /**
+     * The epoch in which each entry was added, 0 for entries that were never used
+     */
+    private int[] stamps;
+
+    private int epoch = 1;
+
     public OpenAddressingIntHashMap() {
         this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
     }
@@ -36,6 +47,13 @@ public class OpenAddressingIntHashMap<T> implements IntHashMap<T> {
         this(initalCapacity, DEFAULT_LOAD_FACTOR);
     }
 
+    /**
+     * @return a map in which the given number of entries fit without rehashing
+     */
+    public static <T> OpenAddressingIntHashMap<T> withExpectedSize(int expectedSize) {
+        return new OpenAddressingIntHashMap<>((int) (expectedSize / DEFAULT_LOAD_FACTOR) + 1);
+    }
+
     public OpenAddressingIntHashMap(int initialCapacity, float loadFactor) {
         this.initialCapacity = initialCapacity < 0 ? DEFAULT_INITIAL_CAPACITY : initialCapacity;
         this.loadFactor = (loadFactor < 0 || loadFactor > 1) ? DEFAULT_LOAD_FACTOR : loadFactor;
@@ -51,9 +69,9 @@ public class OpenAddressingIntHashMap<T> implements IntHashMap<T> {
 
         threshold = (int) (loadFactor * capacity);
         keys = new int[capacity];
-        Arrays.fill(keys, -1);
-
         values = (T[]) new Object[capacity];
+        stamps = new int[capacity];
+        epoch = 1;
 
         size = 0;
     }
@@ -69,8 +87,9 @@ public class OpenAddressingIntHashMap<T> implements IntHashMap<T> {
         int index = hash(key, j);
 
         do {
-            if (keys[index] == -1) {
+            if (stamps[index] != epoch) {
                 keys[index] = key;
+                stamps[index] = epoch;
                 T val = f.apply(key);
                 values[index] = val;
                 size++;
@@ -93,8 +112,9 @@ public class OpenAddressingIntHashMap<T> implements IntHashMap<T> {
         int index = hash(key, j);
 
         do {
-            if (keys[index] == -1) {    // Key is not in the map
+            if (stamps[index] != epoch) {    // Key is not in the map
                 keys[index] = key;
+                stamps[index] = epoch;
                 T val = f.apply(key, null);
                 values[index] = val;
                 size++;
@@ -120,9 +140,10 @@ public class OpenAddressingIntHashMap<T> implements IntHashMap<T> {
         int index = hash(key, j);
 
         do {
-            if (keys[index] == -1) {
+            if (stamps[index] != epoch) {
                 keys[index] = key;
                 values[index] = value;
+                stamps[index] = epoch;
                 size++;
                 if (size >= threshold) {
                     rehash();
@@ -144,13 +165,16 @@ public class OpenAddressingIntHashMap<T> implements IntHashMap<T> {
         int j = 0;
         int index = hash(key, j);
 
-        while (keys[index] != -1 && keys[index] != key) {
+        while (stamps[index] == epoch && keys[index] != key) {
             index = hash(key, ++j);
         }
 
+        if (stamps[index] != epoch) return null;
+
         T v = values[index];
         values[index] = null;
-        keys[index] = -1;
+        stamps[index] = 0;
+        size--;
         return v;
     }
 
@@ -160,11 +184,12 @@ public class OpenAddressingIntHashMap<T> implements IntHashMap<T> {
         bitMask = capacity - 1;
 
         int[] newKeys = new int[capacity];
-        Arrays.fill(newKeys, -1);
 
         @SuppressWarnings("unchecked")
         T[] newValues = (T[]) new Object[capacity];
 
+        int[] newStamps = new int[capacity];
+
         label:
         for (int i = 0; i < keys.length; i++) {
             int j = 0;
@@ -172,13 +197,14 @@ public class OpenAddressingIntHashMap<T> implements IntHashMap<T> {
 
             T value = values[i];
 
-            if (key != -1) {
+            if (stamps[i] == epoch) {
                 int index = hash(key, j);
 
                 do {
-                    if (newKeys[index] == -1) {
+                    if (newStamps[index] == 0) {
                         newKeys[index] = key;
                         newValues[index] = value;
+                        newStamps[index] = 1;
                         continue label;
                     }
 
@@ -190,6 +216,8 @@ public class OpenAddressingIntHashMap<T> implements IntHashMap<T> {
 
         keys = newKeys;
         values = newValues;
+        stamps = newStamps;
+        epoch = 1;
         threshold = (int) (loadFactor * capacity);
     }
 
@@ -197,10 +225,10 @@ public class OpenAddressingIntHashMap<T> implements IntHashMap<T> {
     public T get(int key) {
         int j = 0;
         int index = hash(key, j);
-        while (keys[index] != -1 && keys[index] != key) {
+        while (stamps[index] == epoch && keys[index] != key) {
             index = hash(key, ++j);
         }
-        return values[index];
+        return stamps[index] == epoch ? values[index] : null;
     }
 
     @Override
@@ -223,6 +251,21 @@ public class OpenAddressingIntHashMap<T> implements IntHashMap<T> {
         init();
     }
 
+    /**
+     * Removes all the entries by moving to the next epoch, without allocating. The references to the values are
+     * dropped as well, as keeping them alive makes the old tables expensive for the garbage collector.
+     */
+    @Override
+    public void clearKeepingCapacity() {
+        if (size > 0)
+            Arrays.fill(values, null);
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            epoch = 1;
+        }
+        size = 0;
+    }
+
     public String toString() {
         if (isEmpty()) return "{ }";
 
@@ -274,7 +317,7 @@ public class OpenAddressingIntHashMap<T> implements IntHashMap<T> {
 
             @Override
             public Entry<T> next() {
-                while (values[i++] == null) ;
+                while (stamps[i++] != epoch) ;
                 it++;
                 return new Entry<>(keys[i - 1], values[i - 1]);
             }
@@ -292,7 +335,7 @@ public class OpenAddressingIntHashMap<T> implements IntHashMap<T> {
 
         @Override
         public T next() {
-            while (values[i++] == null);
+            while (stamps[i++] != epoch);
             count++;
             return values[i - 1];
         }
@@ -0,0 +1,214 @@
+package iguana.utils.collections;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * An open addressing hash map with primitive long keys, for keys that pack two non-negative ints, see
+ * {@link IntUtils#merge(int, int)}, so that looking up a pair does not allocate a key object.
+ * <p>
+ * An entry is in the map if its stamp is the current epoch, so that {@link #clearKeepingCapacity()} removes all
+ * the entries by moving to the next epoch.
+ */
+public class OpenAddressingLongHashMap<T> {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private static final float DEFAULT_LOAD_FACTOR = 0.7f;
+
+    private final int initialCapacity;
+    private final float loadFactor;
+
+    private int capacity;
+
+    private int size;
+
+    private int threshold;
+
+    private int bitMask;
+
+    private long[] keys;
+
+    private T[] values;
+
+    /**
+     * The epoch in which each entry was added, 0 for entries that were never used
+     */
+    private int[] stamps;
+
+    private int epoch = 1;
+
+    public OpenAddressingLongHashMap() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    public OpenAddressingLongHashMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * @return a map in which the given number of entries fit without rehashing
+     */
+    public static <T> OpenAddressingLongHashMap<T> withExpectedSize(int expectedSize) {
+        return new OpenAddressingLongHashMap<>((int) (expectedSize / DEFAULT_LOAD_FACTOR) + 1);
+    }
+
+    public OpenAddressingLongHashMap(int initialCapacity, float loadFactor) {
+        this.initialCapacity = initialCapacity < 0 ? DEFAULT_INITIAL_CAPACITY : initialCapacity;
+        this.loadFactor = (loadFactor < 0 || loadFactor > 1) ? DEFAULT_LOAD_FACTOR : loadFactor;
+        init();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void init() {
+        capacity = 1;
+        while (capacity < initialCapacity) capacity <<= 1;
+
+        bitMask = capacity - 1;
+
+        threshold = (int) (loadFactor * capacity);
+        keys = new long[capacity];
+        values = (T[]) new Object[capacity];
+        stamps = new int[capacity];
+        epoch = 1;
+
+        size = 0;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public T get(long key) {
+        int index = hash(key);
+        while (stamps[index] == epoch && keys[index] != key) {
+            index = (index + 1) & bitMask;
+        }
+        return stamps[index] == epoch ? values[index] : null;
+    }
+
+    /**
+     * @return the previous value associated with the key, or null if there was none
+     */
+    public T put(long key, T value) {
+        int index = hash(key);
+
+        do {
+            if (stamps[index] != epoch) {
+                keys[index] = key;
+                values[index] = value;
+                stamps[index] = epoch;
+                size++;
+                if (size >= threshold) {
+                    rehash();
+                }
+                return null;
+            } else if (keys[index] == key) {
+                T oldValue = values[index];
+                values[index] = value;
+                return oldValue;
+            }
+
+            index = (index + 1) & bitMask;
+
+        } while (true);
+    }
+
+    private void rehash() {
+        capacity <<= 1;
+
+        bitMask = capacity - 1;
+
+        long[] newKeys = new long[capacity];
+
+        @SuppressWarnings("unchecked")
+        T[] newValues = (T[]) new Object[capacity];
+
+        int[] newStamps = new int[capacity];
+
+        for (int i = 0; i < keys.length; i++) {
+            if (stamps[i] == epoch) {
+                long key = keys[i];
+                int index = hash(key);
+                while (newStamps[index] != 0) {
+                    index = (index + 1) & bitMask;
+                }
+                newKeys[index] = key;
+                newValues[index] = values[i];
+                newStamps[index] = 1;
+            }
+        }
+
+        keys = newKeys;
+        values = newValues;
+        stamps = newStamps;
+        epoch = 1;
+        threshold = (int) (loadFactor * capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        init();
+    }
+
+    /**
+     * Removes all the entries by moving to the next epoch, without allocating. The references to the values are
+     * dropped as well, as keeping them alive makes the old tables expensive for the garbage collector.
+     */
+    public void clearKeepingCapacity() {
+        if (size > 0)
+            Arrays.fill(values, null);
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            epoch = 1;
+        }
+        size = 0;
+    }
+
+    public Iterable<T> values() {
+        return () -> new Iterator<T>() {
+            int count = 0;
+            int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return count < size;
+            }
+
+            @Override
+            public T next() {
+                while (stamps[i++] != epoch) ;
+                count++;
+                return values[i - 1];
+            }
+        };
+    }
+
+    private int hash(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & bitMask;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < keys.length; i++) {
+            if (stamps[i] == epoch) {
+                if (sb.length() > 1) sb.append(", ");
+                sb.append("(").append(IntUtils.high(keys[i])).append(", ").append(IntUtils.low(keys[i])).append(")=").append(values[i]);
+            }
+        }
+        return sb.append("}").toString();
+    }
+}
@@ -0,0 +1,143 @@
+package iguana.utils.collections;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash set of primitive longs, for elements that pack two non-negative ints, see
+ * {@link IntUtils#merge(int, int)}. The element -1 is reserved for empty entries.
+ */
+public class OpenAddressingLongHashSet {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private static final float DEFAULT_LOAD_FACTOR = 0.7f;
+
+    private static final long EMPTY = -1;
+
+    private final int initialCapacity;
+    private final float loadFactor;
+
+    private int capacity;
+
+    private int size;
+
+    private int threshold;
+
+    private int bitMask;
+
+    private long[] elements;
+
+    public OpenAddressingLongHashSet() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    public OpenAddressingLongHashSet(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    public OpenAddressingLongHashSet(int initialCapacity, float loadFactor) {
+        this.initialCapacity = initialCapacity < 0 ? DEFAULT_INITIAL_CAPACITY : initialCapacity;
+        this.loadFactor = (loadFactor < 0 || loadFactor > 1) ? DEFAULT_LOAD_FACTOR : loadFactor;
+        init();
+    }
+
+    private void init() {
+        capacity = 1;
+        while (capacity < initialCapacity) capacity <<= 1;
+
+        bitMask = capacity - 1;
+
+        threshold = (int) (loadFactor * capacity);
+        elements = new long[capacity];
+        Arrays.fill(elements, EMPTY);
+
+        size = 0;
+    }
+
+    public boolean contains(long e) {
+        int index = hash(e);
+        while (elements[index] != EMPTY) {
+            if (elements[index] == e) return true;
+            index = (index + 1) & bitMask;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the element was not in the set
+     */
+    public boolean add(long e) {
+        int index = hash(e);
+
+        do {
+            if (elements[index] == EMPTY) {
+                elements[index] = e;
+                size++;
+                if (size >= threshold) {
+                    rehash();
+                }
+                return true;
+            } else if (elements[index] == e) {
+                return false;
+            }
+
+            index = (index + 1) & bitMask;
+
+        } while (true);
+    }
+
+    private void rehash() {
+        capacity <<= 1;
+
+        bitMask = capacity - 1;
+
+        long[] newElements = new long[capacity];
+        Arrays.fill(newElements, EMPTY);
+
+        for (long e : elements) {
+            if (e != EMPTY) {
+                int index = hash(e);
+                while (newElements[index] != EMPTY) {
+                    index = (index + 1) & bitMask;
+                }
+                newElements[index] = e;
+            }
+        }
+
+        elements = newElements;
+        threshold = (int) (loadFactor * capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        init();
+    }
+
+    private int hash(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & bitMask;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (long e : elements) {
+            if (e != EMPTY) {
+                if (sb.length() > 1) sb.append(", ");
+                sb.append("(").append(IntUtils.high(e)).append(", ").append(IntUtils.low(e)).append(")");
+            }
+        }
+        return sb.append("}").toString();
+    }
+}
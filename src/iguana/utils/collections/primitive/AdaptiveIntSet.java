@@ -0,0 +1,311 @@
+package iguana.utils.collections.primitive;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of non-negative ints that adapts its representation to the number of elements. Small sets are a sorted
+ * int array. Larger sets are split, as in roaring bitmaps, into chunks of 2^16 values by the high 16 bits of the
+ * elements. A chunk stores the low 16 bits of its elements in a sorted char array, or in a bitmap of 1024 longs
+ * once it has more than 4096 elements.
+ *
+ * The set must not be modified while it is iterated.
+ */
+public class AdaptiveIntSet implements IntIterable {
+
+    private static final int INITIAL_CAPACITY = 2;
+
+    private static final int MAX_SORTED_SIZE = 64;
+
+    private static final int MAX_ARRAY_CHUNK_SIZE = 4096;
+
+    private static final int BITMAP_LENGTH = 1 << 10;
+
+    /**
+     * The sorted elements, or null if the set is split in chunks
+     */
+    private int[] elements;
+
+    private int size;
+
+    /**
+     * The sorted high 16 bits of the chunks
+     */
+    private int[] chunkKeys;
+
+    /**
+     * A char[] or a long[] bitmap per chunk
+     */
+    private Object[] chunks;
+
+    private int[] chunkSizes;
+
+    private int chunksCount;
+
+    public static AdaptiveIntSet of(int...elements) {
+        AdaptiveIntSet set = new AdaptiveIntSet();
+        for (int e : elements) set.add(e);
+        return set;
+    }
+
+    public AdaptiveIntSet() {
+        elements = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns true if the element was not in the set
+     */
+    public boolean add(int e) {
+        if (e < 0) {
+            throw new IllegalArgumentException("Negative element: " + e);
+        }
+
+        if (elements != null) {
+            int index = Arrays.binarySearch(elements, 0, size, e);
+            if (index >= 0) return false;
+
+            if (size < MAX_SORTED_SIZE) {
+                index = -index - 1;
+                if (size == elements.length) {
+                    elements = Arrays.copyOf(elements, Math.min(size << 1, MAX_SORTED_SIZE));
+                }
+                System.arraycopy(elements, index, elements, index + 1, size - index);
+                elements[index] = e;
+                size++;
+                return true;
+            }
+
+            toChunks();
+        }
+
+        if (addToChunk(e)) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean contains(int e) {
+        if (e < 0) return false;
+
+        if (elements != null) {
+            return Arrays.binarySearch(elements, 0, size, e) >= 0;
+        }
+
+        int chunkIndex = Arrays.binarySearch(chunkKeys, 0, chunksCount, e >>> 16);
+        if (chunkIndex < 0) return false;
+
+        char low = (char) e;
+        Object chunk = chunks[chunkIndex];
+        if (chunk instanceof long[]) {
+            return (((long[]) chunk)[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) chunk, 0, chunkSizes[chunkIndex], low) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        elements = new int[INITIAL_CAPACITY];
+        size = 0;
+        chunkKeys = null;
+        chunks = null;
+        chunkSizes = null;
+        chunksCount = 0;
+    }
+
+    /**
+     * Passes the elements in ascending order to the consumer
+     */
+    public void forEach(IntConsumer consumer) {
+        if (elements != null) {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(elements[i]);
+            }
+            return;
+        }
+
+        for (int c = 0; c < chunksCount; c++) {
+            int high = chunkKeys[c] << 16;
+            Object chunk = chunks[c];
+            if (chunk instanceof long[]) {
+                long[] bitmap = (long[]) chunk;
+                for (int w = 0; w < BITMAP_LENGTH; w++) {
+                    long word = bitmap[w];
+                    while (word != 0) {
+                        consumer.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                char[] lows = (char[]) chunk;
+                for (int i = 0; i < chunkSizes[c]; i++) {
+                    consumer.accept(high | lows[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Iterates over the elements in ascending order
+     */
+    @Override
+    public IntIterator iterator() {
+        if (elements != null) {
+            return new IntIterator() {
+                int i = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return i < size;
+                }
+
+                @Override
+                public int next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return elements[i++];
+                }
+            };
+        }
+        return new ChunksIterator();
+    }
+
+    public int[] toArray() {
+        int[] array = new int[size];
+        int[] i = {0};
+        forEach(e -> array[i[0]++] = e);
+        return array;
+    }
+
+    private void toChunks() {
+        chunkKeys = new int[4];
+        chunks = new Object[4];
+        chunkSizes = new int[4];
+        int[] sortedElements = elements;
+        elements = null;
+        for (int i = 0; i < size; i++) {
+            addToChunk(sortedElements[i]);
+        }
+    }
+
+    private boolean addToChunk(int e) {
+        int key = e >>> 16;
+        char low = (char) e;
+
+        int chunkIndex = Arrays.binarySearch(chunkKeys, 0, chunksCount, key);
+        if (chunkIndex < 0) {
+            chunkIndex = -chunkIndex - 1;
+            insertChunk(chunkIndex, key);
+        }
+
+        Object chunk = chunks[chunkIndex];
+        if (chunk instanceof long[]) {
+            long[] bitmap = (long[]) chunk;
+            long bit = 1L << low;
+            if ((bitmap[low >>> 6] & bit) != 0) return false;
+            bitmap[low >>> 6] |= bit;
+            chunkSizes[chunkIndex]++;
+            return true;
+        }
+
+        char[] lows = (char[]) chunk;
+        int chunkSize = chunkSizes[chunkIndex];
+        int index = Arrays.binarySearch(lows, 0, chunkSize, low);
+        if (index >= 0) return false;
+
+        if (chunkSize == MAX_ARRAY_CHUNK_SIZE) {
+            long[] bitmap = new long[BITMAP_LENGTH];
+            for (int i = 0; i < chunkSize; i++) {
+                bitmap[lows[i] >>> 6] |= 1L << lows[i];
+            }
+            bitmap[low >>> 6] |= 1L << low;
+            chunks[chunkIndex] = bitmap;
+            chunkSizes[chunkIndex]++;
+            return true;
+        }
+
+        index = -index - 1;
+        if (chunkSize == lows.length) {
+            lows = Arrays.copyOf(lows, Math.min(chunkSize << 1, MAX_ARRAY_CHUNK_SIZE));
+            chunks[chunkIndex] = lows;
+        }
+        System.arraycopy(lows, index, lows, index + 1, chunkSize - index);
+        lows[index] = low;
+        chunkSizes[chunkIndex]++;
+        return true;
+    }
+
+    private void insertChunk(int chunkIndex, int key) {
+        if (chunksCount == chunkKeys.length) {
+            chunkKeys = Arrays.copyOf(chunkKeys, chunksCount << 1);
+            chunks = Arrays.copyOf(chunks, chunksCount << 1);
+            chunkSizes = Arrays.copyOf(chunkSizes, chunksCount << 1);
+        }
+        int moved = chunksCount - chunkIndex;
+        System.arraycopy(chunkKeys, chunkIndex, chunkKeys, chunkIndex + 1, moved);
+        System.arraycopy(chunks, chunkIndex, chunks, chunkIndex + 1, moved);
+        System.arraycopy(chunkSizes, chunkIndex, chunkSizes, chunkIndex + 1, moved);
+        chunkKeys[chunkIndex] = key;
+        chunks[chunkIndex] = new char[INITIAL_CAPACITY];
+        chunkSizes[chunkIndex] = 0;
+        chunksCount++;
+    }
+
+    private class ChunksIterator implements IntIterator {
+        int chunkIndex = 0;
+        // The index in a char chunk or the word index in a bitmap chunk
+        int i = 0;
+        long word;
+        int count = 0;
+
+        @Override
+        public boolean hasNext() {
+            return count < size;
+        }
+
+        @Override
+        public int next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            while (true) {
+                Object chunk = chunks[chunkIndex];
+                int high = chunkKeys[chunkIndex] << 16;
+                if (chunk instanceof long[]) {
+                    long[] bitmap = (long[]) chunk;
+                    if (word != 0) {
+                        int e = high | ((i - 1) << 6) | Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                        count++;
+                        return e;
+                    }
+                    if (i < BITMAP_LENGTH) {
+                        word = bitmap[i++];
+                        continue;
+                    }
+                } else if (i < chunkSizes[chunkIndex]) {
+                    count++;
+                    return high | ((char[]) chunk)[i++];
+                }
+                chunkIndex++;
+                i = 0;
+                word = 0;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach(e -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(e);
+        });
+        return sb.append("}").toString();
+    }
+}
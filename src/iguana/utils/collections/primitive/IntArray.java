@@ -24,6 +24,15 @@ public class IntArray implements IntIterable {
         this.end = end;
     }
 
+    /**
+     * For subclasses over other storage, which override {@link #size()}, {@link #get(int)} and {@link #iterator()}
+     */
+    protected IntArray() {
+        this.arr = null;
+        this.start = 0;
+        this.end = 0;
+    }
+
     public int size() {
         return end - start;
     }
@@ -60,8 +69,8 @@ public class IntArray implements IntIterable {
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("[");
-        for (int i = start; i < end; i++)
-            sb.append(arr[i] + ",");
+        for (int i = 0; i < size(); i++)
+            sb.append(get(i) + ",");
         if (size() > 0)
             sb.delete(sb.length() - 1, sb.length());
         sb.append("]");
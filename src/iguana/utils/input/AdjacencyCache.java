@@ -0,0 +1,362 @@
+package iguana.utils.input;
+
+import iguana.utils.collections.primitive.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * A bounded cache of the outgoing edges of the vertices of a graph whose storage is expensive to read, such as a
+ * database. The edges of a vertex are loaded once, when the vertex is first touched, into primitive arrays in the
+ * layout of {@link CSRGraphInput}: sorted by label id and grouped into one run per label. When the cached edges
+ * exceed the capacity, the least recently used vertices are evicted.
+ * <p>
+ * Not thread-safe.
+ */
+public class AdjacencyCache {
+
+    /**
+     * Reads the outgoing edges of a vertex from the underlying storage
+     */
+    @FunctionalInterface
+    public interface Loader {
+        void load(int vertex, EdgeSink edges);
+    }
+
+    @FunctionalInterface
+    public interface EdgeSink {
+        void addEdge(int labelId, int destination);
+    }
+
+    private static final int NONE = -1;
+
+    private final Loader loader;
+
+    /**
+     * The maximum number of cached edges, where a vertex without edges counts as one
+     */
+    private final long capacity;
+
+    private long size;
+
+    // The slot of each vertex, or NONE if the vertex is not cached
+    private int[] slotOf = new int[0];
+
+    // The cached vertices, in a doubly linked list through their slots from the most to the least recently used
+    private VertexEdges[] entries = new VertexEdges[16];
+    private int[] vertexOf = new int[16];
+    private int[] prev = new int[16];
+    private int[] next = new int[16];
+    private int head = NONE;
+    private int tail = NONE;
+
+    private int slotsCount;
+    private int[] freeSlots = new int[16];
+    private int freeSlotsCount;
+
+    private final LoadBuffer buffer = new LoadBuffer();
+
+    private long hitsCount;
+    private long missesCount;
+    private long evictionsCount;
+    private long prefetchesCount;
+
+    public AdjacencyCache(Loader loader, long capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("The capacity should be at least 1, but was " + capacity);
+        this.loader = loader;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return the outgoing edges of the vertex, which are loaded if the vertex is not cached
+     */
+    public VertexEdges get(int vertex) {
+        if (vertex < 0)
+            throw new IllegalArgumentException("Negative vertex: " + vertex);
+
+        int slot = vertex < slotOf.length ? slotOf[vertex] : NONE;
+        if (slot != NONE) {
+            hitsCount++;
+            if (slot != head) {
+                unlink(slot);
+                linkFirst(slot);
+            }
+            return entries[slot];
+        }
+
+        missesCount++;
+        VertexEdges edges = buffer.load(vertex);
+        size += edges.weight();
+        while (size > capacity && tail != NONE) {
+            evict(tail);
+        }
+
+        linkFirst(insert(vertex, edges));
+        return edges;
+    }
+
+    private int insert(int vertex, VertexEdges edges) {
+        int slot = newSlot();
+        entries[slot] = edges;
+        vertexOf[slot] = vertex;
+        if (vertex >= slotOf.length) {
+            int length = slotOf.length;
+            slotOf = Arrays.copyOf(slotOf, Math.max(vertex + 1, length << 1));
+            Arrays.fill(slotOf, length, slotOf.length, NONE);
+        }
+        slotOf[vertex] = slot;
+        return slot;
+    }
+
+    /**
+     * Loads the vertex if it is not cached, as the least recently used vertex, so that the vertices that are
+     * prefetched but not used are evicted first
+     */
+    public void prefetch(int vertex) {
+        if (vertex < 0)
+            throw new IllegalArgumentException("Negative vertex: " + vertex);
+        if (contains(vertex))
+            return;
+
+        prefetchesCount++;
+        VertexEdges edges = buffer.load(vertex);
+        size += edges.weight();
+        while (size > capacity && tail != NONE) {
+            evict(tail);
+        }
+        linkLast(insert(vertex, edges));
+    }
+
+    public boolean contains(int vertex) {
+        return vertex >= 0 && vertex < slotOf.length && slotOf[vertex] != NONE;
+    }
+
+    private int newSlot() {
+        if (freeSlotsCount > 0)
+            return freeSlots[--freeSlotsCount];
+        if (slotsCount == entries.length) {
+            int length = slotsCount << 1;
+            entries = Arrays.copyOf(entries, length);
+            vertexOf = Arrays.copyOf(vertexOf, length);
+            prev = Arrays.copyOf(prev, length);
+            next = Arrays.copyOf(next, length);
+        }
+        return slotsCount++;
+    }
+
+    private void evict(int slot) {
+        unlink(slot);
+        size -= entries[slot].weight();
+        entries[slot] = null;
+        slotOf[vertexOf[slot]] = NONE;
+        if (freeSlotsCount == freeSlots.length)
+            freeSlots = Arrays.copyOf(freeSlots, freeSlotsCount << 1);
+        freeSlots[freeSlotsCount++] = slot;
+        evictionsCount++;
+    }
+
+    private void unlink(int slot) {
+        int p = prev[slot];
+        int n = next[slot];
+        if (p == NONE) head = n; else next[p] = n;
+        if (n == NONE) tail = p; else prev[n] = p;
+    }
+
+    private void linkFirst(int slot) {
+        prev[slot] = NONE;
+        next[slot] = head;
+        if (head != NONE) prev[head] = slot;
+        head = slot;
+        if (tail == NONE) tail = slot;
+    }
+
+    private void linkLast(int slot) {
+        next[slot] = NONE;
+        prev[slot] = tail;
+        if (tail != NONE) next[tail] = slot;
+        tail = slot;
+        if (head == NONE) head = slot;
+    }
+
+    /**
+     * Drops all the cached vertices, but keeps the counters
+     */
+    public void clear() {
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            slotOf[vertexOf[slot]] = NONE;
+            entries[slot] = null;
+        }
+        head = tail = NONE;
+        slotsCount = 0;
+        freeSlotsCount = 0;
+        size = 0;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * The number of cached edges, where a vertex without edges counts as one
+     */
+    public long size() {
+        return size;
+    }
+
+    public int getCachedVerticesCount() {
+        return slotsCount - freeSlotsCount;
+    }
+
+    public long getHitsCount() {
+        return hitsCount;
+    }
+
+    public long getMissesCount() {
+        return missesCount;
+    }
+
+    public long getEvictionsCount() {
+        return evictionsCount;
+    }
+
+    /**
+     * The number of vertices loaded by {@link #prefetch(int)}, which are not counted as misses
+     */
+    public long getPrefetchesCount() {
+        return prefetchesCount;
+    }
+
+    @Override
+    public String toString() {
+        return "Cached vertices: " + getCachedVerticesCount() + "\n" +
+               "Cached edges: " + size + "\n" +
+               "Hits: " + hitsCount + "\n" +
+               "Misses: " + missesCount + "\n" +
+               "Evictions: " + evictionsCount + "\n" +
+               "Prefetches: " + prefetchesCount + "\n";
+    }
+
+    /**
+     * The outgoing edges of a cached vertex, which stay valid after the vertex is evicted
+     */
+    public static final class VertexEdges {
+
+        static final VertexEdges EMPTY = new VertexEdges(new int[0], new int[] {0}, new int[0]);
+
+        private final int[] runLabels;
+        private final int[] runOffsets;
+        private final int[] targets;
+
+        VertexEdges(int[] runLabels, int[] runOffsets, int[] targets) {
+            this.runLabels = runLabels;
+            this.runOffsets = runOffsets;
+            this.targets = targets;
+        }
+
+        public IntArray getDestVertices(int labelId) {
+            int low = 0;
+            int high = runLabels.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int label = runLabels[mid];
+                if (label < labelId) {
+                    low = mid + 1;
+                } else if (label > labelId) {
+                    high = mid - 1;
+                } else {
+                    return new IntArray(targets, runOffsets[mid], runOffsets[mid + 1]);
+                }
+            }
+            return IntArray.EMPTY;
+        }
+
+        /**
+         * @return the destinations of all the edges, grouped by label
+         */
+        public IntArray getDestVertices() {
+            return new IntArray(targets);
+        }
+
+        /**
+         * @return the distinct label ids of the edges, in increasing order
+         */
+        public IntArray getLabels() {
+            return new IntArray(runLabels);
+        }
+
+        /**
+         * @return true if the label of one of the edges is in the bitmap, indexed by label ids
+         */
+        public boolean anyLabel(long[] labels) {
+            for (int label : runLabels) {
+                if ((label >>> 6) < labels.length && (labels[label >>> 6] & (1L << label)) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public int getEdgesCount() {
+            return targets.length;
+        }
+
+        long weight() {
+            return Math.max(1, targets.length);
+        }
+    }
+
+    /**
+     * Collects the edges of the vertex that is loaded and sorts them into runs
+     */
+    private final class LoadBuffer implements EdgeSink {
+
+        private int[] labels = new int[16];
+        private int[] destinations = new int[16];
+        private int count;
+
+        VertexEdges load(int vertex) {
+            count = 0;
+            loader.load(vertex, this);
+            if (count == 0)
+                return VertexEdges.EMPTY;
+
+            // Edges are sorted by label, keeping the order of the loader within a label
+            long[] keys = new long[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = (long) labels[i] << 32 | i;
+            }
+            Arrays.sort(keys);
+
+            int runs = 0;
+            int[] runLabels = new int[count];
+            int[] runOffsets = new int[count + 1];
+            int[] targets = new int[count];
+            int prevLabel = NONE;
+            for (int i = 0; i < count; i++) {
+                int label = (int) (keys[i] >>> 32);
+                if (label != prevLabel) {
+                    runLabels[runs] = label;
+                    runOffsets[runs] = i;
+                    runs++;
+                    prevLabel = label;
+                }
+                targets[i] = destinations[(int) keys[i]];
+            }
+            runOffsets[runs] = count;
+            return new VertexEdges(Arrays.copyOf(runLabels, runs), Arrays.copyOf(runOffsets, runs + 1), targets);
+        }
+
+        @Override
+        public void addEdge(int labelId, int destination) {
+            if (labelId < 0)
+                throw new IllegalArgumentException("Negative label id: " + labelId);
+            if (count == labels.length) {
+                labels = Arrays.copyOf(labels, count << 1);
+                destinations = Arrays.copyOf(destinations, count << 1);
+            }
+            labels[count] = labelId;
+            destinations[count] = destination;
+            count++;
+        }
+    }
+}
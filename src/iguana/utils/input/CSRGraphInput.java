@@ -0,0 +1,490 @@
+package iguana.utils.input;
+
+import iguana.utils.collections.primitive.IntArray;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Graph input in compressed sparse row layout. The outgoing edges of each vertex are sorted by label id and
+ * grouped into runs, one run per distinct (vertex, label) pair, so the destinations of a (vertex, label)
+ * lookup are a contiguous slice of {@code targets}:
+ *
+ * <pre>
+ *     runs of v:           vertexOffsets[v] .. vertexOffsets[v + 1]
+ *     label of run r:      runLabels[r]
+ *     destinations of r:   targets[runOffsets[r] .. runOffsets[r + 1]]
+ * </pre>
+ *
+ * Label ids are the global ids assigned by {@link EdgeLabels}. When the graph has at most
+ * {@link #MAX_MASK_WORDS} * 64 distinct label ids, each vertex also has a bitmask of its outgoing labels, so a
+ * lookahead test on labels is an AND of a few words.
+ */
+public class CSRGraphInput extends GraphInput {
+
+    static final int MAX_MASK_WORDS = 4;
+
+    private final int[] vertexOffsets;
+    private final int[] runLabels;
+    private final int[] runOffsets;
+    private final int[] targets;
+
+    /**
+     * The outgoing labels of vertex v are in labelMasks[v * maskWords .. (v + 1) * maskWords], or null if the
+     * label ids are too large for the masks to pay off
+     */
+    private final long[] labelMasks;
+    private final int maskWords;
+
+    private final Stream<Integer> startVertices;
+    private final List<Integer> finalVertices;
+
+    public CSRGraphInput(int[] vertexOffsets, int[] runLabels, int[] runOffsets, int[] targets,
+                         Stream<Integer> startVertices, List<Integer> finalVertices) {
+        this.vertexOffsets = vertexOffsets;
+        this.runLabels = runLabels;
+        this.runOffsets = runOffsets;
+        this.targets = targets;
+        int maxLabel = -1;
+        for (int label : runLabels) {
+            maxLabel = Math.max(maxLabel, label);
+        }
+        this.maskWords = maxLabel < 0 ? 0 : (maxLabel >>> 6) + 1;
+        this.labelMasks = maskWords <= MAX_MASK_WORDS ? computeLabelMasks(vertexOffsets, runLabels, maskWords) : null;
+        this.startVertices = startVertices;
+        this.finalVertices = finalVertices;
+    }
+
+    private CSRGraphInput(CSRGraphInput graph, Stream<Integer> startVertices, List<Integer> finalVertices) {
+        this.vertexOffsets = graph.vertexOffsets;
+        this.runLabels = graph.runLabels;
+        this.runOffsets = graph.runOffsets;
+        this.targets = graph.targets;
+        this.labelMasks = graph.labelMasks;
+        this.maskWords = graph.maskWords;
+        this.startVertices = startVertices;
+        this.finalVertices = finalVertices;
+    }
+
+    private static long[] computeLabelMasks(int[] vertexOffsets, int[] runLabels, int maskWords) {
+        long[] labelMasks = new long[(vertexOffsets.length - 1) * maskWords];
+        for (int v = 0; v < vertexOffsets.length - 1; v++) {
+            for (int run = vertexOffsets[v]; run < vertexOffsets[v + 1]; run++) {
+                int label = runLabels[run];
+                labelMasks[v * maskWords + (label >>> 6)] |= 1L << label;
+            }
+        }
+        return labelMasks;
+    }
+
+    public static CSRGraphInput fromAdjacencyList(List<List<Edge>> adjacencyList, Stream<Integer> startVertices, List<Integer> finalVertices) {
+        Builder builder = builder().setVerticesCount(adjacencyList.size());
+        for (int v = 0; v < adjacencyList.size(); v++) {
+            for (Edge edge : adjacencyList.get(v)) {
+                builder.addEdge(v, edge.getTag(), edge.getDestVertex());
+            }
+        }
+        return builder.build(startVertices, finalVertices);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Joins ranges that cover the vertices from 0, in order, into one graph. The edges of the ranges are copied
+     * as they are, so each range can be loaded independently, for example by a different thread.
+     */
+    public static CSRGraphInput fromRanges(List<Range> ranges, Stream<Integer> startVertices, List<Integer> finalVertices) {
+        int verticesCount = 0;
+        int runsCount = 0;
+        int edgesCount = 0;
+        for (Range range : ranges) {
+            if (range.from != verticesCount)
+                throw new IllegalArgumentException("The range " + range + " should start at vertex " + verticesCount);
+            verticesCount = range.to;
+            runsCount += range.runsCount;
+            edgesCount += range.edgesCount;
+        }
+
+        int[] vertexOffsets = new int[verticesCount + 1];
+        int[] runLabels = new int[runsCount];
+        int[] runOffsets = new int[runsCount + 1];
+        int[] targets = new int[edgesCount];
+        int runs = 0;
+        int edges = 0;
+        for (Range range : ranges) {
+            for (int i = 0; i < range.to - range.from; i++) {
+                vertexOffsets[range.from + i] = runs + range.vertexOffsets[i];
+            }
+            for (int i = 0; i < range.runsCount; i++) {
+                runOffsets[runs + i] = edges + range.runOffsets[i];
+            }
+            System.arraycopy(range.runLabels, 0, runLabels, runs, range.runsCount);
+            System.arraycopy(range.targets, 0, targets, edges, range.edgesCount);
+            runs += range.runsCount;
+            edges += range.edgesCount;
+        }
+        vertexOffsets[verticesCount] = runs;
+        runOffsets[runs] = edges;
+
+        return new CSRGraphInput(vertexOffsets, runLabels, runOffsets, targets, startVertices, finalVertices);
+    }
+
+    /**
+     * Returns an input over the same graph data with different start and final vertices.
+     */
+    public CSRGraphInput withVertices(Stream<Integer> startVertices, List<Integer> finalVertices) {
+        return new CSRGraphInput(this, startVertices, finalVertices);
+    }
+
+    @Override
+    public int getVerticesCount() {
+        return vertexOffsets.length - 1;
+    }
+
+    public int getEdgesCount() {
+        return targets.length;
+    }
+
+    int[] getVertexOffsets() {
+        return vertexOffsets;
+    }
+
+    int[] getRunLabels() {
+        return runLabels;
+    }
+
+    int[] getRunOffsets() {
+        return runOffsets;
+    }
+
+    int[] getTargets() {
+        return targets;
+    }
+
+    @Override
+    public Stream<Integer> getStartVertices() {
+        return startVertices;
+    }
+
+    @Override
+    public List<Integer> getFinalVertices() {
+        return finalVertices;
+    }
+
+    @Override
+    public boolean isFinal(int v) {
+        return true;
+    }
+
+    @Override
+    public List<Integer> getDestVertex(int v, String t) {
+        int labelId = EdgeLabels.lookup(t);
+        if (labelId == EdgeLabels.UNKNOWN) {
+            return Collections.emptyList();
+        }
+        IntArray destinations = getDestVertices(v, labelId);
+        return new AbstractList<Integer>() {
+            @Override
+            public Integer get(int index) {
+                return destinations.get(index);
+            }
+
+            @Override
+            public int size() {
+                return destinations.size();
+            }
+        };
+    }
+
+    @Override
+    public IntArray getDestVertices(int v, int labelId) {
+        int run = findRun(v, labelId);
+        if (run == -1) {
+            return IntArray.EMPTY;
+        }
+        return new IntArray(targets, runOffsets[run], runOffsets[run + 1]);
+    }
+
+    @Override
+    public Stream<Integer> nextSymbols(int v) {
+        Stream<Integer> nextSymbols = v < 0 || v >= getVerticesCount()
+                ? Stream.empty()
+                : IntStream.range(vertexOffsets[v], vertexOffsets[v + 1])
+                    .mapToObj(run -> (int) EdgeLabels.getName(runLabels[run]).charAt(0));
+        if (isFinal(v)) {
+            nextSymbols = Stream.concat(Stream.of(EOF), nextSymbols);
+        }
+        return nextSymbols;
+    }
+
+    @Override
+    public boolean anyNextSymbol(int v, IntPredicate predicate) {
+        if (isFinal(v) && predicate.test(EOF)) {
+            return true;
+        }
+        if (v < 0 || v >= getVerticesCount()) {
+            return false;
+        }
+        for (int run = vertexOffsets[v]; run < vertexOffsets[v + 1]; run++) {
+            if (predicate.test(EdgeLabels.getName(runLabels[run]).charAt(0))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean anyOutgoingLabel(int v, long[] labels, IntPredicate firstCharacters) {
+        if (v < 0 || v >= getVerticesCount()) {
+            return false;
+        }
+        if (labelMasks != null) {
+            int offset = v * maskWords;
+            for (int word = 0, words = Math.min(maskWords, labels.length); word < words; word++) {
+                if ((labelMasks[offset + word] & labels[word]) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (int run = vertexOffsets[v]; run < vertexOffsets[v + 1]; run++) {
+            int label = runLabels[run];
+            if ((label >>> 6) < labels.length && (labels[label >>> 6] & (1L << label)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Binary search for the run of the given label among the runs of v.
+     *
+     * @return the run index, or -1 if v has no outgoing edge with this label
+     */
+    private int findRun(int v, int labelId) {
+        if (v < 0 || v >= getVerticesCount()) {
+            return -1;
+        }
+        int low = vertexOffsets[v];
+        int high = vertexOffsets[v + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int label = runLabels[mid];
+            if (label < labelId) {
+                low = mid + 1;
+            } else if (label > labelId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The outgoing edges of the vertices from..to in the CSR layout, with offsets local to the range, which
+     * are read vertex by vertex with a loader. Edges with the same label keep the order of the loader.
+     */
+    public static final class Range {
+
+        private final int from;
+        private final int to;
+
+        private final int[] vertexOffsets;
+        private int[] runLabels = new int[16];
+        private int[] runOffsets = new int[16];
+        private int[] targets = new int[16];
+        private int runsCount;
+        private int edgesCount;
+
+        private Range(int from, int to) {
+            this.from = from;
+            this.to = to;
+            this.vertexOffsets = new int[to - from];
+        }
+
+        public static Range load(int from, int to, AdjacencyCache.Loader loader) {
+            if (from < 0 || from > to)
+                throw new IllegalArgumentException("Illegal range of vertices: " + from + ".." + to);
+
+            Range range = new Range(from, to);
+            VertexBuffer buffer = new VertexBuffer();
+            for (int v = from; v < to; v++) {
+                range.vertexOffsets[v - from] = range.runsCount;
+                buffer.count = 0;
+                loader.load(v, buffer);
+                range.addRuns(buffer);
+            }
+            return range;
+        }
+
+        private void addRuns(VertexBuffer buffer) {
+            int count = buffer.count;
+            if (count == 0) return;
+
+            long[] keys = new long[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = (long) buffer.labels[i] << 32 | i;
+            }
+            Arrays.sort(keys);
+
+            if (runsCount + count >= runLabels.length) {
+                int capacity = Math.max(runLabels.length << 1, runsCount + count + 1);
+                runLabels = Arrays.copyOf(runLabels, capacity);
+                runOffsets = Arrays.copyOf(runOffsets, capacity);
+            }
+            if (edgesCount + count > targets.length) {
+                targets = Arrays.copyOf(targets, Math.max(targets.length << 1, edgesCount + count));
+            }
+            int prevLabel = -1;
+            for (int i = 0; i < count; i++) {
+                int label = (int) (keys[i] >>> 32);
+                if (label != prevLabel) {
+                    runLabels[runsCount] = label;
+                    runOffsets[runsCount] = edgesCount;
+                    runsCount++;
+                    prevLabel = label;
+                }
+                targets[edgesCount++] = buffer.destinations[(int) keys[i]];
+            }
+        }
+
+        public int getEdgesCount() {
+            return edgesCount;
+        }
+
+        @Override
+        public String toString() {
+            return from + ".." + to;
+        }
+    }
+
+    private static final class VertexBuffer implements AdjacencyCache.EdgeSink {
+
+        private int[] labels = new int[16];
+        private int[] destinations = new int[16];
+        private int count;
+
+        @Override
+        public void addEdge(int labelId, int destination) {
+            if (labelId < 0)
+                throw new IllegalArgumentException("Negative label id: " + labelId);
+            if (count == labels.length) {
+                labels = Arrays.copyOf(labels, count << 1);
+                destinations = Arrays.copyOf(destinations, count << 1);
+            }
+            labels[count] = labelId;
+            destinations[count] = destination;
+            count++;
+        }
+    }
+
+    /**
+     * Collects edges as three parallel primitive arrays and sorts them into the CSR layout in {@link #build}.
+     */
+    public static class Builder {
+
+        private int verticesCount;
+        private int size;
+        private int[] sources = new int[16];
+        private int[] labels = new int[16];
+        private int[] destinations = new int[16];
+
+        /**
+         * Sets the minimal number of vertices; vertices without edges beyond the largest vertex id
+         * mentioned in an edge are still part of the graph.
+         */
+        public Builder setVerticesCount(int verticesCount) {
+            this.verticesCount = Math.max(this.verticesCount, verticesCount);
+            return this;
+        }
+
+        public Builder addEdge(int source, String label, int destination) {
+            return addEdge(source, EdgeLabels.intern(label), destination);
+        }
+
+        public Builder addEdge(int source, int labelId, int destination) {
+            if (size == sources.length) {
+                int capacity = size << 1;
+                sources = Arrays.copyOf(sources, capacity);
+                labels = Arrays.copyOf(labels, capacity);
+                destinations = Arrays.copyOf(destinations, capacity);
+            }
+            sources[size] = source;
+            labels[size] = labelId;
+            destinations[size] = destination;
+            size++;
+            verticesCount = Math.max(verticesCount, Math.max(source, destination) + 1);
+            return this;
+        }
+
+        public CSRGraphInput build(Stream<Integer> startVertices, List<Integer> finalVertices) {
+            // Stable counting sort by label, then by source, which leaves the edges sorted by (source, label)
+            int[] byLabel = countingSort(identity(size), labels, EdgeLabels.count());
+            int[] order = countingSort(byLabel, sources, verticesCount);
+
+            int[] vertexOffsets = new int[verticesCount + 1];
+            int[] targets = new int[size];
+            int[] runLabels = new int[size];
+            int[] runOffsets = new int[size + 1];
+            int runs = 0;
+
+            int prevSource = -1;
+            int prevLabel = -1;
+            for (int i = 0; i < size; i++) {
+                int edge = order[i];
+                int source = sources[edge];
+                int label = labels[edge];
+                if (source != prevSource || label != prevLabel) {
+                    runLabels[runs] = label;
+                    runOffsets[runs] = i;
+                    runs++;
+                    // Vertices between prevSource and source have no runs
+                    for (int v = prevSource + 1; v <= source; v++) {
+                        vertexOffsets[v] = runs - 1;
+                    }
+                    prevSource = source;
+                    prevLabel = label;
+                }
+                targets[i] = destinations[edge];
+            }
+            for (int v = prevSource + 1; v <= verticesCount; v++) {
+                vertexOffsets[v] = runs;
+            }
+            runOffsets[runs] = size;
+
+            return new CSRGraphInput(vertexOffsets, Arrays.copyOf(runLabels, runs), Arrays.copyOf(runOffsets, runs + 1),
+                                     targets, startVertices, finalVertices);
+        }
+
+        private static int[] identity(int n) {
+            int[] result = new int[n];
+            for (int i = 0; i < n; i++) {
+                result[i] = i;
+            }
+            return result;
+        }
+
+        private static int[] countingSort(int[] order, int[] keys, int keyCount) {
+            int[] offsets = new int[keyCount + 1];
+            for (int edge : order) {
+                offsets[keys[edge] + 1]++;
+            }
+            for (int k = 0; k < keyCount; k++) {
+                offsets[k + 1] += offsets[k];
+            }
+            int[] result = new int[order.length];
+            for (int edge : order) {
+                result[offsets[keys[edge]]++] = edge;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package iguana.utils.input;
+
+import iguana.utils.collections.primitive.IntArray;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+
+import java.io.Closeable;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A graph input backed by a Neo4j database that reads the relationships of a vertex once, when the vertex is first
+ * touched, into an {@link AdjacencyCache}. Both directions of a relationship are edges of the vertex, labeled by
+ * toLabel, which is applied once per relationship and vertex; relationships without a label are skipped. Later
+ * matches of the vertex are answered from the cache without touching the database.
+ * <p>
+ * With a {@link Neo4jRelationshipFilter}, only the relationships whose type and direction give a label of the
+ * grammar are read. With a prefetch batch size, loading a vertex also loads up to that many of its neighbors,
+ * which are the vertices the next terminal matches are likely to start from.
+ * <p>
+ * All reads go through one transaction, which is closed by {@link #close()}. Not thread-safe.
+ */
+public class CachedNeo4jGraphInput extends GraphInput implements Closeable {
+
+    private final BiFunction<Relationship, Direction, String> toLabel;
+    private final Stream<Integer> startVertices;
+    private final List<Integer> finalVertices;
+    private final int verticesCount;
+    private final Transaction tx;
+    private final AdjacencyCache cache;
+    private final Neo4jRelationshipFilter filter;
+    private final int prefetchBatchSize;
+
+    /**
+     * @param cacheCapacity the maximum number of cached edges, see {@link AdjacencyCache}
+     */
+    public CachedNeo4jGraphInput(GraphDatabaseService graphDb, BiFunction<Relationship, Direction, String> toLabel,
+                                 Stream<Integer> startVertices, int verticesCount, long cacheCapacity) {
+        this(graphDb, toLabel, startVertices, verticesCount, cacheCapacity, null, 0);
+    }
+
+    /**
+     * @param filter            the relationships that are read, or null to read all of them
+     * @param prefetchBatchSize the maximum number of neighbors that are loaded with a vertex, 0 to load vertices
+     *                          only when they are touched
+     */
+    public CachedNeo4jGraphInput(GraphDatabaseService graphDb, BiFunction<Relationship, Direction, String> toLabel,
+                                 Stream<Integer> startVertices, int verticesCount, long cacheCapacity,
+                                 Neo4jRelationshipFilter filter, int prefetchBatchSize) {
+        if (prefetchBatchSize < 0)
+            throw new IllegalArgumentException("Negative prefetch batch size: " + prefetchBatchSize);
+        this.filter = filter;
+        this.prefetchBatchSize = prefetchBatchSize;
+        this.toLabel = toLabel;
+        this.startVertices = startVertices;
+        this.verticesCount = verticesCount;
+        this.finalVertices = IntStream.range(0, verticesCount).boxed().collect(Collectors.toList());
+        this.tx = graphDb.beginTx();
+        this.cache = new AdjacencyCache(this::loadRelationships, cacheCapacity);
+    }
+
+    private void loadRelationships(int v, AdjacencyCache.EdgeSink edges) {
+        loadRelationships(tx.getNodeById(v), filter, toLabel, edges);
+    }
+
+    /**
+     * Adds the relationships of the node that pass the filter, if any, as edges labeled by toLabel
+     */
+    static void loadRelationships(Node node, Neo4jRelationshipFilter filter,
+                                  BiFunction<Relationship, Direction, String> toLabel, AdjacencyCache.EdgeSink edges) {
+        long v = node.getId();
+        Consumer<Relationship> addEdge = rel -> {
+            Direction direction = rel.getStartNodeId() == v ? Direction.OUTGOING : Direction.INCOMING;
+            String label = toLabel.apply(rel, direction);
+            if (label != null) {
+                edges.addEdge(EdgeLabels.intern(label), (int) rel.getOtherNodeId(v));
+            }
+        };
+        if (filter == null) {
+            node.getRelationships().forEach(addEdge);
+        } else {
+            filter.forEachRelationship(node, addEdge);
+        }
+    }
+
+    private AdjacencyCache.VertexEdges getEdges(int v) {
+        if (prefetchBatchSize == 0 || cache.contains(v)) {
+            return cache.get(v);
+        }
+        AdjacencyCache.VertexEdges edges = cache.get(v);
+        IntArray neighbors = edges.getDestVertices();
+        for (int i = 0, prefetched = 0; i < neighbors.size() && prefetched < prefetchBatchSize; i++) {
+            int neighbor = neighbors.get(i);
+            if (!cache.contains(neighbor)) {
+                cache.prefetch(neighbor);
+                prefetched++;
+            }
+        }
+        return edges;
+    }
+
+    public AdjacencyCache getAdjacencyCache() {
+        return cache;
+    }
+
+    @Override
+    public int getVerticesCount() {
+        return verticesCount;
+    }
+
+    @Override
+    public Stream<Integer> getStartVertices() {
+        return startVertices;
+    }
+
+    @Override
+    public List<Integer> getFinalVertices() {
+        return finalVertices;
+    }
+
+    @Override
+    public boolean isFinal(int v) {
+        return true;
+    }
+
+    @Override
+    public List<Integer> getDestVertex(int v, String t) {
+        int labelId = EdgeLabels.lookup(t);
+        if (labelId == EdgeLabels.UNKNOWN) {
+            return Collections.emptyList();
+        }
+        IntArray destinations = getDestVertices(v, labelId);
+        return new AbstractList<Integer>() {
+            @Override
+            public Integer get(int index) {
+                return destinations.get(index);
+            }
+
+            @Override
+            public int size() {
+                return destinations.size();
+            }
+        };
+    }
+
+    @Override
+    public IntArray getDestVertices(int v, int labelId) {
+        return getEdges(v).getDestVertices(labelId);
+    }
+
+    @Override
+    public Stream<Integer> nextSymbols(int v) {
+        IntArray labels = getEdges(v).getLabels();
+        Stream<Integer> nextSymbols = IntStream.range(0, labels.size())
+                .mapToObj(i -> (int) EdgeLabels.getName(labels.get(i)).charAt(0));
+        if (isFinal(v)) {
+            nextSymbols = Stream.concat(Stream.of(EOF), nextSymbols);
+        }
+        return nextSymbols;
+    }
+
+    @Override
+    public boolean anyNextSymbol(int v, IntPredicate predicate) {
+        if (isFinal(v) && predicate.test(EOF)) {
+            return true;
+        }
+        IntArray labels = getEdges(v).getLabels();
+        for (int i = 0; i < labels.size(); i++) {
+            if (predicate.test(EdgeLabels.getName(labels.get(i)).charAt(0))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean anyOutgoingLabel(int v, long[] labels, IntPredicate firstCharacters) {
+        return getEdges(v).anyLabel(labels);
+    }
+
+    @Override
+    public void close() {
+        tx.close();
+    }
+}
@@ -16,4 +16,22 @@ public class Edge {
     public String getTag() {
         return this.tag;
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Edge)) return false;
+        Edge other = (Edge) obj;
+        return destVertex == other.destVertex && tag.equals(other.tag);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * tag.hashCode() + destVertex;
+    }
+
+    @Override
+    public String toString() {
+        return "-" + tag + "-> " + destVertex;
+    }
+}
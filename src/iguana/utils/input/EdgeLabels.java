@@ -0,0 +1,60 @@
+package iguana.utils.input;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide dictionary of edge labels. Interning a label assigns it a dense integer id, which allows
+ * graph inputs and matchers to agree on label ids without exchanging the strings at match time.
+ */
+public final class EdgeLabels {
+
+    public static final int UNKNOWN = -1;
+
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private static volatile String[] names = new String[16];
+
+    private static int count;
+
+    private EdgeLabels() {
+    }
+
+    public static int intern(String label) {
+        Integer id = ids.get(label);
+        if (id != null) {
+            return id;
+        }
+        synchronized (EdgeLabels.class) {
+            id = ids.get(label);
+            if (id != null) {
+                return id;
+            }
+            String[] current = names;
+            if (count == current.length) {
+                current = Arrays.copyOf(current, count << 1);
+            }
+            current[count] = label;
+            names = current;
+            ids.put(label, count);
+            return count++;
+        }
+    }
+
+    /**
+     * @return the id of the label, or {@link #UNKNOWN} if the label has never been interned
+     */
+    public static int lookup(String label) {
+        Integer id = ids.get(label);
+        return id == null ? UNKNOWN : id;
+    }
+
+    public static String getName(int id) {
+        return names[id];
+    }
+
+    public static int count() {
+        return ids.size();
+    }
+}
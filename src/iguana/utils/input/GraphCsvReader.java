@@ -0,0 +1,401 @@
+package iguana.utils.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Stream;
+
+/**
+ * Reads an edges.csv file of the benchmarks, with a header and one "source label destination" line per edge,
+ * into a {@link CSRGraphInput}. Each edge is also added reversed, with the label suffixed with
+ * {@link MappedGraphInput#REVERSE_SUFFIX}, as the benchmarks do.
+ * <p>
+ * The file is mapped and split into ranges of lines that are parsed in parallel, without creating strings
+ * for the tokens of a line. A first pass counts the edges of each block of vertices, and a second pass writes
+ * each edge to its block; the blocks are then sorted by vertex, and the edges of a vertex by label and
+ * destination. Apart from the CSR arrays, only one long per edge is allocated.
+ */
+public class GraphCsvReader {
+
+    // Ranges are mapped separately, so they are below the 2GB limit of a mapping
+    private static final long MAX_RANGE_BYTES = 1 << 30;
+
+    private static final int BLOCKS_PER_TASK = 64;
+
+    private static final int MAX_BLOCKS_BITS = 12;
+
+    private final Path edgesCsv;
+    private final int verticesCount;
+    private final ExecutorService executor;
+
+    private GraphCsvReader(Path edgesCsv, int verticesCount, ExecutorService executor) {
+        this.edgesCsv = edgesCsv;
+        this.verticesCount = verticesCount;
+        this.executor = executor;
+    }
+
+    /**
+     * @param verticesCount the number of vertices, which are the ids from 0 to verticesCount - 1
+     * @param parallelism   the number of threads that parse the file and build the graph
+     * @throws IOException if a line is malformed or has a vertex out of range
+     */
+    public static CSRGraphInput read(Path edgesCsv, int verticesCount, int parallelism) throws IOException {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism should be at least 1, but was " + parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            return new GraphCsvReader(edgesCsv, verticesCount, executor).read(parallelism);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private CSRGraphInput read(int parallelism) throws IOException {
+        List<MappedByteBuffer> ranges = mapRanges(parallelism);
+
+        // Writing each edge straight to the place of its vertex misses the cache on most edges. Edges are
+        // counted and written per block of vertices instead, where the blocks are few enough for their
+        // counters and the ends of their edges to stay in the cache, and then moved to their vertices one
+        // block at a time.
+        int blockBits = Math.max(0, bits(verticesCount) - MAX_BLOCKS_BITS);
+        int blocksCount = verticesCount == 0 ? 0 : ((verticesCount - 1) >> blockBits) + 1;
+        AtomicIntegerArray blockSizes = new AtomicIntegerArray(blocksCount);
+        invokeAll(ranges, range -> new RangeParser(range).parse((source, label, reverseLabel, destination) -> {
+            blockSizes.incrementAndGet(source >> blockBits);
+            blockSizes.incrementAndGet(destination >> blockBits);
+        }));
+
+        // The edges of block b go to keys[blockOffsets[b] .. blockOffsets[b + 1]]
+        int[] blockOffsets = new int[blocksCount + 1];
+        long edgesCount = 0;
+        for (int block = 0; block < blocksCount; block++) {
+            blockOffsets[block] = (int) edgesCount;
+            edgesCount += blockSizes.get(block);
+            if (edgesCount > Integer.MAX_VALUE - 8)
+                throw new IOException("Too many edges in " + edgesCsv);
+        }
+        blockOffsets[blocksCount] = (int) edgesCount;
+
+        // A key is the vertex in the block, the label and the destination, so the keys of a vertex sort in
+        // the order of the CSR layout
+        int labelBits = bits(EdgeLabels.count());
+        int vertexBits = bits(verticesCount);
+        if (blockBits + labelBits + vertexBits > 63)
+            throw new IOException("Too many labels for a graph of " + verticesCount + " vertices: " + EdgeLabels.count());
+        int labelShift = vertexBits;
+        int localShift = labelBits + vertexBits;
+        int localMask = (1 << blockBits) - 1;
+
+        AtomicIntegerArray positions = blockSizes;
+        for (int block = 0; block < blocksCount; block++) {
+            positions.set(block, blockOffsets[block]);
+        }
+        long[] keys = new long[(int) edgesCount];
+        invokeAll(ranges, range -> new RangeParser(range).parse((source, label, reverseLabel, destination) -> {
+            keys[positions.getAndIncrement(source >> blockBits)] =
+                    (long) (source & localMask) << localShift | (long) label << labelShift | destination;
+            keys[positions.getAndIncrement(destination >> blockBits)] =
+                    (long) (destination & localMask) << localShift | (long) reverseLabel << labelShift | source;
+        }));
+
+        // The vertex offsets hold the number of runs of each vertex, and then their first run
+        int[] edgeOffsets = new int[verticesCount + 1];
+        int[] vertexOffsets = new int[verticesCount + 1];
+        long vertexMask = (1L << vertexBits) - 1;
+        long labelMask = (1L << labelBits) - 1;
+        List<int[]> tasks = new ArrayList<>();
+        for (int from = 0; from < blocksCount; from += BLOCKS_PER_TASK) {
+            tasks.add(new int[]{from, Math.min(blocksCount, from + BLOCKS_PER_TASK)});
+        }
+        invokeAll(tasks, task -> {
+            long[] buffer = new long[16];
+            int[] cursors = new int[(1 << blockBits) + 1];
+            for (int block = task[0]; block < task[1]; block++) {
+                int first = block << blockBits;
+                int last = Math.min(verticesCount, first + (1 << blockBits));
+                int from = blockOffsets[block];
+                int length = blockOffsets[block + 1] - from;
+                if (buffer.length < length) buffer = new long[Math.max(length, buffer.length << 1)];
+                System.arraycopy(keys, from, buffer, 0, length);
+
+                // Moves the keys of the block to their vertices, through a copy that stays in the cache
+                Arrays.fill(cursors, 0);
+                for (int i = 0; i < length; i++) {
+                    cursors[(int) (buffer[i] >>> localShift) + 1]++;
+                }
+                cursors[0] = from;
+                for (int v = first; v < last; v++) {
+                    cursors[v - first + 1] += cursors[v - first];
+                    edgeOffsets[v] = cursors[v - first];
+                }
+                for (int i = 0; i < length; i++) {
+                    keys[cursors[(int) (buffer[i] >>> localShift)]++] = buffer[i];
+                }
+
+                for (int v = first; v < last; v++) {
+                    int end = v + 1 < last ? edgeOffsets[v + 1] : from + length;
+                    Arrays.sort(keys, edgeOffsets[v], end);
+                    int runs = 0;
+                    for (int e = edgeOffsets[v]; e < end; e++) {
+                        if (e == edgeOffsets[v] || ((keys[e] >>> labelShift) & labelMask) != ((keys[e - 1] >>> labelShift) & labelMask)) runs++;
+                    }
+                    vertexOffsets[v] = runs;
+                }
+            }
+        });
+        edgeOffsets[verticesCount] = (int) edgesCount;
+
+        int runsCount = 0;
+        for (int v = 0; v < verticesCount; v++) {
+            int runs = vertexOffsets[v];
+            vertexOffsets[v] = runsCount;
+            runsCount += runs;
+        }
+        vertexOffsets[verticesCount] = runsCount;
+
+        int[] runLabels = new int[runsCount];
+        int[] runOffsets = new int[runsCount + 1];
+        int[] targets = new int[(int) edgesCount];
+        invokeAll(tasks, task -> {
+            int last = Math.min(verticesCount, task[1] << blockBits);
+            for (int v = task[0] << blockBits; v < last; v++) {
+                int run = vertexOffsets[v];
+                for (int e = edgeOffsets[v]; e < edgeOffsets[v + 1]; e++) {
+                    int label = (int) ((keys[e] >>> labelShift) & labelMask);
+                    if (e == edgeOffsets[v] || label != (int) ((keys[e - 1] >>> labelShift) & labelMask)) {
+                        runLabels[run] = label;
+                        runOffsets[run] = e;
+                        run++;
+                    }
+                    targets[e] = (int) (keys[e] & vertexMask);
+                }
+            }
+        });
+        runOffsets[runsCount] = (int) edgesCount;
+
+        return new CSRGraphInput(vertexOffsets, runLabels, runOffsets, targets, Stream.empty(), List.of());
+    }
+
+    /**
+     * @return the number of bits of the values below n
+     */
+    private static int bits(int n) {
+        return n <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(n - 1);
+    }
+
+    /**
+     * Splits the lines after the header into about one range per thread, where each range starts at a line
+     */
+    private List<MappedByteBuffer> mapRanges(int parallelism) throws IOException {
+        List<MappedByteBuffer> ranges = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(edgesCsv, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = nextLine(channel, 0);
+            long rangeBytes = Math.min(MAX_RANGE_BYTES, Math.max(1, (size - start + parallelism - 1) / parallelism));
+            while (start < size) {
+                long end = start + rangeBytes >= size ? size : nextLine(channel, start + rangeBytes);
+                ranges.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                start = end;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * @return the position after the first line break at or after the position, or the size of the file
+     */
+    private static long nextLine(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0)
+                return channel.size();
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n')
+                    return position + i + 1;
+            }
+            position += read;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task<T> {
+        void run(T item) throws IOException;
+    }
+
+    private <T> void invokeAll(List<T> items, Task<T> task) throws IOException {
+        List<Future<Void>> results = new ArrayList<>(items.size());
+        for (T item : items) {
+            Callable<Void> callable = () -> {
+                task.run(item);
+                return null;
+            };
+            results.add(executor.submit(callable));
+        }
+        try {
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading " + edgesCsv, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    private interface EdgeConsumer {
+        void accept(int source, int label, int reverseLabel, int destination);
+    }
+
+    /**
+     * Parses the lines of a range. Labels are looked up by their bytes in a table of the labels seen by this
+     * parser, so a label is decoded and interned once per parser.
+     */
+    private final class RangeParser {
+
+        private final ByteBuffer range;
+
+        private byte[][] names = new byte[16][];
+        private int[] labelIds = new int[16];
+        private int[] reverseLabelIds = new int[16];
+        private int labelsCount;
+
+        RangeParser(MappedByteBuffer range) {
+            // Each pass reads the range with its own position
+            this.range = range.duplicate();
+        }
+
+        void parse(EdgeConsumer edges) throws IOException {
+            int limit = range.limit();
+            int i = 0;
+            while (i < limit) {
+                int lineStart = i;
+                byte b = range.get(i);
+                if (b == '\n' || b == '\r') {
+                    i++;
+                    continue;
+                }
+
+                int source = 0;
+                while (b >= '0' && b <= '9') {
+                    source = checkVertex(source * 10L + (b - '0'), lineStart);
+                    b = ++i < limit ? range.get(i) : (byte) '\n';
+                }
+                if (b != ' ' || i == lineStart)
+                    throw malformed(lineStart);
+
+                int labelStart = ++i;
+                int hash = 1;
+                while (i < limit && (b = range.get(i)) != ' ' && b != '\n') {
+                    hash = 31 * hash + b;
+                    i++;
+                }
+                if (i == limit || b != ' ' || i == labelStart)
+                    throw malformed(lineStart);
+                int label = findLabel(labelStart, i, hash);
+
+                int destinationStart = ++i;
+                int destination = 0;
+                b = i < limit ? range.get(i) : (byte) '\n';
+                while (b >= '0' && b <= '9') {
+                    destination = checkVertex(destination * 10L + (b - '0'), lineStart);
+                    b = ++i < limit ? range.get(i) : (byte) '\n';
+                }
+                if (b == '\r')
+                    b = ++i < limit ? range.get(i) : (byte) '\n';
+                if (b != '\n' || i == destinationStart)
+                    throw malformed(lineStart);
+                i++;
+
+                edges.accept(source, labelIds[label], reverseLabelIds[label], destination);
+            }
+        }
+
+        private int checkVertex(long vertex, int lineStart) throws IOException {
+            if (vertex >= verticesCount)
+                throw new IOException("The vertex of the edge " + line(lineStart) + " in " + edgesCsv +
+                                      " is not below the vertices count " + verticesCount);
+            return (int) vertex;
+        }
+
+        private int findLabel(int from, int to, int hash) {
+            int mask = names.length - 1;
+            int slot = hash & mask;
+            while (names[slot] != null) {
+                if (equals(names[slot], from, to)) return slot;
+                slot = (slot + 1) & mask;
+            }
+            byte[] name = bytes(from, to);
+            names[slot] = name;
+            String label = new String(name, StandardCharsets.UTF_8);
+            labelIds[slot] = EdgeLabels.intern(label);
+            reverseLabelIds[slot] = EdgeLabels.intern(label + MappedGraphInput.REVERSE_SUFFIX);
+            if (++labelsCount * 2 > names.length) {
+                rehash();
+                return findLabel(from, to, hash);
+            }
+            return slot;
+        }
+
+        private boolean equals(byte[] name, int from, int to) {
+            if (name.length != to - from) return false;
+            for (int i = 0; i < name.length; i++) {
+                if (name[i] != range.get(from + i)) return false;
+            }
+            return true;
+        }
+
+        private void rehash() {
+            byte[][] oldNames = names;
+            int[] oldLabelIds = labelIds;
+            int[] oldReverseLabelIds = reverseLabelIds;
+            names = new byte[oldNames.length << 1][];
+            labelIds = new int[names.length];
+            reverseLabelIds = new int[names.length];
+            int mask = names.length - 1;
+            for (int i = 0; i < oldNames.length; i++) {
+                byte[] name = oldNames[i];
+                if (name == null) continue;
+                int slot = Arrays.hashCode(name) & mask;
+                while (names[slot] != null) slot = (slot + 1) & mask;
+                names[slot] = name;
+                labelIds[slot] = oldLabelIds[i];
+                reverseLabelIds[slot] = oldReverseLabelIds[i];
+            }
+        }
+
+        private byte[] bytes(int from, int to) {
+            byte[] bytes = new byte[to - from];
+            range.get(from, bytes);
+            return bytes;
+        }
+
+        private String line(int lineStart) {
+            int end = lineStart;
+            while (end < range.limit() && range.get(end) != '\n' && range.get(end) != '\r') end++;
+            return new String(bytes(lineStart, end), StandardCharsets.UTF_8);
+        }
+
+        private IOException malformed(int lineStart) {
+            return new IOException("Malformed edge in " + edgesCsv + ": " + line(lineStart));
+        }
+    }
+}
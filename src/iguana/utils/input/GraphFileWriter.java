@@ -0,0 +1,184 @@
+package iguana.utils.input;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes graphs in the binary format read by {@link MappedGraphInput}, and converts graphs from the CSV layout
+ * of the benchmarks: a nodes.csv file with a header and one vertex id per line, and an edges.csv file with a
+ * header and one "source label destination" line per edge.
+ */
+public class GraphFileWriter {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    private GraphFileWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Converts a graph directory with nodes.csv and edges.csv into a graph file.
+     *
+     * Usage: GraphFileWriter &lt;graph directory&gt; [&lt;graph file&gt;], where the graph file is graph.bin in
+     * the graph directory by default.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: GraphFileWriter <graph directory> [<graph file>]");
+            System.exit(1);
+        }
+        Path file = args.length == 2 ? Paths.get(args[1]) : Paths.get(args[0], "graph.bin");
+        fromCsv(Paths.get(args[0] + File.separator + "nodes.csv"), Paths.get(args[0] + File.separator + "edges.csv"), file);
+    }
+
+    /**
+     * Writes the graph in the CSV files to the graph file. Each edge is also added reversed, so the graph
+     * file has the same edges as the benchmarks create from the CSV files.
+     */
+    public static void fromCsv(Path nodesCsv, Path edgesCsv, Path file) throws IOException {
+        int verticesCount = 0;
+        try (BufferedReader reader = Files.newBufferedReader(nodesCsv)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    verticesCount = Math.max(verticesCount, Integer.parseInt(line.trim()) + 1);
+                }
+            }
+        }
+
+        CSRGraphInput.Builder forward = CSRGraphInput.builder().setVerticesCount(verticesCount);
+        CSRGraphInput.Builder reverse = CSRGraphInput.builder().setVerticesCount(verticesCount);
+        try (BufferedReader reader = Files.newBufferedReader(edgesCsv)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                int first = line.indexOf(' ');
+                int second = line.indexOf(' ', first + 1);
+                if (first == -1 || second == -1)
+                    throw new IOException("Malformed edge in " + edgesCsv + ": " + line);
+                int source = Integer.parseInt(line, 0, first, 10);
+                int label = EdgeLabels.intern(line.substring(first + 1, second));
+                int destination = Integer.parseInt(line, second + 1, line.length(), 10);
+                forward.addEdge(source, label, destination);
+                reverse.addEdge(destination, label, source);
+            }
+        }
+
+        List<Integer> noVertices = List.of();
+        write(file, forward.build(Stream.empty(), noVertices), reverse.build(Stream.empty(), noVertices));
+    }
+
+    /**
+     * Writes the graph file. The edges of the reverse graph are seen as edges with the label suffixed with
+     * {@link MappedGraphInput#REVERSE_SUFFIX} when the file is read.
+     *
+     * @throws IllegalArgumentException if a label is also the suffixed form of another label, as the edges with
+     *                                  that label could not be told apart from the reversed edges
+     */
+    public static void write(Path file, CSRGraphInput forward, CSRGraphInput reverse) throws IOException {
+        int verticesCount = Math.max(forward.getVerticesCount(), reverse.getVerticesCount());
+
+        // Local label ids are assigned in the order of the global ids, so the runs of a vertex stay sorted
+        int[] labels = Stream.of(forward.getRunLabels(), reverse.getRunLabels())
+                .flatMapToInt(Arrays::stream).distinct().sorted().toArray();
+        for (int label : labels) {
+            int reverseLabel = EdgeLabels.lookup(EdgeLabels.getName(label) + MappedGraphInput.REVERSE_SUFFIX);
+            if (reverseLabel != EdgeLabels.UNKNOWN && Arrays.binarySearch(labels, reverseLabel) >= 0)
+                throw new IllegalArgumentException("The graph has both the label " + EdgeLabels.getName(label)
+                        + " and its reverse label " + EdgeLabels.getName(reverseLabel));
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            GraphFileWriter writer = new GraphFileWriter(channel);
+            writer.writeInt(MappedGraphInput.MAGIC);
+            writer.writeInt(MappedGraphInput.VERSION);
+            writer.writeInt(verticesCount);
+            writer.writeInt(labels.length);
+            for (int label : labels) {
+                writer.writeString(EdgeLabels.getName(label));
+            }
+            writer.writeSection(forward, verticesCount, labels);
+            writer.writeSection(reverse, verticesCount, labels);
+            writer.flush();
+        }
+    }
+
+    private void writeSection(CSRGraphInput graph, int verticesCount, int[] labels) throws IOException {
+        int[] vertexOffsets = graph.getVertexOffsets();
+        int[] runLabels = graph.getRunLabels();
+
+        writeInt(runLabels.length);
+        writeInt(graph.getEdgesCount());
+        writeInts(vertexOffsets, 0, vertexOffsets.length);
+        // Vertices that are only in the other graph have no runs
+        for (int v = graph.getVerticesCount(); v < verticesCount; v++) {
+            writeInt(runLabels.length);
+        }
+        for (int label : runLabels) {
+            writeInt(Arrays.binarySearch(labels, label));
+        }
+        writeInts(graph.getRunOffsets(), 0, graph.getRunOffsets().length);
+        writeInts(graph.getTargets(), 0, graph.getTargets().length);
+    }
+
+    private void writeString(String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        for (int i = 0; i < bytes.length; i += BUFFER_SIZE) {
+            ensureRemaining(Math.min(BUFFER_SIZE, bytes.length - i));
+            buffer.put(bytes, i, Math.min(BUFFER_SIZE, bytes.length - i));
+        }
+        int padding = -bytes.length & 3;
+        ensureRemaining(padding);
+        for (int i = 0; i < padding; i++) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    private void writeInts(int[] values, int from, int to) throws IOException {
+        while (from < to) {
+            ensureRemaining(Integer.BYTES);
+            int count = Math.min(to - from, buffer.remaining() / Integer.BYTES);
+            buffer.asIntBuffer().put(values, from, count);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            from += count;
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        ensureRemaining(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -1,15 +1,46 @@
 package iguana.utils.input;
 
+import iguana.utils.collections.primitive.IntArray;
+
 import java.net.URI;
 import java.util.List;
+import java.util.function.IntPredicate;
 import java.util.stream.Stream;
 
 public abstract class GraphInput implements Input {
 
     public abstract List<Integer> getDestVertex(int v, String t);
 
+    /**
+     * Returns the destinations of the edges leaving v with the given label, where the label is identified
+     * by its {@link EdgeLabels} id. Implementations backed by primitive storage should override this method.
+     */
+    public IntArray getDestVertices(int v, int labelId) {
+        List<Integer> destinations = getDestVertex(v, EdgeLabels.getName(labelId));
+        if (destinations.isEmpty()) {
+            return IntArray.EMPTY;
+        }
+        return IntArray.of(destinations.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Returns true if v has an outgoing edge whose label is in the given bitmap, indexed by {@link EdgeLabels}
+     * ids. Inputs that cannot enumerate the labels of a vertex cheaply fall back to the test on the first
+     * characters of the labels.
+     */
+    public boolean anyOutgoingLabel(int v, long[] labels, IntPredicate firstCharacters) {
+        return anyNextSymbol(v, firstCharacters);
+    }
+
     public abstract boolean isFinal(int v);
 
+    /**
+     * @return the number of vertices, which are numbered from 0, or -1 if it is not known
+     */
+    public int getVerticesCount() {
+        return -1;
+    }
+
     @Override
     public int length() {
         return 0;
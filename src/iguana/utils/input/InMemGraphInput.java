@@ -1,8 +1,9 @@
 package iguana.utils.input;
 
-import java.util.ArrayList;
+import iguana.utils.collections.primitive.IntArray;
+
 import java.util.List;
-import java.util.Objects;
+import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -32,6 +33,11 @@ public class InMemGraphInput extends GraphInput {
         return true;
     }
 
+    @Override
+    public int getVerticesCount() {
+        return adjacencyList.size();
+    }
+
     @Override
     public List<Integer> getDestVertex(int v, String t) {
         return adjacencyList.get(v).stream()
@@ -39,6 +45,44 @@ public class InMemGraphInput extends GraphInput {
                 .map(Edge::getDestVertex).collect(Collectors.toList());
     }
 
+    @Override
+    public IntArray getDestVertices(int v, int labelId) {
+        String label = EdgeLabels.getName(labelId);
+        List<Edge> edges = adjacencyList.get(v);
+        int[] destinations = new int[edges.size()];
+        int size = 0;
+        for (Edge edge : edges) {
+            if (edge.getTag().equals(label)) {
+                destinations[size++] = edge.getDestVertex();
+            }
+        }
+        return size == 0 ? IntArray.EMPTY : new IntArray(destinations, 0, size);
+    }
+
+    @Override
+    public boolean anyNextSymbol(int v, IntPredicate predicate) {
+        if (isFinal(v) && predicate.test(EOF)) {
+            return true;
+        }
+        for (Edge edge : adjacencyList.get(v)) {
+            if (predicate.test(edge.getTag().charAt(0))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean anyOutgoingLabel(int v, long[] labels, IntPredicate firstCharacters) {
+        for (Edge edge : adjacencyList.get(v)) {
+            int label = EdgeLabels.lookup(edge.getTag());
+            if (label >= 0 && (label >>> 6) < labels.length && (labels[label >>> 6] & (1L << label)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public Stream<Integer> nextSymbols(int v) {
         Stream<Integer> nextSymbols = adjacencyList.get(v).stream()
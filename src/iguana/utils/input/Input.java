@@ -35,6 +35,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.function.IntPredicate;
 import java.util.stream.Stream;
 
 import static java.lang.Character.isHighSurrogate;
@@ -110,6 +111,15 @@ public interface Input {
 
     Stream<Integer> nextSymbols(int index);
 
+    /**
+     * Primitive counterpart of {@link #nextSymbols(int)}: returns true if the predicate holds for any of the
+     * next symbols at the given index. Inputs on the hot path should override this method to avoid creating
+     * a stream per call.
+     */
+    default boolean anyNextSymbol(int index, IntPredicate predicate) {
+        return nextSymbols(index).anyMatch(predicate::test);
+    }
+
     default int[] calculateLineLengths(int lineCount) {
         return new int[]{0};
     }
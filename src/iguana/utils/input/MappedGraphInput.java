@@ -0,0 +1,377 @@
+package iguana.utils.input;
+
+import iguana.utils.collections.primitive.IntArray;
+import iguana.utils.collections.primitive.IntIterator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Graph input over a memory-mapped binary graph file, so opening a graph only reads the label dictionary and
+ * the graph data stays off-heap, in the page cache, where it is shared by all processes that map the same
+ * file. The file is written by {@link GraphFileWriter}; all values are little-endian ints:
+ *
+ * <pre>
+ *     header:      magic, version, verticesCount, labelsCount
+ *     labels:      labelsCount times: byte length, UTF-8 bytes, padded to a multiple of 4 bytes
+ *     forward:     runsCount, edgesCount, vertexOffsets[verticesCount + 1], runLabels[runsCount],
+ *                  runOffsets[runsCount + 1], targets[edgesCount]
+ *     reverse:     the same for the reversed edges
+ * </pre>
+ *
+ * The sections use the layout of {@link CSRGraphInput}, with label ids local to the file. A reversed edge with
+ * label l is seen as an edge with label l + {@link #REVERSE_SUFFIX}. Each array is mapped on its own, so an
+ * array cannot be larger than 2 GB.
+ */
+public class MappedGraphInput extends GraphInput {
+
+    static final int MAGIC = 0x49475246;
+    static final int VERSION = 1;
+
+    public static final String REVERSE_SUFFIX = "_r";
+
+    private final int verticesCount;
+
+    private final Section forward;
+    private final Section reverse;
+
+    /**
+     * The local id of the label with the given {@link EdgeLabels} id, or -1 if the file has no such label.
+     * Local ids of reversed labels are offset by the number of labels.
+     */
+    private final int[] localLabels;
+    private final int labelsCount;
+
+    /**
+     * The {@link EdgeLabels} id of each local label id
+     */
+    private final int[] globalLabels;
+
+    private final Stream<Integer> startVertices;
+    private final List<Integer> finalVertices;
+
+    private MappedGraphInput(int verticesCount, Section forward, Section reverse, int[] localLabels, int[] globalLabels,
+                             Stream<Integer> startVertices, List<Integer> finalVertices) {
+        this.verticesCount = verticesCount;
+        this.forward = forward;
+        this.reverse = reverse;
+        this.localLabels = localLabels;
+        this.labelsCount = globalLabels.length / 2;
+        this.globalLabels = globalLabels;
+        this.startVertices = startVertices;
+        this.finalVertices = finalVertices;
+    }
+
+    /**
+     * Maps the graph file, with no start vertices and all vertices as final vertices.
+     */
+    public static MappedGraphInput open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Reader reader = new Reader(channel);
+
+            if (reader.readInt() != MAGIC)
+                throw new IOException(file + " is not a graph file");
+            int version = reader.readInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported graph file version " + version + " in " + file);
+
+            int verticesCount = reader.readInt();
+            int labelsCount = reader.readInt();
+
+            String[] labels = new String[labelsCount];
+            for (int i = 0; i < labelsCount; i++) {
+                labels[i] = reader.readString();
+            }
+
+            int[] globalLabels = new int[2 * labelsCount];
+            int[] localLabels = new int[0];
+            for (int i = 0; i < labelsCount; i++) {
+                globalLabels[i] = EdgeLabels.intern(labels[i]);
+                globalLabels[labelsCount + i] = EdgeLabels.intern(labels[i] + REVERSE_SUFFIX);
+                localLabels = addLabel(localLabels, globalLabels[i], i);
+                localLabels = addLabel(localLabels, globalLabels[labelsCount + i], labelsCount + i);
+            }
+
+            Section forward = reader.readSection(verticesCount);
+            Section reverse = reader.readSection(verticesCount);
+
+            List<Integer> allVertices = new AbstractList<Integer>() {
+                @Override
+                public Integer get(int index) {
+                    return index;
+                }
+
+                @Override
+                public int size() {
+                    return verticesCount;
+                }
+            };
+            return new MappedGraphInput(verticesCount, forward, reverse, localLabels, globalLabels, Stream.empty(), allVertices);
+        }
+    }
+
+    private static int[] addLabel(int[] localLabels, int labelId, int localId) throws IOException {
+        if (labelId >= localLabels.length) {
+            int length = localLabels.length;
+            localLabels = Arrays.copyOf(localLabels, labelId + 1);
+            Arrays.fill(localLabels, length, localLabels.length, -1);
+        }
+        // A label and the reverse of another label cannot share a run, see GraphFileWriter.write
+        if (localLabels[labelId] != -1)
+            throw new IOException("The label " + EdgeLabels.getName(labelId) + " is both a label and a reverse label of the graph file");
+        localLabels[labelId] = localId;
+        return localLabels;
+    }
+
+    /**
+     * Returns an input over the same mapped graph with different start and final vertices.
+     */
+    public MappedGraphInput withVertices(Stream<Integer> startVertices, List<Integer> finalVertices) {
+        return new MappedGraphInput(verticesCount, forward, reverse, localLabels, globalLabels, startVertices, finalVertices);
+    }
+
+    @Override
+    public int getVerticesCount() {
+        return verticesCount;
+    }
+
+    /**
+     * @return the number of edges, not counting the reversed edges
+     */
+    public int getEdgesCount() {
+        return forward.targets.limit();
+    }
+
+    @Override
+    public Stream<Integer> getStartVertices() {
+        return startVertices;
+    }
+
+    @Override
+    public List<Integer> getFinalVertices() {
+        return finalVertices;
+    }
+
+    @Override
+    public boolean isFinal(int v) {
+        return true;
+    }
+
+    @Override
+    public List<Integer> getDestVertex(int v, String t) {
+        int labelId = EdgeLabels.lookup(t);
+        if (labelId == EdgeLabels.UNKNOWN) {
+            return Collections.emptyList();
+        }
+        IntArray destinations = getDestVertices(v, labelId);
+        return new AbstractList<Integer>() {
+            @Override
+            public Integer get(int index) {
+                return destinations.get(index);
+            }
+
+            @Override
+            public int size() {
+                return destinations.size();
+            }
+        };
+    }
+
+    @Override
+    public IntArray getDestVertices(int v, int labelId) {
+        if (v < 0 || v >= verticesCount || labelId < 0 || labelId >= localLabels.length || localLabels[labelId] == -1) {
+            return IntArray.EMPTY;
+        }
+        int localLabel = localLabels[labelId];
+        Section section = localLabel < labelsCount ? forward : reverse;
+        int run = section.findRun(v, localLabel < labelsCount ? localLabel : localLabel - labelsCount);
+        if (run == -1) {
+            return IntArray.EMPTY;
+        }
+        return new TargetsView(section.targets, section.runOffsets.get(run), section.runOffsets.get(run + 1));
+    }
+
+    @Override
+    public Stream<Integer> nextSymbols(int v) {
+        Stream<Integer> nextSymbols = v < 0 || v >= verticesCount
+                ? Stream.empty()
+                : Stream.concat(labels(v, forward, 0), labels(v, reverse, labelsCount))
+                    .map(labelId -> (int) EdgeLabels.getName(labelId).charAt(0));
+        if (isFinal(v)) {
+            nextSymbols = Stream.concat(Stream.of(EOF), nextSymbols);
+        }
+        return nextSymbols;
+    }
+
+    private Stream<Integer> labels(int v, Section section, int offset) {
+        return IntStream.range(section.vertexOffsets.get(v), section.vertexOffsets.get(v + 1))
+                .mapToObj(run -> globalLabels[section.runLabels.get(run) + offset]);
+    }
+
+    @Override
+    public boolean anyOutgoingLabel(int v, long[] labels, IntPredicate firstCharacters) {
+        if (v < 0 || v >= verticesCount) {
+            return false;
+        }
+        return anyOutgoingLabel(v, forward, 0, labels) || anyOutgoingLabel(v, reverse, labelsCount, labels);
+    }
+
+    private boolean anyOutgoingLabel(int v, Section section, int offset, long[] labels) {
+        for (int run = section.vertexOffsets.get(v), to = section.vertexOffsets.get(v + 1); run < to; run++) {
+            int label = globalLabels[section.runLabels.get(run) + offset];
+            if ((label >>> 6) < labels.length && (labels[label >>> 6] & (1L << label)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Section {
+
+        private final IntBuffer vertexOffsets;
+        private final IntBuffer runLabels;
+        private final IntBuffer runOffsets;
+        private final IntBuffer targets;
+
+        Section(IntBuffer vertexOffsets, IntBuffer runLabels, IntBuffer runOffsets, IntBuffer targets) {
+            this.vertexOffsets = vertexOffsets;
+            this.runLabels = runLabels;
+            this.runOffsets = runOffsets;
+            this.targets = targets;
+        }
+
+        /**
+         * Binary search for the run of the given local label among the runs of v, as in {@link CSRGraphInput}.
+         */
+        int findRun(int v, int label) {
+            int low = vertexOffsets.get(v);
+            int high = vertexOffsets.get(v + 1) - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int midLabel = runLabels.get(mid);
+                if (midLabel < label) {
+                    low = mid + 1;
+                } else if (midLabel > label) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * The destinations of a run, read from the mapped targets instead of being copied to the heap
+     */
+    private static class TargetsView extends IntArray {
+
+        private final IntBuffer targets;
+        private final int from;
+        private final int to;
+
+        TargetsView(IntBuffer targets, int from, int to) {
+            this.targets = targets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public int get(int i) {
+            if (i < 0 || i >= size())
+                throw new ArrayIndexOutOfBoundsException();
+            return targets.get(from + i);
+        }
+
+        @Override
+        public IntIterator iterator() {
+            return new IntIterator() {
+                int i = from;
+                @Override public boolean hasNext() { return i < to; }
+                @Override public int next() { return targets.get(i++); }
+            };
+        }
+    }
+
+    /**
+     * Reads the header and the label dictionary from the channel and maps each array of a section as an
+     * {@link IntBuffer}. The mappings stay valid after the channel is closed.
+     */
+    private static class Reader {
+
+        private final FileChannel channel;
+        private long position;
+
+        Reader(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        int readInt() throws IOException {
+            int value = read(Integer.BYTES).getInt();
+            position += Integer.BYTES;
+            return value;
+        }
+
+        String readString() throws IOException {
+            int length = readInt();
+            byte[] bytes = new byte[length];
+            read(length).get(bytes);
+            position += (length + 3) & ~3;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        Section readSection(int verticesCount) throws IOException {
+            int runsCount = readInt();
+            int edgesCount = readInt();
+            IntBuffer vertexOffsets = readInts(verticesCount + 1L);
+            IntBuffer runLabels = readInts(runsCount);
+            IntBuffer runOffsets = readInts(runsCount + 1L);
+            IntBuffer targets = readInts(edgesCount);
+            return new Section(vertexOffsets, runLabels, runOffsets, targets);
+        }
+
+        private IntBuffer readInts(long count) throws IOException {
+            long bytes = count * Integer.BYTES;
+            if (bytes > Integer.MAX_VALUE)
+                throw new IOException("An array of " + count + " ints is too large to be mapped");
+            IntBuffer ints = map(bytes).asIntBuffer();
+            position += bytes;
+            return ints;
+        }
+
+        private ByteBuffer read(int size) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) == -1)
+                    throw new IOException("Unexpected end of the graph file");
+            }
+            return buffer.flip();
+        }
+
+        private ByteBuffer map(long size) throws IOException {
+            if (position + size > channel.size())
+                throw new IOException("Unexpected end of the graph file");
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            return buffer.order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+}
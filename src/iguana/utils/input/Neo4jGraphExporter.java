@@ -0,0 +1,93 @@
+package iguana.utils.input;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+/**
+ * Reads the relationships of a Neo4j database into a {@link CSRGraphInput}, so that queries run on the in-memory
+ * graph instead of the database. Vertices are node ids, and the edges of a vertex are the same as the edges a
+ * {@link CachedNeo4jGraphInput} reads. The node ids are split into ranges that are read in parallel, each in its
+ * own transaction, and joined in order.
+ * <p>
+ * The graph is a snapshot: changes to the database are seen by the next {@link #export}.
+ */
+public class Neo4jGraphExporter {
+
+    private static final int RANGE_SIZE = 1 << 14;
+
+    private final GraphDatabaseService graphDb;
+    private final BiFunction<Relationship, Direction, String> toLabel;
+    private final Neo4jRelationshipFilter filter;
+    private final int parallelism;
+
+    /**
+     * @param filter      the relationships that are read, or null to read all of them
+     * @param parallelism the number of threads reading ranges of node ids
+     */
+    public Neo4jGraphExporter(GraphDatabaseService graphDb, BiFunction<Relationship, Direction, String> toLabel,
+                              Neo4jRelationshipFilter filter, int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism should be at least 1, but was " + parallelism);
+        this.graphDb = graphDb;
+        this.toLabel = toLabel;
+        this.filter = filter;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Reads the nodes with ids below verticesCount; the ids without a node are vertices without edges. The
+     * graph has no start or final vertices, which are set by {@link CSRGraphInput#withVertices}.
+     */
+    public CSRGraphInput export(int verticesCount) {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<CSRGraphInput.Range>> results = new ArrayList<>();
+            for (int from = 0; from < verticesCount; from += RANGE_SIZE) {
+                int to = Math.min(from + RANGE_SIZE, verticesCount);
+                int rangeFrom = from;
+                results.add(executor.submit(() -> readRange(rangeFrom, to)));
+            }
+
+            List<CSRGraphInput.Range> ranges = new ArrayList<>(results.size());
+            for (Future<CSRGraphInput.Range> result : results) {
+                ranges.add(result.get());
+            }
+            return CSRGraphInput.fromRanges(ranges, Stream.empty(), List.of());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while exporting the graph", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private CSRGraphInput.Range readRange(int from, int to) {
+        try (Transaction tx = graphDb.beginTx()) {
+            return CSRGraphInput.Range.load(from, to, (v, edges) -> {
+                Node node;
+                try {
+                    node = tx.getNodeById(v);
+                } catch (NotFoundException e) {
+                    return;
+                }
+                CachedNeo4jGraphInput.loadRelationships(node, filter, toLabel, edges);
+            });
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package iguana.utils.input;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * The relationship types and directions a graph input reads from a Neo4j database, so that the relationships
+ * no terminal can match are not read at all. A relationship of type t leaving a vertex is its edge labeled t, and
+ * one entering it is its edge labeled t + {@link MappedGraphInput#REVERSE_SUFFIX}, as in the benchmark loaders.
+ */
+public class Neo4jRelationshipFilter {
+
+    private final RelationshipType[] outgoing;
+    private final RelationshipType[] incoming;
+    private final RelationshipType[] both;
+
+    private Neo4jRelationshipFilter(Collection<String> outgoing, Collection<String> incoming, Collection<String> both) {
+        this.outgoing = toTypes(outgoing);
+        this.incoming = toTypes(incoming);
+        this.both = toTypes(both);
+    }
+
+    private static RelationshipType[] toTypes(Collection<String> names) {
+        return names.stream().sorted().map(RelationshipType::withName).toArray(RelationshipType[]::new);
+    }
+
+    /**
+     * @param labels the edge labels that are matched, for example the terminal labels of a grammar graph
+     */
+    public static Neo4jRelationshipFilter fromLabels(Collection<String> labels) {
+        Set<String> outgoing = new HashSet<>();
+        Set<String> incoming = new HashSet<>();
+        for (String label : labels) {
+            if (label.endsWith(MappedGraphInput.REVERSE_SUFFIX))
+                incoming.add(label.substring(0, label.length() - MappedGraphInput.REVERSE_SUFFIX.length()));
+            else
+                outgoing.add(label);
+        }
+        Set<String> both = new HashSet<>(outgoing);
+        both.retainAll(incoming);
+        outgoing.removeAll(both);
+        incoming.removeAll(both);
+        return new Neo4jRelationshipFilter(outgoing, incoming, both);
+    }
+
+    /**
+     * Reads the relationships of the node with the types and directions of this filter. A relationship that
+     * matches in both directions is read once.
+     */
+    public void forEachRelationship(Node node, Consumer<Relationship> action) {
+        if (both.length > 0) node.getRelationships(Direction.BOTH, both).forEach(action);
+        if (outgoing.length > 0) node.getRelationships(Direction.OUTGOING, outgoing).forEach(action);
+        if (incoming.length > 0) node.getRelationships(Direction.INCOMING, incoming).forEach(action);
+    }
+
+    @Override
+    public String toString() {
+        return "Outgoing: " + Arrays.toString(outgoing) + "\n" +
+               "Incoming: " + Arrays.toString(incoming) + "\n" +
+               "Both: " + Arrays.toString(both) + "\n";
+    }
+}
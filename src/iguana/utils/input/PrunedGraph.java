@@ -0,0 +1,150 @@
+package iguana.utils.input;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A copy of a {@link CSRGraphInput} with only the edges of the given labels, usually the terminal labels of a
+ * grammar, as the other edges are never matched. Optionally, the vertices without such edges, neither outgoing
+ * nor incoming, are removed, and the remaining vertices are numbered densely in their original order; the
+ * answers of queries on the pruned graph are translated back by {@link #toOriginal(int)}.
+ * <p>
+ * A removed vertex reaches no vertex by a non-empty path of the grammar, so the only answer it can start is
+ * the empty path (v, v), when the start symbol of the grammar is nullable. Those answers are lost, so vertices
+ * should only be removed for grammars whose start symbol is not nullable.
+ */
+public class PrunedGraph {
+
+    private final CSRGraphInput graph;
+
+    // The vertex of the pruned graph of each original vertex, or -1 if it was removed
+    private final int[] prunedIds;
+
+    // The original vertex of each vertex of the pruned graph
+    private final int[] originalIds;
+
+    private PrunedGraph(CSRGraphInput graph, int[] prunedIds, int[] originalIds) {
+        this.graph = graph;
+        this.prunedIds = prunedIds;
+        this.originalIds = originalIds;
+    }
+
+    /**
+     * @param labels         the labels of the edges that are kept
+     * @param removeVertices whether the vertices without edges of the labels are removed
+     */
+    public static PrunedGraph prune(CSRGraphInput graph, Collection<String> labels, boolean removeVertices) {
+        int[] vertexOffsets = graph.getVertexOffsets();
+        int[] runLabels = graph.getRunLabels();
+        int[] runOffsets = graph.getRunOffsets();
+        int[] targets = graph.getTargets();
+        int verticesCount = graph.getVerticesCount();
+
+        boolean[] keptLabels = new boolean[EdgeLabels.count()];
+        for (String label : labels) {
+            int labelId = EdgeLabels.lookup(label);
+            if (labelId != EdgeLabels.UNKNOWN && labelId < keptLabels.length) {
+                keptLabels[labelId] = true;
+            }
+        }
+
+        int keptRunsCount = 0;
+        int keptEdgesCount = 0;
+        boolean[] used = new boolean[verticesCount];
+        for (int v = 0; v < verticesCount; v++) {
+            for (int run = vertexOffsets[v]; run < vertexOffsets[v + 1]; run++) {
+                if (!keptLabels[runLabels[run]]) continue;
+                keptRunsCount++;
+                keptEdgesCount += runOffsets[run + 1] - runOffsets[run];
+                used[v] = true;
+                for (int e = runOffsets[run]; e < runOffsets[run + 1]; e++) {
+                    used[targets[e]] = true;
+                }
+            }
+        }
+
+        int[] prunedIds = new int[verticesCount];
+        int prunedVerticesCount = 0;
+        for (int v = 0; v < verticesCount; v++) {
+            prunedIds[v] = used[v] || !removeVertices ? prunedVerticesCount++ : -1;
+        }
+        int[] originalIds = new int[prunedVerticesCount];
+        for (int v = 0; v < verticesCount; v++) {
+            if (prunedIds[v] != -1) {
+                originalIds[prunedIds[v]] = v;
+            }
+        }
+
+        // Removing labels and vertices keeps the order of the runs of a vertex and of the edges of a run
+        int[] prunedVertexOffsets = new int[prunedVerticesCount + 1];
+        int[] prunedRunLabels = new int[keptRunsCount];
+        int[] prunedRunOffsets = new int[keptRunsCount + 1];
+        int[] prunedTargets = new int[keptEdgesCount];
+        int runs = 0;
+        int edges = 0;
+        for (int p = 0; p < prunedVerticesCount; p++) {
+            int v = originalIds[p];
+            prunedVertexOffsets[p] = runs;
+            for (int run = vertexOffsets[v]; run < vertexOffsets[v + 1]; run++) {
+                if (!keptLabels[runLabels[run]]) continue;
+                prunedRunLabels[runs] = runLabels[run];
+                prunedRunOffsets[runs] = edges;
+                runs++;
+                for (int e = runOffsets[run]; e < runOffsets[run + 1]; e++) {
+                    prunedTargets[edges++] = prunedIds[targets[e]];
+                }
+            }
+        }
+        prunedVertexOffsets[prunedVerticesCount] = runs;
+        prunedRunOffsets[runs] = edges;
+
+        CSRGraphInput prunedGraph = new CSRGraphInput(prunedVertexOffsets, prunedRunLabels, prunedRunOffsets,
+                                                      prunedTargets, Stream.empty(), List.of());
+        return new PrunedGraph(prunedGraph, prunedIds, originalIds);
+    }
+
+    /**
+     * The pruned graph, without start or final vertices
+     */
+    public CSRGraphInput getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the pruned graph with the given original start and final vertices, without the removed ones
+     */
+    public CSRGraphInput withVertices(Stream<Integer> startVertices, List<Integer> finalVertices) {
+        return graph.withVertices(toPruned(startVertices),
+                                  toPruned(finalVertices.stream()).collect(Collectors.toList()));
+    }
+
+    private Stream<Integer> toPruned(Stream<Integer> vertices) {
+        return vertices.map(this::toPruned).filter(v -> v != -1);
+    }
+
+    /**
+     * @return the vertex of the pruned graph, or -1 if the vertex was removed
+     */
+    public int toPruned(int vertex) {
+        return vertex >= 0 && vertex < prunedIds.length ? prunedIds[vertex] : -1;
+    }
+
+    /**
+     * @return the original vertex of a vertex of the pruned graph
+     */
+    public int toOriginal(int vertex) {
+        return originalIds[vertex];
+    }
+
+    public int getRemovedVerticesCount() {
+        return prunedIds.length - originalIds.length;
+    }
+
+    @Override
+    public String toString() {
+        return "Vertices: " + originalIds.length + " of " + prunedIds.length + "\n" +
+               "Edges: " + graph.getEdgesCount() + "\n";
+    }
+}
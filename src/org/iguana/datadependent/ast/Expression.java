@@ -32,8 +32,8 @@ import org.iguana.datadependent.env.IEvaluatorContext;
 import org.iguana.datadependent.traversal.IAbstractASTVisitor;
 import org.iguana.grammar.exception.UndeclaredVariableException;
 import org.iguana.grammar.exception.UnexpectedTypeOfArgumentException;
+import org.iguana.sppf.NodeWithValue;
 import org.iguana.sppf.NonPackedNode;
-import org.iguana.sppf.NonterminalNodeWithValue;
 
 import java.util.Arrays;
 import java.util.Objects;
@@ -1410,11 +1410,11 @@ public abstract class Expression extends AbstractAST {
                 throw new UndeclaredVariableException(label);
             }
 
-            if (!(value instanceof NonterminalNodeWithValue)) {
+            if (!(value instanceof NodeWithValue)) {
                 throw new UnexpectedTypeOfArgumentException(this);
             }
 
-            NonterminalNodeWithValue node = (NonterminalNodeWithValue) value;
+            NodeWithValue node = (NodeWithValue) value;
 
             return node.getValue();
         }
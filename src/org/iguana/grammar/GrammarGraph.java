@@ -1,20 +1,18 @@
 package org.iguana.grammar;
 
-import iguana.regex.matcher.DFAMatcherFactory;
-import org.iguana.grammar.condition.ConditionsFactory;
 import org.iguana.grammar.slot.BodyGrammarSlot;
 import org.iguana.grammar.slot.GrammarSlot;
 import org.iguana.grammar.slot.NonterminalGrammarSlot;
 import org.iguana.grammar.slot.TerminalGrammarSlot;
-import org.iguana.grammar.symbol.Terminal;
 
 import java.util.List;
+import java.util.Set;
 
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 public class GrammarGraph {
 
-    public static final TerminalGrammarSlot epsilonSlot = new TerminalGrammarSlot(Terminal.epsilon(), new DFAMatcherFactory(), ConditionsFactory.DEFAULT, ConditionsFactory.DEFAULT);
     private final List<GrammarSlot> slots;
     private final NonterminalGrammarSlot startSlot;
 
@@ -35,13 +33,63 @@ public class GrammarGraph {
         return slots.stream().filter(slot -> slot instanceof BodyGrammarSlot).map(slot -> (BodyGrammarSlot) slot).collect(toList());
     }
 
+    /**
+     * The labels of the edges the terminals of the grammar match on graph inputs, so that inputs can skip
+     * reading the other edges
+     */
+    public Set<String> getTerminalLabels() {
+        return getTerminalGrammarSlots().stream()
+                .map(slot -> slot.getTerminal().getRegularExpression())
+                .filter(regex -> !regex.isNullable())
+                .map(Object::toString)
+                .collect(toSet());
+    }
+
     public NonterminalGrammarSlot getStartSlot() {
         return startSlot;
     }
 
+    /**
+     * Whether the grammar has no labels, variables, arguments, return values or data-dependent conditions, so
+     * results only depend on their input indices.
+     */
+    public boolean isEnvironmentFree() {
+        return getBodyGrammarSlots().stream().allMatch(BodyGrammarSlot::isEnvironmentFree);
+    }
+
+    /**
+     * Sets whether {@link #clear()} and {@link #clearKeepingGSS()} keep the primitive tables of the grammar slots
+     * and remove their entries by moving them to the next epoch, so that a run on the same grammar graph does not
+     * allocate and grow the tables again.
+     */
+    public void setResetByEpoch(boolean resetByEpoch) {
+        for (GrammarSlot slot : slots) {
+            slot.setResetByEpoch(resetByEpoch);
+        }
+    }
+
     public void clear() {
         for (GrammarSlot slot : slots) {
             slot.reset();
         }
     }
+
+    /**
+     * Resets the grammar slots after a run, but keeps the GSS nodes with their popped elements and the terminal
+     * matches for the next run on the same graph.
+     */
+    public void clearKeepingGSS() {
+        for (GrammarSlot slot : slots) {
+            slot.resetKeepingGSS();
+        }
+    }
+
+    /**
+     * Replaces the GSS of the slots with empty thread-safe maps, dropping the GSS kept by {@link #clearKeepingGSS()}.
+     */
+    public void prepareConcurrentRun() {
+        for (GrammarSlot slot : slots) {
+            slot.prepareConcurrentRun();
+        }
+    }
 }
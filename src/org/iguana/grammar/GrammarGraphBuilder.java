@@ -30,8 +30,6 @@ package org.iguana.grammar;
 import iguana.regex.CharRange;
 import iguana.regex.matcher.DFAMatcherFactory;
 import iguana.regex.matcher.MatcherFactory;
-import iguana.utils.collections.rangemap.RangeMap;
-import iguana.utils.collections.rangemap.RangeMapBuilder;
 import org.iguana.datadependent.ast.Expression;
 import org.iguana.datadependent.ast.Statement;
 import org.iguana.grammar.condition.Condition;
@@ -42,6 +40,7 @@ import org.iguana.grammar.operations.FirstFollowSets;
 import org.iguana.grammar.slot.*;
 import org.iguana.grammar.slot.EpsilonTransition.Type;
 import org.iguana.grammar.slot.lookahead.FollowTest;
+import org.iguana.grammar.slot.lookahead.LabelFollowTest;
 import org.iguana.grammar.slot.lookahead.RangeTreeFollowTest;
 import org.iguana.grammar.symbol.*;
 import org.iguana.grammar.transformation.VarToInt;
@@ -51,7 +50,6 @@ import org.iguana.util.Configuration.EnvironmentImpl;
 import java.io.Serializable;
 import java.util.*;
 
-import static org.iguana.grammar.GrammarGraph.epsilonSlot;
 
 public class GrammarGraphBuilder implements Serializable {
 
@@ -73,16 +71,38 @@ public class GrammarGraphBuilder implements Serializable {
 
     private Map<String, Integer> current;
 
+    /**
+     * Whether the environment stays empty in all runs: there are no parameters, arguments, labels, variables,
+     * code, returns, conditionals and data-dependent conditions
+     */
+    private boolean environmentFree = true;
+
     private static final MatcherFactory matcherFactory = new DFAMatcherFactory();
 
+    /**
+     * Each grammar graph has its own epsilon slot, as the slot caches per-run results.
+     */
+    private final TerminalGrammarSlot epsilonSlot = new TerminalGrammarSlot(Terminal.epsilon(), matcherFactory, ConditionsFactory.DEFAULT, ConditionsFactory.DEFAULT);
+
     public static GrammarGraph from(Grammar grammar) {
         return from(grammar, Configuration.load());
     }
 
-    public static GrammarGraph from(Grammar grammar, Configuration config) {
+    /**
+     * Synchronized, as all grammar graphs share the matcher factory and its cache of matchers
+     */
+    public static synchronized GrammarGraph from(Grammar grammar, Configuration config) {
         GrammarGraphBuilder builder = new GrammarGraphBuilder(grammar, config);
         builder.convert();
         ((ArrayList) builder.slots).trimToSize();
+        int bodySlotsCount = 0;
+        for (GrammarSlot slot : builder.slots) {
+            if (slot instanceof BodyGrammarSlot) {
+                ((BodyGrammarSlot) slot).setId(bodySlotsCount++);
+                if (builder.environmentFree)
+                    ((BodyGrammarSlot) slot).setEnvironmentFree(true);
+            }
+        }
         return new GrammarGraph(builder.slots, builder.getHead(Nonterminal.withName(grammar.getStartSymbol().getName())));
     }
 
@@ -142,43 +162,38 @@ public class GrammarGraphBuilder implements Serializable {
 
     private void setFirstFollowTests(Nonterminal nonterminal) {
         NonterminalGrammarSlot nonterminalSlot = getNonterminalSlot(nonterminal);
-        nonterminalSlot.setLookAheadTest(getLookAheadTest(nonterminal, nonterminalSlot));
         nonterminalSlot.setFollowTest(getFollowTest(nonterminal));
+        nonterminalSlot.setFirstTest(getFirstTest(nonterminal));
     }
 
-    private RangeMap<BodyGrammarSlot> getLookAheadTest(Nonterminal nonterminal, NonterminalGrammarSlot nonterminalSlot) {
+    private FollowTest getFirstTest(Nonterminal nonterminal) {
         if (config.getLookAheadCount() == 0)
-            return i -> nonterminalSlot.getFirstSlots();
-
-        List<Rule> alternatives = grammar.getAlternatives(nonterminal);
-
-        RangeMapBuilder<BodyGrammarSlot> builder = new RangeMapBuilder<>();
-
-        for (int i = 0; i < alternatives.size(); i++) {
-            Rule rule = alternatives.get(i);
-            BodyGrammarSlot firstSlot = nonterminalSlot.getFirstSlots().get(i);
-            Set<CharRange> set = firstFollow.getPredictionSet(rule, 0);
-            set.forEach(cr -> builder.put(cr, firstSlot));
-        }
+            return FollowTest.DEFAULT;
 
-        return builder.buildRangeMap();
+        Set<CharRange> firstSet = new HashSet<>(firstFollow.getFirstSets().get(nonterminal));
+        if (firstFollow.isNullable(nonterminal))
+            firstSet.addAll(firstFollow.getFollowSet(nonterminal));
+        return new LabelFollowTest(firstFollow.getFirstLabels(nonterminal), new RangeTreeFollowTest(firstSet));
     }
 
     private FollowTest getFollowTest(Nonterminal nonterminal) {
         if (config.getLookAheadCount() == 0)
             return FollowTest.DEFAULT;
 
-        return new RangeTreeFollowTest(firstFollow.getFollowSet(nonterminal));
+        return new LabelFollowTest(firstFollow.getFollowLabels(nonterminal), new RangeTreeFollowTest(firstFollow.getFollowSet(nonterminal)));
     }
 
     private FollowTest getFollowTest(Rule rule, int i) {
         if (config.getLookAheadCount() == 0)
             return FollowTest.DEFAULT;
 
-        return new RangeTreeFollowTest(firstFollow.getPredictionSet(rule, i));
+        return new LabelFollowTest(firstFollow.getPredictionLabels(rule, i), new RangeTreeFollowTest(firstFollow.getPredictionSet(rule, i)));
     }
 
     private void addRule(NonterminalGrammarSlot head, Rule rule) {
+        if (head.getParameters() != null && head.getParameters().length > 0)
+            environmentFree = false;
+
         BodyGrammarSlot firstSlot = getFirstGrammarSlot(rule, head);
         head.addFirstSlot(firstSlot);
 
@@ -225,6 +240,8 @@ public class GrammarGraphBuilder implements Serializable {
                 slot = getBodyGrammarSlot(rule, i + 1, rule.getPosition(i + 1), symbol.getLabel(), symbol.getVariable(), symbol.getState());
 
             Expression[] arguments = symbol.getArguments();
+            if (arguments != null || symbol.getLabel() != null || symbol.getVariable() != null || symbol.getState() != null)
+                environmentFree = false;
 
             validateNumberOfArguments(nonterminalSlot.getNonterminal(), arguments);
 
@@ -241,6 +258,7 @@ public class GrammarGraphBuilder implements Serializable {
 
             Symbol sym = symbol.getSymbol();
             Expression expression = symbol.getExpression();
+            environmentFree = false;
 
             visitSymbol(sym);
 
@@ -257,6 +275,7 @@ public class GrammarGraphBuilder implements Serializable {
 
             Symbol sym = symbol.getSymbol();
             Statement[] statements = symbol.getStatements();
+            environmentFree = false;
 
             visitSymbol(sym);
 
@@ -269,6 +288,7 @@ public class GrammarGraphBuilder implements Serializable {
         }
 
         public Void visit(Return symbol) {
+            environmentFree = false;
             BodyGrammarSlot done;
             if (i != rule.size() - 1)
                 throw new RuntimeException("Return symbol can only be used at the end of a grammar rule!");
@@ -289,6 +309,8 @@ public class GrammarGraphBuilder implements Serializable {
         @Override
         public Void visit(Terminal symbol) {
             TerminalGrammarSlot terminalSlot = getTerminalGrammarSlot(symbol);
+            if (symbol.getLabel() != null)
+                environmentFree = false;
 
             BodyGrammarSlot slot;
 
@@ -318,6 +340,7 @@ public class GrammarGraphBuilder implements Serializable {
             Conditions preconditions = i == 0 ? ConditionsFactory.DEFAULT : getConditions(symbol.getPreConditions());
 
             if (symbol.getLabel() != null) {
+                environmentFree = false;
                 BodyGrammarSlot declared = getBodyGrammarSlot(rule, i + 1, rule.getPosition(i + 1), null, null, null);
                 EpsilonTransition transition = new EpsilonTransition(Type.DECLARE_LABEL, symbol.getLabel(), preconditions, currentSlot, declared);
                 setTransition(transition);
@@ -383,8 +406,11 @@ public class GrammarGraphBuilder implements Serializable {
     }
 
     private NonterminalGrammarSlot getNonterminalSlot(Nonterminal nonterminal) {
-        NonterminalGrammarSlot ntSlot = nonterminalsMap.computeIfAbsent(nonterminal,
-                k -> new NonterminalGrammarSlot(nonterminal));
+        NonterminalGrammarSlot ntSlot = nonterminalsMap.computeIfAbsent(nonterminal, k -> {
+            NonterminalGrammarSlot slot = new NonterminalGrammarSlot(nonterminal);
+            slot.setGSSNodesFactory(config.getGSSLookupFactory());
+            return slot;
+        });
         add(ntSlot);
         return ntSlot;
     }
@@ -402,6 +428,8 @@ public class GrammarGraphBuilder implements Serializable {
             slot = new BodyGrammarSlot(rule.getPosition(0, 0), rule.symbolAt(0).getLabel(), null, null, getConditions(preConditions));
         }
         add(slot);
+        // The follow test of a first slot is the lookahead test of its alternative
+        slot.setFollowTest(getFollowTest(rule, 0));
         return slot;
     }
 
@@ -453,6 +481,8 @@ public class GrammarGraphBuilder implements Serializable {
     private Conditions getConditions(Set<Condition> conditions) {
         if (conditions.isEmpty())
             return ConditionsFactory.DEFAULT;
+        if (conditions.stream().anyMatch(Condition::isDataDependent))
+            environmentFree = false;
         return ConditionsFactory.getConditions(conditions, matcherFactory);
     }
 }
@@ -0,0 +1,115 @@
+package org.iguana.grammar;
+
+import org.iguana.util.Configuration;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps built grammar graphs for later queries, as building one computes the first and follow sets, the matchers
+ * and the slots of all rules. A grammar graph holds the GSS and the SPPF tables of its run, so it is used by one
+ * query at a time: {@link #acquire} returns an idle grammar graph of the grammar and configuration, or builds a
+ * new one, and {@link #release} clears it and makes it idle again. Grammars are compared by identity.
+ * <p>
+ * The cache keeps the grammars of its idle grammar graphs until they are dropped with {@link #remove} or
+ * {@link #clear}, so a long-lived cache, such as the default one, should be told when a grammar is no longer
+ * queried. A grammar graph that is released afterwards is kept idle again.
+ * <p>
+ * Thread-safe.
+ */
+public class GrammarGraphCache {
+
+    private static final GrammarGraphCache DEFAULT = new GrammarGraphCache();
+
+    private final Map<Key, Deque<GrammarGraph>> idleGrammarGraphs = new ConcurrentHashMap<>();
+
+    private final Map<GrammarGraph, Key> acquiredGrammarGraphs = new ConcurrentHashMap<>();
+
+    private final AtomicLong buildsCount = new AtomicLong();
+
+    private final AtomicLong reusesCount = new AtomicLong();
+
+    /**
+     * The cache shared by the parsers that do not have their own
+     */
+    public static GrammarGraphCache getDefault() {
+        return DEFAULT;
+    }
+
+    public GrammarGraph acquire(Grammar grammar, Configuration config) {
+        Key key = new Key(grammar, config);
+        GrammarGraph grammarGraph = idleGrammarGraphs.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>()).pollFirst();
+        if (grammarGraph != null) {
+            reusesCount.incrementAndGet();
+        } else {
+            grammarGraph = GrammarGraphBuilder.from(grammar, config);
+            buildsCount.incrementAndGet();
+        }
+        acquiredGrammarGraphs.put(grammarGraph, key);
+        return grammarGraph;
+    }
+
+    /**
+     * Drops the GSS and other per-run state of the grammar graph, which should not be used afterwards, and
+     * keeps it for the next {@link #acquire} of its grammar and configuration
+     */
+    public void release(GrammarGraph grammarGraph) {
+        Key key = acquiredGrammarGraphs.remove(grammarGraph);
+        if (key == null)
+            throw new IllegalArgumentException("The grammar graph was not acquired from this cache, or was already released");
+        // Idle grammar graphs do not keep the tables of their last run
+        grammarGraph.setResetByEpoch(false);
+        grammarGraph.clear();
+        idleGrammarGraphs.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>()).addFirst(grammarGraph);
+    }
+
+    /**
+     * Drops the idle grammar graphs of the grammar, for all configurations. Acquired grammar graphs can still be
+     * released.
+     */
+    public void remove(Grammar grammar) {
+        idleGrammarGraphs.keySet().removeIf(key -> key.grammar == grammar);
+    }
+
+    /**
+     * Drops the idle grammar graphs. Acquired grammar graphs can still be released.
+     */
+    public void clear() {
+        idleGrammarGraphs.clear();
+    }
+
+    public long getBuildsCount() {
+        return buildsCount.get();
+    }
+
+    public long getReusesCount() {
+        return reusesCount.get();
+    }
+
+    private static final class Key {
+        private final Grammar grammar;
+        private final Configuration config;
+
+        Key(Grammar grammar, Configuration config) {
+            this.grammar = grammar;
+            this.config = config;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return grammar == other.grammar && config.equals(other.config);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(grammar), config);
+        }
+    }
+}
@@ -30,6 +30,8 @@ package org.iguana.grammar.operations;
 import iguana.regex.CharRange;
 import iguana.regex.EOF;
 import iguana.regex.Epsilon;
+import iguana.utils.input.EdgeLabels;
+import iguana.utils.input.Input;
 import org.iguana.grammar.AbstractGrammarGraphSymbolVisitor;
 import org.iguana.grammar.Grammar;
 import org.iguana.grammar.symbol.*;
@@ -37,6 +39,7 @@ import org.iguana.traversal.ISymbolVisitor;
 import org.iguana.util.Tuple;
 
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * 
@@ -53,9 +56,21 @@ public class FirstFollowSets {
 	
 	private final Map<Tuple<Rule, Integer>, Set<CharRange>> predictionSets;
 
+	/*
+	 * The same sets on edge labels, identified by their EdgeLabels ids, with Input.EOF for the end of input.
+	 * Unlike the character sets, which only hold the first character of a label, they tell labels apart.
+	 */
+	private final Map<Nonterminal, Set<Integer>> firstLabels;
+
+	private final Map<Nonterminal, Set<Integer>> followLabels;
+
+	private final Map<Tuple<Rule, Integer>, Set<Integer>> predictionLabels;
+
 	private final Set<Nonterminal> nullableNonterminals;
 	
 	private final ISymbolVisitor<Set<CharRange>> firstSetVisitor;
+
+	private final ISymbolVisitor<Set<Integer>> firstLabelVisitor;
 	
 	private final ISymbolVisitor<Boolean> nullableVisitor;
 	
@@ -67,17 +82,35 @@ public class FirstFollowSets {
 		this.nullableNonterminals = new HashSet<>();
 		this.followSets = new HashMap<>();
 		this.predictionSets = new HashMap<>();
+		this.firstLabels = new HashMap<>();
+		this.followLabels = new HashMap<>();
+		this.predictionLabels = new HashMap<>();
 		
-		this.firstSetVisitor = new FirstSymbolVisitor(firstSets);
+		this.firstSetVisitor = new FirstSymbolVisitor<>(firstSets, terminal -> terminal.getRegularExpression().getFirstSet());
+		this.firstLabelVisitor = new FirstSymbolVisitor<>(firstLabels, FirstFollowSets::getLabel);
 		this.nonterminalVisitor = new NonterminalVisitor();
 		this.nullableVisitor = new NullableSymbolVisitor(nullableNonterminals);
 		
 		definitions.keySet().forEach(k -> { firstSets.put(k, new HashSet<>()); followSets.put(k, new HashSet<>()); });
+		definitions.keySet().forEach(k -> { firstLabels.put(k, new HashSet<>()); followLabels.put(k, new HashSet<>()); });
 
 		calculateNullables();
-		calculateFirstSets();
-		calculateFollowSets();
-		calcualtePredictionSets();
+		calculateFirstSets(firstSets, firstSetVisitor);
+		calculateFollowSets(followSets, firstSetVisitor, EOF.getInstance().getFirstSet());
+		calcualtePredictionSets(predictionSets, followSets, firstSetVisitor);
+
+		calculateFirstSets(firstLabels, firstLabelVisitor);
+		calculateFollowSets(followLabels, firstLabelVisitor, Collections.singleton(Input.EOF));
+		calcualtePredictionSets(predictionLabels, followLabels, firstLabelVisitor);
+	}
+
+	/*
+	 * The label of the edges a terminal matches, as in DFAMatcherFactory, or none if the terminal is nullable
+	 */
+	private static Set<Integer> getLabel(Terminal terminal) {
+		if (terminal.getRegularExpression().isNullable())
+			return new HashSet<>();
+		return new HashSet<>(Collections.singleton(EdgeLabels.intern(terminal.getRegularExpression().toString())));
 	}
 	
 	public Map<Nonterminal, Set<CharRange>> getFirstSets() {
@@ -110,8 +143,27 @@ public class FirstFollowSets {
 	public Set<CharRange> getPredictionSet(Rule rule, int index) {
 		return predictionSets.get(Tuple.of(rule, index));
 	}
+
+	/**
+	 * @return the labels that can start a derivation of the nonterminal, including the labels that follow
+	 *         the nonterminal if it is nullable, so the labels that admit one of its alternatives
+	 */
+	public Set<Integer> getFirstLabels(Nonterminal nonterminal) {
+		Set<Integer> labels = new HashSet<>(firstLabels.get(nonterminal));
+		if (isNullable(nonterminal))
+			labels.addAll(followLabels.get(nonterminal));
+		return labels;
+	}
+
+	public Set<Integer> getFollowLabels(Nonterminal nonterminal) {
+		return followLabels.get(nonterminal);
+	}
+
+	public Set<Integer> getPredictionLabels(Rule rule, int index) {
+		return predictionLabels.get(Tuple.of(rule, index));
+	}
 	
-	private void calculateFirstSets() {
+	private <E> void calculateFirstSets(Map<Nonterminal, Set<E>> firstSets, ISymbolVisitor<Set<E>> firstSetVisitor) {
 		
 		Set<Nonterminal> nonterminals = definitions.keySet();
 		
@@ -122,9 +174,9 @@ public class FirstFollowSets {
 			changed = false;
 			
 			for (Nonterminal head : nonterminals) {
-				Set<CharRange> firstSet = firstSets.get(head);
+				Set<E> firstSet = firstSets.get(head);
 				for (Rule alternate : definitions.get(head)) {
-					changed |= addFirstSet(firstSet, alternate.getBody(), 0);
+					changed |= addFirstSet(firstSet, alternate.getBody(), 0, firstSetVisitor);
 				}
 			}
 		}
@@ -154,7 +206,7 @@ public class FirstFollowSets {
 	 * 
 	 * @return true if adding any new terminals are added to the first set.
 	 */
-	private boolean addFirstSet(Set<CharRange> firstSet, List<Symbol> alternative, int index) {
+	private <E> boolean addFirstSet(Set<E> firstSet, List<Symbol> alternative, int index, ISymbolVisitor<Set<E>> firstSetVisitor) {
 
 		boolean changed = false;
 		
@@ -190,7 +242,7 @@ public class FirstFollowSets {
 		return true;
 	}
 		
-	private void calculateFollowSets() {
+	private <E> void calculateFollowSets(Map<Nonterminal, Set<E>> followSets, ISymbolVisitor<Set<E>> firstSetVisitor, Set<E> eof) {
 		
 		Set<Nonterminal> nonterminals = definitions.keySet();
 		
@@ -216,8 +268,8 @@ public class FirstFollowSets {
 						if (nonterminal != null) {
 							// For rules of the form X ::= alpha B beta, add the
 							// first set of beta to the follow set of B.
-							Set<CharRange> followSet = followSets.get(nonterminal);
-							changed |= addFirstSet(followSet, alternative, i + 1);
+							Set<E> followSet = followSets.get(nonterminal);
+							changed |= addFirstSet(followSet, alternative, i + 1, firstSetVisitor);
 							
 							// If beta is nullable, then add the follow set of X
 							// to the follow set of B.
@@ -233,24 +285,26 @@ public class FirstFollowSets {
 		for (Nonterminal head : nonterminals) {
             // Add the EOF to all nonterminals as each nonterminal can be used
 			// as the start symbol.
-			followSets.get(head).addAll(EOF.getInstance().getFirstSet());			
+			followSets.get(head).addAll(eof);
 		}
 	}
 	
-	private void calcualtePredictionSets() {
+	private <E> void calcualtePredictionSets(Map<Tuple<Rule, Integer>, Set<E>> predictionSets, Map<Nonterminal, Set<E>> followSets,
+											 ISymbolVisitor<Set<E>> firstSetVisitor) {
 
 		for (Nonterminal nonterminal : definitions.keySet()) {
 			List<Rule> rules = definitions.get(nonterminal);
 			
 			for (Rule rule : rules) {
 				for (int i = 0; i <= rule.size(); i++) {
-					calculatePredictionSet(rule, i);
+					calculatePredictionSet(rule, i, predictionSets, followSets, firstSetVisitor);
 				}
 			}
 		}
 	}
 	
-	private void calculatePredictionSet(Rule rule, int index) {
+	private <E> void calculatePredictionSet(Rule rule, int index, Map<Tuple<Rule, Integer>, Set<E>> predictionSets,
+											Map<Nonterminal, Set<E>> followSets, ISymbolVisitor<Set<E>> firstSetVisitor) {
 		
 		Tuple<Rule, Integer> position = Tuple.of(rule, index);
 		List<Symbol> alternate = rule.getBody();
@@ -263,7 +317,7 @@ public class FirstFollowSets {
 			
 			Symbol symbol = alternate.get(i);
 
-			Set<CharRange> firstSet = symbol.accept(firstSetVisitor);
+			Set<E> firstSet = symbol.accept(firstSetVisitor);
 			predictionSets.computeIfAbsent(position, k -> new HashSet<>()).addAll(firstSet);
 			if (!isNullable(symbol)) break;			
 		}
@@ -359,30 +413,33 @@ public class FirstFollowSets {
         return true;
     }
     
-    private static class FirstSymbolVisitor extends AbstractGrammarGraphSymbolVisitor<Set<CharRange>> {
+    private static class FirstSymbolVisitor<E> extends AbstractGrammarGraphSymbolVisitor<Set<E>> {
+
+    	private final Map<Nonterminal, Set<E>> firstSets;
 
-    	private final Map<Nonterminal, Set<CharRange>> firstSets;
+    	private final Function<Terminal, Set<E>> terminalFirstSet;
     	
-    	public FirstSymbolVisitor(Map<Nonterminal, Set<CharRange>> firstSets) {
+    	public FirstSymbolVisitor(Map<Nonterminal, Set<E>> firstSets, Function<Terminal, Set<E>> terminalFirstSet) {
     		this.firstSets = firstSets;
+    		this.terminalFirstSet = terminalFirstSet;
     	}
     	
 		@Override
-		public Set<CharRange> visit(Code symbol) { return symbol.getSymbol().accept(this); }
+		public Set<E> visit(Code symbol) { return symbol.getSymbol().accept(this); }
 
 		@Override
-		public Set<CharRange> visit(Conditional symbol) { return symbol.getSymbol().accept(this); }
+		public Set<E> visit(Conditional symbol) { return symbol.getSymbol().accept(this); }
 
 		@Override
-		public Set<CharRange> visit(Nonterminal symbol) { return new HashSet<>(firstSets.get(symbol)); }
+		public Set<E> visit(Nonterminal symbol) { return new HashSet<>(firstSets.get(symbol)); }
 
         @Override
-        public Set<CharRange> visit(Terminal symbol) {
-            return symbol.getRegularExpression().getFirstSet();
+        public Set<E> visit(Terminal symbol) {
+            return terminalFirstSet.apply(symbol);
         }
 
         @Override
-		public Set<CharRange> visit(Return symbol) { return new HashSet<>(); }
+		public Set<E> visit(Return symbol) { return new HashSet<>(); }
 
     }
 
@@ -27,8 +27,10 @@
 
 package org.iguana.grammar.slot;
 
+import iguana.utils.collections.IntUtils;
 import iguana.utils.collections.Keys;
 import iguana.utils.collections.OpenAddressingHashMap;
+import iguana.utils.collections.OpenAddressingLongHashMap;
 import iguana.utils.collections.key.Key;
 import iguana.utils.input.Input;
 import org.iguana.datadependent.env.Environment;
@@ -44,12 +46,31 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class BodyGrammarSlot implements GrammarSlot {
 	
 	protected final Position position;
 	
 	private Map<Key, Object> intermediateNodes;
+
+	/**
+	 * The intermediate nodes of environment-free grammars, keyed by the destination and right index packed
+	 * in a long, so that a lookup does not allocate a key
+	 */
+	private OpenAddressingLongHashMap<Object> longIntermediateNodes;
+
+	private boolean resetByEpoch;
+
+	// The number of intermediate nodes in the last run, to allocate the maps of the next run
+	private int intermediateNodesCountHint;
+	private int longIntermediateNodesCountHint;
+
+	private boolean environmentFree;
+
+	private boolean concurrentRun;
+
+	private int id = -1;
 	
 	private final Conditions conditions;
 	
@@ -96,35 +117,105 @@ public class BodyGrammarSlot implements GrammarSlot {
 		return followTest.test(v);
 	}
 
+	public FollowTest getFollowTest() {
+		return followTest;
+	}
+
 	@SuppressWarnings("unchecked")
 	public <T extends Result> T getIntermediateNode(T leftResult, int destinationIndex, T rightResult, Environment env, IguanaRuntime<T> runtime) {
 		if (isFirst())
 			return rightResult;
 
+		if (environmentFree && !concurrentRun)
+			return getIntermediateNode(leftResult, IntUtils.merge(destinationIndex, rightResult.getIndex()), rightResult, runtime);
+
 		Key key = Keys.from(destinationIndex, rightResult.getIndex(), env);
 
 		if (intermediateNodes == null) {
-		    intermediateNodes = new OpenAddressingHashMap<>();
+		    intermediateNodes = OpenAddressingHashMap.withExpectedSize(intermediateNodesCountHint);
         }
 
 		Object value = intermediateNodes.get(key);
 		if (value == null) {
 			T newNode = runtime.getResultOps().merge(null, leftResult, rightResult, this);
-			intermediateNodes.put(key, newNode);
+			// Another thread may have added the node in between in a concurrent run
+			value = intermediateNodes.putIfAbsent(key, newNode);
+			if (value == null)
+				return newNode;
+		}
+
+		runtime.getResultOps().merge((T) value, leftResult, rightResult, this);
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T extends Result> T getIntermediateNode(T leftResult, long key, T rightResult, IguanaRuntime<T> runtime) {
+		if (longIntermediateNodes == null) {
+			longIntermediateNodes = OpenAddressingLongHashMap.withExpectedSize(longIntermediateNodesCountHint);
+		}
+
+		Object value = longIntermediateNodes.get(key);
+		if (value == null) {
+			T newNode = runtime.getResultOps().merge(null, leftResult, rightResult, this);
+			longIntermediateNodes.put(key, newNode);
 			return newNode;
 		}
 
 		runtime.getResultOps().merge((T) value, leftResult, rightResult, this);
 		return null;
 	}
+
+	/**
+	 * Set by the grammar graph builder if the environment stays empty in all runs, so that intermediate nodes
+	 * and popped elements are looked up by their indices only
+	 */
+	public void setEnvironmentFree(boolean environmentFree) {
+		this.environmentFree = environmentFree;
+	}
+
+	public boolean isEnvironmentFree() {
+		return environmentFree;
+	}
+
+	/**
+	 * Set by the grammar graph builder, unique among the body slots of a grammar graph
+	 */
+	public void setId(int id) {
+		this.id = id;
+	}
+
+	public int getId() {
+		return id;
+	}
 	
 	public Conditions getConditions() {
 		return conditions;
 	}
 
+	@Override
+	public void setResetByEpoch(boolean resetByEpoch) {
+		this.resetByEpoch = resetByEpoch;
+	}
+
 	@Override
 	public void reset() {
+		if (intermediateNodes != null && !intermediateNodes.isEmpty())
+			intermediateNodesCountHint = intermediateNodes.size();
+		if (longIntermediateNodes != null && !longIntermediateNodes.isEmpty())
+			longIntermediateNodesCountHint = longIntermediateNodes.size();
+
 		intermediateNodes = null;
+		if (resetByEpoch && longIntermediateNodes != null)
+			longIntermediateNodes.clearKeepingCapacity();
+		else
+			longIntermediateNodes = null;
+		concurrentRun = false;
+	}
+
+	@Override
+	public void prepareConcurrentRun() {
+		intermediateNodes = new ConcurrentHashMap<>();
+		concurrentRun = true;
 	}
 
 	public String getLabel() {
@@ -42,5 +42,26 @@ package org.iguana.grammar.slot;
 public interface GrammarSlot {
 
 	void reset();
+
+	/**
+	 * Sets whether {@link #reset()} keeps the primitive per-run tables of this slot, removing their entries by
+	 * moving them to the next epoch, instead of dropping the tables. Only for sequential runs.
+	 */
+	default void setResetByEpoch(boolean resetByEpoch) {}
+
+	/**
+	 * Replaces the per-run tables of this slot by thread-safe ones, before a run in which several threads
+	 * process descriptors. The tables are dropped again by {@link #reset()}.
+	 */
+	default void prepareConcurrentRun() {}
+
+	/**
+	 * Resets the per-run tables of this slot, except for the ones that are still valid for later runs on the
+	 * same graph when the GSS is kept between runs. All GSS nodes are complete at the end of a run, so no
+	 * descriptor is ever created again for them.
+	 */
+	default void resetKeepingGSS() {
+		reset();
+	}
 	
 }
@@ -27,18 +27,18 @@
 
 package org.iguana.grammar.slot;
 
+import iguana.utils.collections.ConcurrentIntHashMap;
+import iguana.utils.collections.HashMapFactory;
 import iguana.utils.collections.IntHashMap;
 import iguana.utils.collections.Keys;
 import iguana.utils.collections.OpenAddressingHashMap;
-import iguana.utils.collections.OpenAddressingIntHashMap;
 import iguana.utils.collections.key.Key;
-import iguana.utils.collections.rangemap.RangeMap;
+import iguana.utils.input.GraphInput;
 import iguana.utils.input.Input;
 import org.iguana.datadependent.ast.Expression;
 import org.iguana.datadependent.env.Environment;
 import org.iguana.grammar.slot.lookahead.FollowTest;
 import org.iguana.grammar.symbol.Nonterminal;
-import org.iguana.gss.DefaultGSSNode;
 import org.iguana.gss.GSSEdge;
 import org.iguana.gss.GSSNode;
 import org.iguana.parser.IguanaRuntime;
@@ -47,9 +47,7 @@ import org.iguana.util.Configuration.EnvironmentImpl;
 import org.iguana.util.ParserLogger;
 
 import java.util.*;
-import java.util.function.Supplier;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.Collections.emptyList;
 
@@ -64,21 +62,50 @@ public class NonterminalGrammarSlot implements GrammarSlot {
 
     private IntHashMap<GSSNode> intGSSNodes;
 
-    private RangeMap<BodyGrammarSlot> lookAheadTest;
+    private HashMapFactory gssNodesFactory = HashMapFactory.OPEN_ADDRESSING;
+
+    private boolean resetByEpoch;
+
+    // The sizes of the GSS node maps in the last run, to allocate the maps of the next run
+    private int gssNodesCountHint;
+    private int intGSSNodesCountHint;
 
     private FollowTest followTest;
 
+    private FollowTest firstTest = FollowTest.DEFAULT;
+
     public NonterminalGrammarSlot(Nonterminal nonterminal) {
         this.nonterminal = nonterminal;
         this.firstSlots = new ArrayList<>();
     }
 
-    public <T extends Result> void addStartGSSNode(GSSNode<T> gssNode, int index) {
+    /**
+     * Sets the factory of the map from input indices to the GSS nodes without arguments, which is chosen by
+     * the grammar graph builder from the GSS lookup configuration
+     */
+    public void setGSSNodesFactory(HashMapFactory gssNodesFactory) {
+        this.gssNodesFactory = gssNodesFactory;
+    }
+
+    /**
+     * Adds a GSS node of a start vertex. The map of the GSS nodes is created for the input, as in
+     * {@link #create}, since the same map keeps the GSS nodes created while parsing the input.
+     */
+    public <T extends Result> void addStartGSSNode(GSSNode<T> gssNode, int index, Input input) {
         if (intGSSNodes == null)
-            intGSSNodes = new OpenAddressingIntHashMap<>();
+            intGSSNodes = gssNodesFactory.newIntHashMap(getIndicesCount(input), intGSSNodesCountHint);
         intGSSNodes.put(index, gssNode);
     }
 
+    /**
+     * @return the GSS node of this nonterminal without arguments at the given index, or null if there is none
+     */
+    public <T extends Result> GSSNode<T> getGSSNode(int index) {
+        if (intGSSNodes == null)
+            return null;
+        return intGSSNodes.get(index);
+    }
+
     public void addFirstSlot(BodyGrammarSlot slot) {
         firstSlots.add(slot);
     }
@@ -87,34 +114,36 @@ public class NonterminalGrammarSlot implements GrammarSlot {
         return firstSlots;
     }
 
-    private List<BodyGrammarSlot> getFirstSlots(int v) {
-        return lookAheadTest.get(v);
-    }
-
-    private List<BodyGrammarSlot> getFirstSlots(List<Integer> v) {
-        List<BodyGrammarSlot> result = new ArrayList<>();
-        v.forEach(t -> result.addAll(lookAheadTest.get(t)));
-        return result;
+    /*
+     * Returns the index of the first alternative, starting from the given one, whose prediction set
+     * admits one of the next symbols at i, or -1 if there is no such alternative.
+     */
+    private int nextPredictedSlot(Input input, int i, int from) {
+        for (int j = from; j < firstSlots.size(); j++) {
+            if (firstSlots.get(j).getFollowTest().testNext(input, i))
+                return j;
+        }
+        return -1;
     }
 
-    private Stream<BodyGrammarSlot> getFirstSlots(Stream<Integer> v) {
-        List<BodyGrammarSlot> result = new ArrayList<>();
-        v.forEach(t -> {
-            result.addAll(lookAheadTest.get(t));
-        });
-        return result.stream();
+    public void setFollowTest(FollowTest followTest) {
+        this.followTest = followTest;
     }
 
-    public void setLookAheadTest(RangeMap<BodyGrammarSlot> lookAheadTest) {
-        this.lookAheadTest = lookAheadTest;
+    public FollowTest getFollowTest() {
+        return followTest;
     }
 
-    public void setFollowTest(FollowTest followTest) {
-        this.followTest = followTest;
+    /**
+     * Sets the test that admits the symbols with which any of the alternatives can start, so that a call
+     * that no alternative can continue is rejected before the alternatives are tested one by one.
+     */
+    public void setFirstTest(FollowTest firstTest) {
+        this.firstTest = firstTest;
     }
 
-    boolean testFollow(int v) {
-        return followTest.test(v);
+    public FollowTest getFirstTest() {
+        return firstTest;
     }
 
     public Nonterminal getNonterminal() {
@@ -152,10 +181,39 @@ public class NonterminalGrammarSlot implements GrammarSlot {
         return gssNodes.values();
     }
 
+    @Override
+    public void setResetByEpoch(boolean resetByEpoch) {
+        this.resetByEpoch = resetByEpoch;
+    }
+
     @Override
     public void reset() {
+        if (gssNodes != null && !gssNodes.isEmpty())
+            gssNodesCountHint = gssNodes.size();
+        if (intGSSNodes != null && !intGSSNodes.isEmpty())
+            intGSSNodesCountHint = intGSSNodes.size();
+
         gssNodes = null;
-        intGSSNodes = null;
+        if (resetByEpoch && intGSSNodes != null)
+            intGSSNodes.clearKeepingCapacity();
+        else
+            intGSSNodes = null;
+    }
+
+    @Override
+    public void resetKeepingGSS() {
+    }
+
+    @Override
+    public void prepareConcurrentRun() {
+        gssNodes = new ConcurrentHashMap<>();
+        intGSSNodes = new ConcurrentIntHashMap<>();
+    }
+
+    private static int getIndicesCount(Input input) {
+        if (input instanceof GraphInput)
+            return ((GraphInput) input).getVerticesCount();
+        return input.length();
     }
 
     public <T extends Result> void create(Input input, BodyGrammarSlot returnSlot, GSSNode<T> u, T result, Expression[] arguments, Environment env, IguanaRuntime<T> runtime) {
@@ -173,27 +231,38 @@ public class NonterminalGrammarSlot implements GrammarSlot {
 
         if (arguments == null) {
             if (intGSSNodes == null) {
-                intGSSNodes = new OpenAddressingIntHashMap<>();
+                intGSSNodes = gssNodesFactory.newIntHashMap(getIndicesCount(input), intGSSNodesCountHint);
             } else {
                 gssNode = intGSSNodes.get(i);
             }
         } else {
             if (gssNodes == null) {
-                gssNodes = new OpenAddressingHashMap<>();
+                gssNodes = OpenAddressingHashMap.withExpectedSize(gssNodesCountHint);
             } else {
                 gssNode = gssNodes.get(key);
             }
         }
 
         if (gssNode == null) {
-            Stream<BodyGrammarSlot> firstSlots = getFirstSlots(input.nextSymbols(i));
-            Stream<BodyGrammarSlot> testFirstSlots = getFirstSlots(input.nextSymbols(i));
-            if (testFirstSlots.findAny().isEmpty()) {
+            if (!firstTest.testNext(input, i)) {
+                return;
+            }
+            int predicted = nextPredictedSlot(input, i, 0);
+            if (predicted == -1) {
                 return;
             }
 
             GSSEdge<T> gssEdge = runtime.createGSSEdge(returnSlot, result, u, env);
-            gssNode = new DefaultGSSNode<>(gssEdge, i);
+            GSSNode<T> newGSSNode = runtime.createGSSNode(gssEdge, i);
+
+            // The node is added before its descriptors are scheduled, as in a concurrent run they can be
+            // processed right away. If another thread has added the node in between, only the edge is added.
+            GSSNode<T> existing = arguments == null ? intGSSNodes.computeIfAbsent(i, k -> newGSSNode) : gssNodes.putIfAbsent(key, newGSSNode);
+            if (existing != null && existing != newGSSNode) {
+                existing.addGSSEdge(input, returnSlot, i, u, result, env, runtime);
+                return;
+            }
+            gssNode = newGSSNode;
 
 //            ParserLogger.getInstance().gssNodeAdded(gssNode, data);
 //            ParserLogger.getInstance().gssEdgeAdded(gssEdge);
@@ -207,34 +276,21 @@ public class NonterminalGrammarSlot implements GrammarSlot {
                     newEnv = runtime.getEmptyEnvironment().declare(nonterminal.getParameters(), data);
             }
 
-            Environment finalNewEnv = newEnv;
-            GSSNode finalGssNode = gssNode;
-            firstSlots.forEach(slot -> {
-                runtime.setEnvironment(finalNewEnv);
+            while (predicted != -1) {
+                BodyGrammarSlot slot = firstSlots.get(predicted);
+                runtime.setEnvironment(newEnv);
 
                 if (slot.getLabel() != null)
                     runtime.getEvaluatorContext().declareVariable(String.format(Expression.LeftExtent.format, slot.getLabel()), i);
 
-                int inputIndex = result.isDummy() ? finalGssNode.getInputIndex() : result.getIndex();
-                if (!slot.getConditions().execute(input, returnSlot, finalGssNode, inputIndex, runtime.getEvaluatorContext(), runtime))
-                    runtime.scheduleDescriptor(slot, finalGssNode, runtime.getResultOps().dummy(), runtime.getEnvironment());
-            });
-            if (arguments == null) {
-                intGSSNodes.put(i, gssNode);
-            } else {
-                gssNodes.put(key, gssNode);
+                int inputIndex = result.isDummy() ? gssNode.getInputIndex() : result.getIndex();
+                if (!slot.getConditions().execute(input, returnSlot, gssNode, inputIndex, runtime.getEvaluatorContext(), runtime))
+                    runtime.scheduleDescriptor(slot, gssNode, runtime.getResultOps().dummy(), runtime.getEnvironment());
+
+                predicted = nextPredictedSlot(input, i, predicted + 1);
             }
         } else {
             gssNode.addGSSEdge(input, returnSlot, i, u, result, env, runtime);
         }
     }
-
-    static <T> Stream<T> wrapperStream(Stream<T> stream) {
-        Iterator<T> iterator = stream.iterator();
-        if (iterator.hasNext()) {
-            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, 0), false);
-        } else {
-            return null;
-        }
-    }
 }
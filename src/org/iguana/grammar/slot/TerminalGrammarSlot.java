@@ -29,8 +29,10 @@ package org.iguana.grammar.slot;
 
 import iguana.regex.matcher.Matcher;
 import iguana.regex.matcher.MatcherFactory;
+import iguana.utils.collections.ConcurrentIntHashMap;
 import iguana.utils.collections.IntHashMap;
 import iguana.utils.collections.OpenAddressingIntHashMap;
+import iguana.utils.collections.primitive.IntArray;
 import iguana.utils.input.Input;
 import org.iguana.grammar.condition.Conditions;
 import org.iguana.grammar.symbol.Terminal;
@@ -46,6 +48,11 @@ public class TerminalGrammarSlot implements GrammarSlot {
 	private final Terminal terminal;
     private final Matcher matcher;
 	private IntHashMap<Object> terminalNodes;
+
+	private boolean resetByEpoch;
+
+	// The number of terminal nodes in the last run, to allocate the map of the next run
+	private int terminalNodesCountHint;
     private final Conditions preConditions;
     private final Conditions postConditions;
 
@@ -61,7 +68,7 @@ public class TerminalGrammarSlot implements GrammarSlot {
 
 	public <T extends Result> List<T> getResult(Input input, int i, BodyGrammarSlot slot, GSSNode<T> gssNode, IguanaRuntime<T> runtime) {
 	    if (terminalNodes == null) {
-	        terminalNodes = new OpenAddressingIntHashMap<>();
+	        terminalNodes = OpenAddressingIntHashMap.withExpectedSize(terminalNodesCountHint);
         }
 		Object nodes = terminalNodes.get(i);
 	    if (nodes == failure) {
@@ -74,14 +81,15 @@ public class TerminalGrammarSlot implements GrammarSlot {
         }
 
 		if (nodes == null) {
-			List<Integer> endIndexes = matcher.match(input, i);
+			IntArray endIndexes = matcher.matchIndices(input, i);
 
-			if (endIndexes.isEmpty()) {
+			if (endIndexes.size() == 0) {
 				nodes = null;
 				terminalNodes.put(i, failure);
 			} else {
-				final List<T> curNodes = new ArrayList<>();
-				for (Integer endIndex: endIndexes) {
+				final List<T> curNodes = new ArrayList<>(endIndexes.size());
+				for (int j = 0; j < endIndexes.size(); j++) {
+					int endIndex = endIndexes.get(j);
 					if (postConditions.execute(input, slot, gssNode, i, endIndex, runtime)) {
 						terminalNodes.put(i, failure);
 						return null;
@@ -108,9 +116,30 @@ public class TerminalGrammarSlot implements GrammarSlot {
 		return terminal.toString();
 	}
 
+	@Override
+	public void setResetByEpoch(boolean resetByEpoch) {
+		this.resetByEpoch = resetByEpoch;
+	}
+
     @Override
 	public void reset() {
-		terminalNodes = null;
+		if (terminalNodes == null)
+			return;
+		if (!terminalNodes.isEmpty())
+			terminalNodesCountHint = terminalNodes.size();
+		if (resetByEpoch)
+			terminalNodes.clearKeepingCapacity();
+		else
+			terminalNodes = null;
+	}
+
+	@Override
+	public void resetKeepingGSS() {
+	}
+
+	@Override
+	public void prepareConcurrentRun() {
+		terminalNodes = new ConcurrentIntHashMap<>();
 	}
 
 }
@@ -1,8 +1,23 @@
 package org.iguana.grammar.slot.lookahead;
 
+import iguana.utils.input.Input;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Is an {@link IntPredicate} so that it can be passed to {@link iguana.utils.input.Input#anyNextSymbol}
+ * directly, without allocating a method reference per test.
+ */
 @FunctionalInterface
-public interface FollowTest {
+public interface FollowTest extends IntPredicate {
 	boolean test(int v);
+
+	/**
+	 * @return true if any of the next symbols of the input at the given index passes this test
+	 */
+	default boolean testNext(Input input, int index) {
+		return input.anyNextSymbol(index, this);
+	}
 	
 	FollowTest DEFAULT = i -> true;
 }
@@ -0,0 +1,53 @@
+package org.iguana.grammar.slot.lookahead;
+
+import iguana.utils.input.GraphInput;
+import iguana.utils.input.Input;
+
+import java.util.Set;
+
+/**
+ * Tests whole edge labels instead of their first characters. The admissible labels are kept as a bitmap
+ * indexed by {@link iguana.utils.input.EdgeLabels} ids, so a graph input with per-vertex label masks can
+ * answer the test with a single AND. Inputs without label masks, and {@link #test(int)}, use the character
+ * level test this one refines.
+ */
+public class LabelFollowTest implements FollowTest {
+
+    private final long[] labels;
+
+    private final boolean eof;
+
+    private final FollowTest characterTest;
+
+    /**
+     * @param labels        the admissible label ids, with {@link Input#EOF} for the end of input
+     * @param characterTest the test on the first characters of the same labels
+     */
+    public LabelFollowTest(Set<Integer> labels, FollowTest characterTest) {
+        int max = labels.stream().mapToInt(Integer::intValue).max().orElse(-1);
+        this.labels = new long[max < 0 ? 0 : (max >>> 6) + 1];
+        for (int label : labels) {
+            if (label >= 0) {
+                this.labels[label >>> 6] |= 1L << label;
+            }
+        }
+        this.eof = labels.contains(Input.EOF);
+        this.characterTest = characterTest;
+    }
+
+    @Override
+    public boolean test(int v) {
+        return characterTest.test(v);
+    }
+
+    @Override
+    public boolean testNext(Input input, int index) {
+        if (eof && input.isFinal(index)) {
+            return true;
+        }
+        if (input instanceof GraphInput) {
+            return ((GraphInput) input).anyOutgoingLabel(index, labels, characterTest);
+        }
+        return input.anyNextSymbol(index, characterTest);
+    }
+}
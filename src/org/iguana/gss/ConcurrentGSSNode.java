@@ -0,0 +1,46 @@
+package org.iguana.gss;
+
+import iguana.utils.collections.IntHashMap;
+import iguana.utils.input.Input;
+import org.iguana.datadependent.env.Environment;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.grammar.slot.EndGrammarSlot;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.parser.IguanaRuntime;
+import org.iguana.result.Result;
+
+/**
+ * GSS node for runs in which several threads process descriptors. Adding an edge and popping are mutually
+ * exclusive: each one records its element and then combines it with a consistent view of the other kind of
+ * element, so every (edge, popped element) pair is processed by whichever of the two operations comes last.
+ * The descriptors created while holding the lock are only scheduled, never executed, so no other GSS node lock
+ * is acquired while holding this one.
+ */
+public class ConcurrentGSSNode<T extends Result> extends DefaultGSSNode<T> {
+
+    public ConcurrentGSSNode(GSSEdge<T> firstGSSEdge, int inputIndex) {
+        super(firstGSSEdge, inputIndex);
+    }
+
+    public ConcurrentGSSNode(NonterminalGrammarSlot slot, int inputIndex) {
+        super(slot, inputIndex);
+    }
+
+    public ConcurrentGSSNode(GSSEdge<T> firstGSSEdge, int inputIndex, IntHashMap<T> poppedElements) {
+        super(firstGSSEdge, inputIndex, poppedElements);
+    }
+
+    public ConcurrentGSSNode(NonterminalGrammarSlot slot, int inputIndex, IntHashMap<T> poppedElements) {
+        super(slot, inputIndex, poppedElements);
+    }
+
+    @Override
+    public synchronized void addGSSEdge(Input input, BodyGrammarSlot returnSlot, int i, GSSNode<T> destination, T w, Environment env, IguanaRuntime<T> runtime) {
+        super.addGSSEdge(input, returnSlot, i, destination, w, env, runtime);
+    }
+
+    @Override
+    public synchronized boolean pop(Input input, EndGrammarSlot slot, T result, Object value, IguanaRuntime<T> runtime) {
+        return super.pop(input, slot, result, value, runtime);
+    }
+}
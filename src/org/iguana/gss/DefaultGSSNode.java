@@ -28,9 +28,11 @@
 package org.iguana.gss;
 
 import iguana.utils.collections.IntHashMap;
+import iguana.utils.collections.IntUtils;
 import iguana.utils.collections.Keys;
 import iguana.utils.collections.OpenAddressingHashMap;
 import iguana.utils.collections.OpenAddressingIntHashMap;
+import iguana.utils.collections.OpenAddressingLongHashSet;
 import iguana.utils.collections.key.Key;
 import iguana.utils.input.Input;
 import org.iguana.datadependent.env.Environment;
@@ -42,6 +44,7 @@ import org.iguana.result.ResultOps;
 import org.iguana.util.ParserLogger;
 
 import java.util.*;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -60,21 +63,43 @@ public class DefaultGSSNode<T extends Result> implements GSSNode<T> {
 
 	private T firstPoppedElement;
 
-	private Map<Key, T> restPoppedElements;
+	private List<T> restPoppedElements;
+
+	/**
+	 * The popped elements other than the first one by right index and value, if the grammar is not
+	 * environment free. Otherwise they are looked up in poppedElements by right index only.
+	 */
+	private Map<Key, T> keyedPoppedElements;
 
 	private final IntHashMap<T> poppedElements;
 
+	/**
+	 * The slot ids and input indices of the descriptors scheduled for this node, if descriptors are deduplicated
+	 */
+	private OpenAddressingLongHashSet scheduledDescriptors;
+
 	public DefaultGSSNode(GSSEdge<T> firstGSSEdge, int inputIndex) {
+		this(firstGSSEdge, inputIndex, new OpenAddressingIntHashMap<>());
+	}
+
+	/**
+	 * @param poppedElements an empty map, which will hold the popped elements by right index
+	 */
+	public DefaultGSSNode(GSSEdge<T> firstGSSEdge, int inputIndex, IntHashMap<T> poppedElements) {
 	    this.firstGSSEdge = firstGSSEdge;
 	    this.inputIndex = inputIndex;
-		poppedElements = new OpenAddressingIntHashMap<>();
+		this.poppedElements = poppedElements;
 		slot = null;
 	}
 
 	public DefaultGSSNode(NonterminalGrammarSlot slot, int inputIndex) {
+		this(slot, inputIndex, new OpenAddressingIntHashMap<>());
+	}
+
+	public DefaultGSSNode(NonterminalGrammarSlot slot, int inputIndex, IntHashMap<T> poppedElements) {
 		this.slot = slot;
 		this.inputIndex = inputIndex;
-		poppedElements = new OpenAddressingIntHashMap<>();
+		this.poppedElements = poppedElements;
 	}
 
     @Override
@@ -104,13 +129,15 @@ public class DefaultGSSNode<T extends Result> implements GSSNode<T> {
 		}
 	}
 
-    private void iterateOverPoppedElements(GSSEdge<T> edge, BodyGrammarSlot returnSlot, GSSNode<T> destination, Input input, Environment env, IguanaRuntime<T> runtime) {
+    protected void iterateOverPoppedElements(GSSEdge<T> edge, BodyGrammarSlot returnSlot, GSSNode<T> destination, Input input, Environment env, IguanaRuntime<T> runtime) {
         if (firstPoppedElement != null)
             processPoppedElement(firstPoppedElement, edge, returnSlot, destination, input, env, runtime);
 
         if (restPoppedElements != null) {
-            for (T poppedElement: restPoppedElements.values()) {
-                processPoppedElement(poppedElement, edge, returnSlot, destination, input, env, runtime);
+            // The elements popped while processing are combined with the edge by the pop
+            int size = restPoppedElements.size();
+            for (int i = 0; i < size; i++) {
+                processPoppedElement(restPoppedElements.get(i), edge, returnSlot, destination, input, env, runtime);
             }
         }
     }
@@ -122,8 +149,12 @@ public class DefaultGSSNode<T extends Result> implements GSSNode<T> {
 	public boolean pop(Input input, EndGrammarSlot slot, T result, Object value, IguanaRuntime<T> runtime) {
 		// ParserLogger.getInstance().pop(this, result.getLeftExtent(), result, value);
 		T node = addPoppedElements(slot, result, value, runtime.getResultOps());
-		if (node != null)
+		if (node != null) {
+			// Only start GSS nodes have their slot set
+			if (this.slot != null)
+				runtime.startGSSNodePopped(this, node);
 			iterateOverEdges(input, node, runtime);
+		}
 
 //		int index = result.getIndex();
 //		if (slot != null) {
@@ -153,7 +184,7 @@ public class DefaultGSSNode<T extends Result> implements GSSNode<T> {
 	/**
 	 * Returns the newly created popped element, or null if the node already exists
 	 */
-	private T addPoppedElements(EndGrammarSlot slot, T child, Object value, ResultOps<T> ops) {
+	protected T addPoppedElements(EndGrammarSlot slot, T child, Object value, ResultOps<T> ops) {
 		// No node added yet
 		if (firstPoppedElement == null) {
 			firstPoppedElement = ops.convert(null, child, slot, value);
@@ -166,33 +197,50 @@ public class DefaultGSSNode<T extends Result> implements GSSNode<T> {
 			if (rightIndex == firstPoppedElement.getIndex() && Objects.equals(value, firstPoppedElement.getValue())) {
 				ops.convert(firstPoppedElement, child, slot, value);
 				return null;
-			} else {
-				Key key = value == null ? Keys.from(rightIndex) : Keys.from(rightIndex, value);
-
-				if (restPoppedElements == null) {
-					restPoppedElements = new OpenAddressingHashMap<>();
-					T poppedElement = ops.convert(null, child, slot, value);
-					restPoppedElements.put(key, poppedElement);
-					poppedElements.put(rightIndex, poppedElement);
-					return poppedElement;
-				}
+			}
 
-				T poppedElement = restPoppedElements.get(key);
+			if (slot.isEnvironmentFree()) {
+				T poppedElement = poppedElements.get(rightIndex);
 				if (poppedElement == null) {
 					poppedElement = ops.convert(null, child, slot, value);
 					poppedElements.put(rightIndex, poppedElement);
-					restPoppedElements.put(key, poppedElement);
+					addRestPoppedElement(poppedElement);
 					return poppedElement;
 				}
 
 				ops.convert(poppedElement, child, slot, value);
 				return null;
 			}
+
+			Key key = value == null ? Keys.from(rightIndex) : Keys.from(rightIndex, value);
+
+			if (keyedPoppedElements == null) {
+				keyedPoppedElements = new OpenAddressingHashMap<>();
+			}
+
+			T poppedElement = keyedPoppedElements.get(key);
+			if (poppedElement == null) {
+				poppedElement = ops.convert(null, child, slot, value);
+				poppedElements.put(rightIndex, poppedElement);
+				keyedPoppedElements.put(key, poppedElement);
+				addRestPoppedElement(poppedElement);
+				return poppedElement;
+			}
+
+			ops.convert(poppedElement, child, slot, value);
+			return null;
+		}
+	}
+
+	private void addRestPoppedElement(T poppedElement) {
+		if (restPoppedElements == null) {
+			restPoppedElements = new ArrayList<>(4);
 		}
+		restPoppedElements.add(poppedElement);
 	}
 
-	private void processPoppedElement(T poppedElement, GSSEdge<T> edge, BodyGrammarSlot returnSlot,
-									  GSSNode<T> destination, Input input, Environment env, IguanaRuntime<T> runtime) {
+	protected void processPoppedElement(T poppedElement, GSSEdge<T> edge, BodyGrammarSlot returnSlot,
+									    GSSNode<T> destination, Input input, Environment env, IguanaRuntime<T> runtime) {
 		//boolean anyMatchTestFollow = input.nextSymbols(poppedElement.getIndex())
 		//		.anyMatch(returnSlot::testFollow);
 		//if (anyMatchTestFollow) {
@@ -290,6 +338,13 @@ public class DefaultGSSNode<T extends Result> implements GSSNode<T> {
 		return count;
 	}
 
+	public boolean addScheduledDescriptor(int slotId, int inputIndex) {
+		if (scheduledDescriptors == null) {
+			scheduledDescriptors = new OpenAddressingLongHashSet(8);
+		}
+		return scheduledDescriptors.add(IntUtils.merge(slotId, inputIndex));
+	}
+
 	public int countPoppedElements() {
 		int count = 0;
 		if (firstPoppedElement != null) count++;
@@ -320,11 +375,20 @@ public class DefaultGSSNode<T extends Result> implements GSSNode<T> {
 		Stream.Builder<T> poppedElements = Stream.builder();
 		if (firstPoppedElement != null) poppedElements.add(firstPoppedElement);
 		if (restPoppedElements != null)
-			restPoppedElements.values().forEach(poppedElements::add);
+			restPoppedElements.forEach(poppedElements::add);
 
 		return poppedElements.build()::iterator;
 	}
 
+	/**
+	 * Passes the right indices of the popped elements to the consumer
+	 */
+	public void forEachPoppedIndex(IntConsumer consumer) {
+		if (firstPoppedElement != null) consumer.accept(firstPoppedElement.getIndex());
+		if (restPoppedElements != null)
+			restPoppedElements.forEach(poppedElement -> consumer.accept(poppedElement.getIndex()));
+	}
+
 	public String toString() {
 		String s = String.format("(%s, %d)", getGrammarSlot(), getInputIndex());
 		if (getData() != null) {
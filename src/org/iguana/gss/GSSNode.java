@@ -29,4 +29,10 @@ public interface GSSNode<T extends Result> {
     Iterable<GSSEdge<T>> getGSSEdges();
 
     Iterable<T> getPoppedElements();
+
+    /**
+     * Records that a descriptor of the body slot with the given id and the input index is scheduled for this
+     * GSS node, and returns false if one was already scheduled.
+     */
+    boolean addScheduledDescriptor(int slotId, int inputIndex);
 }
@@ -0,0 +1,88 @@
+package org.iguana.gss;
+
+import iguana.utils.collections.primitive.AdaptiveIntSet;
+import iguana.utils.collections.primitive.IntIterable;
+import iguana.utils.collections.primitive.IntIterator;
+import iguana.utils.input.Input;
+import org.iguana.datadependent.env.Environment;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.grammar.slot.EndGrammarSlot;
+import org.iguana.grammar.slot.NonterminalGrammarSlot;
+import org.iguana.parser.IguanaRuntime;
+import org.iguana.result.RecognizerResult;
+import org.iguana.result.ResultOps;
+
+import java.util.Iterator;
+import java.util.function.IntConsumer;
+
+/**
+ * A GSS node of a sequential reachability run on an environment-free grammar. Such a popped element carries
+ * nothing but its right index, so the node keeps the right indices in an {@link AdaptiveIntSet} and creates the
+ * recognizer results only when combining them with a new GSS edge.
+ */
+public class ReachabilityGSSNode extends DefaultGSSNode<RecognizerResult> {
+
+    private final AdaptiveIntSet poppedIndices = new AdaptiveIntSet();
+
+    public ReachabilityGSSNode(GSSEdge<RecognizerResult> firstGSSEdge, int inputIndex) {
+        super(firstGSSEdge, inputIndex, null);
+    }
+
+    public ReachabilityGSSNode(NonterminalGrammarSlot slot, int inputIndex) {
+        super(slot, inputIndex, null);
+    }
+
+    @Override
+    protected RecognizerResult addPoppedElements(EndGrammarSlot slot, RecognizerResult child, Object value, ResultOps<RecognizerResult> ops) {
+        return poppedIndices.add(child.getIndex()) ? child : null;
+    }
+
+    @Override
+    protected void iterateOverPoppedElements(GSSEdge<RecognizerResult> edge, BodyGrammarSlot returnSlot, GSSNode<RecognizerResult> destination,
+                                             Input input, Environment env, IguanaRuntime<RecognizerResult> runtime) {
+        // Combining with the edge only schedules descriptors, so no element is popped during the iteration
+        poppedIndices.forEach(index ->
+                processPoppedElement(RecognizerResult.of(index), edge, returnSlot, destination, input, env, runtime));
+    }
+
+    @Override
+    public boolean hasResult(int i) {
+        return poppedIndices.contains(i);
+    }
+
+    @Override
+    public RecognizerResult getResult(int i) {
+        return poppedIndices.contains(i) ? RecognizerResult.of(i) : null;
+    }
+
+    @Override
+    public int countPoppedElements() {
+        return poppedIndices.size();
+    }
+
+    @Override
+    public Iterable<RecognizerResult> getPoppedElements() {
+        return () -> new Iterator<RecognizerResult>() {
+            final IntIterator it = poppedIndices.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public RecognizerResult next() {
+                return RecognizerResult.of(it.next());
+            }
+        };
+    }
+
+    @Override
+    public void forEachPoppedIndex(IntConsumer consumer) {
+        poppedIndices.forEach(consumer);
+    }
+
+    public IntIterable getPoppedIndices() {
+        return poppedIndices;
+    }
+}
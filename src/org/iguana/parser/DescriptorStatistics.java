@@ -0,0 +1,54 @@
+package org.iguana.parser;
+
+import java.util.Objects;
+
+/**
+ * The descriptors of a sequential run: the scheduled ones, including the ones that were dropped as duplicates
+ * of an earlier descriptor, see {@link ParseOptions#deduplicateDescriptors()}.
+ */
+public class DescriptorStatistics {
+
+    private final long scheduledCount;
+    private final long duplicatesCount;
+
+    public DescriptorStatistics(long scheduledCount, long duplicatesCount) {
+        this.scheduledCount = scheduledCount;
+        this.duplicatesCount = duplicatesCount;
+    }
+
+    public long getScheduledCount() {
+        return scheduledCount;
+    }
+
+    public long getDuplicatesCount() {
+        return duplicatesCount;
+    }
+
+    public long getExecutedCount() {
+        return scheduledCount - duplicatesCount;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(scheduledCount, duplicatesCount);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+
+        if (!(obj instanceof DescriptorStatistics))
+            return false;
+
+        DescriptorStatistics other = (DescriptorStatistics) obj;
+
+        return scheduledCount == other.scheduledCount && duplicatesCount == other.duplicatesCount;
+    }
+
+    @Override
+    public String toString() {
+        return "Scheduled descriptors: " + scheduledCount + "\n" +
+               "Duplicate descriptors: " + duplicatesCount + "\n";
+    }
+}
@@ -27,17 +27,29 @@
 
 package org.iguana.parser;
 
+import iguana.utils.input.Edge;
 import iguana.utils.input.GraphInput;
 import iguana.utils.input.Input;
 import org.iguana.grammar.Grammar;
 import org.iguana.grammar.GrammarGraph;
 import org.iguana.grammar.GrammarGraphBuilder;
+import org.iguana.grammar.GrammarGraphCache;
 import org.iguana.parsetree.DefaultParseTreeBuilder;
 import org.iguana.parsetree.ParseTreeNode;
+import org.iguana.result.CompactResultOps;
 import org.iguana.result.ParserResultOps;
+import org.iguana.result.PathCount;
+import org.iguana.result.PathCountResult;
+import org.iguana.result.PathCountResultOps;
+import org.iguana.result.RecognizerResult;
+import org.iguana.result.RecognizerResultOps;
+import org.iguana.result.Result;
+import org.iguana.sppf.CompactNode;
+import org.iguana.sppf.CompactSPPF;
 import org.iguana.sppf.NonterminalNode;
 import org.iguana.traversal.AmbiguousSPPFToParseTreeVisitor;
 import org.iguana.traversal.DefaultSPPFToParseTreeVisitor;
+import org.iguana.traversal.SPPFPaths;
 import org.iguana.util.Configuration;
 import org.iguana.util.Tuple;
 
@@ -49,13 +61,36 @@ public class IguanaParser {
     private final GrammarGraph grammarGraph;
     private final IguanaRuntime runtime;
 
+    /**
+     * Used for parallel reachability queries, as recognizer results, unlike SPPF nodes, can be created and
+     * shared by several threads, and for sequential reachability queries with popped index sets.
+     */
+    private final IguanaRuntime<RecognizerResult> recognizerRuntime;
+
+    private final boolean environmentFree;
+
+    /**
+     * The runtime of the last query, which holds its descriptor statistics
+     */
+    private IguanaRuntime<?> lastRuntime;
+
     public IguanaParser(Grammar grammar) {
         this(grammar, Configuration.load());
     }
 
     public IguanaParser(Grammar grammar, Configuration config) {
-        this.grammarGraph = GrammarGraphBuilder.from(grammar, config);
+        this(GrammarGraphBuilder.from(grammar, config), config);
+    }
+
+    /**
+     * Uses a grammar graph that is already built with the configuration, for example one acquired from a
+     * {@link GrammarGraphCache}. No other parser should use the grammar graph at the same time.
+     */
+    public IguanaParser(GrammarGraph grammarGraph, Configuration config) {
+        this.grammarGraph = grammarGraph;
         this.runtime = new IguanaRuntime<>(config, new ParserResultOps());
+        this.recognizerRuntime = new IguanaRuntime<>(config, new RecognizerResultOps());
+        this.environmentFree = grammarGraph.isEnvironmentFree();
     }
 
     public Map<Pair, NonterminalNode> getSPPF(Input input) {
@@ -63,11 +98,101 @@ public class IguanaParser {
     }
 
     public Map<Pair, NonterminalNode> getSPPF(Input input, ParseOptions options) {
-        return (Map<Pair, NonterminalNode>) runtime.run(input, grammarGraph, options.getMap(), options.isGlobal());
+        lastRuntime = runtime;
+        return (Map<Pair, NonterminalNode>) runtime.run(input, grammarGraph, options);
+    }
+
+    /**
+     * Parses like {@link #getSPPF(Input, ParseOptions)}, but keeps the SPPF in primitive arrays, which takes less
+     * heap and less garbage collection time on highly ambiguous SPPFs. The roots are available as node views, see
+     * {@link CompactSPPF}.
+     */
+    public CompactSPPF getCompactSPPF(Input input, ParseOptions options) {
+        CompactResultOps resultOps = new CompactResultOps();
+        IguanaRuntime<CompactNode> compactRuntime = new IguanaRuntime<>(runtime.getConfiguration(), resultOps);
+        lastRuntime = compactRuntime;
+        Map<Pair, Result> roots = compactRuntime.run(input, grammarGraph, options);
+
+        if (roots == null) {
+            return null;
+        }
+
+        CompactSPPF sppf = resultOps.getSPPF();
+        roots.forEach((pair, root) -> sppf.addRoot(pair, (CompactNode) root));
+        sppf.removeUnreachableNodes();
+        return sppf;
+    }
+
+    /**
+     * Parses without building the SPPF, and returns the length of the shortest path and the number of derivations
+     * of each pair, see {@link PathCountResultOps}.
+     */
+    public Map<Pair, PathCount> getPathCounts(Input input, ParseOptions options) {
+        IguanaRuntime<PathCountResult> pathCountRuntime = new IguanaRuntime<>(runtime.getConfiguration(), new PathCountResultOps());
+        lastRuntime = pathCountRuntime;
+        Map<Pair, Result> roots = pathCountRuntime.run(input, grammarGraph, options);
+
+        if (roots == null) {
+            return null;
+        }
+
+        Map<Pair, PathCount> pathCounts = new HashMap<>();
+        roots.forEach((pair, root) -> pathCounts.put(pair, ((PathCountResult) root).getPathCount()));
+        return pathCounts;
     }
 
     public Stream<Pair> getPairs(Input input, ParseOptions options) {
-        return runtime.no_sppf_run(input, grammarGraph, options.getMap(), options.isGlobal());
+        if (useRecognizerRuntime(options)) {
+            lastRuntime = recognizerRuntime;
+            return recognizerRuntime.no_sppf_run(input, grammarGraph, options);
+        }
+        lastRuntime = runtime;
+        return runtime.no_sppf_run(input, grammarGraph, options);
+    }
+
+    /**
+     * @return the pairs of {@link #getReachabilitySet(Input, ParseOptions)}, each once
+     */
+    public Stream<Pair> getReachabilities(Input input, ParseOptions options) {
+        return getReachabilitySet(input, options).stream();
+    }
+
+    /**
+     * Collects the pairs directly into a {@link PairSet}, without creating a {@link Pair} per answer.
+     */
+    public PairSet getReachabilitySet(Input input, ParseOptions options) {
+        PairSet.Builder pairs = PairSet.builder();
+        getReachabilities(input, options, pairs);
+        return pairs.build();
+    }
+
+    /**
+     * Reports the pairs to the consumer as soon as they are found, see {@link PairConsumer}.
+     */
+    public void getReachabilities(Input input, ParseOptions options, PairConsumer consumer) {
+        if (useRecognizerRuntime(options)) {
+            lastRuntime = recognizerRuntime;
+            recognizerRuntime.no_sppf_run(input, grammarGraph, options, consumer);
+        } else {
+            lastRuntime = runtime;
+            runtime.no_sppf_run(input, grammarGraph, options, consumer);
+        }
+    }
+
+    /**
+     * Recognizer results do not keep the left extents that labels of data-dependent grammars refer to, so the
+     * sequential queries on such grammars still derive SPPF nodes.
+     */
+    private boolean useRecognizerRuntime(ParseOptions options) {
+        return options.getParallelism() > 1 || (options.poppedIndexSets() && environmentFree);
+    }
+
+    /**
+     * Drops the GSS kept by reachability queries with {@link ParseOptions#reuseGSS()}, which should be done
+     * before querying a different graph.
+     */
+    public void clearGSS() {
+        grammarGraph.clear();
     }
 
     public ParseTreeNode getParserTree(Input input) {
@@ -78,11 +203,6 @@ public class IguanaParser {
         return getParserTree(input, new ParseOptions.Builder().build());
     }
 
-
-    public Stream<Pair>  getReachabilities(Input input, ParseOptions options) {
-        return getPairs(input, options);
-    }
-
     public ParseTreeNode getParserTree(Input input, ParseOptions options) {
         Map<Pair, NonterminalNode> roots = getSPPF(input, options);
 
@@ -93,7 +213,7 @@ public class IguanaParser {
         NonterminalNode root = new ArrayList<>(roots.entrySet()).get(0).getValue();
 
         if (options.ambiguous()) {
-            AmbiguousSPPFToParseTreeVisitor<ParseTreeNode> visitor = new AmbiguousSPPFToParseTreeVisitor<>(new DefaultParseTreeBuilder(input), options.ignoreLayout(), (ParserResultOps) runtime.getResultOps());
+            AmbiguousSPPFToParseTreeVisitor<ParseTreeNode> visitor = new AmbiguousSPPFToParseTreeVisitor<>(new DefaultParseTreeBuilder(input), options.ignoreLayout(), getParserResultOps());
             return (ParseTreeNode) root.accept(visitor).getValues().get(0);
         }
 
@@ -112,7 +232,7 @@ public class IguanaParser {
 
         if (options.ambiguous()) {
             Map<Pair, ParseTreeNode> results = new HashMap<>();
-            AmbiguousSPPFToParseTreeVisitor<ParseTreeNode> visitor = new AmbiguousSPPFToParseTreeVisitor<>(new DefaultParseTreeBuilder(input), options.ignoreLayout(), (ParserResultOps) runtime.getResultOps());
+            AmbiguousSPPFToParseTreeVisitor<ParseTreeNode> visitor = new AmbiguousSPPFToParseTreeVisitor<>(new DefaultParseTreeBuilder(input), options.ignoreLayout(), getParserResultOps());
             roots.forEach((key, value) -> results.put(key,
                     (ParseTreeNode) value.accept(visitor).getValues().get(0)));
             return results;
@@ -122,6 +242,36 @@ public class IguanaParser {
         return Collections.singletonMap(null, (ParseTreeNode) converter.convertNonterminalNode(firstRoot));
     }
 
+    /**
+     * Reads a path of the pair from the SPPF of a graph query, without building parse trees.
+     *
+     * @return a path with the fewest edges, or null if the SPPF has no root for the pair
+     */
+    public List<Edge> getShortestPath(Map<Pair, NonterminalNode> sppf, Pair pair) {
+        NonterminalNode root = sppf.get(pair);
+        return root == null ? null : getSPPFPaths().getShortestPath(root);
+    }
+
+    /**
+     * Lazily enumerates the distinct paths of the pair with at most maxLength edges, shortest first, see
+     * {@link SPPFPaths#getPaths}. The first k paths are taken with {@link Stream#limit(long)}.
+     */
+    public Stream<List<Edge>> getPaths(Map<Pair, NonterminalNode> sppf, Pair pair, int maxLength) {
+        NonterminalNode root = sppf.get(pair);
+        return root == null ? Stream.empty() : getSPPFPaths().getPaths(root, maxLength);
+    }
+
+    public SPPFPaths getSPPFPaths() {
+        return new SPPFPaths(getParserResultOps());
+    }
+
+    /**
+     * @return the result ops that keep the ambiguities of the SPPFs returned by {@link #getSPPF}
+     */
+    public ParserResultOps getParserResultOps() {
+        return (ParserResultOps) runtime.getResultOps();
+    }
+
     public GrammarGraph getGrammarGraph() {
         return grammarGraph;
     }
@@ -130,6 +280,17 @@ public class IguanaParser {
         return runtime.getParseError();
     }
 
+    /**
+     * The scheduled and duplicate descriptors of the last sequential query, see
+     * {@link ParseOptions#deduplicateDescriptors()}
+     */
+    public DescriptorStatistics getDescriptorStatistics() {
+        if (lastRuntime == null) {
+            return new DescriptorStatistics(0, 0);
+        }
+        return lastRuntime.getDescriptorStatistics();
+    }
+
     public ParseStatistics getStatistics() {
         return (ParseStatistics) runtime.getStatistics();
     }
@@ -1,5 +1,6 @@
 package org.iguana.parser;
 
+import iguana.utils.collections.HashMapFactory;
 import iguana.utils.input.Input;
 import org.iguana.datadependent.ast.Expression;
 import org.iguana.datadependent.ast.Statement;
@@ -13,7 +14,11 @@ import org.iguana.grammar.slot.NonterminalGrammarSlot;
 import org.iguana.grammar.slot.TerminalGrammarSlot;
 import org.iguana.gss.*;
 import org.iguana.parser.descriptor.Descriptor;
+import org.iguana.parser.descriptor.DescriptorScheduler;
+import org.iguana.parser.descriptor.SchedulingPolicy;
 import org.iguana.result.ParserResultOps;
+import org.iguana.result.RecognizerResult;
+import org.iguana.result.RecognizerResultOps;
 import org.iguana.result.Result;
 import org.iguana.result.ResultOps;
 import org.iguana.util.Configuration;
@@ -39,12 +44,17 @@ public class IguanaRuntime<T extends Result> {
 
     private final Deque<Descriptor<T>> descriptorPool;
 
-    private final Deque<Descriptor<T>> descriptorsStack;
+    private DescriptorScheduler<T> descriptors;
 
     private final IEvaluatorContext ctx;
 
     private final Configuration config;
 
+    /**
+     * Creates the maps of popped elements of GSS nodes
+     */
+    private final HashMapFactory hashMapFactory;
+
     private final ParserLogger logger = ParserLogger.getInstance();
 
     private final ResultOps<T> resultOps;
@@ -53,55 +63,63 @@ public class IguanaRuntime<T extends Result> {
 
     private Input input;
 
-    public IguanaRuntime(Configuration config, ResultOps<T> resultOps) {
-        this.config = config;
-        this.resultOps = resultOps;
-        this.descriptorsStack = new ArrayDeque<>(512);
-        this.descriptorPool = new ArrayDeque<>(512);
-        this.ctx = GLLEvaluator.getEvaluatorContext(config);
-    }
+    /**
+     * The executor of the parallel run this runtime is a worker of, or null if this runtime processes its
+     * descriptors itself.
+     */
+    private final ParallelDescriptorExecutor<T> executor;
 
-    // SPPF found in `T result = startGSSNode.getResult(v);`
-    public Stream<Pair> no_sppf_run(Input input, GrammarGraph grammarGraph, Map<String, Object> map, boolean global) {
-        this.input = input;
+    /**
+     * Receives the pairs of a streaming reachability run, null otherwise
+     */
+    private PairConsumer pairConsumer;
 
-        IEvaluatorContext ctx = getEvaluatorContext();
+    /**
+     * Whether the GSS nodes of the current run are {@link ReachabilityGSSNode}s
+     */
+    private boolean reachabilityGSSNodes;
 
-        if (global)
-            map.forEach(ctx::declareGlobalVariable);
+    private boolean deduplicateDescriptors;
 
-        NonterminalGrammarSlot startSymbol = grammarGraph.getStartSlot();
+    private long scheduledDescriptorsCount;
 
-        Environment env = ctx.getEmptyEnvironment();
+    private long duplicateDescriptorsCount;
 
-        List<DefaultGSSNode<T>> startGSSNodes = new ArrayList<>();
-        for (Integer node : input.getStartVertices().collect(Collectors.toList())) {
-            startGSSNodes.add(new DefaultGSSNode<T>(startSymbol, node));
-        }
+    public IguanaRuntime(Configuration config, ResultOps<T> resultOps) {
+        this(config, resultOps, null);
+    }
 
-        startGSSNodes.forEach(node -> startSymbol.addStartGSSNode(node, node.getInputIndex()));
+    private IguanaRuntime(Configuration config, ResultOps<T> resultOps, ParallelDescriptorExecutor<T> executor) {
+        this.config = config;
+        this.hashMapFactory = config.getHashMapFactory();
+        this.resultOps = resultOps;
+        this.executor = executor;
+        this.descriptors = SchedulingPolicy.LIFO.newScheduler();
+        this.descriptorPool = new ArrayDeque<>(executor == null ? 512 : 0);
+        this.ctx = GLLEvaluator.getEvaluatorContext(config);
+    }
 
-        List<BodyGrammarSlot> t = startSymbol.getFirstSlots();
-        for (BodyGrammarSlot slot : t) {
-            for (DefaultGSSNode<T> startGSSNode: startGSSNodes) {
-                scheduleDescriptor(slot, startGSSNode, getResultOps().dummy(), env);
-            }
-        }
+    IguanaRuntime<T> createWorkerRuntime(ParallelDescriptorExecutor<T> executor) {
+        return new IguanaRuntime<>(config, resultOps, executor);
+    }
 
-        while (hasDescriptor()) {
-            Descriptor<T> descriptor = nextDescriptor();
-            descriptor.getGrammarSlot().execute(input, descriptor.getGSSNode(), descriptor.getResult(), descriptor.getEnv(), this);
-        }
+    // SPPF found in `T result = startGSSNode.getResult(v);`
+    public Stream<Pair> no_sppf_run(Input input, GrammarGraph grammarGraph, Map<String, Object> map, boolean global) {
+        return no_sppf_run(input, grammarGraph, new ParseOptions.Builder().setMap(map).setGlobal(global).build());
+    }
 
-        grammarGraph.clear();
-        descriptorPool.clear();
-        descriptorsStack.clear();
+    /**
+     * Uses the parallelism and GSS reuse settings of the options. With more than one thread, the result ops of
+     * this runtime have to be thread-safe and the grammar should not be data-dependent.
+     */
+    public Stream<Pair> no_sppf_run(Input input, GrammarGraph grammarGraph, ParseOptions options) {
+        List<DefaultGSSNode<T>> startGSSNodes = reachabilityRun(input, grammarGraph, options);
 
         final boolean[] empty = {true};
         Stream.Builder<Pair> results = Stream.builder();
         startGSSNodes.forEach(startGSSNode -> {
-            startGSSNode.getPoppedElements().forEach(v -> {
-                results.add(new Pair(startGSSNode.getInputIndex(), v.getIndex()));
+            startGSSNode.forEachPoppedIndex(v -> {
+                results.add(new Pair(startGSSNode.getInputIndex(), v));
                 empty[0] = false;
             });
 //        startGSSNodes.forEach(startGSSNode -> {
@@ -126,9 +144,123 @@ public class IguanaRuntime<T extends Result> {
         return results.build();
     }
 
+    /**
+     * Passes each pair to the consumer when the GSS node of its start vertex pops it, instead of collecting the
+     * pairs at the end of the run. In a parallel run the consumer is called by one thread at a time.
+     */
+    public void no_sppf_run(Input input, GrammarGraph grammarGraph, ParseOptions options, PairConsumer consumer) {
+        this.pairConsumer = consumer;
+        try {
+            reachabilityRun(input, grammarGraph, options);
+        } finally {
+            this.pairConsumer = null;
+        }
+    }
+
+    private List<DefaultGSSNode<T>> reachabilityRun(Input input, GrammarGraph grammarGraph, ParseOptions options) {
+        this.input = input;
+
+        IEvaluatorContext ctx = getEvaluatorContext();
+
+        if (options.isGlobal())
+            options.getMap().forEach(ctx::declareGlobalVariable);
+
+        NonterminalGrammarSlot startSymbol = grammarGraph.getStartSlot();
+
+        Environment env = ctx.getEmptyEnvironment();
+
+        boolean parallel = options.getParallelism() > 1;
+        boolean reuseGSS = options.reuseGSS();
+        grammarGraph.setResetByEpoch(options.resetByEpoch());
+        if (!reuseGSS)
+            grammarGraph.clear();
+        if (parallel) {
+            // The concurrent GSS starts empty, so a kept GSS would be silently dropped. ParseOptions rejects
+            // reuseGSS with parallelism; allowing it would need the kept GSS nodes to be moved to the new maps.
+            assert !reuseGSS : "The GSS cannot be reused in parallel runs";
+            grammarGraph.prepareConcurrentRun();
+        }
+        reachabilityGSSNodes = !parallel && options.poppedIndexSets() && resultOps instanceof RecognizerResultOps
+                && grammarGraph.isEnvironmentFree();
+        startCountingDescriptors(options);
+        useSchedulingPolicy(options.getSchedulingPolicy());
+
+        // With GSS reuse, the start vertices that already have a GSS node are answered from its popped elements
+        List<DefaultGSSNode<T>> startGSSNodes = new ArrayList<>();
+        List<DefaultGSSNode<T>> newStartGSSNodes = reuseGSS ? new ArrayList<>() : startGSSNodes;
+        boolean completed = false;
+        try {
+            for (Integer node : input.getStartVertices().collect(Collectors.toList())) {
+                DefaultGSSNode<T> startGSSNode = reuseGSS ? (DefaultGSSNode<T>) startSymbol.<T>getGSSNode(node) : null;
+                if (startGSSNode == null) {
+                    startGSSNode = createStartGSSNode(startSymbol, node, parallel);
+                    startSymbol.addStartGSSNode(startGSSNode, node, input);
+                    if (reuseGSS)
+                        newStartGSSNodes.add(startGSSNode);
+                } else if (pairConsumer != null) {
+                    startGSSNode.forEachPoppedIndex(v -> pairConsumer.accept(node, v));
+                }
+                startGSSNodes.add(startGSSNode);
+            }
+
+            List<BodyGrammarSlot> t = startSymbol.getFirstSlots();
+            if (parallel) {
+                ParallelDescriptorExecutor<T> executor = new ParallelDescriptorExecutor<>(this, input,
+                        options.isGlobal() ? options.getMap() : Collections.emptyMap(), options.getParallelism());
+                executor.run(() -> {
+                    for (BodyGrammarSlot slot : t) {
+                        for (DefaultGSSNode<T> startGSSNode: newStartGSSNodes) {
+                            executor.schedule(slot, startGSSNode, getResultOps().dummy(), env);
+                        }
+                    }
+                });
+            } else {
+                for (BodyGrammarSlot slot : t) {
+                    for (DefaultGSSNode<T> startGSSNode: newStartGSSNodes) {
+                        scheduleDescriptor(slot, startGSSNode, getResultOps().dummy(), env);
+                    }
+                }
+
+                while (hasDescriptor()) {
+                    Descriptor<T> descriptor = nextDescriptor();
+                    descriptor.getGrammarSlot().execute(input, descriptor.getGSSNode(), descriptor.getResult(), descriptor.getEnv(), this);
+                }
+            }
+            completed = true;
+        } finally {
+            // A failing pair consumer or descriptor leaves a partially built GSS, whose popped elements
+            // would give incomplete answers to the next run, and descriptors behind
+            if (reuseGSS && completed)
+                grammarGraph.clearKeepingGSS();
+            else
+                grammarGraph.clear();
+            descriptorPool.clear();
+            descriptors.clear();
+        }
+
+        return startGSSNodes;
+    }
+
     public Map<Pair, Result> run(Input input, GrammarGraph grammarGraph, Map<String, Object> map, boolean global) {
+        return run(input, grammarGraph, new ParseOptions.Builder().setMap(map).setGlobal(global).build());
+    }
+
+    /**
+     * Uses the map, global and descriptor deduplication settings of the options
+     */
+    public Map<Pair, Result> run(Input input, GrammarGraph grammarGraph, ParseOptions options) {
         this.input = input;
 
+        Map<String, Object> map = options.getMap();
+        boolean global = options.isGlobal();
+
+        // Drops the GSS kept by earlier reachability runs
+        grammarGraph.setResetByEpoch(options.resetByEpoch());
+        grammarGraph.clear();
+        reachabilityGSSNodes = false;
+        startCountingDescriptors(options);
+        useSchedulingPolicy(options.getSchedulingPolicy());
+
         IEvaluatorContext ctx = getEvaluatorContext();
 
         if (global)
@@ -140,10 +272,10 @@ public class IguanaRuntime<T extends Result> {
 
         List<DefaultGSSNode<T>> startGSSNodes = new ArrayList<>();
         for (Integer node : input.getStartVertices().collect(Collectors.toList())) {
-            startGSSNodes.add(new DefaultGSSNode<T>(startSymbol, node));
+            startGSSNodes.add(new DefaultGSSNode<T>(startSymbol, node, hashMapFactory.newIntHashMap(-1)));
         }
 
-        startGSSNodes.forEach(node -> startSymbol.addStartGSSNode(node, node.getInputIndex()));
+        startGSSNodes.forEach(node -> startSymbol.addStartGSSNode(node, node.getInputIndex(), input));
 
 //        ParserLogger logger = ParserLogger.getInstance();
 //        logger.reset();
@@ -163,7 +295,7 @@ public class IguanaRuntime<T extends Result> {
 
         grammarGraph.clear();
         descriptorPool.clear();
-        descriptorsStack.clear();
+        descriptors.clear();
 
         Map<Pair, Result> results = new HashMap<>();
 
@@ -204,6 +336,10 @@ public class IguanaRuntime<T extends Result> {
      * the next position of input.
      */
     public void recordParseError(int i, GrammarSlot slot, GSSNode<T> u) {
+        if (executor != null) {
+            executor.recordParseError(i, slot, u);
+            return;
+        }
         if (i >= this.errorIndex) {
             logger.error(slot, i);
             this.errorIndex = i;
@@ -212,17 +348,42 @@ public class IguanaRuntime<T extends Result> {
         }
     }
 
+    /**
+     * Called when a start GSS node pops a new element, which is a new pair of a reachability query.
+     */
+    public void startGSSNodePopped(GSSNode<T> startGSSNode, T poppedElement) {
+        if (executor != null) {
+            executor.startGSSNodePopped(startGSSNode, poppedElement);
+            return;
+        }
+        if (pairConsumer != null)
+            pairConsumer.accept(startGSSNode.getInputIndex(), poppedElement.getIndex());
+    }
+
     public boolean hasDescriptor() {
-        return !descriptorsStack.isEmpty();
+        return descriptors.hasNext();
     }
 
     public Descriptor<T> nextDescriptor() {
-        Descriptor<T> descriptor = descriptorsStack.pop();
+        Descriptor<T> descriptor = descriptors.next();
         descriptorPool.push(descriptor);
         return descriptor;
     }
 
     public void scheduleDescriptor(BodyGrammarSlot grammarSlot, GSSNode<T> gssNode, T result, Environment env) {
+        if (executor != null) {
+            executor.schedule(grammarSlot, gssNode, result, env);
+            return;
+        }
+        scheduledDescriptorsCount++;
+        // In the SPPF, the result of a descriptor only depends on the slot, the GSS node and the input index
+        if (deduplicateDescriptors && grammarSlot.getId() >= 0 && (env == null || env.isEmpty())) {
+            int inputIndex = result.isDummy() ? gssNode.getInputIndex() : result.getIndex();
+            if (!gssNode.addScheduledDescriptor(grammarSlot.getId(), inputIndex)) {
+                duplicateDescriptorsCount++;
+                return;
+            }
+        }
         Descriptor<T> descriptor;
         if (!descriptorPool.isEmpty()) {
             descriptor = descriptorPool.pop();
@@ -230,10 +391,29 @@ public class IguanaRuntime<T extends Result> {
         } else {
             descriptor = new Descriptor<>(grammarSlot, gssNode, result, env);
         }
-        descriptorsStack.push(descriptor);
+        descriptors.add(descriptor);
        // logger.descriptorAdded(descriptor);
     }
 
+    private void useSchedulingPolicy(SchedulingPolicy policy) {
+        if (descriptors.getPolicy() != policy) {
+            descriptors = policy.newScheduler();
+        }
+    }
+
+    private void startCountingDescriptors(ParseOptions options) {
+        deduplicateDescriptors = options.deduplicateDescriptors() && resultOps.allowsDescriptorDeduplication();
+        scheduledDescriptorsCount = 0;
+        duplicateDescriptorsCount = 0;
+    }
+
+    /**
+     * The descriptors of the last sequential run of this runtime
+     */
+    public DescriptorStatistics getDescriptorStatistics() {
+        return new DescriptorStatistics(scheduledDescriptorsCount, duplicateDescriptorsCount);
+    }
+
     public IEvaluatorContext getEvaluatorContext() {
         return ctx;
     }
@@ -250,6 +430,28 @@ public class IguanaRuntime<T extends Result> {
         return ctx.getEmptyEnvironment();
     }
 
+    @SuppressWarnings("unchecked")
+    private DefaultGSSNode<T> createStartGSSNode(NonterminalGrammarSlot startSymbol, int inputIndex, boolean parallel) {
+        if (parallel) {
+            return new ConcurrentGSSNode<>(startSymbol, inputIndex, hashMapFactory.newIntHashMap(-1));
+        }
+        if (reachabilityGSSNodes) {
+            return (DefaultGSSNode<T>) (DefaultGSSNode<?>) new ReachabilityGSSNode(startSymbol, inputIndex);
+        }
+        return new DefaultGSSNode<>(startSymbol, inputIndex, hashMapFactory.newIntHashMap(-1));
+    }
+
+    @SuppressWarnings("unchecked")
+    public GSSNode<T> createGSSNode(GSSEdge<T> firstGSSEdge, int inputIndex) {
+        if (reachabilityGSSNodes) {
+            return (GSSNode<T>) (GSSNode<?>) new ReachabilityGSSNode((GSSEdge<RecognizerResult>) (GSSEdge<?>) firstGSSEdge, inputIndex);
+        }
+        if (executor != null) {
+            return new ConcurrentGSSNode<>(firstGSSEdge, inputIndex, hashMapFactory.newIntHashMap(-1));
+        }
+        return new DefaultGSSNode<>(firstGSSEdge, inputIndex, hashMapFactory.newIntHashMap(-1));
+    }
+
     public GSSEdge<T> createGSSEdge(BodyGrammarSlot returnSlot, T result, GSSNode<T> gssNode, Environment env) {
         if (result.isDummy()) {
             if (env.isEmpty()) {
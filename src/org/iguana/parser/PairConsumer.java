@@ -0,0 +1,13 @@
+package org.iguana.parser;
+
+/**
+ * Receives the (start vertex, end vertex) pairs of a reachability query as soon as they are found. The search
+ * does not proceed while the consumer runs, so a consumer that blocks, for example on a bounded queue drained
+ * by a writer, slows the search down to the pace of the writer.
+ */
+@FunctionalInterface
+public interface PairConsumer {
+
+    void accept(int startVertex, int endVertex);
+
+}
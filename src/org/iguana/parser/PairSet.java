@@ -0,0 +1,321 @@
+package org.iguana.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable set of (start vertex, end vertex) pairs of non-negative vertices. A pair is packed into a long, with
+ * the start vertex in the high half, and the pairs are kept in a sorted long array, so all pairs of a start vertex
+ * form a contiguous run that is found by binary search. Dense rows, i.e., start vertices that reach a large part of
+ * the vertices up to their largest end vertex, are stored as bitmaps instead, when the builder allows it.
+ */
+public class PairSet {
+
+    private static final PairSet EMPTY = new PairSet(new long[0], new int[0], new long[0][], 0);
+
+    /**
+     * Sorted packed pairs of the rows that are not stored as bitmaps
+     */
+    private final long[] pairs;
+
+    /**
+     * Sorted start vertices of the rows stored as bitmaps, and their bitmaps
+     */
+    private final int[] denseStarts;
+    private final long[][] denseRows;
+
+    private final long size;
+
+    private PairSet(long[] pairs, int[] denseStarts, long[][] denseRows, long size) {
+        this.pairs = pairs;
+        this.denseStarts = denseStarts;
+        this.denseRows = denseRows;
+        this.size = size;
+    }
+
+    public static PairSet empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    static long pack(int start, int end) {
+        return ((long) start << 32) | (end & 0xFFFFFFFFL);
+    }
+
+    static int start(long pair) {
+        return (int) (pair >>> 32);
+    }
+
+    static int end(long pair) {
+        return (int) pair;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int start, int end) {
+        int dense = Arrays.binarySearch(denseStarts, start);
+        if (dense >= 0) {
+            long[] row = denseRows[dense];
+            return end >= 0 && (end >>> 6) < row.length && (row[end >>> 6] & (1L << end)) != 0;
+        }
+        return Arrays.binarySearch(pairs, pack(start, end)) >= 0;
+    }
+
+    /**
+     * @return the number of end vertices reachable from the start vertex
+     */
+    public int rowSize(int start) {
+        int dense = Arrays.binarySearch(denseStarts, start);
+        if (dense >= 0) {
+            int count = 0;
+            for (long word : denseRows[dense]) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+        return rowEnd(start) - rowStart(start);
+    }
+
+    /**
+     * Passes the end vertices reachable from the start vertex to the consumer, in ascending order.
+     */
+    public void forEachEnd(int start, IntConsumer consumer) {
+        int dense = Arrays.binarySearch(denseStarts, start);
+        if (dense >= 0) {
+            forEachEnd(denseRows[dense], consumer);
+            return;
+        }
+        for (int i = rowStart(start), to = rowEnd(start); i < to; i++) {
+            consumer.accept(end(pairs[i]));
+        }
+    }
+
+    /**
+     * Passes all pairs to the consumer, ordered by start vertex and then by end vertex.
+     */
+    public void forEach(PairConsumer consumer) {
+        int i = 0;
+        for (int dense = 0; dense <= denseStarts.length; dense++) {
+            long limit = dense < denseStarts.length ? pack(denseStarts[dense], 0) : Long.MAX_VALUE;
+            for (; i < pairs.length && pairs[i] < limit; i++) {
+                consumer.accept(start(pairs[i]), end(pairs[i]));
+            }
+            if (dense < denseStarts.length) {
+                int start = denseStarts[dense];
+                forEachEnd(denseRows[dense], end -> consumer.accept(start, end));
+            }
+        }
+    }
+
+    /**
+     * @return the pairs with both vertices mapped, for example from the vertices of a pruned graph back to the
+     *         original ones
+     */
+    public PairSet map(IntUnaryOperator vertices) {
+        Builder builder = builder();
+        forEach((start, end) -> builder.add(vertices.applyAsInt(start), vertices.applyAsInt(end)));
+        return builder.build();
+    }
+
+    /**
+     * @return the pairs as boxed {@link Pair} objects, ordered as in {@link #forEach(PairConsumer)}
+     */
+    public Stream<Pair> stream() {
+        if (denseStarts.length == 0) {
+            return LongStream.of(pairs).mapToObj(pair -> new Pair(start(pair), end(pair)));
+        }
+        List<Pair> result = new ArrayList<>();
+        forEach((start, end) -> result.add(new Pair(start, end)));
+        return result.stream();
+    }
+
+    /**
+     * @return the number of rows stored as bitmaps
+     */
+    public int countDenseRows() {
+        return denseStarts.length;
+    }
+
+    private int rowStart(int start) {
+        return lowerBound(pack(start, 0));
+    }
+
+    private int rowEnd(int start) {
+        return start == Integer.MAX_VALUE ? pairs.length : lowerBound(pack(start + 1, 0));
+    }
+
+    /**
+     * @return the index of the first pair that is not less than the given one
+     */
+    private int lowerBound(long pair) {
+        int low = 0;
+        int high = pairs.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (pairs[mid] < pair) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void forEachEnd(long[] row, IntConsumer consumer) {
+        for (int word = 0; word < row.length; word++) {
+            long bits = row[word];
+            while (bits != 0) {
+                consumer.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof PairSet)) return false;
+        PairSet other = (PairSet) obj;
+        if (size != other.size) return false;
+        boolean[] equal = {true};
+        forEach((start, end) -> {
+            if (equal[0] && !other.contains(start, end)) equal[0] = false;
+        });
+        return equal[0];
+    }
+
+    @Override
+    public int hashCode() {
+        long[] hash = {0};
+        forEach((start, end) -> hash[0] += Long.hashCode(pack(start, end)));
+        return Long.hashCode(hash[0]);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((start, end) -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append('(').append(start).append(", ").append(end).append(')');
+        });
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Collects pairs in a growable long array; duplicates are removed when the set is built. As a
+     * {@link PairConsumer} it can directly receive the pairs of a streaming reachability query.
+     */
+    public static class Builder implements PairConsumer {
+
+        private long[] pairs = new long[16];
+        private int size;
+        private boolean denseRowBitmaps = true;
+
+        /**
+         * Whether rows whose bitmap is smaller than their packed pairs are stored as bitmaps, true by default.
+         */
+        public Builder setDenseRowBitmaps(boolean denseRowBitmaps) {
+            this.denseRowBitmaps = denseRowBitmaps;
+            return this;
+        }
+
+        @Override
+        public void accept(int startVertex, int endVertex) {
+            add(startVertex, endVertex);
+        }
+
+        public Builder add(int start, int end) {
+            if (start < 0 || end < 0)
+                throw new IllegalArgumentException("Vertices should be non-negative: (" + start + ", " + end + ")");
+            if (size == pairs.length) {
+                pairs = Arrays.copyOf(pairs, size << 1);
+            }
+            pairs[size++] = pack(start, end);
+            return this;
+        }
+
+        public Builder addAll(PairSet set) {
+            set.forEach(this::add);
+            return this;
+        }
+
+        /**
+         * Builds the set and empties the builder.
+         */
+        public PairSet build() {
+            long[] pairs = this.pairs;
+            int size = this.size;
+            this.pairs = new long[16];
+            this.size = 0;
+
+            if (size == 0) {
+                return EMPTY;
+            }
+
+            Arrays.sort(pairs, 0, size);
+            int distinct = 1;
+            for (int i = 1; i < size; i++) {
+                if (pairs[i] != pairs[distinct - 1]) {
+                    pairs[distinct++] = pairs[i];
+                }
+            }
+
+            if (!denseRowBitmaps) {
+                return new PairSet(trim(pairs, distinct), new int[0], new long[0][], distinct);
+            }
+
+            int[] denseStarts = new int[16];
+            long[][] denseRows = new long[16][];
+            int denseCount = 0;
+            int sparse = 0;
+            int from = 0;
+            while (from < distinct) {
+                int start = start(pairs[from]);
+                int to = from + 1;
+                while (to < distinct && start(pairs[to]) == start) to++;
+
+                int words = (end(pairs[to - 1]) >>> 6) + 1;
+                // A bitmap also pays for its array header, hence the two extra words
+                if (to - from > words + 2) {
+                    long[] row = new long[words];
+                    for (int i = from; i < to; i++) {
+                        int end = end(pairs[i]);
+                        row[end >>> 6] |= 1L << end;
+                    }
+                    if (denseCount == denseStarts.length) {
+                        denseStarts = Arrays.copyOf(denseStarts, denseCount << 1);
+                        denseRows = Arrays.copyOf(denseRows, denseCount << 1);
+                    }
+                    denseStarts[denseCount] = start;
+                    denseRows[denseCount] = row;
+                    denseCount++;
+                } else {
+                    System.arraycopy(pairs, from, pairs, sparse, to - from);
+                    sparse += to - from;
+                }
+                from = to;
+            }
+
+            return new PairSet(trim(pairs, sparse), Arrays.copyOf(denseStarts, denseCount),
+                    Arrays.copyOf(denseRows, denseCount), distinct);
+        }
+
+        private static long[] trim(long[] pairs, int length) {
+            return length == pairs.length ? pairs : Arrays.copyOf(pairs, length);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.iguana.parser;
+
+import iguana.utils.input.Input;
+import org.iguana.datadependent.env.Environment;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.grammar.slot.GrammarSlot;
+import org.iguana.gss.GSSNode;
+import org.iguana.parser.descriptor.Descriptor;
+import org.iguana.result.Result;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Processes the descriptors of one run on a work-stealing pool. A descriptor scheduled by a worker is forked
+ * onto that worker's own deque, so workers keep processing the descriptors they created, in LIFO order as in
+ * the sequential loop, and steal from the other workers when they run out.
+ *
+ * Each worker thread owns an {@link IguanaRuntime}, as the evaluator context holding the current environment is
+ * mutable. The run is finished when no descriptor is pending anymore.
+ */
+class ParallelDescriptorExecutor<T extends Result> {
+
+    private final IguanaRuntime<T> parent;
+
+    private final Input input;
+
+    private final Map<String, Object> globals;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Number of scheduled descriptors that are not yet processed, plus one held by {@link #run} while the
+     * initial descriptors are scheduled.
+     */
+    private final AtomicLong pending = new AtomicLong();
+
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private volatile Throwable failure;
+
+    ParallelDescriptorExecutor(IguanaRuntime<T> parent, Input input, Map<String, Object> globals, int parallelism) {
+        this.parent = parent;
+        this.input = input;
+        this.globals = globals;
+        this.pool = new ForkJoinPool(parallelism, Worker::new, null, false);
+    }
+
+    /**
+     * Schedules the initial descriptors using the given action and blocks until all descriptors are processed.
+     */
+    void run(Runnable scheduleInitialDescriptors) {
+        pending.incrementAndGet();
+        try {
+            scheduleInitialDescriptors.run();
+            finished();
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the parser threads", e);
+        } finally {
+            pool.shutdownNow();
+            try {
+                pool.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failure != null) {
+            if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+            if (failure instanceof Error) throw (Error) failure;
+            throw new RuntimeException(failure);
+        }
+    }
+
+    void schedule(BodyGrammarSlot slot, GSSNode<T> gssNode, T result, Environment env) {
+        pending.incrementAndGet();
+        DescriptorTask task = new DescriptorTask(new Descriptor<>(slot, gssNode, result, env));
+        Thread thread = Thread.currentThread();
+        if (thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == pool) {
+            task.fork();
+        } else {
+            pool.execute(task);
+        }
+    }
+
+    void recordParseError(int i, GrammarSlot slot, GSSNode<T> u) {
+        synchronized (parent) {
+            parent.recordParseError(i, slot, u);
+        }
+    }
+
+    void startGSSNodePopped(GSSNode<T> startGSSNode, T poppedElement) {
+        synchronized (parent) {
+            parent.startGSSNodePopped(startGSSNode, poppedElement);
+        }
+    }
+
+    private void finished() {
+        if (pending.decrementAndGet() == 0) {
+            done.countDown();
+        }
+    }
+
+    private class Worker extends ForkJoinWorkerThread {
+
+        private final IguanaRuntime<T> runtime;
+
+        Worker(ForkJoinPool pool) {
+            super(pool);
+            this.runtime = parent.createWorkerRuntime(ParallelDescriptorExecutor.this);
+            globals.forEach(runtime.getEvaluatorContext()::declareGlobalVariable);
+        }
+    }
+
+    private class DescriptorTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Descriptor<T> descriptor;
+
+        DescriptorTask(Descriptor<T> descriptor) {
+            this.descriptor = descriptor;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void compute() {
+            try {
+                if (failure == null) {
+                    IguanaRuntime<T> runtime = ((Worker) Thread.currentThread()).runtime;
+                    descriptor.getGrammarSlot().execute(input, descriptor.getGSSNode(), descriptor.getResult(), descriptor.getEnv(), runtime);
+                }
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                finished();
+            }
+        }
+    }
+}
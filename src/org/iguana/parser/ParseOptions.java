@@ -1,6 +1,9 @@
 package org.iguana.parser;
 
+import org.iguana.parser.descriptor.SchedulingPolicy;
+
 import java.util.Map;
+import java.util.Objects;
 
 import static java.util.Collections.emptyMap;
 
@@ -10,12 +13,24 @@ public class ParseOptions {
     private final boolean ignoreLayout;
     private final Map<String, Object> map;
     private final boolean global;
+    private final int parallelism;
+    private final boolean reuseGSS;
+    private final boolean poppedIndexSets;
+    private final boolean deduplicateDescriptors;
+    private final SchedulingPolicy schedulingPolicy;
+    private final boolean resetByEpoch;
 
     private ParseOptions(Builder builder) {
         this.ambiguous = builder.ambiguous;
         this.ignoreLayout = builder.ignoreLayout;
         this.map = builder.map;
         this.global= builder.global;
+        this.parallelism = builder.parallelism;
+        this.reuseGSS = builder.reuseGSS;
+        this.poppedIndexSets = builder.poppedIndexSets;
+        this.deduplicateDescriptors = builder.deduplicateDescriptors;
+        this.schedulingPolicy = builder.schedulingPolicy;
+        this.resetByEpoch = builder.resetByEpoch;
     }
 
     public boolean ambiguous() {
@@ -34,11 +49,71 @@ public class ParseOptions {
         return global;
     }
 
+    /**
+     * The number of threads that process descriptors in reachability queries. The default, 1, runs the
+     * sequential descriptor loop.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Whether reachability queries keep the GSS of earlier queries on the same graph and grammar, and reuse the
+     * popped elements of its nodes instead of deriving them again. The kept GSS is only valid as long as the
+     * graph does not change, see {@link IguanaParser#clearGSS()}.
+     */
+    public boolean reuseGSS() {
+        return reuseGSS;
+    }
+
+    /**
+     * Whether the GSS nodes of sequential reachability queries on environment-free grammars keep only the right
+     * indices of their popped elements, in int sets, instead of SPPF nodes in int maps. Enabled by default. The
+     * queries that reuse a GSS should all use the same setting.
+     */
+    public boolean poppedIndexSets() {
+        return poppedIndexSets;
+    }
+
+    /**
+     * Whether a descriptor is dropped when a descriptor of the same body slot and input index was already
+     * scheduled for its GSS node in the run, see {@link IguanaParser#getDescriptorStatistics()}. Only applies to
+     * descriptors with an empty environment, and not to path counts, see
+     * {@link org.iguana.result.ResultOps#allowsDescriptorDeduplication()}. Disabled by default.
+     */
+    public boolean deduplicateDescriptors() {
+        return deduplicateDescriptors;
+    }
+
+    /**
+     * The order in which sequential runs process descriptors. Parallel runs fork a task per descriptor. The
+     * default is {@link SchedulingPolicy#LIFO}.
+     */
+    public SchedulingPolicy getSchedulingPolicy() {
+        return schedulingPolicy;
+    }
+
+    /**
+     * Whether the grammar slots keep their GSS node, intermediate node and terminal node tables after a run and
+     * remove the entries by moving to the next epoch, so that back-to-back queries on the same parser do not
+     * allocate and grow the tables again. The tables keep the capacity of the largest run until a run without
+     * this option. Disabled by default.
+     */
+    public boolean resetByEpoch() {
+        return resetByEpoch;
+    }
+
     public static class Builder {
         boolean ambiguous = false;
         boolean ignoreLayout = true;
         Map<String, Object> map = emptyMap();
         boolean global = true;
+        int parallelism = 1;
+        boolean reuseGSS = false;
+        boolean poppedIndexSets = true;
+        boolean deduplicateDescriptors = false;
+        SchedulingPolicy schedulingPolicy = SchedulingPolicy.LIFO;
+        boolean resetByEpoch = false;
 
         public Builder setAmbiguous(boolean ambiguous) {
             this.ambiguous = ambiguous;
@@ -60,7 +135,46 @@ public class ParseOptions {
             return this;
         }
 
+        public Builder setParallelism(int parallelism) {
+            if (parallelism < 1)
+                throw new IllegalArgumentException("Parallelism should be at least 1, but was " + parallelism);
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public Builder setReuseGSS(boolean reuseGSS) {
+            this.reuseGSS = reuseGSS;
+            return this;
+        }
+
+        public Builder setPoppedIndexSets(boolean poppedIndexSets) {
+            this.poppedIndexSets = poppedIndexSets;
+            return this;
+        }
+
+        public Builder setDeduplicateDescriptors(boolean deduplicateDescriptors) {
+            this.deduplicateDescriptors = deduplicateDescriptors;
+            return this;
+        }
+
+        public Builder setSchedulingPolicy(SchedulingPolicy schedulingPolicy) {
+            this.schedulingPolicy = Objects.requireNonNull(schedulingPolicy);
+            return this;
+        }
+
+        public Builder setResetByEpoch(boolean resetByEpoch) {
+            this.resetByEpoch = resetByEpoch;
+            return this;
+        }
+
         public ParseOptions build() {
+            // Parallel runs start with an empty concurrent GSS, see IguanaRuntime
+            if (reuseGSS && parallelism > 1)
+                throw new IllegalArgumentException("The GSS cannot be reused in parallel runs");
+            if (deduplicateDescriptors && parallelism > 1)
+                throw new IllegalArgumentException("Descriptors cannot be deduplicated in parallel runs");
+            if (resetByEpoch && parallelism > 1)
+                throw new IllegalArgumentException("The tables of parallel runs cannot be reset by epoch");
             return new ParseOptions(this);
         }
     }
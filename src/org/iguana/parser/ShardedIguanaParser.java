@@ -0,0 +1,139 @@
+package org.iguana.parser;
+
+import iguana.utils.input.GraphInput;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraphCache;
+import org.iguana.util.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Runs reachability queries for many start vertices by splitting the start vertices into shards of a fixed
+ * size and running the shards in parallel. Each thread uses its own {@link IguanaParser}, hence its own grammar
+ * graph, so the shards share nothing but the graph, which they only read. The pairs of the shards are merged
+ * into one {@link PairSet}.
+ */
+public class ShardedIguanaParser {
+
+    private final int threads;
+
+    private final int shardSize;
+
+    private final BlockingQueue<IguanaParser> parsers;
+
+    /**
+     * The cache the grammar graphs of the parsers are acquired from, or null if they are built for this parser
+     */
+    private final GrammarGraphCache grammarGraphCache;
+
+    public ShardedIguanaParser(Grammar grammar, int threads, int shardSize) {
+        this(grammar, Configuration.load(), threads, shardSize);
+    }
+
+    /**
+     * @param threads   the number of shards processed at the same time
+     * @param shardSize the maximum number of start vertices in a shard
+     */
+    public ShardedIguanaParser(Grammar grammar, Configuration config, int threads, int shardSize) {
+        this(grammar, config, threads, shardSize, null);
+    }
+
+    /**
+     * Acquires the grammar graphs of the threads from the cache, see {@link #close()}.
+     */
+    public ShardedIguanaParser(Grammar grammar, Configuration config, int threads, int shardSize, GrammarGraphCache grammarGraphCache) {
+        if (threads < 1)
+            throw new IllegalArgumentException("The number of threads should be at least 1, but was " + threads);
+        if (shardSize < 1)
+            throw new IllegalArgumentException("The shard size should be at least 1, but was " + shardSize);
+
+        this.threads = threads;
+        this.shardSize = shardSize;
+        this.grammarGraphCache = grammarGraphCache;
+        this.parsers = new ArrayBlockingQueue<>(threads);
+        for (int i = 0; i < threads; i++) {
+            if (grammarGraphCache == null)
+                parsers.add(new IguanaParser(grammar, config));
+            else
+                parsers.add(new IguanaParser(grammarGraphCache.acquire(grammar, config), config));
+        }
+    }
+
+    /**
+     * Releases the grammar graphs to the cache they were acquired from, after which this parser should not be
+     * used. Does nothing if the grammar graphs were built for this parser.
+     */
+    public void close() {
+        if (grammarGraphCache == null) return;
+        for (IguanaParser parser : parsers) {
+            grammarGraphCache.release(parser.getGrammarGraph());
+        }
+        parsers.clear();
+    }
+
+    /**
+     * @param startVertices the start vertices of the query
+     * @param inputFactory  creates the input of a shard from the start vertices of the shard. The inputs of
+     *                      different shards are used concurrently, so they should share a graph that is safe
+     *                      for concurrent reads, for example by {@link iguana.utils.input.CSRGraphInput#withVertices}.
+     */
+    public PairSet getReachabilities(List<Integer> startVertices, Function<Stream<Integer>, GraphInput> inputFactory, ParseOptions options) {
+        List<List<Integer>> shards = getShards(startVertices);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, shards.size())));
+        try {
+            List<Future<PairSet>> results = new ArrayList<>(shards.size());
+            for (List<Integer> shard : shards) {
+                results.add(executor.submit(() -> run(shard, inputFactory, options)));
+            }
+
+            PairSet.Builder pairs = PairSet.builder();
+            for (Future<PairSet> result : results) {
+                pairs.addAll(result.get());
+            }
+            return pairs.build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the shards", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    List<List<Integer>> getShards(List<Integer> startVertices) {
+        List<List<Integer>> shards = new ArrayList<>((startVertices.size() + shardSize - 1) / shardSize);
+        for (int from = 0; from < startVertices.size(); from += shardSize) {
+            shards.add(startVertices.subList(from, Math.min(from + shardSize, startVertices.size())));
+        }
+        return shards;
+    }
+
+    private PairSet run(List<Integer> shard, Function<Stream<Integer>, GraphInput> inputFactory, ParseOptions options) throws InterruptedException {
+        IguanaParser parser = parsers.take();
+        try {
+            return parser.getReachabilitySet(inputFactory.apply(shard.stream()), options);
+        } finally {
+            parsers.add(parser);
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getShardSize() {
+        return shardSize;
+    }
+}
@@ -45,6 +45,9 @@ public class Descriptor<T extends Result> {
 
 	private Environment env;
 
+	// The next descriptor in the same bucket of a VertexBucketedDescriptorScheduler
+	Descriptor<T> next;
+
 	public Descriptor(BodyGrammarSlot slot, GSSNode<T> gssNode, T result, Environment env) {
 		init(slot, gssNode, result, env);
 	}
@@ -72,6 +75,13 @@ public class Descriptor<T extends Result> {
 		return env;
 	}
 
+	/**
+	 * The input index at which the slot continues
+	 */
+	public int getInputIndex() {
+		return result.isDummy() ? gssNode.getInputIndex() : result.getIndex();
+	}
+
 	@Override
 	public String toString() {
 		return String.format("(%s, %s, %s)", slot, gssNode, result);
@@ -0,0 +1,20 @@
+package org.iguana.parser.descriptor;
+
+import org.iguana.result.Result;
+
+/**
+ * Holds the scheduled descriptors of a sequential run and decides which one is processed next, see
+ * {@link SchedulingPolicy}.
+ */
+public interface DescriptorScheduler<T extends Result> {
+
+    void add(Descriptor<T> descriptor);
+
+    boolean hasNext();
+
+    Descriptor<T> next();
+
+    void clear();
+
+    SchedulingPolicy getPolicy();
+}
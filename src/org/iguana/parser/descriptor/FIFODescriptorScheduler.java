@@ -0,0 +1,36 @@
+package org.iguana.parser.descriptor;
+
+import org.iguana.result.Result;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+public class FIFODescriptorScheduler<T extends Result> implements DescriptorScheduler<T> {
+
+    private final Deque<Descriptor<T>> descriptors = new ArrayDeque<>(512);
+
+    @Override
+    public void add(Descriptor<T> descriptor) {
+        descriptors.addLast(descriptor);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !descriptors.isEmpty();
+    }
+
+    @Override
+    public Descriptor<T> next() {
+        return descriptors.pollFirst();
+    }
+
+    @Override
+    public void clear() {
+        descriptors.clear();
+    }
+
+    @Override
+    public SchedulingPolicy getPolicy() {
+        return SchedulingPolicy.FIFO;
+    }
+}
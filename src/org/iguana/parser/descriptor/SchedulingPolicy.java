@@ -0,0 +1,43 @@
+package org.iguana.parser.descriptor;
+
+import org.iguana.result.Result;
+
+/**
+ * The order in which a sequential run processes its descriptors. The set of results does not depend on the
+ * order, only the memory access pattern and the peak number of pending descriptors do.
+ */
+public enum SchedulingPolicy {
+
+    /**
+     * The last scheduled descriptor first, which goes depth-first through the graph
+     */
+    LIFO {
+        @Override
+        public <T extends Result> DescriptorScheduler<T> newScheduler() {
+            return new LIFODescriptorScheduler<>();
+        }
+    },
+
+    /**
+     * The first scheduled descriptor first, which goes breadth-first through the graph
+     */
+    FIFO {
+        @Override
+        public <T extends Result> DescriptorScheduler<T> newScheduler() {
+            return new FIFODescriptorScheduler<>();
+        }
+    },
+
+    /**
+     * All descriptors of an input index one after another, so that the edges of a vertex and the GSS nodes and
+     * intermediate nodes at it are accessed together
+     */
+    VERTEX_BUCKETED {
+        @Override
+        public <T extends Result> DescriptorScheduler<T> newScheduler() {
+            return new VertexBucketedDescriptorScheduler<>();
+        }
+    };
+
+    public abstract <T extends Result> DescriptorScheduler<T> newScheduler();
+}
@@ -0,0 +1,88 @@
+package org.iguana.parser.descriptor;
+
+import iguana.utils.collections.primitive.IntList;
+import org.iguana.result.Result;
+
+import java.util.Arrays;
+
+/**
+ * Keeps a bucket of descriptors per input index, and processes the bucket of an input index until it is empty,
+ * including the descriptors scheduled for the same index meanwhile, before moving to the most recently filled
+ * bucket. The buckets are lists linked through the descriptors, so an input index takes one reference when it
+ * has no pending descriptors.
+ */
+public class VertexBucketedDescriptorScheduler<T extends Result> implements DescriptorScheduler<T> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Descriptor<T>[] buckets;
+
+    /**
+     * The input indices, other than the current one, whose buckets became nonempty
+     */
+    private IntList pendingIndices;
+
+    private int currentIndex;
+
+    private int size;
+
+    public VertexBucketedDescriptorScheduler() {
+        init();
+    }
+
+    private void init() {
+        // The array only holds descriptors added to this scheduler, which are Descriptor<T>
+        @SuppressWarnings("unchecked")
+        Descriptor<T>[] buckets = (Descriptor<T>[]) new Descriptor<?>[INITIAL_CAPACITY];
+        this.buckets = buckets;
+        pendingIndices = new IntList(INITIAL_CAPACITY);
+        currentIndex = -1;
+        size = 0;
+    }
+
+    @Override
+    public void add(Descriptor<T> descriptor) {
+        int index = descriptor.getInputIndex();
+        if (index >= buckets.length) {
+            buckets = Arrays.copyOf(buckets, Math.max(index + 1, buckets.length << 1));
+        }
+        Descriptor<T> bucket = buckets[index];
+        if (bucket == null && index != currentIndex) {
+            pendingIndices.push(index);
+        }
+        descriptor.next = bucket;
+        buckets[index] = descriptor;
+        size++;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return size > 0;
+    }
+
+    @Override
+    public Descriptor<T> next() {
+        Descriptor<T> descriptor = currentIndex >= 0 ? buckets[currentIndex] : null;
+        while (descriptor == null) {
+            currentIndex = pendingIndices.pop();
+            descriptor = buckets[currentIndex];
+        }
+        buckets[currentIndex] = descriptor.next;
+        descriptor.next = null;
+        size--;
+        return descriptor;
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            init();
+        }
+        currentIndex = -1;
+    }
+
+    @Override
+    public SchedulingPolicy getPolicy() {
+        return SchedulingPolicy.VERTEX_BUCKETED;
+    }
+}
@@ -0,0 +1,51 @@
+package org.iguana.result;
+
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.grammar.slot.EndGrammarSlot;
+import org.iguana.grammar.slot.TerminalGrammarSlot;
+import org.iguana.sppf.CompactNode;
+import org.iguana.sppf.CompactSPPF;
+
+/**
+ * Builds the SPPF in a {@link CompactSPPF} instead of node objects. Creates the same nodes and packed nodes
+ * as {@link ParserResultOps}, so a new instance should be used for each parse.
+ */
+public class CompactResultOps implements ResultOps<CompactNode> {
+
+    private final CompactSPPF sppf = new CompactSPPF();
+
+    @Override
+    public CompactNode dummy() {
+        return CompactNode.dummy();
+    }
+
+    @Override
+    public CompactNode base(TerminalGrammarSlot slot, int start, int end) {
+        return sppf.addTerminalNode(slot, start, end);
+    }
+
+    @Override
+    public CompactNode merge(CompactNode current, CompactNode result1, CompactNode result2, BodyGrammarSlot slot) {
+        if (result1 == CompactNode.dummy())
+            return result2;
+
+        if (current == null)
+            return sppf.addIntermediateNode(slot, result1, result2);
+
+        sppf.addPackedNode(current, slot, result1, result2);
+        return current;
+    }
+
+    @Override
+    public CompactNode convert(CompactNode current, CompactNode result, EndGrammarSlot slot, Object value) {
+        if (current == null)
+            return sppf.addNonterminalNode(slot, result, value);
+
+        sppf.addPackedNode(current, slot, result, null);
+        return current;
+    }
+
+    public CompactSPPF getSPPF() {
+        return sppf;
+    }
+}
@@ -77,7 +77,7 @@ public class ParserResultOps implements ResultOps<NonPackedNode> {
         } else if (slot.getTerminal().getNodeType() == TerminalNodeType.Keyword) {
             node = new KeywordTerminalNode(slot, start);
         } else if (slot.getTerminal() == Terminal.epsilon())
-            return new EpsilonTerminalNode(start);
+            return new EpsilonTerminalNode(slot, start);
         else {
             node = new DefaultTerminalNode(slot, start, end);
         }
@@ -0,0 +1,54 @@
+package org.iguana.result;
+
+import java.util.Objects;
+
+/**
+ * The length of the shortest path and the number of derivations between a pair of vertices, as computed by
+ * {@link PathCountResultOps}. Path lengths count the terminals other than epsilon, which are the edges on graphs.
+ */
+public class PathCount {
+
+    /**
+     * The count of pairs with at least {@code Long.MAX_VALUE} derivations, which includes pairs with
+     * infinitely many derivations on cyclic graphs
+     */
+    public static final long SATURATED = Long.MAX_VALUE;
+
+    private final int shortestLength;
+    private final long count;
+
+    public PathCount(int shortestLength, long count) {
+        this.shortestLength = shortestLength;
+        this.count = count;
+    }
+
+    public int getShortestLength() {
+        return shortestLength;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isSaturated() {
+        return count == SATURATED;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof PathCount)) return false;
+        PathCount other = (PathCount) obj;
+        return shortestLength == other.shortestLength && count == other.count;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(shortestLength, count);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + shortestLength + ", " + (isSaturated() ? "saturated" : count) + ")";
+    }
+}
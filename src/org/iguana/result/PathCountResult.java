@@ -0,0 +1,88 @@
+package org.iguana.result;
+
+/**
+ * The result of a parse with {@link PathCountResultOps}: a node of the SPPF that only keeps the length of the
+ * shortest path and the number of derivations below it, and its uses by parent nodes to update them. It has no
+ * references to its children.
+ */
+public class PathCountResult implements Result {
+
+    static final PathCountResult DUMMY = new PathCountResult(-1, -1, 0, 0, null) {
+        @Override
+        public boolean isDummy() {
+            return true;
+        }
+    };
+
+    private final int leftExtent;
+    private final int rightExtent;
+    private final Object value;
+
+    int minLength;
+    long count;
+
+    /**
+     * The packed nodes of parent nodes this node is a child of
+     */
+    Use uses;
+
+    /**
+     * Scratch state of the count propagation in {@link PathCountResultOps}
+     */
+    int visit;
+    int inDegree;
+    long delta;
+
+    PathCountResult(int leftExtent, int rightExtent, int minLength, long count, Object value) {
+        this.leftExtent = leftExtent;
+        this.rightExtent = rightExtent;
+        this.minLength = minLength;
+        this.count = count;
+        this.value = value;
+    }
+
+    @Override
+    public int getIndex() {
+        return rightExtent;
+    }
+
+    @Override
+    public int getLeftExtent() {
+        return leftExtent;
+    }
+
+    @Override
+    public boolean isDummy() {
+        return false;
+    }
+
+    @Override
+    public Object getValue() {
+        return value;
+    }
+
+    public PathCount getPathCount() {
+        return new PathCount(minLength, count);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(%d, %d, %d, %d)", leftExtent, rightExtent, minLength, count);
+    }
+
+    /**
+     * A packed node of the parent with this node as a child and the other child, which is null for the packed
+     * nodes of nonterminal nodes
+     */
+    static class Use {
+        final PathCountResult parent;
+        final PathCountResult sibling;
+        final Use next;
+
+        Use(PathCountResult parent, PathCountResult sibling, Use next) {
+            this.parent = parent;
+            this.sibling = sibling;
+            this.next = next;
+        }
+    }
+}
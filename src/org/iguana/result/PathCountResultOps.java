@@ -0,0 +1,199 @@
+package org.iguana.result;
+
+import iguana.regex.Epsilon;
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.grammar.slot.EndGrammarSlot;
+import org.iguana.grammar.slot.TerminalGrammarSlot;
+import org.iguana.result.PathCountResult.Use;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.iguana.result.PathCount.SATURATED;
+
+/**
+ * Computes the length of the shortest path and the saturating number of derivations of each SPPF node while the
+ * nodes are created, instead of building the SPPF. Packed nodes only exist as uses from the children to the
+ * parents: when a packed node is added to a node that already has parents, the change is propagated to its
+ * ancestors. Shortest lengths only decrease, so the propagation stops at ancestors that do not change. The
+ * derivation count is added along the ancestors in topological order, and a packed node that closes a cycle
+ * gives the node and its ancestors infinitely many derivations, which are counted as {@link PathCount#SATURATED}.
+ * Nodes with a saturated count are skipped.
+ * <p>
+ * A new instance should be used for each parse.
+ */
+public class PathCountResultOps implements ResultOps<PathCountResult> {
+
+    private int epoch;
+
+    /**
+     * Parallel edges with the same label are different paths, but schedule descriptors with the same slot, GSS
+     * node and input index
+     */
+    @Override
+    public boolean allowsDescriptorDeduplication() {
+        return false;
+    }
+
+    @Override
+    public PathCountResult dummy() {
+        return PathCountResult.DUMMY;
+    }
+
+    @Override
+    public PathCountResult base(TerminalGrammarSlot slot, int start, int end) {
+        int length = slot.getTerminal().getRegularExpression() instanceof Epsilon ? 0 : 1;
+        return new PathCountResult(start, end, length, 1, null);
+    }
+
+    @Override
+    public PathCountResult merge(PathCountResult current, PathCountResult result1, PathCountResult result2, BodyGrammarSlot slot) {
+        if (result1 == PathCountResult.DUMMY)
+            return result2;
+
+        if (current == null)
+            return createNode(result1, result2, result1.getLeftExtent(), result2.getIndex(), null);
+
+        addPackedNode(current, result1, result2);
+        return current;
+    }
+
+    @Override
+    public PathCountResult convert(PathCountResult current, PathCountResult result, EndGrammarSlot slot, Object value) {
+        if (current == null)
+            return createNode(result, null, result.getLeftExtent(), result.getIndex(), value);
+
+        addPackedNode(current, result, null);
+        return current;
+    }
+
+    private static PathCountResult createNode(PathCountResult left, PathCountResult right, int leftExtent, int rightExtent, Object value) {
+        PathCountResult node = new PathCountResult(leftExtent, rightExtent, minLength(left, right), count(left, right), value);
+        addUses(node, left, right);
+        return node;
+    }
+
+    private void addPackedNode(PathCountResult node, PathCountResult left, PathCountResult right) {
+        addUses(node, left, right);
+
+        int length = minLength(left, right);
+        if (length < node.minLength) {
+            node.minLength = length;
+            propagateMinLength(node);
+        }
+
+        if (node.count != SATURATED) {
+            addCount(node, left, right);
+        }
+    }
+
+    private static void addUses(PathCountResult node, PathCountResult left, PathCountResult right) {
+        left.uses = new Use(node, right, left.uses);
+        if (right != null && right != left) {
+            right.uses = new Use(node, left, right.uses);
+        }
+    }
+
+    private static void propagateMinLength(PathCountResult node) {
+        Deque<PathCountResult> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            PathCountResult child = stack.pop();
+            for (Use use = child.uses; use != null; use = use.next) {
+                int length = minLength(child, use.sibling);
+                if (length < use.parent.minLength) {
+                    use.parent.minLength = length;
+                    stack.push(use.parent);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the derivations of a new packed node to the node and its ancestors
+     */
+    private void addCount(PathCountResult node, PathCountResult left, PathCountResult right) {
+        List<PathCountResult> ancestors = getAncestors(node);
+
+        // Among nodes with a finite count there are no cycles, so the new packed node closes one if a child is
+        // an ancestor, and then the node and its ancestors have infinitely many derivations
+        if (left.visit == epoch || (right != null && right.visit == epoch)) {
+            for (PathCountResult ancestor : ancestors) {
+                ancestor.count = SATURATED;
+            }
+            return;
+        }
+
+        node.delta = count(left, right);
+        for (PathCountResult ancestor : ancestors) {
+            for (Use use = ancestor.uses; use != null; use = use.next) {
+                if (use.parent.visit == epoch) use.parent.inDegree++;
+            }
+        }
+
+        // The count of a sibling is the old one if the sibling is updated later, and the new one if it was updated
+        // before, which adds the derivations with both new and old children once
+        Deque<PathCountResult> queue = new ArrayDeque<>();
+        queue.add(node);
+        while (!queue.isEmpty()) {
+            PathCountResult child = queue.poll();
+            long delta = child.delta;
+            for (Use use = child.uses; use != null; use = use.next) {
+                PathCountResult parent = use.parent;
+                if (parent.visit != epoch) continue;
+                if (use.sibling == child) {
+                    // (count + delta)^2 - count^2
+                    parent.delta = add(parent.delta, multiply(delta, add(add(child.count, child.count), delta)));
+                } else {
+                    parent.delta = add(parent.delta, multiply(delta, use.sibling == null ? 1 : use.sibling.count));
+                }
+                if (--parent.inDegree == 0) queue.add(parent);
+            }
+            child.count = add(child.count, delta);
+            child.delta = 0;
+        }
+    }
+
+    /**
+     * Marks the node and its ancestors with a finite count with the next epoch
+     */
+    private List<PathCountResult> getAncestors(PathCountResult node) {
+        if (++epoch == 0) epoch = 1;
+        List<PathCountResult> ancestors = new ArrayList<>();
+        node.visit = epoch;
+        ancestors.add(node);
+        for (int i = 0; i < ancestors.size(); i++) {
+            for (Use use = ancestors.get(i).uses; use != null; use = use.next) {
+                PathCountResult parent = use.parent;
+                if (parent.visit != epoch && parent.count != SATURATED) {
+                    parent.visit = epoch;
+                    ancestors.add(parent);
+                }
+            }
+        }
+        return ancestors;
+    }
+
+    private static int minLength(PathCountResult left, PathCountResult right) {
+        return right == null ? left.minLength : left.minLength + right.minLength;
+    }
+
+    private static long count(PathCountResult left, PathCountResult right) {
+        return right == null ? left.count : multiply(left.count, right.count);
+    }
+
+    private static long add(long a, long b) {
+        if (a == SATURATED || b == SATURATED) return SATURATED;
+        long sum = a + b;
+        return sum < 0 ? SATURATED : sum;
+    }
+
+    private static long multiply(long a, long b) {
+        if (a == SATURATED || b == SATURATED) return a == 0 || b == 0 ? 0 : SATURATED;
+        if (Math.multiplyHigh(a, b) != 0) return SATURATED;
+        long product = a * b;
+        return product < 0 ? SATURATED : product;
+    }
+}
@@ -9,4 +9,12 @@ public interface ResultOps<T extends Result> {
     T base(TerminalGrammarSlot slot, int start, int end);
     T merge(T current, T result1, T result2, BodyGrammarSlot slot);
     T convert(T current, T result, EndGrammarSlot slot, Object value);
+
+    /**
+     * Whether a descriptor can be dropped if one with the same slot, GSS node and input index was already
+     * scheduled, as both derive results with the same extents.
+     */
+    default boolean allowsDescriptorDeduplication() {
+        return true;
+    }
 }
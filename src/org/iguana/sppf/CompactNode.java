@@ -0,0 +1,64 @@
+package org.iguana.sppf;
+
+import org.iguana.result.Result;
+
+/**
+ * The result of a parse with {@link org.iguana.result.CompactResultOps}: a handle to a node of a
+ * {@link CompactSPPF} that only holds the extents the parser needs. It has no references, so the garbage collector
+ * does not walk the SPPF through it.
+ */
+public class CompactNode implements Result {
+
+    private static final CompactNode DUMMY = new CompactNode(-1, -1, -1) {
+        @Override
+        public boolean isDummy() {
+            return true;
+        }
+    };
+
+    private final int id;
+    private final int leftExtent;
+    private final int rightExtent;
+
+    CompactNode(int id, int leftExtent, int rightExtent) {
+        this.id = id;
+        this.leftExtent = leftExtent;
+        this.rightExtent = rightExtent;
+    }
+
+    public static CompactNode dummy() {
+        return DUMMY;
+    }
+
+    /**
+     * @return the index of the node in its {@link CompactSPPF}
+     */
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public int getIndex() {
+        return rightExtent;
+    }
+
+    @Override
+    public int getLeftExtent() {
+        return leftExtent;
+    }
+
+    @Override
+    public boolean isDummy() {
+        return false;
+    }
+
+    @Override
+    public Object getValue() {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(%d, %d, %d)", id, leftExtent, rightExtent);
+    }
+}
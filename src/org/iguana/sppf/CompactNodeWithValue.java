@@ -0,0 +1,19 @@
+package org.iguana.sppf;
+
+/**
+ * A {@link CompactNode} of a parse with semantic values, which keeps the value of the node
+ */
+class CompactNodeWithValue extends CompactNode implements NodeWithValue {
+
+    private final Object value;
+
+    CompactNodeWithValue(int id, int leftExtent, int rightExtent, Object value) {
+        super(id, leftExtent, rightExtent);
+        this.value = value;
+    }
+
+    @Override
+    public Object getValue() {
+        return value;
+    }
+}
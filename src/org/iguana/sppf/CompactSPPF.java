@@ -0,0 +1,470 @@
+package org.iguana.sppf;
+
+import org.iguana.grammar.slot.BodyGrammarSlot;
+import org.iguana.grammar.slot.EndGrammarSlot;
+import org.iguana.grammar.slot.GrammarSlot;
+import org.iguana.grammar.slot.TerminalGrammarSlot;
+import org.iguana.grammar.slot.TerminalNodeType;
+import org.iguana.grammar.symbol.Terminal;
+import org.iguana.parser.Pair;
+import org.iguana.result.ParserResultOps;
+
+import java.util.*;
+
+/**
+ * An SPPF stored in primitive arrays, one entry per node and per packed node, instead of node objects that
+ * reference their children and an identity map from ambiguous nodes to lists of packed nodes. Nodes are
+ * addressed by int ids and grammar slots by ids into a slot table. The first packed node of a node is stored
+ * with the node; the other packed nodes of ambiguous nodes are kept in a linked list in the packed node arrays.
+ * <p>
+ * The parser only holds {@link CompactNode} handles, which have no references and are not kept by the SPPF, and
+ * once the roots are known, {@link #removeUnreachableNodes()} drops the nodes of failed derivations. To run existing
+ * {@link org.iguana.traversal.SPPFVisitor}s, {@link #getRoots()} returns {@link NonterminalNode} views whose
+ * children and packed nodes are created on demand from the arrays, once per node, and {@link #asParserResultOps()} provides
+ * their packed nodes to visitors that read ambiguities from {@link ParserResultOps}.
+ */
+public class CompactSPPF {
+
+    private static final byte TERMINAL = 0;
+    private static final byte NONTERMINAL = 1;
+    private static final byte INTERMEDIATE = 2;
+
+    private static final int NONE = -1;
+
+    private final List<GrammarSlot> slots = new ArrayList<>();
+    private final Map<GrammarSlot, Integer> slotIds = new IdentityHashMap<>();
+
+    private int nodesCount;
+    private byte[] kinds = new byte[16];
+    private int[] leftExtents = new int[16];
+    private int[] rightExtents = new int[16];
+
+    /**
+     * The slot of each node, for nonterminal nodes the end slot of its first packed node
+     */
+    private int[] nodeSlots = new int[16];
+
+    /**
+     * The children of the first packed node of each node, with {@link #NONE} for a missing right child
+     */
+    private int[] firstLefts = new int[16];
+    private int[] firstRights = new int[16];
+
+    /**
+     * The last added packed node of each ambiguous node apart from its first one, or {@link #NONE}
+     */
+    private int[] lastPackedNodes = new int[16];
+
+    private int packedNodesCount;
+    private int[] packedSlots = new int[16];
+    private int[] packedLefts = new int[16];
+    private int[] packedRights = new int[16];
+    private int[] previousPackedNodes = new int[16];
+
+    /**
+     * The values of data-dependent nonterminal nodes
+     */
+    private Map<Integer, Object> values = new HashMap<>();
+
+    private final Map<Pair, Integer> roots = new HashMap<>();
+
+    private NonPackedNode[] views = new NonPackedNode[0];
+
+    public CompactNode addTerminalNode(TerminalGrammarSlot slot, int start, int end) {
+        return addNode(TERMINAL, slot, start, end, NONE, NONE, null);
+    }
+
+    public CompactNode addNonterminalNode(EndGrammarSlot slot, CompactNode child, Object value) {
+        return addNode(NONTERMINAL, slot, child.getLeftExtent(), child.getIndex(), child.getId(), NONE, value);
+    }
+
+    public CompactNode addIntermediateNode(BodyGrammarSlot slot, CompactNode left, CompactNode right) {
+        return addNode(INTERMEDIATE, slot, left.getLeftExtent(), right.getIndex(), left.getId(), right.getId(), null);
+    }
+
+    /**
+     * Adds a packed node, other than the first one, to a nonterminal or intermediate node. The right child is
+     * null for nonterminal nodes.
+     */
+    public void addPackedNode(CompactNode node, BodyGrammarSlot slot, CompactNode left, CompactNode right) {
+        if (packedNodesCount == packedSlots.length) {
+            resizePackedNodes(packedNodesCount << 1);
+        }
+        int packedNode = packedNodesCount++;
+        packedSlots[packedNode] = slotId(slot);
+        packedLefts[packedNode] = left.getId();
+        packedRights[packedNode] = right == null ? NONE : right.getId();
+        previousPackedNodes[packedNode] = lastPackedNodes[node.getId()];
+        lastPackedNodes[node.getId()] = packedNode;
+    }
+
+    private CompactNode addNode(byte kind, GrammarSlot slot, int leftExtent, int rightExtent, int left, int right, Object value) {
+        if (nodesCount == kinds.length) {
+            resizeNodes(nodesCount << 1);
+        }
+        int id = nodesCount++;
+        kinds[id] = kind;
+        leftExtents[id] = leftExtent;
+        rightExtents[id] = rightExtent;
+        nodeSlots[id] = slotId(slot);
+        firstLefts[id] = left;
+        firstRights[id] = right;
+        lastPackedNodes[id] = NONE;
+        if (value == null) {
+            return new CompactNode(id, leftExtent, rightExtent);
+        }
+        values.put(id, value);
+        return new CompactNodeWithValue(id, leftExtent, rightExtent, value);
+    }
+
+    private void resizeNodes(int capacity) {
+        kinds = Arrays.copyOf(kinds, capacity);
+        leftExtents = Arrays.copyOf(leftExtents, capacity);
+        rightExtents = Arrays.copyOf(rightExtents, capacity);
+        nodeSlots = Arrays.copyOf(nodeSlots, capacity);
+        firstLefts = Arrays.copyOf(firstLefts, capacity);
+        firstRights = Arrays.copyOf(firstRights, capacity);
+        lastPackedNodes = Arrays.copyOf(lastPackedNodes, capacity);
+    }
+
+    private void resizePackedNodes(int capacity) {
+        packedSlots = Arrays.copyOf(packedSlots, capacity);
+        packedLefts = Arrays.copyOf(packedLefts, capacity);
+        packedRights = Arrays.copyOf(packedRights, capacity);
+        previousPackedNodes = Arrays.copyOf(previousPackedNodes, capacity);
+    }
+
+    private int slotId(GrammarSlot slot) {
+        Integer id = slotIds.get(slot);
+        if (id == null) {
+            id = slots.size();
+            slotIds.put(slot, id);
+            slots.add(slot);
+        }
+        return id;
+    }
+
+    public void addRoot(Pair pair, CompactNode root) {
+        roots.put(pair, root.getId());
+    }
+
+    /**
+     * @return views of the roots, as returned by {@link org.iguana.parser.IguanaParser#getSPPF}
+     */
+    public Map<Pair, NonterminalNode> getRoots() {
+        Map<Pair, NonterminalNode> views = new HashMap<>();
+        roots.forEach((pair, root) -> views.put(pair, (NonterminalNode) getNode(root)));
+        return views;
+    }
+
+    /**
+     * Drops the nodes and packed nodes that are not reachable from the roots, which are most nodes of failed
+     * derivations, renumbers the remaining ones in the order they were added, and trims the arrays.
+     * Invalidates the handles and views created before.
+     */
+    public void removeUnreachableNodes() {
+        int[] newIds = new int[nodesCount];
+        Arrays.fill(newIds, NONE);
+        Deque<Integer> stack = new ArrayDeque<>(roots.values());
+        roots.values().forEach(root -> newIds[root] = 0);
+        while (!stack.isEmpty()) {
+            int id = stack.pop();
+            if (kinds[id] == TERMINAL) continue;
+            visit(firstLefts[id], newIds, stack);
+            visit(firstRights[id], newIds, stack);
+            for (int packedNode = lastPackedNodes[id]; packedNode != NONE; packedNode = previousPackedNodes[packedNode]) {
+                visit(packedLefts[packedNode], newIds, stack);
+                visit(packedRights[packedNode], newIds, stack);
+            }
+        }
+
+        int count = 0;
+        for (int id = 0; id < nodesCount; id++) {
+            if (newIds[id] != NONE) newIds[id] = count++;
+        }
+
+        int packedCount = 0;
+        for (int id = 0; id < nodesCount; id++) {
+            if (newIds[id] == NONE) continue;
+            for (int packedNode = lastPackedNodes[id]; packedNode != NONE; packedNode = previousPackedNodes[packedNode]) {
+                packedCount++;
+            }
+        }
+        int[] newPackedSlots = new int[Math.max(packedCount, 1)];
+        int[] newPackedLefts = new int[newPackedSlots.length];
+        int[] newPackedRights = new int[newPackedSlots.length];
+        int[] newPreviousPackedNodes = new int[newPackedSlots.length];
+
+        // Node ids only decrease, so the node arrays are compacted in place. The packed nodes of each node get
+        // consecutive ids, with the list still running from the last added packed node to the first.
+        Map<Integer, Object> newValues = new HashMap<>();
+        int packedEnd = 0;
+        for (int id = 0; id < nodesCount; id++) {
+            int newId = newIds[id];
+            if (newId == NONE) continue;
+            kinds[newId] = kinds[id];
+            leftExtents[newId] = leftExtents[id];
+            rightExtents[newId] = rightExtents[id];
+            nodeSlots[newId] = nodeSlots[id];
+            firstLefts[newId] = firstLefts[id] == NONE ? NONE : newIds[firstLefts[id]];
+            firstRights[newId] = firstRights[id] == NONE ? NONE : newIds[firstRights[id]];
+            if (values.containsKey(id)) {
+                newValues.put(newId, values.get(id));
+            }
+
+            int last = NONE;
+            for (int packedNode = lastPackedNodes[id]; packedNode != NONE; packedNode = previousPackedNodes[packedNode]) {
+                int newPackedNode = packedEnd++;
+                newPackedSlots[newPackedNode] = packedSlots[packedNode];
+                newPackedLefts[newPackedNode] = newIds[packedLefts[packedNode]];
+                newPackedRights[newPackedNode] = packedRights[packedNode] == NONE ? NONE : newIds[packedRights[packedNode]];
+                newPreviousPackedNodes[newPackedNode] = newPackedNode + 1;
+                if (last == NONE) last = newPackedNode;
+            }
+            if (last != NONE) {
+                newPreviousPackedNodes[packedEnd - 1] = NONE;
+            }
+            lastPackedNodes[newId] = last;
+        }
+
+        nodesCount = count;
+        resizeNodes(Math.max(nodesCount, 1));
+        packedNodesCount = packedCount;
+        packedSlots = newPackedSlots;
+        packedLefts = newPackedLefts;
+        packedRights = newPackedRights;
+        previousPackedNodes = newPreviousPackedNodes;
+        values = newValues;
+        roots.replaceAll((pair, root) -> newIds[root]);
+        views = new NonPackedNode[0];
+    }
+
+    private static void visit(int child, int[] newIds, Deque<Integer> stack) {
+        if (child != NONE && newIds[child] == NONE) {
+            newIds[child] = 0;
+            stack.push(child);
+        }
+    }
+
+    public int getNodesCount() {
+        return nodesCount;
+    }
+
+    /**
+     * @return the number of packed nodes, counting the first packed node of each nonterminal and intermediate node
+     */
+    public int getPackedNodesCount() {
+        int count = packedNodesCount;
+        for (int id = 0; id < nodesCount; id++) {
+            if (kinds[id] != TERMINAL) count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the view of the node, which is the same object for all calls with the same node
+     */
+    public NonPackedNode getNode(CompactNode node) {
+        return getNode(node.getId());
+    }
+
+    private NonPackedNode getNode(int id) {
+        if (views.length < nodesCount) {
+            views = Arrays.copyOf(views, nodesCount);
+        }
+        NonPackedNode view = views[id];
+        if (view == null) {
+            view = createView(id);
+            views[id] = view;
+        }
+        return view;
+    }
+
+    private NonPackedNode createView(int id) {
+        GrammarSlot slot = slots.get(nodeSlots[id]);
+        switch (kinds[id]) {
+            case NONTERMINAL:
+                return new NonterminalView(id, (EndGrammarSlot) slot);
+            case INTERMEDIATE:
+                return new IntermediateView(id, (BodyGrammarSlot) slot);
+            default:
+                return createTerminalNode((TerminalGrammarSlot) slot, leftExtents[id], rightExtents[id]);
+        }
+    }
+
+    /**
+     * Creates the same kind of terminal node as {@link ParserResultOps#base}
+     */
+    private static TerminalNode createTerminalNode(TerminalGrammarSlot slot, int start, int end) {
+        if (start == end) {
+            return new EmptyTerminalNode(slot, start);
+        } else if (slot.getTerminal().getNodeType() == TerminalNodeType.Keyword) {
+            return new KeywordTerminalNode(slot, start);
+        } else if (slot.getTerminal() == Terminal.epsilon()) {
+            return new EpsilonTerminalNode(slot, start);
+        }
+        return new DefaultTerminalNode(slot, start, end);
+    }
+
+    /**
+     * @return all packed nodes of an ambiguous view, the first one included, in the order they were added, or
+     * null if the node is not ambiguous, as {@link ParserResultOps#getPackedNodes}. The list is read-only and
+     * the same for all calls with the same view.
+     */
+    public List<PackedNode> getPackedNodes(NonPackedNode node) {
+        int id;
+        if (node instanceof NonterminalView) {
+            id = ((NonterminalView) node).id;
+        } else if (node instanceof IntermediateView) {
+            id = ((IntermediateView) node).id;
+        } else {
+            return null;
+        }
+        if (lastPackedNodes[id] == NONE) {
+            return null;
+        }
+        if (node instanceof NonterminalView) {
+            return ((NonterminalView) node).getPackedNodes();
+        }
+        return ((IntermediateView) node).getPackedNodes();
+    }
+
+    private List<PackedNode> createPackedNodes(int id, PackedNode firstPackedNode) {
+        List<PackedNode> packedNodes = new ArrayList<>();
+        for (int packedNode = lastPackedNodes[id]; packedNode != NONE; packedNode = previousPackedNodes[packedNode]) {
+            BodyGrammarSlot slot = (BodyGrammarSlot) slots.get(packedSlots[packedNode]);
+            NonPackedNode right = packedRights[packedNode] == NONE ? null : getNode(packedRights[packedNode]);
+            packedNodes.add(new PackedNode(slot, getNode(packedLefts[packedNode]), right));
+        }
+        packedNodes.add(firstPackedNode);
+        Collections.reverse(packedNodes);
+        return Collections.unmodifiableList(packedNodes);
+    }
+
+    /**
+     * @return result ops that only answer {@link ParserResultOps#getPackedNodes} for the views of this SPPF, for
+     * visitors such as {@link org.iguana.traversal.AmbiguousSPPFToParseTreeVisitor}
+     */
+    public ParserResultOps asParserResultOps() {
+        return new ParserResultOps() {
+            @Override
+            public List<PackedNode> getPackedNodes(NonPackedNode node) {
+                return CompactSPPF.this.getPackedNodes(node);
+            }
+        };
+    }
+
+    private class NonterminalView extends NonterminalNode {
+
+        private final int id;
+        private final Object value;
+
+        // Created on the first call, as views are
+        private PackedNode firstPackedNode;
+        private List<PackedNode> packedNodes;
+
+        NonterminalView(int id, EndGrammarSlot slot) {
+            super(slot, null, leftExtents[id], rightExtents[id]);
+            this.id = id;
+            this.value = values.get(id);
+        }
+
+        @Override
+        public SPPFNode getChildAt(int index) {
+            if (index == 0) {
+                return getNode(firstLefts[id]);
+            }
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+
+        @Override
+        public PackedNode getFirstPackedNode() {
+            if (firstPackedNode == null) {
+                firstPackedNode = new PackedNode(getEndGrammarSlot(), getNode(firstLefts[id]));
+            }
+            return firstPackedNode;
+        }
+
+        List<PackedNode> getPackedNodes() {
+            if (packedNodes == null) {
+                packedNodes = createPackedNodes(id, getFirstPackedNode());
+            }
+            return packedNodes;
+        }
+
+        @Override
+        public boolean isAmbiguous() {
+            return lastPackedNodes[id] != NONE;
+        }
+
+        @Override
+        public void setAmbiguous(boolean ambiguous) {
+            throw new UnsupportedOperationException("A compact SPPF is read-only");
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+    }
+
+    private class IntermediateView extends IntermediateNode {
+
+        private final int id;
+
+        // Created on the first call, as views are
+        private PackedNode firstPackedNode;
+        private List<PackedNode> packedNodes;
+
+        IntermediateView(int id, BodyGrammarSlot slot) {
+            super(slot, null, null);
+            this.id = id;
+        }
+
+        @Override
+        public SPPFNode getChildAt(int index) {
+            if (index == 0) {
+                return getNode(firstLefts[id]);
+            }
+            if (index == 1) {
+                return getNode(firstRights[id]);
+            }
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+
+        @Override
+        public int getLeftExtent() {
+            return leftExtents[id];
+        }
+
+        @Override
+        public int getIndex() {
+            return rightExtents[id];
+        }
+
+        @Override
+        public PackedNode getFirstPackedNode() {
+            if (firstPackedNode == null) {
+                firstPackedNode = new PackedNode(getGrammarSlot(), getNode(firstLefts[id]), getNode(firstRights[id]));
+            }
+            return firstPackedNode;
+        }
+
+        List<PackedNode> getPackedNodes() {
+            if (packedNodes == null) {
+                packedNodes = createPackedNodes(id, getFirstPackedNode());
+            }
+            return packedNodes;
+        }
+
+        @Override
+        public boolean isAmbiguous() {
+            return lastPackedNodes[id] != NONE;
+        }
+
+        @Override
+        public void setAmbiguous(boolean ambiguous) {
+            throw new UnsupportedOperationException("A compact SPPF is read-only");
+        }
+    }
+}
@@ -1,17 +1,19 @@
 package org.iguana.sppf;
 
-import org.iguana.grammar.GrammarGraph;
 import org.iguana.grammar.slot.TerminalGrammarSlot;
 
 public class EpsilonTerminalNode extends TerminalNode {
 
-    public EpsilonTerminalNode(int leftExtent) {
+    private final TerminalGrammarSlot slot;
+
+    public EpsilonTerminalNode(TerminalGrammarSlot slot, int leftExtent) {
         super(leftExtent);
+        this.slot = slot;
     }
 
     @Override
     public TerminalGrammarSlot getGrammarSlot() {
-        return GrammarGraph.epsilonSlot;
+        return slot;
     }
 
     @Override
@@ -0,0 +1,10 @@
+package org.iguana.sppf;
+
+/**
+ * A nonterminal node of a parse with semantic values, such as {@link NonterminalNodeWithValue} or a node of a
+ * {@link CompactSPPF}, which a val expression reads the value of
+ */
+public interface NodeWithValue {
+
+    Object getValue();
+}
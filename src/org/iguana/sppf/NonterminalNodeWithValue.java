@@ -2,7 +2,7 @@ package org.iguana.sppf;
 
 import org.iguana.grammar.slot.EndGrammarSlot;
 
-public class NonterminalNodeWithValue extends NonterminalNode {
+public class NonterminalNodeWithValue extends NonterminalNode implements NodeWithValue {
 
     private final Object value;
 
@@ -0,0 +1,633 @@
+package org.iguana.traversal;
+
+import iguana.regex.Epsilon;
+import iguana.utils.input.Edge;
+import org.iguana.result.ParserResultOps;
+import org.iguana.sppf.NonPackedNode;
+import org.iguana.sppf.PackedNode;
+import org.iguana.sppf.TerminalNode;
+
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads graph paths from the SPPF of a graph query without building parse trees. A path is the list of the
+ * edges of a derivation, read from its terminal nodes, each {@link Edge} holding the label and the vertex the
+ * edge leads to; the path starts at the left extent of the root. Epsilon contributes no edge.
+ * <p>
+ * The SPPF nodes below a root are walked on demand, with explicit stacks instead of recursion, so long paths
+ * do not overflow the call stack. The SPPF of a cyclic graph may itself be cyclic; the shortest path is always
+ * found, and as a cyclic SPPF can derive infinitely many paths, the enumeration takes a maximum path length.
+ */
+public class SPPFPaths {
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final ParserResultOps resultOps;
+
+    public SPPFPaths(ParserResultOps resultOps) {
+        this.resultOps = resultOps;
+    }
+
+    /**
+     * @return a path with the fewest edges among the paths derived by the root, or null if it derives none
+     */
+    public List<Edge> getShortestPath(NonPackedNode root) {
+        return new Derivations(root).getShortestPath();
+    }
+
+    /**
+     * Lazily enumerates the distinct paths derived by the root that have at most maxLength edges, shortest
+     * first. Paths of the same length are searched together, so the first path of a length costs a search
+     * over the derivations of that length.
+     */
+    public Stream<List<Edge>> getPaths(NonPackedNode root, int maxLength) {
+        Iterator<List<Edge>> paths = new PathIterator(new Derivations(root), maxLength);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(paths,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * The SPPF nodes reachable from a root, numbered and with their alternatives as child numbers, and the
+     * length of the shortest path derived by each node.
+     */
+    private class Derivations {
+
+        private final List<NonPackedNode> nodes = new ArrayList<>();
+        private final Map<NonPackedNode, Integer> ids = new IdentityHashMap<>();
+
+        /**
+         * The alternatives of each node as pairs of left and right child numbers, with -1 for a missing right
+         * child, or null for terminal nodes
+         */
+        private int[][] alternatives;
+
+        /**
+         * The edge of each terminal node, or null for epsilon
+         */
+        private Edge[] edges;
+
+        /**
+         * Node numbers with the children before their parents, unless they are on a cycle
+         */
+        private int[] postOrder;
+
+        private int[] minLengths;
+
+        /**
+         * The length of the longest path derived by each node, or {@link #INFINITY} for nodes that reach a cycle
+         */
+        private int[] maxLengths;
+
+        /**
+         * The alternative of each node that derives its shortest path
+         */
+        private int[] shortest;
+
+        Derivations(NonPackedNode root) {
+            collect(root);
+            computeMinLengths();
+        }
+
+        int root() {
+            return 0;
+        }
+
+        int size() {
+            return nodes.size();
+        }
+
+        private int id(NonPackedNode node) {
+            Integer id = ids.get(node);
+            if (id == null) {
+                id = nodes.size();
+                ids.put(node, id);
+                nodes.add(node);
+            }
+            return id;
+        }
+
+        /**
+         * Numbers the nodes below the root by an iterative depth-first search. A node reaches a cycle if a child
+         * is still open, i.e., an ancestor, or reaches a cycle itself; the other nodes get their longest path
+         * when they are finished, after their children.
+         */
+        private void collect(NonPackedNode root) {
+            final byte NEW = 0, OPEN = 1, DONE = 2;
+            List<int[]> alternatives = new ArrayList<>();
+            List<Edge> edges = new ArrayList<>();
+            byte[] states = new byte[16];
+            int[] maxLengths = new int[16];
+            int[] postOrder = new int[16];
+            int finished = 0;
+
+            Deque<Integer> stack = new ArrayDeque<>();
+            stack.push(id(root));
+            while (!stack.isEmpty()) {
+                int id = stack.peek();
+                if (id >= states.length) {
+                    states = Arrays.copyOf(states, Math.max(states.length << 1, id + 1));
+                    maxLengths = Arrays.copyOf(maxLengths, states.length);
+                }
+                if (states[id] == NEW) {
+                    states[id] = OPEN;
+                    int[] children = children(nodes.get(id));
+                    set(alternatives, id, children);
+                    set(edges, id, children == null ? edge((TerminalNode) nodes.get(id)) : null);
+                    if (children == null) continue;
+                    for (int i = children.length - 1; i >= 0; i--) {
+                        int child = children[i];
+                        if (child >= 0 && (child >= states.length || states[child] == NEW)) stack.push(child);
+                    }
+                } else {
+                    stack.pop();
+                    if (states[id] != OPEN) continue;
+
+                    int[] children = alternatives.get(id);
+                    long maxLength = children == null ? (edges.get(id) == null ? 0 : 1) : 0;
+                    for (int i = 0; children != null && i < children.length; i += 2) {
+                        int left = children[i];
+                        int right = children[i + 1];
+                        if (states[left] == OPEN || (right >= 0 && states[right] == OPEN)) {
+                            maxLength = INFINITY;
+                        } else {
+                            maxLength = Math.max(maxLength, (long) maxLengths[left] + (right < 0 ? 0 : maxLengths[right]));
+                        }
+                    }
+                    maxLengths[id] = (int) Math.min(maxLength, INFINITY);
+
+                    states[id] = DONE;
+                    if (finished == postOrder.length) {
+                        postOrder = Arrays.copyOf(postOrder, finished << 1);
+                    }
+                    postOrder[finished++] = id;
+                }
+            }
+
+            this.alternatives = alternatives.toArray(new int[0][]);
+            this.edges = edges.toArray(new Edge[0]);
+            this.maxLengths = Arrays.copyOf(maxLengths, size());
+            this.postOrder = Arrays.copyOf(postOrder, finished);
+        }
+
+        private <T> void set(List<T> list, int index, T value) {
+            while (list.size() <= index) list.add(null);
+            list.set(index, value);
+        }
+
+        private int[] children(NonPackedNode node) {
+            if (node instanceof TerminalNode) {
+                return null;
+            }
+            List<PackedNode> packedNodes = node.isAmbiguous()
+                    ? resultOps.getPackedNodes(node)
+                    : Collections.singletonList(node.getFirstPackedNode());
+            int[] children = new int[2 * packedNodes.size()];
+            for (int i = 0; i < packedNodes.size(); i++) {
+                PackedNode packedNode = packedNodes.get(i);
+                children[2 * i] = id(packedNode.getLeftChild());
+                children[2 * i + 1] = packedNode.getRightChild() == null ? -1 : id(packedNode.getRightChild());
+            }
+            return children;
+        }
+
+        private Edge edge(TerminalNode node) {
+            // On a graph, a terminal node whose extents are equal is a self loop rather than an empty match
+            if (node.getGrammarSlot().getTerminal().getRegularExpression() instanceof Epsilon) {
+                return null;
+            }
+            return new Edge(node.getGrammarSlot().getTerminal().getRegularExpression().toString(), node.getIndex());
+        }
+
+        boolean isTerminal(int node) {
+            return alternatives[node] == null;
+        }
+
+        int terminalLength(int node) {
+            return edges[node] == null ? 0 : 1;
+        }
+
+        /**
+         * Knuth's generalization of Dijkstra's algorithm: a node is final once it is the nearest node in the
+         * queue, and an alternative is evaluated once all its children are final. Choosing the alternative that
+         * first reaches the final length keeps the chosen alternatives free of cycles.
+         */
+        private void computeMinLengths() {
+            int n = size();
+            minLengths = new int[n];
+            shortest = new int[n];
+            int[] candidates = new int[n];
+            Arrays.fill(minLengths, INFINITY);
+            Arrays.fill(candidates, INFINITY);
+
+            // The alternatives in which each node occurs, as (parent, alternative) pairs
+            int[] occurrenceStarts = new int[n + 1];
+            int[][] remaining = new int[n][];
+            for (int node = 0; node < n; node++) {
+                if (isTerminal(node)) continue;
+                int[] children = alternatives[node];
+                remaining[node] = new int[children.length / 2];
+                for (int i = 0; i < children.length; i++) {
+                    if (children[i] < 0) continue;
+                    occurrenceStarts[children[i] + 1]++;
+                    remaining[node][i / 2]++;
+                }
+            }
+            for (int node = 0; node < n; node++) {
+                occurrenceStarts[node + 1] += occurrenceStarts[node];
+            }
+            int[] occurrences = new int[2 * occurrenceStarts[n]];
+            int[] filled = Arrays.copyOf(occurrenceStarts, n);
+            for (int node = 0; node < n; node++) {
+                if (isTerminal(node)) continue;
+                int[] children = alternatives[node];
+                for (int i = 0; i < children.length; i++) {
+                    if (children[i] < 0) continue;
+                    int occurrence = filled[children[i]]++;
+                    occurrences[2 * occurrence] = node;
+                    occurrences[2 * occurrence + 1] = i / 2;
+                }
+            }
+
+            PriorityQueue<long[]> queue = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[0]));
+            for (int node = 0; node < n; node++) {
+                if (isTerminal(node)) {
+                    candidates[node] = terminalLength(node);
+                    queue.add(new long[]{candidates[node], node});
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                long[] entry = queue.poll();
+                int node = (int) entry[1];
+                if (minLengths[node] != INFINITY) continue;
+                minLengths[node] = (int) entry[0];
+
+                for (int occurrence = occurrenceStarts[node]; occurrence < occurrenceStarts[node + 1]; occurrence++) {
+                    int parent = occurrences[2 * occurrence];
+                    int alternative = occurrences[2 * occurrence + 1];
+                    if (--remaining[parent][alternative] > 0 || minLengths[parent] != INFINITY) continue;
+
+                    int length = length(parent, alternative);
+                    if (length < candidates[parent]) {
+                        candidates[parent] = length;
+                        shortest[parent] = alternative;
+                        queue.add(new long[]{length, parent});
+                    }
+                }
+            }
+        }
+
+        private int length(int node, int alternative) {
+            int left = alternatives[node][2 * alternative];
+            int right = alternatives[node][2 * alternative + 1];
+            long length = (long) minLengths[left] + (right < 0 ? 0 : minLengths[right]);
+            return (int) Math.min(length, INFINITY - 1);
+        }
+
+        int minLength(int node) {
+            return minLengths[node];
+        }
+
+        int maxLength(int node) {
+            return maxLengths[node];
+        }
+
+        List<Edge> getShortestPath() {
+            if (minLengths[root()] == INFINITY) {
+                return null;
+            }
+            List<Edge> path = new ArrayList<>(minLengths[root()]);
+            Deque<Integer> stack = new ArrayDeque<>();
+            stack.push(root());
+            while (!stack.isEmpty()) {
+                int node = stack.pop();
+                if (isTerminal(node)) {
+                    if (edges[node] != null) path.add(edges[node]);
+                    continue;
+                }
+                int[] children = alternatives[node];
+                int right = children[2 * shortest[node] + 1];
+                if (right >= 0) stack.push(right);
+                stack.push(children[2 * shortest[node]]);
+            }
+            return path;
+        }
+    }
+
+    /**
+     * Enumerates the paths length by length. For each length, the lengths each node can derive are extended to
+     * it, and a depth-first search expands the leftmost pending node of a derivation into the alternatives and
+     * the splits of its length that can derive it. A node that reappears below itself at the same position and
+     * with the same length derives the same part of the path again, so the search does not expand it, which
+     * makes the search of each length finite even on a cyclic SPPF.
+     */
+    private static class PathIterator implements Iterator<List<Edge>> {
+
+        private final Derivations derivations;
+
+        /**
+         * The lengths each node can derive, up to the current length, offset by the minimum length of the node
+         */
+        private final BitSet[] feasible;
+
+        /**
+         * The nodes in ascending order of their minimum length, and the number of them that became active
+         */
+        private final int[] byMinLength;
+        private int activated;
+
+        /**
+         * The nodes whose minimum and maximum lengths include the current length, in post order
+         */
+        private List<Integer> active = new ArrayList<>();
+
+        private final int[] postRanks;
+
+        private final int maxLength;
+
+        private int length = -1;
+
+        private final Deque<Frame> frames = new ArrayDeque<>();
+
+        private final Set<List<Edge>> seen = new HashSet<>();
+
+        private List<Edge> next;
+
+        PathIterator(Derivations derivations, int maxLength) {
+            this.derivations = derivations;
+            int n = derivations.size();
+            this.feasible = new BitSet[n];
+            for (int node = 0; node < n; node++) {
+                feasible[node] = new BitSet();
+            }
+            this.postRanks = new int[n];
+            for (int rank = 0; rank < derivations.postOrder.length; rank++) {
+                postRanks[derivations.postOrder[rank]] = rank;
+            }
+            this.byMinLength = IntStream.range(0, n)
+                    .filter(node -> derivations.minLength(node) != INFINITY)
+                    .boxed()
+                    .sorted(Comparator.comparingInt(derivations::minLength))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            int root = derivations.root();
+            this.maxLength = derivations.minLength(root) == INFINITY
+                    ? -1
+                    : Math.min(maxLength, derivations.maxLength(root));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = computeNext();
+            }
+            return next != null;
+        }
+
+        @Override
+        public List<Edge> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<Edge> path = next;
+            next = null;
+            return path;
+        }
+
+        private List<Edge> computeNext() {
+            while (true) {
+                while (!frames.isEmpty()) {
+                    Frame frame = frames.peek();
+                    if (!frame.hasNext()) {
+                        frames.pop();
+                        continue;
+                    }
+                    List<Edge> path = visit(frame.next());
+                    if (path != null) return path;
+                }
+
+                if (length >= maxLength) {
+                    return null;
+                }
+                extendFeasible(++length);
+                seen.clear();
+                if (derives(derivations.root(), length)) {
+                    List<Edge> path = visit(new State(new Item(derivations.root(), length, null, null), null, 0));
+                    if (path != null) return path;
+                }
+            }
+        }
+
+        /**
+         * Consumes the leading terminal nodes of the state, and returns the path if the derivation is complete
+         * or pushes a frame for the alternatives of the leftmost pending node.
+         */
+        private List<Edge> visit(State state) {
+            Item pending = state.pending;
+            Prefix prefix = state.prefix;
+            int position = state.position;
+            while (pending != null && derivations.isTerminal(pending.node)) {
+                if (derivations.edges[pending.node] != null) {
+                    prefix = new Prefix(derivations.edges[pending.node], prefix);
+                    position++;
+                }
+                pending = pending.next;
+            }
+
+            if (pending == null) {
+                Edge[] path = new Edge[position];
+                for (Prefix p = prefix; p != null; p = p.previous) {
+                    path[--position] = p.edge;
+                }
+                List<Edge> result = Arrays.asList(path);
+                return seen.add(result) ? result : null;
+            }
+
+            // Ancestors are expanded at the same or earlier positions, the nearest one first
+            for (Key key = pending.ancestors; key != null && key.position == position; key = key.next) {
+                if (key.node == pending.node && key.length == pending.length) {
+                    return null;
+                }
+            }
+            frames.push(new Frame(new State(pending, prefix, position), choices(pending)));
+            return null;
+        }
+
+        private boolean derives(int node, int length) {
+            int minLength = derivations.minLength(node);
+            return length >= minLength && length <= derivations.maxLength(node) && feasible[node].get(length - minLength);
+        }
+
+        /**
+         * @return the alternatives and the lengths of their left children that derive the item, as pairs
+         */
+        private int[] choices(Item item) {
+            int[] children = derivations.alternatives[item.node];
+            int[] choices = new int[8];
+            int count = 0;
+            for (int i = 0; i < children.length; i += 2) {
+                int left = children[i];
+                int right = children[i + 1];
+                for (int split = firstSplit(left, right, item.length), last = lastSplit(left, right, item.length); split <= last; split++) {
+                    if (!derives(left, split) || (right >= 0 && !derives(right, item.length - split))) continue;
+                    if (count + 2 > choices.length) {
+                        choices = Arrays.copyOf(choices, choices.length << 1);
+                    }
+                    choices[count++] = i / 2;
+                    choices[count++] = split;
+                }
+            }
+            return Arrays.copyOf(choices, count);
+        }
+
+        /**
+         * The lengths of the left child of an alternative that derives the given length lie between the first
+         * and the last split
+         */
+        private int firstSplit(int left, int right, int length) {
+            if (right < 0) return length;
+            return (int) Math.max(derivations.minLength(left), (long) length - derivations.maxLength(right));
+        }
+
+        private int lastSplit(int left, int right, int length) {
+            if (right < 0) return length;
+            return (int) Math.min(derivations.maxLength(left), (long) length - derivations.minLength(right));
+        }
+
+        /**
+         * Only the nodes whose minimum and maximum lengths include the length can derive it, so only those are
+         * evaluated for each length.
+         */
+        private void extendFeasible(int length) {
+            boolean added = false;
+            while (activated < byMinLength.length && derivations.minLength(byMinLength[activated]) <= length) {
+                active.add(byMinLength[activated++]);
+                added = true;
+            }
+            List<Integer> stillActive = new ArrayList<>(active.size());
+            for (int node : active) {
+                if (derivations.maxLength(node) >= length) stillActive.add(node);
+            }
+            active = stillActive;
+            if (added) {
+                active.sort(Comparator.comparingInt(node -> postRanks[node]));
+            }
+
+            for (int node : active) {
+                if (derivations.isTerminal(node) && derivations.terminalLength(node) == length) {
+                    feasible[node].set(0);
+                }
+            }
+            // Alternatives whose other child derives the empty path depend on nodes of the same length
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int node : active) {
+                    if (!derivations.isTerminal(node) && !derives(node, length) && isFeasible(node, length)) {
+                        feasible[node].set(length - derivations.minLength(node));
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        private boolean isFeasible(int node, int length) {
+            int[] children = derivations.alternatives[node];
+            for (int i = 0; i < children.length; i += 2) {
+                int left = children[i];
+                int right = children[i + 1];
+                for (int split = firstSplit(left, right, length), last = lastSplit(left, right, length); split <= last; split++) {
+                    if (derives(left, split) && (right < 0 || derives(right, length - split))) return true;
+                }
+            }
+            return false;
+        }
+
+        private class Frame {
+
+            private final State state;
+            private final int[] choices;
+            private int index;
+
+            Frame(State state, int[] choices) {
+                this.state = state;
+                this.choices = choices;
+            }
+
+            boolean hasNext() {
+                return index < choices.length;
+            }
+
+            State next() {
+                int alternative = choices[index++];
+                int split = choices[index++];
+                Item item = state.pending;
+                int left = derivations.alternatives[item.node][2 * alternative];
+                int right = derivations.alternatives[item.node][2 * alternative + 1];
+
+                Key key = new Key(item.node, state.position, item.length, item.ancestors);
+                Item rest = right < 0 ? item.next : new Item(right, item.length - split, key, item.next);
+                return new State(new Item(left, split, key, rest), state.prefix, state.position);
+            }
+        }
+    }
+
+    /**
+     * A partial derivation: the edges read so far and the nodes still to derive, with their lengths
+     */
+    private static class State {
+        final Item pending;
+        final Prefix prefix;
+        final int position;
+
+        State(Item pending, Prefix prefix, int position) {
+            this.pending = pending;
+            this.prefix = prefix;
+            this.position = position;
+        }
+    }
+
+    private static class Item {
+        final int node;
+        final int length;
+        final Key ancestors;
+        final Item next;
+
+        Item(int node, int length, Key ancestors, Item next) {
+            this.node = node;
+            this.length = length;
+            this.ancestors = ancestors;
+            this.next = next;
+        }
+    }
+
+    /**
+     * An expanded ancestor of a pending node, with the position and the length it was expanded for
+     */
+    private static class Key {
+        final int node;
+        final int position;
+        final int length;
+        final Key next;
+
+        Key(int node, int position, int length, Key next) {
+            this.node = node;
+            this.position = position;
+            this.length = length;
+            this.next = next;
+        }
+    }
+
+    private static class Prefix {
+        final Edge edge;
+        final Prefix previous;
+
+        Prefix(Edge edge, Prefix previous) {
+            this.edge = edge;
+            this.previous = previous;
+        }
+    }
+}
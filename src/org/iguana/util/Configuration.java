@@ -27,9 +27,12 @@
 
 package org.iguana.util;
 
+import iguana.utils.collections.HashMapFactory;
 import iguana.utils.logging.LogLevel;
 import org.iguana.util.config.XMLConfigFileParser;
 
+import java.util.Objects;
+
 public class Configuration {
 
 	public static final int DEFAULT_LOOKAHEAD = 1;
@@ -81,6 +84,20 @@ public class Configuration {
 	public HashMapImpl getHashmapImpl() {
 		return hashmapImpl;
 	}
+
+	/**
+	 * @return the factory of the int maps selected by the hash map implementation
+	 */
+	public HashMapFactory getHashMapFactory() {
+		return hashmapImpl == HashMapImpl.JAVA ? HashMapFactory.JAVA : HashMapFactory.OPEN_ADDRESSING;
+	}
+
+	/**
+	 * @return the factory of the maps from input indices to the GSS nodes of a nonterminal
+	 */
+	public HashMapFactory getGSSLookupFactory() {
+		return gssLookupImpl == LookupImpl.ARRAY ? HashMapFactory.ARRAY : getHashMapFactory();
+	}
 	
 	public EnvironmentImpl getEnvImpl() {
 		return envImpl;
@@ -117,6 +134,27 @@ public class Configuration {
 		TRIE
 	}
 		
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+
+		if (!(obj instanceof Configuration)) return false;
+
+		Configuration other = (Configuration) obj;
+
+		return gssLookupImpl == other.gssLookupImpl &&
+			   matcherType == other.matcherType &&
+			   lookAheadCount == other.lookAheadCount &&
+			   hashmapImpl == other.hashmapImpl &&
+			   envImpl == other.envImpl &&
+			   logLevel == other.logLevel;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(gssLookupImpl, matcherType, lookAheadCount, hashmapImpl, envImpl, logLevel);
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
@@ -133,7 +171,7 @@ public class Configuration {
 		
 		private LookupImpl gssLookupImpl = LookupImpl.HASH_MAP;
 		private MatcherType matcherType = MatcherType.JAVA_REGEX;
-		private HashMapImpl hashmapImpl = HashMapImpl.JAVA; // HashMapImpl.INT_OPEN_ADDRESSING;
+		private HashMapImpl hashmapImpl = HashMapImpl.INT_OPEN_ADDRESSING;
 		private int lookaheadCount = DEFAULT_LOOKAHEAD;
         private LogLevel logLevel = LogLevel.NONE;
 		
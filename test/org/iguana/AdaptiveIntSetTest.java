@@ -0,0 +1,91 @@
+package org.iguana;
+
+import iguana.utils.collections.primitive.AdaptiveIntSet;
+import iguana.utils.collections.primitive.IntIterator;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveIntSetTest {
+
+    private static List<Integer> iterate(AdaptiveIntSet set) {
+        List<Integer> elements = new ArrayList<>();
+        IntIterator it = set.iterator();
+        while (it.hasNext()) elements.add(it.next());
+        return elements;
+    }
+
+    private static List<Integer> forEach(AdaptiveIntSet set) {
+        List<Integer> elements = new ArrayList<>();
+        set.forEach(elements::add);
+        return elements;
+    }
+
+    private static void assertSameElements(TreeSet<Integer> expected, AdaptiveIntSet set) {
+        assertEquals(expected.size(), set.size());
+        assertEquals(new ArrayList<>(expected), iterate(set));
+        assertEquals(new ArrayList<>(expected), forEach(set));
+    }
+
+    @Test
+    public void testSmallSet() {
+        AdaptiveIntSet set = AdaptiveIntSet.of(5, 1, 3, 1);
+        assertEquals(3, set.size());
+        assertTrue(set.contains(3));
+        assertFalse(set.contains(2));
+        assertFalse(set.contains(-1));
+        assertFalse(set.add(5));
+        assertEquals(List.of(1, 3, 5), iterate(set));
+        assertEquals("{1, 3, 5}", set.toString());
+    }
+
+    @Test
+    public void testSparseElementsInManyChunks() {
+        Random random = new Random(3);
+        TreeSet<Integer> expected = new TreeSet<>();
+        AdaptiveIntSet set = new AdaptiveIntSet();
+        for (int i = 0; i < 2000; i++) {
+            int e = random.nextInt(Integer.MAX_VALUE);
+            assertEquals(expected.add(e), set.add(e));
+        }
+        assertSameElements(expected, set);
+        for (int e : expected) assertTrue(set.contains(e));
+        assertFalse(set.contains(expected.last() + 1));
+    }
+
+    @Test
+    public void testDenseChunksBecomeBitmaps() {
+        Random random = new Random(5);
+        TreeSet<Integer> expected = new TreeSet<>();
+        AdaptiveIntSet set = new AdaptiveIntSet();
+        // More than 4096 elements in each of the first three chunks
+        for (int i = 0; i < 60000; i++) {
+            int e = random.nextInt(3 << 16);
+            assertEquals(expected.add(e), set.add(e));
+        }
+        assertSameElements(expected, set);
+        for (int e = 0; e < 3 << 16; e++) {
+            assertEquals(expected.contains(e), set.contains(e));
+        }
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), set.toArray());
+    }
+
+    @Test
+    public void testClear() {
+        AdaptiveIntSet set = new AdaptiveIntSet();
+        for (int e = 0; e < 10000; e++) set.add(e * 7);
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(7));
+        assertFalse(set.iterator().hasNext());
+        assertTrue(set.add(7));
+        assertEquals(List.of(7), iterate(set));
+    }
+
+    @Test
+    public void testNegativeElementsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveIntSet().add(-1));
+    }
+}
@@ -0,0 +1,167 @@
+package org.iguana;
+
+import iguana.utils.collections.primitive.IntArray;
+import iguana.utils.input.AdjacencyCache;
+import iguana.utils.input.AdjacencyCache.VertexEdges;
+import iguana.utils.input.EdgeLabels;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdjacencyCacheTest {
+
+    private static final int A = EdgeLabels.intern("a");
+    private static final int B = EdgeLabels.intern("b");
+    private static final int C = EdgeLabels.intern("c");
+
+    /**
+     * Vertex v has the edges v -b-> v + 1, v -a-> v + 2 and v -b-> v + 3, and v % 4 more edges labeled c
+     */
+    private static final class CountingLoader implements AdjacencyCache.Loader {
+        final List<Integer> loads = new ArrayList<>();
+
+        @Override
+        public void load(int v, AdjacencyCache.EdgeSink edges) {
+            loads.add(v);
+            edges.addEdge(B, v + 1);
+            edges.addEdge(A, v + 2);
+            edges.addEdge(B, v + 3);
+            for (int i = 0; i < v % 4; i++) edges.addEdge(C, i);
+        }
+    }
+
+    private static List<Integer> toList(IntArray array) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < array.size(); i++) list.add(array.get(i));
+        return list;
+    }
+
+    @Test
+    public void testEdgesAreGroupedByLabel() {
+        AdjacencyCache cache = new AdjacencyCache(new CountingLoader(), 100);
+        VertexEdges edges = cache.get(10);
+        assertEquals(List.of(12), toList(edges.getDestVertices(A)));
+        assertEquals(List.of(11, 13), toList(edges.getDestVertices(B)));
+        assertEquals(List.of(0, 1), toList(edges.getDestVertices(C)));
+        assertEquals(0, edges.getDestVertices(EdgeLabels.intern("d")).size());
+        assertEquals(5, edges.getEdgesCount());
+
+        long[] labels = new long[(C >>> 6) + 1];
+        labels[C >>> 6] |= 1L << C;
+        assertTrue(edges.anyLabel(labels));
+        assertFalse(cache.get(8).anyLabel(labels));
+    }
+
+    @Test
+    public void testVertexIsLoadedOnce() {
+        CountingLoader loader = new CountingLoader();
+        AdjacencyCache cache = new AdjacencyCache(loader, 100);
+        for (int i = 0; i < 5; i++) {
+            cache.get(3);
+            cache.get(7);
+        }
+        assertEquals(List.of(3, 7), loader.loads);
+        assertEquals(8, cache.getHitsCount());
+        assertEquals(2, cache.getMissesCount());
+        assertEquals(2, cache.getCachedVerticesCount());
+        assertEquals(12, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedVerticesAreEvicted() {
+        CountingLoader loader = new CountingLoader();
+        // Room for three vertices with three edges each
+        AdjacencyCache cache = new AdjacencyCache(loader, 9);
+        cache.get(0);
+        cache.get(4);
+        cache.get(8);
+        cache.get(0);
+        VertexEdges evicted = cache.get(4);
+        cache.get(12);
+
+        assertTrue(cache.contains(0));
+        assertTrue(cache.contains(4));
+        assertFalse(cache.contains(8));
+        assertTrue(cache.contains(12));
+        assertEquals(1, cache.getEvictionsCount());
+        assertEquals(9, cache.size());
+
+        cache.get(16);
+        cache.get(20);
+        assertFalse(cache.contains(4));
+        // Edges that were handed out stay valid after their vertex is evicted
+        assertEquals(List.of(6), toList(evicted.getDestVertices(A)));
+
+        cache.get(8);
+        assertEquals(List.of(0, 4, 8, 12, 16, 20, 8), loader.loads);
+        assertTrue(cache.size() <= 9);
+    }
+
+    @Test
+    public void testRandomAccessesAgainstLoader() {
+        CountingLoader loader = new CountingLoader();
+        AdjacencyCache cache = new AdjacencyCache(loader, 200);
+        Random random = new Random(17);
+        for (int i = 0; i < 10000; i++) {
+            int v = random.nextInt(300);
+            VertexEdges edges = cache.get(v);
+            assertEquals(List.of(v + 1, v + 3), toList(edges.getDestVertices(B)));
+            assertTrue(cache.size() <= 200);
+        }
+        assertEquals(10000, cache.getHitsCount() + cache.getMissesCount());
+        assertEquals(loader.loads.size(), cache.getMissesCount());
+        assertEquals(cache.getMissesCount() - cache.getCachedVerticesCount(), cache.getEvictionsCount());
+
+        cache.clear();
+        assertEquals(0, cache.getCachedVerticesCount());
+        assertEquals(0, cache.size());
+        cache.get(5);
+        assertEquals(1, cache.getCachedVerticesCount());
+    }
+
+    @Test
+    public void testPrefetchedVerticesAreEvictedFirst() {
+        CountingLoader loader = new CountingLoader();
+        // Room for three vertices with three edges each
+        AdjacencyCache cache = new AdjacencyCache(loader, 9);
+        cache.get(0);
+        cache.prefetch(4);
+        cache.prefetch(0);
+        cache.get(8);
+        cache.prefetch(12);
+
+        // The prefetched vertex 4 was the least recently used, and a cached vertex is not loaded again
+        assertFalse(cache.contains(4));
+        assertTrue(cache.contains(0));
+        assertTrue(cache.contains(8));
+        assertTrue(cache.contains(12));
+        assertEquals(List.of(0, 4, 8, 12), loader.loads);
+        assertEquals(2, cache.getPrefetchesCount());
+        assertEquals(2, cache.getMissesCount());
+
+        cache.get(12);
+        assertEquals(1, cache.getHitsCount());
+        cache.get(16);
+        assertTrue(cache.contains(12));
+        assertFalse(cache.contains(0));
+    }
+
+    @Test
+    public void testDestVerticesOfAllLabels() {
+        AdjacencyCache cache = new AdjacencyCache(new CountingLoader(), 100);
+        assertEquals(List.of(7, 6, 8, 0), toList(cache.get(5).getDestVertices()));
+    }
+
+    @Test
+    public void testVertexWithoutEdges() {
+        AdjacencyCache cache = new AdjacencyCache((v, edges) -> {}, 2);
+        assertEquals(0, cache.get(1).getEdgesCount());
+        assertEquals(0, cache.get(1).getLabels().size());
+        cache.get(2);
+        cache.get(3);
+        assertEquals(2, cache.getCachedVerticesCount());
+        assertFalse(cache.contains(1));
+    }
+}
@@ -0,0 +1,126 @@
+package org.iguana;
+
+import iguana.utils.collections.primitive.IntArray;
+import iguana.utils.input.CSRGraphInput;
+import iguana.utils.input.Edge;
+import iguana.utils.input.EdgeLabels;
+import iguana.utils.input.GraphInput;
+import iguana.utils.input.InMemGraphInput;
+import org.iguana.grammar.Grammar;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.Pair;
+import org.iguana.parser.ParseOptions;
+import org.iguana.parsetree.ParseTreeNode;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.iguana.GraphTestUtils.loadGrammar;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CSRGraphTest {
+
+    private static final String TERM_SUBCLASS = "subClassOf";
+    private static final String TERM_SUBCLASS_R = "subClassOf_r";
+
+    private static final List<List<Edge>> EDGES = List.of(
+            List.of(
+                    new Edge(TERM_SUBCLASS, 1),
+                    new Edge(TERM_SUBCLASS_R, 3)
+            ),
+            List.of(
+                    new Edge(TERM_SUBCLASS, 2)
+            ),
+            List.of(
+                    new Edge(TERM_SUBCLASS, 0)
+            ),
+            List.of(
+                    new Edge(TERM_SUBCLASS_R, 0),
+                    new Edge(TERM_SUBCLASS_R, 1)
+            ),
+            List.of()
+    );
+
+    @Test
+    public void testDestVertices() {
+        CSRGraphInput input = CSRGraphInput.fromAdjacencyList(EDGES, Stream.empty(), List.of());
+
+        assertEquals(5, input.getVerticesCount());
+        assertEquals(6, input.getEdgesCount());
+
+        int subClassOf = EdgeLabels.intern(TERM_SUBCLASS);
+        int subClassOfR = EdgeLabels.intern(TERM_SUBCLASS_R);
+        assertEquals(IntArray.of(1), input.getDestVertices(0, subClassOf));
+        assertEquals(IntArray.of(3), input.getDestVertices(0, subClassOfR));
+        assertEquals(IntArray.of(0, 1), input.getDestVertices(3, subClassOfR));
+        assertEquals(0, input.getDestVertices(3, subClassOf).size());
+        assertEquals(0, input.getDestVertices(4, subClassOf).size());
+        assertEquals(0, input.getDestVertices(42, subClassOf).size());
+
+        assertEquals(List.of(0, 1), input.getDestVertex(3, TERM_SUBCLASS_R));
+        assertTrue(input.getDestVertex(0, "unknownLabel").isEmpty());
+    }
+
+    @Test
+    public void testSameReachabilitiesAsAdjacencyList() {
+        for (String grammarName : List.of("g1", "g2")) {
+            Grammar grammar = loadGrammar(grammarName);
+            GraphInput csr = CSRGraphInput.fromAdjacencyList(EDGES, Stream.of(0, 1, 2, 3, 4), List.of(0, 1, 2, 3, 4));
+            GraphInput adjacencyList = new InMemGraphInput(EDGES, Stream.of(0, 1, 2, 3, 4), List.of(0, 1, 2, 3, 4));
+
+            Map<Pair, ParseTreeNode> expected = new IguanaParser(grammar).getParserTree(adjacencyList,
+                    new ParseOptions.Builder().setAmbiguous(true).build());
+            Map<Pair, ParseTreeNode> actual = new IguanaParser(grammar).getParserTree(csr,
+                    new ParseOptions.Builder().setAmbiguous(true).build());
+
+            assertNotNull(actual);
+            assertEquals(expected.keySet(), actual.keySet());
+        }
+    }
+
+    @Test
+    public void testRangesHaveTheEdgesOfTheBuilder() {
+        int verticesCount = 1000;
+        List<String> labels = List.of("a", "b", "c", "d");
+        Random random = new Random(5);
+        List<List<int[]>> edges = new ArrayList<>();
+        CSRGraphInput.Builder builder = CSRGraphInput.builder().setVerticesCount(verticesCount);
+        for (int v = 0; v < verticesCount; v++) {
+            List<int[]> vertexEdges = new ArrayList<>();
+            for (int e = random.nextInt(6); e > 0; e--) {
+                int[] edge = {EdgeLabels.intern(labels.get(random.nextInt(labels.size()))), random.nextInt(verticesCount)};
+                vertexEdges.add(edge);
+                builder.addEdge(v, edge[0], edge[1]);
+            }
+            edges.add(vertexEdges);
+        }
+        CSRGraphInput expected = builder.build(Stream.empty(), List.of());
+
+        List<CSRGraphInput.Range> ranges = new ArrayList<>();
+        for (int from = 0; from < verticesCount; ) {
+            int to = Math.min(verticesCount, from + random.nextInt(100));
+            ranges.add(CSRGraphInput.Range.load(from, to, (v, sink) -> edges.get(v).forEach(edge -> sink.addEdge(edge[0], edge[1]))));
+            from = to;
+        }
+        CSRGraphInput actual = CSRGraphInput.fromRanges(ranges, Stream.empty(), List.of());
+
+        assertEquals(expected.getVerticesCount(), actual.getVerticesCount());
+        assertEquals(expected.getEdgesCount(), actual.getEdgesCount());
+        for (int v = 0; v < verticesCount; v++) {
+            for (String label : labels) {
+                int labelId = EdgeLabels.intern(label);
+                assertEquals(expected.getDestVertices(v, labelId), actual.getDestVertices(v, labelId));
+            }
+        }
+    }
+
+    @Test
+    public void testRangesShouldCoverTheVertices() {
+        CSRGraphInput.Range first = CSRGraphInput.Range.load(0, 10, (v, sink) -> {});
+        CSRGraphInput.Range third = CSRGraphInput.Range.load(20, 30, (v, sink) -> {});
+        assertThrows(IllegalArgumentException.class, () -> CSRGraphInput.fromRanges(List.of(first, third), Stream.empty(), List.of()));
+        assertThrows(IllegalArgumentException.class, () -> CSRGraphInput.fromRanges(List.of(third), Stream.empty(), List.of()));
+        assertEquals(10, CSRGraphInput.fromRanges(List.of(first), Stream.empty(), List.of()).getVerticesCount());
+    }
+}
@@ -0,0 +1,195 @@
+package org.iguana;
+
+import iguana.regex.Char;
+import iguana.utils.input.CSRGraphInput;
+import org.iguana.datadependent.ast.AST;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.symbol.*;
+import org.iguana.grammar.transformation.DesugarStartSymbol;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.Pair;
+import org.iguana.parser.ParseOptions;
+import org.iguana.parsetree.DefaultParseTreeBuilder;
+import org.iguana.parsetree.ParseTreeNode;
+import org.iguana.result.ParserResultOps;
+import org.iguana.sppf.*;
+import org.iguana.traversal.AmbiguousSPPFToParseTreeVisitor;
+import org.iguana.traversal.SPPFPaths;
+import org.iguana.util.Configuration;
+import org.iguana.util.Configuration.EnvironmentImpl;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.iguana.GraphTestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactSPPFTest {
+
+    /**
+     * @return the number of nodes and of packed nodes reachable from the root
+     */
+    private static int[] count(NonPackedNode root, ParserResultOps resultOps) {
+        Set<NonPackedNode> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<NonPackedNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        visited.add(root);
+        int packedNodes = 0;
+        while (!stack.isEmpty()) {
+            NonPackedNode node = stack.pop();
+            if (node instanceof TerminalNode) continue;
+            List<PackedNode> alternatives = node.isAmbiguous()
+                    ? resultOps.getPackedNodes(node)
+                    : Collections.singletonList(node.getFirstPackedNode());
+            for (PackedNode packedNode : alternatives) {
+                packedNodes++;
+                for (NonPackedNode child : Arrays.asList(packedNode.getLeftChild(), packedNode.getRightChild())) {
+                    if (child != null && visited.add(child)) stack.push(child);
+                }
+            }
+        }
+        return new int[]{visited.size(), packedNodes};
+    }
+
+    @Test
+    public void testSameSPPFAsObjectNodes() {
+        Grammar grammar = loadGrammar("g1");
+        CSRGraphInput graph = randomGraph(40, 120, 13);
+        ParseOptions options = new ParseOptions.Builder().setAmbiguous(true).build();
+
+        IguanaParser parser = new IguanaParser(grammar);
+        CompactSPPF compact = parser.getCompactSPPF(allPairs(graph), options);
+        Map<Pair, NonterminalNode> compactRoots = compact.getRoots();
+
+        IguanaParser objectParser = new IguanaParser(grammar);
+        Map<Pair, NonterminalNode> roots = objectParser.getSPPF(allPairs(graph), options);
+        assertEquals(roots.keySet(), compactRoots.keySet());
+        SPPFPaths objectPaths = objectParser.getSPPFPaths();
+        SPPFPaths compactPaths = new SPPFPaths(compact.asParserResultOps());
+        boolean ambiguous = false;
+        for (Pair pair : roots.keySet()) {
+            NonterminalNode root = roots.get(pair);
+            NonterminalNode compactRoot = compactRoots.get(pair);
+            assertEquals(root.getGrammarSlot().toString(), compactRoot.getGrammarSlot().toString());
+            assertEquals(root.getLeftExtent(), compactRoot.getLeftExtent());
+            assertEquals(root.getRightExtent(), compactRoot.getRightExtent());
+            ambiguous |= compactRoot.isAmbiguous();
+
+            // Equally short paths may be found in a different order, as the parse order is not deterministic
+            int maxLength = objectPaths.getShortestPath(root).size() + 2;
+            assertEquals(maxLength - 2, compactPaths.getShortestPath(compactRoot).size());
+            assertEquals(objectPaths.getPaths(root, maxLength).collect(Collectors.toSet()),
+                    compactPaths.getPaths(compactRoot, maxLength).collect(Collectors.toSet()));
+        }
+        assertTrue(ambiguous);
+    }
+
+    @Test
+    public void testSameParseTrees() {
+        Grammar grammar = loadGrammar("g1");
+        CSRGraphInput graph = randomGraph(20, 50, 5);
+        ParseOptions options = new ParseOptions.Builder().setAmbiguous(true).build();
+
+        IguanaParser parser = new IguanaParser(grammar);
+        CompactSPPF compact = parser.getCompactSPPF(allPairs(graph), options);
+        Map<Pair, ParseTreeNode> expected = new IguanaParser(grammar).getParserTree(allPairs(graph), options);
+
+        AmbiguousSPPFToParseTreeVisitor<ParseTreeNode> visitor = new AmbiguousSPPFToParseTreeVisitor<>(
+                new DefaultParseTreeBuilder(graph), options.ignoreLayout(), compact.asParserResultOps());
+        Map<Pair, ParseTreeNode> actual = new HashMap<>();
+        compact.getRoots().forEach((pair, root) -> actual.put(pair, (ParseTreeNode) root.accept(visitor).getValues().get(0)));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testNodeCounts() {
+        Grammar grammar = loadGrammar("g1");
+        CSRGraphInput graph = randomGraph(30, 90, 21);
+        ParseOptions options = new ParseOptions.Builder().setAmbiguous(true).build();
+
+        CompactSPPF compact = new IguanaParser(grammar).getCompactSPPF(allPairs(graph), options);
+        IguanaParser objectParser = new IguanaParser(grammar);
+        Map<Pair, NonterminalNode> roots = objectParser.getSPPF(allPairs(graph), options);
+
+        ParserResultOps compactOps = compact.asParserResultOps();
+        Map<Pair, NonterminalNode> compactRoots = compact.getRoots();
+        for (Pair pair : roots.keySet()) {
+            int[] expected = count(roots.get(pair), objectParser.getParserResultOps());
+            int[] actual = count(compactRoots.get(pair), compactOps);
+            assertArrayEquals(expected, actual);
+        }
+
+        // Only the nodes reachable from the roots are kept
+        Set<NonPackedNode> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<NonPackedNode> stack = new ArrayDeque<>(compactRoots.values());
+        visited.addAll(compactRoots.values());
+        int packedNodes = 0;
+        while (!stack.isEmpty()) {
+            NonPackedNode node = stack.pop();
+            if (node instanceof TerminalNode) continue;
+            for (PackedNode packedNode : node.isAmbiguous() ? compactOps.getPackedNodes(node) : List.of(node.getFirstPackedNode())) {
+                packedNodes++;
+                for (NonPackedNode child : Arrays.asList(packedNode.getLeftChild(), packedNode.getRightChild())) {
+                    if (child != null && visited.add(child)) stack.push(child);
+                }
+            }
+        }
+        assertEquals(visited.size(), compact.getNodesCount());
+        assertEquals(packedNodes, compact.getPackedNodesCount());
+    }
+
+    @Test
+    public void testViewsAreCreatedOnce() {
+        Grammar grammar = loadGrammar("g1");
+        CSRGraphInput graph = randomGraph(40, 120, 13);
+        CompactSPPF compact = new IguanaParser(grammar).getCompactSPPF(allPairs(graph), new ParseOptions.Builder().setAmbiguous(true).build());
+
+        boolean ambiguous = false;
+        for (NonterminalNode root : compact.getRoots().values()) {
+            assertSame(root.getFirstPackedNode(), root.getFirstPackedNode());
+            if (root.isAmbiguous()) {
+                ambiguous = true;
+                List<PackedNode> packedNodes = compact.getPackedNodes(root);
+                assertSame(packedNodes, compact.getPackedNodes(root));
+                assertSame(root.getFirstPackedNode(), packedNodes.get(0));
+                assertThrows(UnsupportedOperationException.class, () -> packedNodes.remove(0));
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> root.getChildAt(1));
+            NonPackedNode child = root.getFirstPackedNode().getLeftChild();
+            if (child instanceof IntermediateNode) {
+                assertThrows(IndexOutOfBoundsException.class, () -> child.getChildAt(2));
+            }
+        }
+        assertTrue(ambiguous);
+    }
+
+    /**
+     * S ::= a:A B(a.val), A ::= a returning the given value, B(p) ::= b when p == 1
+     */
+    private static Grammar valGrammar(int value) {
+        Nonterminal A = Nonterminal.withName("A");
+        Nonterminal B = Nonterminal.builder("B").addParameters("p").build();
+        Nonterminal S = Nonterminal.withName("S");
+        Rule r0 = Rule.withHead(S)
+                .addSymbol(Nonterminal.builder(A).setLabel("a").build())
+                .addSymbol(Nonterminal.builder(B).apply(AST.val("a")).build()).build();
+        Rule r1 = Rule.withHead(A).addSymbol(Terminal.from(Char.from('a'))).addSymbol(Return.builder(AST.integer(value)).build()).build();
+        Rule r2 = Rule.withHead(B).addSymbol(Conditional.builder(Terminal.from(Char.from('b')), AST.equal(AST.var("p"), AST.integer(1))).build()).build();
+        return new DesugarStartSymbol().transform(Grammar.builder().addRules(r0, r1, r2).setStartSymbol(Start.from(S)).build());
+    }
+
+    @Test
+    public void testVal() {
+        // The array environments do not support val expressions
+        Configuration config = Configuration.builder().setEnvironmentImpl(EnvironmentImpl.TRIE).build();
+        CSRGraphInput graph = CSRGraphInput.builder().setVerticesCount(3).addEdge(0, "a", 1).addEdge(1, "b", 2)
+                .build(Stream.empty(), vertices(3));
+        ParseOptions options = new ParseOptions.Builder().build();
+        CompactSPPF compact = new IguanaParser(valGrammar(1), config).getCompactSPPF(graph.withVertices(Stream.of(0), vertices(3)), options);
+        assertNotNull(compact);
+        assertEquals(Set.of(new Pair(0, 2)), compact.getRoots().keySet());
+        assertNull(new IguanaParser(valGrammar(2), config).getCompactSPPF(graph.withVertices(Stream.of(0), vertices(3)), options));
+    }
+}
@@ -0,0 +1,75 @@
+package org.iguana;
+
+import iguana.utils.input.CSRGraphInput;
+import org.iguana.parser.DescriptorStatistics;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.Pair;
+import org.iguana.parser.ParseOptions;
+import org.iguana.result.PathCount;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.iguana.GraphTestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DescriptorDeduplicationTest {
+
+    /**
+     * A random graph in which every edge is added twice, so that each terminal transition schedules two
+     * descriptors with the same slot, GSS node and input index
+     */
+    private static CSRGraphInput parallelEdgesGraph(int verticesCount) {
+        Random random = new Random(11);
+        CSRGraphInput.Builder builder = CSRGraphInput.builder().setVerticesCount(verticesCount);
+        for (int e = 0; e < 3 * verticesCount; e++) {
+            int source = random.nextInt(verticesCount);
+            String label = LABELS.get(random.nextInt(LABELS.size()));
+            int destination = random.nextInt(verticesCount);
+            builder.addEdge(source, label, destination);
+            builder.addEdge(source, label, destination);
+        }
+        return builder.build(Stream.empty(), vertices(verticesCount));
+    }
+
+    @Test
+    public void testDuplicatesAreDroppedWithTheSameReachabilities() {
+        int verticesCount = 200;
+        CSRGraphInput graph = parallelEdgesGraph(verticesCount);
+        IguanaParser parser = new IguanaParser(loadGrammar("g1"));
+
+        for (boolean poppedIndexSets : new boolean[]{true, false}) {
+            ParseOptions.Builder options = new ParseOptions.Builder().setPoppedIndexSets(poppedIndexSets);
+            Set<Pair> expected = reachabilities(parser, allPairs(graph), options.build());
+            DescriptorStatistics withoutDeduplication = parser.getDescriptorStatistics();
+            assertFalse(expected.isEmpty());
+            assertEquals(0, withoutDeduplication.getDuplicatesCount());
+
+            assertEquals(expected, reachabilities(parser, allPairs(graph), options.setDeduplicateDescriptors(true).build()));
+            DescriptorStatistics withDeduplication = parser.getDescriptorStatistics();
+            assertTrue(withDeduplication.getDuplicatesCount() > 0);
+            assertTrue(withDeduplication.getExecutedCount() < withoutDeduplication.getExecutedCount());
+        }
+    }
+
+    @Test
+    public void testPathCountsAreNotDeduplicated() {
+        int verticesCount = 60;
+        CSRGraphInput graph = parallelEdgesGraph(verticesCount);
+        IguanaParser parser = new IguanaParser(loadGrammar("g1"));
+
+        Map<Pair, PathCount> expected = parser.getPathCounts(allPairs(graph),
+                new ParseOptions.Builder().build());
+        Map<Pair, PathCount> actual = parser.getPathCounts(allPairs(graph),
+                new ParseOptions.Builder().setDeduplicateDescriptors(true).build());
+        assertEquals(expected, actual);
+        assertEquals(0, parser.getDescriptorStatistics().getDuplicatesCount());
+    }
+
+    @Test
+    public void testNotInParallelRuns() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new ParseOptions.Builder().setDeduplicateDescriptors(true).setParallelism(2).build());
+    }
+}
@@ -0,0 +1,129 @@
+package org.iguana;
+
+import iguana.utils.collections.OpenAddressingIntHashMap;
+import iguana.utils.collections.OpenAddressingLongHashMap;
+import iguana.utils.input.CSRGraphInput;
+import org.iguana.grammar.Grammar;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.Pair;
+import org.iguana.parser.ParseOptions;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.iguana.GraphTestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EpochResetTest {
+
+    @Test
+    public void testIntMapClearKeepingCapacity() {
+        OpenAddressingIntHashMap<String> map = new OpenAddressingIntHashMap<>();
+        for (int epoch = 0; epoch < 3; epoch++) {
+            Set<String> expected = new HashSet<>();
+            for (int key = epoch; key < 1000; key += 3) {
+                assertNull(map.put(key, "v" + key));
+                expected.add("v" + key);
+            }
+            assertEquals(expected.size(), map.size());
+            assertNull(map.get(epoch + 1));
+            assertEquals("v" + epoch, map.get(epoch));
+            Set<String> values = new HashSet<>();
+            map.values().forEach(values::add);
+            assertEquals(expected, values);
+
+            map.clearKeepingCapacity();
+            assertTrue(map.isEmpty());
+            assertNull(map.get(epoch));
+            assertFalse(map.iterator().hasNext());
+            assertFalse(map.values().iterator().hasNext());
+        }
+        assertEquals("v", map.computeIfAbsent(-1, k -> "v"));
+        assertEquals("v", map.remove(-1));
+        assertNull(map.remove(-1));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testLongMapClearKeepingCapacity() {
+        OpenAddressingLongHashMap<Long> map = OpenAddressingLongHashMap.withExpectedSize(100);
+        for (int epoch = 0; epoch < 3; epoch++) {
+            int count = 0;
+            for (long key = epoch; key < 500; key += 3) {
+                assertNull(map.put(key << 32 | 7, key));
+                count++;
+            }
+            assertEquals(count, map.size());
+            assertEquals((long) epoch, map.get((long) epoch << 32 | 7));
+            assertNull(map.get((long) (epoch + 1) << 32 | 7));
+            List<Long> values = new ArrayList<>();
+            map.values().forEach(values::add);
+            assertEquals(map.size(), values.size());
+
+            map.clearKeepingCapacity();
+            assertTrue(map.isEmpty());
+            assertNull(map.get((long) epoch << 32 | 7));
+            assertFalse(map.values().iterator().hasNext());
+        }
+    }
+
+    @Test
+    public void testSameResultsAcrossQueries() {
+        Grammar grammar = loadGrammar("g1");
+        for (boolean poppedIndexSets : new boolean[]{true, false}) {
+            ParseOptions.Builder options = new ParseOptions.Builder().setPoppedIndexSets(poppedIndexSets);
+            IguanaParser parser = new IguanaParser(grammar);
+            IguanaParser epochParser = new IguanaParser(grammar);
+
+            for (long seed = 0; seed < 5; seed++) {
+                CSRGraphInput graph = randomGraph(100, 250, seed);
+                List<Integer> startVertices = IntStream.range(0, 100).filter(v -> v % 3 == 0).boxed().collect(Collectors.toList());
+                Set<Pair> expected = reachabilities(parser, graph, startVertices, options.setResetByEpoch(false).build());
+                assertEquals(expected, reachabilities(epochParser, graph, startVertices, options.setResetByEpoch(true).build()),
+                        "popped index sets " + poppedIndexSets + ", seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    public void testSameSPPFAcrossQueries() {
+        Grammar grammar = loadGrammar("g1");
+        IguanaParser parser = new IguanaParser(grammar);
+        ParseOptions options = new ParseOptions.Builder().setResetByEpoch(true).build();
+
+        for (long seed = 0; seed < 3; seed++) {
+            CSRGraphInput graph = randomGraph(60, 150, seed);
+            Set<Pair> expected = new IguanaParser(grammar).getSPPF(allPairs(graph)).keySet();
+            assertEquals(expected, parser.getSPPF(allPairs(graph), options).keySet());
+        }
+    }
+
+    @Test
+    public void testReuseGSSAndModeSwitches() {
+        Grammar grammar = loadGrammar("g1");
+        CSRGraphInput graph = randomGraph(100, 250, 3);
+        IguanaParser parser = new IguanaParser(grammar);
+        List<List<Integer>> chunks = List.of(List.of(0, 1, 2, 3), List.of(2, 3, 4, 5), List.of(5, 6, 0));
+
+        ParseOptions reuse = new ParseOptions.Builder().setReuseGSS(true).setResetByEpoch(true).build();
+        for (List<Integer> chunk : chunks) {
+            assertEquals(reachabilities(new IguanaParser(grammar), graph, chunk, new ParseOptions.Builder().build()),
+                    reachabilities(parser, graph, chunk, reuse));
+        }
+
+        parser.clearGSS();
+        CSRGraphInput other = randomGraph(100, 250, 4);
+        for (ParseOptions options : List.of(new ParseOptions.Builder().build(), new ParseOptions.Builder().setResetByEpoch(true).build(),
+                new ParseOptions.Builder().setParallelism(2).build(), new ParseOptions.Builder().setResetByEpoch(true).build())) {
+            assertEquals(reachabilities(new IguanaParser(grammar), other, List.of(0, 1, 2), new ParseOptions.Builder().build()),
+                    reachabilities(parser, other, List.of(0, 1, 2), options));
+        }
+    }
+
+    @Test
+    public void testNotInParallelRuns() {
+        assertThrows(IllegalArgumentException.class, () -> new ParseOptions.Builder().setResetByEpoch(true).setParallelism(2).build());
+    }
+}
@@ -0,0 +1,71 @@
+package org.iguana;
+
+import iguana.utils.input.CSRGraphInput;
+import iguana.utils.input.Edge;
+import iguana.utils.input.InMemGraphInput;
+import org.iguana.grammar.Grammar;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.Pair;
+import org.iguana.parser.ParseOptions;
+import org.iguana.result.PathCount;
+import org.iguana.util.Configuration;
+import org.iguana.util.Configuration.HashMapImpl;
+import org.iguana.util.Configuration.LookupImpl;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.iguana.GraphTestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GSSLookupTest {
+
+    private static List<Configuration> configurations() {
+        List<Configuration> configurations = new ArrayList<>();
+        for (LookupImpl lookupImpl : LookupImpl.values()) {
+            for (HashMapImpl hashMapImpl : HashMapImpl.values()) {
+                configurations.add(new Configuration.Builder().setGSSLookupImpl(lookupImpl).setHashmapImpl(hashMapImpl).build());
+            }
+        }
+        return configurations;
+    }
+
+    @Test
+    public void testSameReachabilitiesForAllBackends() {
+        Grammar grammar = loadGrammar("g1");
+        int verticesCount = 80;
+        CSRGraphInput graph = randomGraph(verticesCount, 240, 17);
+        List<List<Edge>> adjacencyList = randomAdjacencyList(LABELS, verticesCount, 240, 17);
+        List<Integer> vertices = vertices(verticesCount);
+
+        ParseOptions options = new ParseOptions.Builder().build();
+        Set<Pair> expected = reachabilities(new IguanaParser(grammar), allPairs(graph), options);
+        assertFalse(expected.isEmpty());
+
+        for (Configuration configuration : configurations()) {
+            IguanaParser parser = new IguanaParser(grammar, configuration);
+            assertEquals(expected, reachabilities(parser, allPairs(graph), options), configuration.toString());
+            // The same graph as adjacency lists
+            assertEquals(expected, reachabilities(parser, new InMemGraphInput(adjacencyList, vertices.stream(), vertices), options),
+                    configuration.toString());
+            Map<Pair, PathCount> pathCounts = parser.getPathCounts(allPairs(graph), options);
+            assertEquals(expected, pathCounts.keySet(), configuration.toString());
+        }
+    }
+
+    @Test
+    public void testSameReachabilitiesWithPoppedIndexSets() {
+        Grammar grammar = loadGrammar("g1");
+        CSRGraphInput graph = randomGraph(300, 900, 23);
+
+        IguanaParser parser = new IguanaParser(grammar);
+        Set<Pair> expected = reachabilities(parser, allPairs(graph), new ParseOptions.Builder().setPoppedIndexSets(false).build());
+        // Some GSS nodes pop more elements than fit in a sorted array
+        assertTrue(expected.stream().collect(Collectors.groupingBy(pair -> pair.startVertex, Collectors.counting()))
+                .values().stream().anyMatch(count -> count > 64));
+
+        Set<Pair> actual = reachabilities(parser, allPairs(graph), new ParseOptions.Builder().setPoppedIndexSets(true).build());
+        assertEquals(expected, actual);
+    }
+}
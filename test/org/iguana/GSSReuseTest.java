@@ -0,0 +1,72 @@
+package org.iguana;
+
+import iguana.utils.input.CSRGraphInput;
+import org.iguana.grammar.Grammar;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.Pair;
+import org.iguana.parser.ParseOptions;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.iguana.GraphTestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GSSReuseTest {
+
+    private static ParseOptions options(boolean reuseGSS) {
+        return new ParseOptions.Builder().setReuseGSS(reuseGSS).build();
+    }
+
+    @Test
+    public void testSameReachabilitiesAcrossChunks() {
+        for (String grammarName : List.of("g1", "g2")) {
+            Grammar grammar = loadGrammar(grammarName);
+            CSRGraphInput graph = randomGraph(100, 250, 7);
+            IguanaParser reusingParser = new IguanaParser(grammar);
+            List<List<Integer>> chunks = List.of(List.of(0, 1, 2, 3), List.of(2, 3, 4, 5), List.of(5, 6, 0), List.of(99, 42));
+
+            for (List<Integer> chunk : chunks) {
+                Set<Pair> expected = reachabilities(new IguanaParser(grammar), graph, chunk, options(false));
+                Set<Pair> actual = reachabilities(reusingParser, graph, chunk, options(true));
+                assertEquals(expected, actual, grammarName + ", chunk " + chunk);
+            }
+        }
+    }
+
+    @Test
+    public void testClearGSS() {
+        Grammar grammar = loadGrammar("g1");
+        CSRGraphInput first = randomGraph(50, 120, 1);
+        CSRGraphInput second = randomGraph(50, 120, 2);
+        IguanaParser parser = new IguanaParser(grammar);
+
+        reachabilities(parser, first, List.of(0, 1, 2), options(true));
+        parser.clearGSS();
+        assertEquals(reachabilities(new IguanaParser(grammar), second, List.of(0, 1, 2), options(false)),
+                reachabilities(parser, second, List.of(0, 1, 2), options(true)));
+    }
+
+    @Test
+    public void testFailedRunDropsGSS() {
+        Grammar grammar = loadGrammar("g1");
+        CSRGraphInput graph = randomGraph(100, 250, 7);
+        List<Integer> startVertices = List.of(0, 1, 2, 3, 4, 5);
+        Set<Pair> expected = reachabilities(new IguanaParser(grammar), graph, startVertices, options(false));
+        assertTrue(expected.size() > 3);
+
+        IguanaParser parser = new IguanaParser(grammar);
+        CSRGraphInput input = graph.withVertices(startVertices.stream(), vertices(graph.getVerticesCount()));
+        int[] accepted = new int[1];
+        assertThrows(IllegalStateException.class, () -> parser.getReachabilities(input, options(true), (start, end) -> {
+            if (++accepted[0] == 3)
+                throw new IllegalStateException("Consumer failure");
+        }));
+        assertEquals(expected, reachabilities(parser, graph, startVertices, options(true)));
+    }
+
+    @Test
+    public void testReuseGSSIsSequentialOnly() {
+        assertThrows(IllegalArgumentException.class, () -> new ParseOptions.Builder().setReuseGSS(true).setParallelism(2).build());
+    }
+}
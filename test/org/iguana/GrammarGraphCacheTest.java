@@ -0,0 +1,141 @@
+package org.iguana;
+
+import iguana.utils.input.CSRGraphInput;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.GrammarGraphCache;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.Pair;
+import org.iguana.parser.ParseOptions;
+import org.iguana.util.Configuration;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.iguana.GraphTestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GrammarGraphCacheTest {
+
+    private static Set<Pair> reachabilities(IguanaParser parser, CSRGraphInput graph) {
+        return GraphTestUtils.reachabilities(parser, allPairs(graph), new ParseOptions.Builder().build());
+    }
+
+    @Test
+    public void testReleasedGrammarGraphIsReused() {
+        Grammar grammar = loadGrammar("g1");
+        Configuration config = Configuration.load();
+        GrammarGraphCache cache = new GrammarGraphCache();
+
+        GrammarGraph first = cache.acquire(grammar, config);
+        GrammarGraph second = cache.acquire(grammar, config);
+        assertNotSame(first, second);
+        assertEquals(2, cache.getBuildsCount());
+
+        cache.release(first);
+        assertSame(first, cache.acquire(grammar, Configuration.load()));
+        assertEquals(2, cache.getBuildsCount());
+        assertEquals(1, cache.getReusesCount());
+
+        cache.clear();
+        cache.release(second);
+        assertSame(second, cache.acquire(grammar, config));
+    }
+
+    @Test
+    public void testGrammarsAndConfigurationsAreNotMixed() {
+        Grammar grammar = loadGrammar("g1");
+        GrammarGraphCache cache = new GrammarGraphCache();
+        Configuration config = Configuration.load();
+        GrammarGraph grammarGraph = cache.acquire(grammar, config);
+        cache.release(grammarGraph);
+
+        assertNotSame(grammarGraph, cache.acquire(loadGrammar("g1"), config));
+        Configuration otherConfig = Configuration.builder().setGSSLookupImpl(Configuration.LookupImpl.ARRAY).build();
+        assertNotEquals(config, otherConfig);
+        assertNotSame(grammarGraph, cache.acquire(grammar, otherConfig));
+    }
+
+    @Test
+    public void testSameReachabilitiesOnReusedGrammarGraph() {
+        Grammar grammar = loadGrammar("g1");
+        Configuration config = Configuration.load();
+        GrammarGraphCache cache = new GrammarGraphCache();
+
+        for (long seed = 0; seed < 4; seed++) {
+            CSRGraphInput graph = randomGraph(80, 200, seed);
+            GrammarGraph grammarGraph = cache.acquire(grammar, config);
+            assertEquals(reachabilities(new IguanaParser(grammar, config), graph),
+                    reachabilities(new IguanaParser(grammarGraph, config), graph));
+            cache.release(grammarGraph);
+        }
+        assertEquals(1, cache.getBuildsCount());
+        assertEquals(3, cache.getReusesCount());
+    }
+
+    @Test
+    public void testRemove() {
+        Grammar grammar = loadGrammar("g1");
+        Grammar other = loadGrammar("g2");
+        Configuration config = Configuration.load();
+        GrammarGraphCache cache = new GrammarGraphCache();
+        GrammarGraph grammarGraph = cache.acquire(grammar, config);
+        GrammarGraph acquired = cache.acquire(grammar, config);
+        GrammarGraph otherGrammarGraph = cache.acquire(other, config);
+        cache.release(grammarGraph);
+        cache.release(otherGrammarGraph);
+
+        cache.remove(grammar);
+        assertNotSame(grammarGraph, cache.acquire(grammar, config));
+        assertSame(otherGrammarGraph, cache.acquire(other, config));
+        cache.release(acquired);
+        assertSame(acquired, cache.acquire(grammar, config));
+    }
+
+    @Test
+    public void testReleaseOfForeignGrammarGraph() {
+        Grammar grammar = loadGrammar("g1");
+        Configuration config = Configuration.load();
+        GrammarGraphCache cache = new GrammarGraphCache();
+        GrammarGraph grammarGraph = cache.acquire(grammar, config);
+        cache.release(grammarGraph);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.release(grammarGraph));
+        assertThrows(IllegalArgumentException.class, () -> new GrammarGraphCache().release(cache.acquire(grammar, config)));
+    }
+
+    @Test
+    public void testConcurrentQueries() throws Exception {
+        Grammar grammar = loadGrammar("g1");
+        Configuration config = Configuration.load();
+        GrammarGraphCache cache = new GrammarGraphCache();
+        CSRGraphInput graph = randomGraph(80, 200, 9);
+        Set<Pair> expected = reachabilities(new IguanaParser(grammar, config), graph);
+
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Set<Pair>>> results = new ArrayList<>();
+            for (int i = 0; i < 4 * threads; i++) {
+                results.add(executor.submit(() -> {
+                    GrammarGraph grammarGraph = cache.acquire(grammar, config);
+                    try {
+                        return reachabilities(new IguanaParser(grammarGraph, config), graph);
+                    } finally {
+                        cache.release(grammarGraph);
+                    }
+                }));
+            }
+            for (Future<Set<Pair>> result : results) {
+                assertEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(cache.getBuildsCount() <= threads);
+        assertEquals(4 * threads, cache.getBuildsCount() + cache.getReusesCount());
+    }
+}
@@ -0,0 +1,83 @@
+package org.iguana;
+
+import iguana.utils.collections.primitive.IntArray;
+import iguana.utils.input.CSRGraphInput;
+import iguana.utils.input.EdgeLabels;
+import iguana.utils.input.GraphCsvReader;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GraphCsvReaderTest {
+
+    private static final List<String> LABELS = List.of("subClassOf", "type", "seeAlso");
+
+    private static Path writeEdges(String... lines) throws IOException {
+        Path file = Files.createTempFile("edges", ".csv");
+        Files.write(file, List.of(lines));
+        return file;
+    }
+
+    private static List<Integer> sorted(IntArray array) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < array.size(); i++) list.add(array.get(i));
+        Collections.sort(list);
+        return list;
+    }
+
+    @Test
+    public void testSameEdgesAsBuilder() throws IOException {
+        int verticesCount = 500;
+        Random random = new Random(3);
+        List<String> lines = new ArrayList<>(List.of("name:START_ID :TYPE name:END_ID"));
+        CSRGraphInput.Builder builder = CSRGraphInput.builder().setVerticesCount(verticesCount);
+        for (int e = 0; e < 3000; e++) {
+            int source = random.nextInt(verticesCount);
+            String label = LABELS.get(random.nextInt(LABELS.size()));
+            int destination = random.nextInt(verticesCount);
+            lines.add(source + " " + label + " " + destination);
+            builder.addEdge(source, label, destination);
+            builder.addEdge(destination, label + "_r", source);
+        }
+        Path file = writeEdges(lines.toArray(new String[0]));
+        CSRGraphInput expected = builder.build(Stream.empty(), List.of());
+
+        for (int parallelism : new int[]{1, 3, 16}) {
+            CSRGraphInput graph = GraphCsvReader.read(file, verticesCount, parallelism);
+            assertEquals(verticesCount, graph.getVerticesCount());
+            assertEquals(6000, graph.getEdgesCount());
+            for (int v = 0; v < verticesCount; v++) {
+                for (String label : LABELS) {
+                    for (String direction : List.of(label, label + "_r")) {
+                        int labelId = EdgeLabels.intern(direction);
+                        assertEquals(sorted(expected.getDestVertices(v, labelId)), sorted(graph.getDestVertices(v, labelId)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLineEndings() throws IOException {
+        Path file = writeEdges("header\r", "0 a 1\r", "", "1 b 2");
+        CSRGraphInput graph = GraphCsvReader.read(file, 3, 2);
+        assertEquals(4, graph.getEdgesCount());
+        assertEquals(IntArray.of(1), graph.getDestVertices(0, EdgeLabels.intern("a")));
+        assertEquals(IntArray.of(1), graph.getDestVertices(2, EdgeLabels.intern("b_r")));
+
+        assertEquals(0, GraphCsvReader.read(writeEdges("header"), 3, 2).getEdgesCount());
+    }
+
+    @Test
+    public void testMalformedEdges() throws IOException {
+        assertThrows(IOException.class, () -> GraphCsvReader.read(writeEdges("header", "0 a"), 3, 1));
+        assertThrows(IOException.class, () -> GraphCsvReader.read(writeEdges("header", "0 a x"), 3, 1));
+        assertThrows(IOException.class, () -> GraphCsvReader.read(writeEdges("header", "0 a 3"), 3, 1));
+    }
+}
@@ -0,0 +1,123 @@
+package org.iguana;
+
+import iguana.utils.input.CSRGraphInput;
+import iguana.utils.input.Edge;
+import iguana.utils.input.GraphInput;
+import org.iguana.grammar.Grammar;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.Pair;
+import org.iguana.parser.ParseOptions;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Grammars, random graphs and reachability queries shared by the graph parsing tests
+ */
+public final class GraphTestUtils {
+
+    /**
+     * The terminal labels of the g1 grammar, of which the labels of g2 are a subset
+     */
+    public static final List<String> LABELS = List.of("subClassOf", "subClassOf_r", "type", "type_r");
+
+    private GraphTestUtils() {
+    }
+
+    /**
+     * @param name the directory of the grammar in test/resources/grammars/graph, for example g1
+     */
+    public static Grammar loadGrammar(String name) {
+        try {
+            return Grammar.load("test/resources/grammars/graph/" + name + "/grammar.json", "json");
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("No grammar.json file is present for " + name);
+        }
+    }
+
+    public static List<Integer> vertices(int verticesCount) {
+        return IntStream.range(0, verticesCount).boxed().collect(Collectors.toList());
+    }
+
+    public enum GraphOption {
+        /**
+         * Adds each edge also reversed, with the label suffixed with _r, as the benchmarks load graphs
+         */
+        REVERSE_EDGES,
+        /**
+         * Drops the drawn edges that do not go to a larger vertex
+         */
+        ACYCLIC
+    }
+
+    public static CSRGraphInput randomGraph(int verticesCount, int edgesCount, long seed, GraphOption... options) {
+        return randomGraph(LABELS, verticesCount, edgesCount, seed, options);
+    }
+
+    /**
+     * A graph with edges between random vertices with random labels. It has no start vertices and all the
+     * vertices are final, see {@link #allPairs(CSRGraphInput)} for inputs with start vertices. A label that is
+     * in the list more than once is drawn more often.
+     */
+    public static CSRGraphInput randomGraph(List<String> labels, int verticesCount, int edgesCount, long seed, GraphOption... options) {
+        Set<GraphOption> optionSet = options.length == 0 ? EnumSet.noneOf(GraphOption.class) : EnumSet.copyOf(Arrays.asList(options));
+        Random random = new Random(seed);
+        CSRGraphInput.Builder builder = CSRGraphInput.builder().setVerticesCount(verticesCount);
+        for (int e = 0; e < edgesCount; e++) {
+            int source = random.nextInt(verticesCount);
+            String label = labels.get(random.nextInt(labels.size()));
+            int destination = random.nextInt(verticesCount);
+            if (optionSet.contains(GraphOption.ACYCLIC) && source >= destination) continue;
+            builder.addEdge(source, label, destination);
+            if (optionSet.contains(GraphOption.REVERSE_EDGES)) {
+                builder.addEdge(destination, label + "_r", source);
+            }
+        }
+        return builder.build(Stream.empty(), vertices(verticesCount));
+    }
+
+    /**
+     * The same random graph as {@link #randomGraph(List, int, int, long, GraphOption...)} with no options for the
+     * same arguments, as adjacency lists
+     */
+    public static List<List<Edge>> randomAdjacencyList(List<String> labels, int verticesCount, int edgesCount, long seed) {
+        Random random = new Random(seed);
+        List<List<Edge>> edges = new ArrayList<>();
+        for (int v = 0; v < verticesCount; v++) {
+            edges.add(new ArrayList<>());
+        }
+        for (int e = 0; e < edgesCount; e++) {
+            int source = random.nextInt(verticesCount);
+            String label = labels.get(random.nextInt(labels.size()));
+            edges.get(source).add(new Edge(label, random.nextInt(verticesCount)));
+        }
+        return edges;
+    }
+
+    /**
+     * @return the graph with all its vertices as start and final vertices
+     */
+    public static CSRGraphInput allPairs(CSRGraphInput graph) {
+        List<Integer> vertices = vertices(graph.getVerticesCount());
+        return graph.withVertices(vertices.stream(), vertices);
+    }
+
+    /**
+     * @return the pairs from the start vertices to any vertex of the graph
+     */
+    public static Set<Pair> reachabilities(IguanaParser parser, CSRGraphInput graph, List<Integer> startVertices, ParseOptions options) {
+        return reachabilities(parser, graph.withVertices(startVertices.stream(), vertices(graph.getVerticesCount())), options);
+    }
+
+    public static Set<Pair> reachabilities(IguanaParser parser, GraphInput input, ParseOptions options) {
+        return parser.getReachabilitySet(input, options).stream().collect(Collectors.toSet());
+    }
+}
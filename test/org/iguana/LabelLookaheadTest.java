@@ -0,0 +1,87 @@
+package org.iguana;
+
+import iguana.utils.input.CSRGraphInput;
+import iguana.utils.input.Edge;
+import iguana.utils.input.EdgeLabels;
+import iguana.utils.input.GraphInput;
+import iguana.utils.input.InMemGraphInput;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.operations.FirstFollowSets;
+import org.iguana.grammar.slot.lookahead.FollowTest;
+import org.iguana.grammar.slot.lookahead.LabelFollowTest;
+import org.iguana.grammar.symbol.Nonterminal;
+import org.iguana.grammar.symbol.Rule;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.iguana.GraphTestUtils.loadGrammar;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LabelLookaheadTest {
+
+    private static final String TERM_SUBCLASS = "subClassOf";
+    private static final String TERM_SUBCLASS_R = "subClassOf_r";
+
+    // Vertex 0 only has a subClassOf edge, vertex 1 only a subClassOf_r edge and vertex 2 none
+    private static final List<List<Edge>> EDGES = List.of(
+            List.of(new Edge(TERM_SUBCLASS, 1)),
+            List.of(new Edge(TERM_SUBCLASS_R, 2)),
+            List.of()
+    );
+
+    @Test
+    public void testPredictionLabelsTellLabelsApart() {
+        Grammar grammar = loadGrammar("g1");
+        FirstFollowSets firstFollow = new FirstFollowSets(grammar);
+        int subClassOfR = EdgeLabels.intern(TERM_SUBCLASS_R);
+
+        Nonterminal s = Nonterminal.withName("S");
+        assertTrue(firstFollow.getFirstLabels(s).contains(subClassOfR));
+        assertFalse(firstFollow.getFirstLabels(s).contains(EdgeLabels.intern(TERM_SUBCLASS)));
+
+        // S ::= subClassOf_r S subClassOf
+        Rule rule = grammar.getDefinitions().get(s).get(0);
+        assertEquals(Set.of(subClassOfR), firstFollow.getPredictionLabels(rule, 0));
+    }
+
+    @Test
+    public void testLabelTestOnGraphInputs() {
+        int subClassOfR = EdgeLabels.intern(TERM_SUBCLASS_R);
+        FollowTest characterTest = c -> c == 's';
+        FollowTest labelTest = new LabelFollowTest(Set.of(subClassOfR), characterTest);
+
+        List<Integer> vertices = List.of(0, 1, 2);
+        GraphInput inMem = new InMemGraphInput(EDGES, Stream.empty(), vertices);
+        GraphInput csr = CSRGraphInput.fromAdjacencyList(EDGES, Stream.empty(), vertices);
+        for (GraphInput input : List.of(inMem, csr)) {
+            assertTrue(characterTest.testNext(input, 0));
+            assertFalse(labelTest.testNext(input, 0));
+            assertTrue(labelTest.testNext(input, 1));
+            assertFalse(labelTest.testNext(input, 2));
+        }
+
+        // The end of input is admitted at any vertex, as all vertices of a graph input are final
+        FollowTest eofTest = new LabelFollowTest(Set.of(GraphInput.EOF), characterTest);
+        assertTrue(eofTest.testNext(csr, 2));
+    }
+
+    @Test
+    public void testLabelTestWithoutLabelMasks() {
+        // Label ids beyond the range of the per-vertex masks make the graph test the runs one by one
+        int manyLabels = EdgeLabels.intern("label_0");
+        for (int i = 1; manyLabels < 300; i++) {
+            manyLabels = EdgeLabels.intern("label_" + i);
+        }
+        CSRGraphInput csr = CSRGraphInput.builder()
+                .addEdge(0, TERM_SUBCLASS, 1)
+                .addEdge(1, manyLabels, 0)
+                .build(Stream.empty(), List.of(0, 1));
+
+        FollowTest labelTest = new LabelFollowTest(Set.of(manyLabels), c -> true);
+        assertFalse(labelTest.testNext(csr, 0));
+        assertTrue(labelTest.testNext(csr, 1));
+    }
+}
@@ -0,0 +1,103 @@
+package org.iguana;
+
+import iguana.utils.input.CSRGraphInput;
+import iguana.utils.input.EdgeLabels;
+import iguana.utils.input.GraphFileWriter;
+import iguana.utils.input.MappedGraphInput;
+import org.iguana.grammar.Grammar;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.PairSet;
+import org.iguana.parser.ParseOptions;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.iguana.GraphTestUtils.loadGrammar;
+import static org.iguana.GraphTestUtils.vertices;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedGraphTest {
+
+    private static final List<String> LABELS = List.of("subClassOf", "type");
+
+    private static Path writeCsv(Path directory, int verticesCount, int edgesCount, long seed) throws IOException {
+        Random random = new Random(seed);
+        List<String> nodes = Stream.concat(Stream.of("name:ID"), IntStream.range(0, verticesCount).mapToObj(Integer::toString))
+                .collect(Collectors.toList());
+        List<String> edges = Stream.concat(Stream.of("name:START_ID :TYPE name:END_ID"), IntStream.range(0, edgesCount)
+                .mapToObj(e -> random.nextInt(verticesCount) + " " + LABELS.get(random.nextInt(LABELS.size())) + " " + random.nextInt(verticesCount)))
+                .collect(Collectors.toList());
+        Files.write(directory.resolve("nodes.csv"), nodes);
+        Files.write(directory.resolve("edges.csv"), edges);
+        return directory;
+    }
+
+    private static CSRGraphInput loadCsv(Path directory) throws IOException {
+        List<String> edges = Files.readAllLines(directory.resolve("edges.csv"));
+        CSRGraphInput.Builder builder = CSRGraphInput.builder().setVerticesCount(Files.readAllLines(directory.resolve("nodes.csv")).size() - 1);
+        for (String edge : edges.subList(1, edges.size())) {
+            String[] parts = edge.split(" ");
+            builder.addEdge(Integer.parseInt(parts[0]), parts[1], Integer.parseInt(parts[2]));
+            builder.addEdge(Integer.parseInt(parts[2]), parts[1] + "_r", Integer.parseInt(parts[0]));
+        }
+        return builder.build(Stream.empty(), List.of());
+    }
+
+    @Test
+    public void testSameEdgesAsCsv() throws IOException {
+        Path directory = writeCsv(Files.createTempDirectory("graph"), 60, 200, 1);
+        Path file = directory.resolve("graph.bin");
+        GraphFileWriter.fromCsv(directory.resolve("nodes.csv"), directory.resolve("edges.csv"), file);
+
+        CSRGraphInput expected = loadCsv(directory);
+        MappedGraphInput graph = MappedGraphInput.open(file);
+        assertEquals(60, graph.getVerticesCount());
+        assertEquals(200, graph.getEdgesCount());
+        for (int v = 0; v < 60; v++) {
+            for (String label : List.of("subClassOf", "subClassOf_r", "type", "type_r", "unknown")) {
+                int labelId = EdgeLabels.intern(label);
+                assertEquals(expected.getDestVertices(v, labelId), graph.getDestVertices(v, labelId), v + " " + label);
+                assertEquals(expected.getDestVertex(v, label), graph.getDestVertex(v, label));
+            }
+        }
+    }
+
+    @Test
+    public void testSameReachabilitiesAsCsv() throws IOException {
+        Path directory = writeCsv(Files.createTempDirectory("graph"), 100, 300, 2);
+        Path file = directory.resolve("graph.bin");
+        GraphFileWriter.fromCsv(directory.resolve("nodes.csv"), directory.resolve("edges.csv"), file);
+
+        Grammar grammar = loadGrammar("g1");
+        List<Integer> vertices = vertices(100);
+        ParseOptions options = new ParseOptions.Builder().build();
+        PairSet expected = new IguanaParser(grammar).getReachabilitySet(loadCsv(directory).withVertices(vertices.stream(), vertices), options);
+        MappedGraphInput graph = MappedGraphInput.open(file);
+        PairSet actual = new IguanaParser(grammar).getReachabilitySet(graph.withVertices(vertices.stream(), graph.getFinalVertices()), options);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testLabelWithReverseSuffix() throws IOException {
+        Path directory = Files.createTempDirectory("graph");
+        Files.write(directory.resolve("nodes.csv"), List.of("name:ID", "0", "1", "2"));
+        Files.write(directory.resolve("edges.csv"), List.of("name:START_ID :TYPE name:END_ID", "0 subClassOf 1", "1 subClassOf_r 2"));
+        assertThrows(IllegalArgumentException.class,
+                () -> GraphFileWriter.fromCsv(directory.resolve("nodes.csv"), directory.resolve("edges.csv"), directory.resolve("graph.bin")));
+    }
+
+    @Test
+    public void testNotAGraphFile() throws IOException {
+        Path file = Files.createTempFile("graph", ".bin");
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> MappedGraphInput.open(file));
+    }
+}
@@ -0,0 +1,78 @@
+package org.iguana;
+
+import org.iguana.parser.Pair;
+import org.iguana.parser.PairSet;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PairSetTest {
+
+    private static List<Integer> ends(PairSet set, int start) {
+        List<Integer> ends = new ArrayList<>();
+        set.forEachEnd(start, ends::add);
+        return ends;
+    }
+
+    @Test
+    public void testDuplicatesAreRemoved() {
+        PairSet set = PairSet.builder().add(3, 1).add(0, 2).add(3, 1).add(0, 2).add(0, 1).build();
+        assertEquals(3, set.size());
+        assertTrue(set.contains(3, 1));
+        assertTrue(set.contains(0, 1));
+        assertFalse(set.contains(1, 3));
+        assertEquals(List.of(1, 2), ends(set, 0));
+        assertEquals(0, set.rowSize(2));
+        assertEquals(List.of(new Pair(0, 1), new Pair(0, 2), new Pair(3, 1)), set.stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testEmpty() {
+        PairSet set = PairSet.builder().build();
+        assertTrue(set.isEmpty());
+        assertEquals(PairSet.empty(), set);
+        assertFalse(set.contains(0, 0));
+        assertEquals(0, set.stream().count());
+    }
+
+    @Test
+    public void testDenseRowsSameAsSparse() {
+        Random random = new Random(11);
+        PairSet.Builder dense = PairSet.builder();
+        PairSet.Builder sparse = PairSet.builder().setDenseRowBitmaps(false);
+        Set<Pair> expected = new HashSet<>();
+        for (int start = 0; start < 20; start++) {
+            // Even start vertices reach most vertices below 200, odd ones only a few
+            int count = start % 2 == 0 ? 180 : 5;
+            for (int i = 0; i < count; i++) {
+                int end = random.nextInt(200);
+                dense.add(start, end);
+                sparse.add(start, end);
+                expected.add(new Pair(start, end));
+            }
+        }
+
+        PairSet denseSet = dense.build();
+        PairSet sparseSet = sparse.build();
+        assertEquals(10, denseSet.countDenseRows());
+        assertEquals(0, sparseSet.countDenseRows());
+        assertEquals(expected.size(), denseSet.size());
+        assertEquals(sparseSet, denseSet);
+        assertEquals(sparseSet.hashCode(), denseSet.hashCode());
+        assertEquals(sparseSet.stream().collect(Collectors.toList()), denseSet.stream().collect(Collectors.toList()));
+        assertEquals(expected, denseSet.stream().collect(Collectors.toSet()));
+        for (int start = 0; start < 20; start++) {
+            assertEquals(sparseSet.rowSize(start), denseSet.rowSize(start));
+            assertEquals(ends(sparseSet, start), ends(denseSet, start));
+            assertFalse(denseSet.contains(start, 200));
+        }
+    }
+
+    @Test
+    public void testNegativeVertex() {
+        assertThrows(IllegalArgumentException.class, () -> PairSet.builder().add(-1, 0));
+    }
+}
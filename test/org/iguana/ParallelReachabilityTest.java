@@ -0,0 +1,69 @@
+package org.iguana;
+
+import iguana.utils.input.CSRGraphInput;
+import iguana.utils.input.Edge;
+import iguana.utils.input.GraphInput;
+import iguana.utils.input.InMemGraphInput;
+import org.iguana.grammar.Grammar;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.Pair;
+import org.iguana.parser.ParseOptions;
+import org.iguana.parser.ShardedIguanaParser;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.iguana.GraphTestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelReachabilityTest {
+
+    private static final Map<String, List<String>> GRAMMAR_LABELS = Map.of(
+            "g1", GraphTestUtils.LABELS,
+            "g2", List.of("subClassOf", "subClassOf_r"),
+            "geo", List.of("broaderTransitive", "broaderTransitive_r"),
+            "pointsTo", List.of("a", "a_r", "d", "d_r")
+    );
+
+    private static Set<Pair> reachabilities(Grammar grammar, List<List<Edge>> edges, int parallelism) {
+        List<Integer> vertices = vertices(edges.size());
+        GraphInput input = new InMemGraphInput(edges, vertices.stream(), vertices);
+        return GraphTestUtils.reachabilities(new IguanaParser(grammar), input, new ParseOptions.Builder().setParallelism(parallelism).build());
+    }
+
+    @Test
+    public void testSameReachabilitiesAsSequential() {
+        GRAMMAR_LABELS.forEach((grammarName, labels) -> {
+            Grammar grammar = loadGrammar(grammarName);
+            for (int seed = 0; seed < 3; seed++) {
+                List<List<Edge>> edges = randomAdjacencyList(labels, 100, 250, seed);
+                Set<Pair> expected = reachabilities(grammar, edges, 1);
+                Set<Pair> actual = reachabilities(grammar, edges, 4);
+                assertEquals(expected, actual, grammarName + ", seed " + seed);
+            }
+        });
+    }
+
+    @Test
+    public void testShardedSameReachabilitiesAsSequential() {
+        GRAMMAR_LABELS.forEach((grammarName, labels) -> {
+            Grammar grammar = loadGrammar(grammarName);
+            List<List<Edge>> edges = randomAdjacencyList(labels, 100, 250, 42);
+            List<Integer> vertices = vertices(edges.size());
+            CSRGraphInput graph = CSRGraphInput.fromAdjacencyList(edges, Stream.empty(), vertices);
+
+            Set<Pair> expected = reachabilities(grammar, edges, 1);
+            Set<Pair> actual = new ShardedIguanaParser(grammar, 3, 7)
+                    .getReachabilities(vertices, startVertices -> graph.withVertices(startVertices, vertices), new ParseOptions.Builder().build())
+                    .stream().collect(Collectors.toSet());
+            assertEquals(expected, actual, grammarName);
+        });
+    }
+
+    @Test
+    public void testInvalidParallelism() {
+        assertThrows(IllegalArgumentException.class, () -> new ParseOptions.Builder().setParallelism(0));
+    }
+}
@@ -0,0 +1,104 @@
+package org.iguana;
+
+import iguana.utils.input.CSRGraphInput;
+import org.iguana.grammar.Grammar;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.Pair;
+import org.iguana.parser.ParseOptions;
+import org.iguana.result.ParserResultOps;
+import org.iguana.result.PathCount;
+import org.iguana.sppf.*;
+import org.iguana.traversal.SPPFPaths;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.iguana.GraphTestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PathCountTest {
+
+    private static final String SUBCLASS = "subClassOf";
+    private static final String SUBCLASS_R = "subClassOf_r";
+
+    /**
+     * Counts the derivations of a node of an SPPF built with object nodes, with nodes that reach a cycle saturated
+     */
+    private static long count(NonPackedNode node, ParserResultOps resultOps, Map<NonPackedNode, Long> counts) {
+        if (node == null) return 1;
+        if (node instanceof TerminalNode) return 1;
+        Long count = counts.get(node);
+        if (count != null) return count;
+        // Reached again before it is counted: the node is on a cycle
+        counts.put(node, PathCount.SATURATED);
+        List<PackedNode> packedNodes = node.isAmbiguous()
+                ? resultOps.getPackedNodes(node)
+                : Collections.singletonList(node.getFirstPackedNode());
+        long sum = 0;
+        for (PackedNode packedNode : packedNodes) {
+            long left = count(packedNode.getLeftChild(), resultOps, counts);
+            long right = count(packedNode.getRightChild(), resultOps, counts);
+            if (left == PathCount.SATURATED || right == PathCount.SATURATED) {
+                sum = PathCount.SATURATED;
+                break;
+            }
+            sum += left * right;
+        }
+        counts.put(node, sum);
+        return sum;
+    }
+
+    @Test
+    public void testChain() {
+        // S ::= subClassOf_r S subClassOf | subClassOf
+        CSRGraphInput.Builder builder = CSRGraphInput.builder().setVerticesCount(6);
+        for (int v = 0; v < 5; v++) {
+            builder.addEdge(v, v < 2 ? SUBCLASS_R : SUBCLASS, v + 1);
+        }
+        CSRGraphInput graph = builder.build(Stream.of(0), List.of(0, 1, 2, 3, 4, 5));
+
+        Map<Pair, PathCount> pathCounts = new IguanaParser(loadGrammar("g2")).getPathCounts(graph, new ParseOptions.Builder().build());
+        assertEquals(Map.of(new Pair(0, 5), new PathCount(5, 1)), pathCounts);
+    }
+
+    @Test
+    public void testCyclicGraphIsSaturated() {
+        CSRGraphInput graph = CSRGraphInput.builder().setVerticesCount(1)
+                .addEdge(0, SUBCLASS_R, 0)
+                .addEdge(0, SUBCLASS, 0)
+                .build(Stream.of(0), List.of(0));
+
+        PathCount pathCount = new IguanaParser(loadGrammar("g2")).getPathCounts(graph, new ParseOptions.Builder().build()).get(new Pair(0, 0));
+        assertEquals(1, pathCount.getShortestLength());
+        assertTrue(pathCount.isSaturated());
+    }
+
+    @Test
+    public void testSameAsObjectSPPF() {
+        Grammar grammar = loadGrammar("g1");
+        ParseOptions options = new ParseOptions.Builder().setAmbiguous(true).build();
+        for (boolean acyclic : new boolean[]{true, false}) {
+            CSRGraphInput graph = acyclic ? randomGraph(30, 120, 6, GraphOption.ACYCLIC) : randomGraph(30, 120, 6);
+
+            Map<Pair, PathCount> pathCounts = new IguanaParser(grammar).getPathCounts(allPairs(graph), options);
+            IguanaParser parser = new IguanaParser(grammar);
+            Map<Pair, NonterminalNode> sppf = parser.getSPPF(allPairs(graph), options);
+            assertEquals(sppf.keySet(), pathCounts.keySet());
+
+            SPPFPaths paths = parser.getSPPFPaths();
+            Map<NonPackedNode, Long> counts = new HashMap<>();
+            boolean saturated = false;
+            boolean ambiguous = false;
+            for (Pair pair : sppf.keySet()) {
+                PathCount pathCount = pathCounts.get(pair);
+                assertEquals(paths.getShortestPath(sppf.get(pair)).size(), pathCount.getShortestLength());
+                assertEquals(count(sppf.get(pair), parser.getParserResultOps(), counts), pathCount.getCount(), pair.toString());
+                saturated |= pathCount.isSaturated();
+                ambiguous |= pathCount.getCount() > 1 && !pathCount.isSaturated();
+            }
+            assertEquals(!acyclic, saturated);
+            assertTrue(ambiguous);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.iguana;
+
+import iguana.utils.collections.primitive.IntArray;
+import iguana.utils.input.CSRGraphInput;
+import iguana.utils.input.EdgeLabels;
+import iguana.utils.input.PrunedGraph;
+import org.iguana.grammar.Grammar;
+import org.iguana.grammar.GrammarGraphBuilder;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.PairSet;
+import org.iguana.parser.ParseOptions;
+import org.iguana.util.Configuration;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.iguana.GraphTestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrunedGraphTest {
+
+    /**
+     * Labels that the graph grammars do not mention are drawn for three quarters of the edges, so that most
+     * vertices have no edge with a terminal label
+     */
+    private static final List<String> NOISY_LABELS = List.of("subClassOf", "type", "seeAlso", "label", "seeAlso", "label", "seeAlso", "label");
+
+    @Test
+    public void testEdgesAndVertices() {
+        CSRGraphInput graph = CSRGraphInput.builder()
+                .addEdge(0, "type", 3)
+                .addEdge(0, "seeAlso", 1)
+                .addEdge(1, "seeAlso", 2)
+                .addEdge(3, "type", 4)
+                .addEdge(3, "subClassOf", 0)
+                .build(Stream.empty(), List.of());
+        int type = EdgeLabels.intern("type");
+        int seeAlso = EdgeLabels.intern("seeAlso");
+        int subClassOf = EdgeLabels.intern("subClassOf");
+
+        PrunedGraph keepingVertices = PrunedGraph.prune(graph, Set.of("type", "subClassOf"), false);
+        assertEquals(5, keepingVertices.getGraph().getVerticesCount());
+        assertEquals(3, keepingVertices.getGraph().getEdgesCount());
+        assertEquals(0, keepingVertices.getRemovedVerticesCount());
+        assertEquals(0, keepingVertices.getGraph().getDestVertices(0, seeAlso).size());
+
+        PrunedGraph removingVertices = PrunedGraph.prune(graph, Set.of("type", "subClassOf", "unknown"), true);
+        CSRGraphInput pruned = removingVertices.getGraph();
+        assertEquals(3, pruned.getVerticesCount());
+        assertEquals(2, removingVertices.getRemovedVerticesCount());
+        assertEquals(-1, removingVertices.toPruned(1));
+        assertEquals(-1, removingVertices.toPruned(2));
+        assertEquals(-1, removingVertices.toPruned(42));
+        assertEquals(List.of(0, 3, 4), IntStream.range(0, 3).map(removingVertices::toOriginal).boxed().collect(Collectors.toList()));
+        assertEquals(IntArray.of(1), pruned.getDestVertices(0, type));
+        assertEquals(IntArray.of(2), pruned.getDestVertices(1, type));
+        assertEquals(IntArray.of(0), pruned.getDestVertices(1, subClassOf));
+        assertEquals(0, pruned.getDestVertices(2, type).size());
+    }
+
+    @Test
+    public void testSameReachabilities() {
+        int verticesCount = 400;
+        CSRGraphInput graph = randomGraph(NOISY_LABELS, verticesCount, 2 * verticesCount, 9, GraphOption.REVERSE_EDGES);
+        List<Integer> vertices = vertices(verticesCount);
+        for (String grammarName : List.of("g1", "g2")) {
+            Grammar grammar = loadGrammar(grammarName);
+            Set<String> labels = GrammarGraphBuilder.from(grammar, Configuration.load()).getTerminalLabels();
+            IguanaParser parser = new IguanaParser(grammar);
+            ParseOptions options = new ParseOptions.Builder().build();
+            PairSet expected = parser.getReachabilitySet(graph.withVertices(vertices.stream(), vertices), options);
+            assertFalse(expected.isEmpty());
+
+            for (boolean removeVertices : new boolean[]{false, true}) {
+                PrunedGraph pruned = PrunedGraph.prune(graph, labels, removeVertices);
+                assertTrue(pruned.getGraph().getEdgesCount() < graph.getEdgesCount() / 2);
+                assertEquals(removeVertices, pruned.getRemovedVerticesCount() > 0);
+                PairSet actual = parser.getReachabilitySet(pruned.withVertices(vertices.stream(), vertices), options);
+                assertEquals(expected, actual.map(pruned::toOriginal));
+            }
+        }
+    }
+}
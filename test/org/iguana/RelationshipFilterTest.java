@@ -0,0 +1,32 @@
+package org.iguana;
+
+import iguana.utils.input.Neo4jRelationshipFilter;
+import org.iguana.grammar.GrammarGraph;
+import org.iguana.grammar.GrammarGraphBuilder;
+import org.iguana.util.Configuration;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.iguana.GraphTestUtils.loadGrammar;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RelationshipFilterTest {
+
+    @Test
+    public void testTerminalLabels() {
+        GrammarGraph grammarGraph = GrammarGraphBuilder.from(loadGrammar("g1"), Configuration.load());
+        assertEquals(Set.of("subClassOf", "subClassOf_r", "type", "type_r"), grammarGraph.getTerminalLabels());
+    }
+
+    @Test
+    public void testDirectionsFromLabels() {
+        Neo4jRelationshipFilter filter = Neo4jRelationshipFilter.fromLabels(List.of("b", "a_r", "c", "c_r", "d"));
+        assertEquals(
+                "Outgoing: [b, d]\n" +
+                "Incoming: [a]\n" +
+                "Both: [c]\n",
+                filter.toString());
+    }
+}
@@ -0,0 +1,120 @@
+package org.iguana;
+
+import iguana.utils.input.CSRGraphInput;
+import iguana.utils.input.Edge;
+import iguana.utils.input.GraphInput;
+import org.iguana.grammar.Grammar;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.Pair;
+import org.iguana.parser.ParseOptions;
+import org.iguana.sppf.NonterminalNode;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.iguana.GraphTestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SPPFPathsTest {
+
+    private static final String SUBCLASS = "subClassOf";
+    private static final String SUBCLASS_R = "subClassOf_r";
+
+    /**
+     * A chain of depth subClassOf_r edges followed by depth + 1 subClassOf edges
+     */
+    private static GraphInput chain(int depth) {
+        int verticesCount = 2 * depth + 2;
+        CSRGraphInput.Builder builder = CSRGraphInput.builder().setVerticesCount(verticesCount);
+        for (int v = 0; v < verticesCount - 1; v++) {
+            builder.addEdge(v, v < depth ? SUBCLASS_R : SUBCLASS, v + 1);
+        }
+        return builder.build(Stream.of(0), vertices(verticesCount));
+    }
+
+    private static List<String> labels(List<Edge> path) {
+        return path.stream().map(Edge::getTag).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testChainHasOnePath() {
+        IguanaParser parser = new IguanaParser(loadGrammar("g2"));
+        Map<Pair, NonterminalNode> sppf = parser.getSPPF(chain(2), new ParseOptions.Builder().setAmbiguous(true).build());
+
+        List<Edge> path = parser.getShortestPath(sppf, new Pair(0, 5));
+        assertEquals(List.of(SUBCLASS_R, SUBCLASS_R, SUBCLASS, SUBCLASS, SUBCLASS), labels(path));
+        assertEquals(List.of(1, 2, 3, 4, 5), path.stream().map(Edge::getDestVertex).collect(Collectors.toList()));
+
+        assertEquals(List.of(path), parser.getPaths(sppf, new Pair(0, 5), 100).collect(Collectors.toList()));
+        assertNull(parser.getShortestPath(sppf, new Pair(0, 4)));
+        assertEquals(0, parser.getPaths(sppf, new Pair(0, 4), 100).count());
+    }
+
+    @Test
+    public void testCyclicGraphPathsShortestFirst() {
+        // Self loops make the SPPF cyclic: S(0, 0) derives subClassOf_r^n subClassOf^(n + 1) for every n
+        CSRGraphInput graph = CSRGraphInput.builder().setVerticesCount(1)
+                .addEdge(0, SUBCLASS_R, 0)
+                .addEdge(0, SUBCLASS, 0)
+                .build(Stream.of(0), List.of(0));
+        IguanaParser parser = new IguanaParser(loadGrammar("g2"));
+        Map<Pair, NonterminalNode> sppf = parser.getSPPF(graph, new ParseOptions.Builder().setAmbiguous(true).build());
+
+        assertEquals(List.of(SUBCLASS), labels(parser.getShortestPath(sppf, new Pair(0, 0))));
+
+        List<List<String>> paths = parser.getPaths(sppf, new Pair(0, 0), 7).map(SPPFPathsTest::labels).collect(Collectors.toList());
+        assertEquals(List.of(
+                List.of(SUBCLASS),
+                List.of(SUBCLASS_R, SUBCLASS, SUBCLASS),
+                List.of(SUBCLASS_R, SUBCLASS_R, SUBCLASS, SUBCLASS, SUBCLASS),
+                List.of(SUBCLASS_R, SUBCLASS_R, SUBCLASS_R, SUBCLASS, SUBCLASS, SUBCLASS, SUBCLASS)), paths);
+
+        assertEquals(2, parser.getPaths(sppf, new Pair(0, 0), Integer.MAX_VALUE).limit(2).count());
+    }
+
+    @Test
+    public void testLongPathDoesNotOverflowStack() {
+        int depth = 20000;
+        IguanaParser parser = new IguanaParser(loadGrammar("g2"));
+        Map<Pair, NonterminalNode> sppf = parser.getSPPF(chain(depth), new ParseOptions.Builder().setAmbiguous(true).build());
+
+        List<Edge> path = parser.getShortestPath(sppf, new Pair(0, 2 * depth + 1));
+        assertEquals(2 * depth + 1, path.size());
+        assertEquals(2 * depth + 1, path.get(path.size() - 1).getDestVertex());
+        assertEquals(Optional.of(path), parser.getPaths(sppf, new Pair(0, 2 * depth + 1), Integer.MAX_VALUE).findFirst());
+    }
+
+    @Test
+    public void testPathsOfRandomGraphAreGraphPaths() {
+        Grammar grammar = loadGrammar("g1");
+        CSRGraphInput graph = allPairs(randomGraph(30, 90, 7));
+
+        IguanaParser parser = new IguanaParser(grammar);
+        Map<Pair, NonterminalNode> sppf = parser.getSPPF(graph, new ParseOptions.Builder().setAmbiguous(true).build());
+        assertFalse(sppf.isEmpty());
+
+        for (Pair pair : sppf.keySet()) {
+            List<Edge> shortest = parser.getShortestPath(sppf, pair);
+            assertPath(graph, pair, shortest);
+
+            List<List<Edge>> paths = parser.getPaths(sppf, pair, shortest.size() + 4).limit(20).collect(Collectors.toList());
+            assertEquals(shortest.size(), paths.get(0).size());
+            assertEquals(paths.size(), new HashSet<>(paths).size());
+            for (int i = 0; i < paths.size(); i++) {
+                assertPath(graph, pair, paths.get(i));
+                if (i > 0) assertTrue(paths.get(i - 1).size() <= paths.get(i).size());
+            }
+        }
+    }
+
+    private static void assertPath(CSRGraphInput graph, Pair pair, List<Edge> path) {
+        int vertex = pair.startVertex;
+        for (Edge edge : path) {
+            assertTrue(graph.getDestVertex(vertex, edge.getTag()).contains(edge.getDestVertex()));
+            vertex = edge.getDestVertex();
+        }
+        assertEquals(pair.endVertex, vertex);
+    }
+}
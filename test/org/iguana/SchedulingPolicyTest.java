@@ -0,0 +1,85 @@
+package org.iguana;
+
+import iguana.utils.input.CSRGraphInput;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.Pair;
+import org.iguana.parser.ParseOptions;
+import org.iguana.parser.descriptor.Descriptor;
+import org.iguana.parser.descriptor.DescriptorScheduler;
+import org.iguana.parser.descriptor.SchedulingPolicy;
+import org.iguana.result.PathCount;
+import org.iguana.result.RecognizerResult;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.iguana.GraphTestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchedulingPolicyTest {
+
+    private static Descriptor<RecognizerResult> descriptor(int inputIndex) {
+        return new Descriptor<>(null, null, RecognizerResult.of(inputIndex), null);
+    }
+
+    private static List<Integer> drain(DescriptorScheduler<RecognizerResult> scheduler) {
+        List<Integer> indices = new ArrayList<>();
+        while (scheduler.hasNext()) {
+            indices.add(scheduler.next().getInputIndex());
+        }
+        return indices;
+    }
+
+    @Test
+    public void testOrders() {
+        DescriptorScheduler<RecognizerResult> lifo = SchedulingPolicy.LIFO.newScheduler();
+        DescriptorScheduler<RecognizerResult> fifo = SchedulingPolicy.FIFO.newScheduler();
+        DescriptorScheduler<RecognizerResult> bucketed = SchedulingPolicy.VERTEX_BUCKETED.newScheduler();
+        for (int index : new int[]{3, 100, 3, 7, 100, 3}) {
+            lifo.add(descriptor(index));
+            fifo.add(descriptor(index));
+            bucketed.add(descriptor(index));
+        }
+        assertEquals(List.of(3, 100, 7, 3, 100, 3), drain(lifo));
+        assertEquals(List.of(3, 100, 3, 7, 100, 3), drain(fifo));
+        assertEquals(List.of(7, 100, 100, 3, 3, 3), drain(bucketed));
+    }
+
+    @Test
+    public void testBucketOfTheCurrentIndexIsDrainedFirst() {
+        DescriptorScheduler<RecognizerResult> scheduler = SchedulingPolicy.VERTEX_BUCKETED.newScheduler();
+        scheduler.add(descriptor(1));
+        scheduler.add(descriptor(2));
+        assertEquals(2, scheduler.next().getInputIndex());
+        // Scheduled while processing index 2
+        scheduler.add(descriptor(1));
+        scheduler.add(descriptor(2));
+        assertEquals(List.of(2, 1, 1), drain(scheduler));
+
+        scheduler.add(descriptor(5));
+        scheduler.clear();
+        assertFalse(scheduler.hasNext());
+    }
+
+    @Test
+    public void testSameResultsForAllPolicies() {
+        CSRGraphInput graph = randomGraph(150, 450, 29);
+        IguanaParser parser = new IguanaParser(loadGrammar("g1"));
+
+        Set<Pair> expectedPairs = null;
+        Map<Pair, PathCount> expectedPathCounts = null;
+        for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+            for (boolean poppedIndexSets : new boolean[]{true, false}) {
+                ParseOptions options = new ParseOptions.Builder().setSchedulingPolicy(policy).setPoppedIndexSets(poppedIndexSets).build();
+                Set<Pair> pairs = reachabilities(parser, allPairs(graph), options);
+                if (expectedPairs == null) expectedPairs = pairs;
+                assertEquals(expectedPairs, pairs, policy.toString());
+            }
+            Map<Pair, PathCount> pathCounts = parser.getPathCounts(allPairs(graph),
+                    new ParseOptions.Builder().setSchedulingPolicy(policy).build());
+            if (expectedPathCounts == null) expectedPathCounts = pathCounts;
+            assertEquals(expectedPathCounts, pathCounts, policy.toString());
+        }
+        assertFalse(expectedPairs.isEmpty());
+    }
+}
@@ -0,0 +1,74 @@
+package org.iguana;
+
+import iguana.utils.input.CSRGraphInput;
+import org.iguana.grammar.Grammar;
+import org.iguana.parser.IguanaParser;
+import org.iguana.parser.Pair;
+import org.iguana.parser.ParseOptions;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.iguana.GraphTestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingReachabilityTest {
+
+    private static List<Pair> stream(IguanaParser parser, CSRGraphInput graph, List<Integer> startVertices, ParseOptions options) {
+        List<Pair> pairs = new ArrayList<>();
+        parser.getReachabilities(graph.withVertices(startVertices.stream(), graph.getFinalVertices()), options,
+                (start, end) -> pairs.add(new Pair(start, end)));
+        return pairs;
+    }
+
+    @Test
+    public void testSameReachabilitiesAsCollected() {
+        Grammar grammar = loadGrammar("g1");
+        CSRGraphInput graph = randomGraph(100, 250, 3);
+        List<Integer> vertices = graph.getFinalVertices();
+
+        Set<Pair> expected = reachabilities(new IguanaParser(grammar), graph, vertices, new ParseOptions.Builder().build());
+
+        List<Pair> sequential = stream(new IguanaParser(grammar), graph, vertices, new ParseOptions.Builder().build());
+        assertEquals(expected.size(), sequential.size());
+        assertEquals(expected, new HashSet<>(sequential));
+
+        List<Pair> parallel = stream(new IguanaParser(grammar), graph, vertices, new ParseOptions.Builder().setParallelism(4).build());
+        assertEquals(expected.size(), parallel.size());
+        assertEquals(expected, new HashSet<>(parallel));
+
+        List<Pair> pairs = new IguanaParser(grammar).getReachabilities(allPairs(graph), new ParseOptions.Builder().build())
+                .collect(Collectors.toList());
+        assertEquals(expected.size(), pairs.size());
+        assertEquals(expected, new HashSet<>(pairs));
+    }
+
+    @Test
+    public void testReusedGSSNodesAreReported() {
+        Grammar grammar = loadGrammar("g1");
+        CSRGraphInput graph = randomGraph(100, 250, 5);
+        ParseOptions options = new ParseOptions.Builder().setReuseGSS(true).build();
+        IguanaParser parser = new IguanaParser(grammar);
+
+        stream(parser, graph, List.of(0, 1, 2, 3, 4), options);
+        List<Pair> pairs = stream(parser, graph, List.of(2, 3, 4, 5, 6), options);
+        Set<Pair> expected = reachabilities(new IguanaParser(grammar), graph, List.of(2, 3, 4, 5, 6), new ParseOptions.Builder().build());
+        assertEquals(expected, new HashSet<>(pairs));
+    }
+
+    @Test
+    public void testConsumerFailureLeavesParserUsable() {
+        Grammar grammar = loadGrammar("g1");
+        CSRGraphInput graph = randomGraph(100, 250, 3);
+        List<Integer> vertices = graph.getFinalVertices();
+        IguanaParser parser = new IguanaParser(grammar);
+        ParseOptions options = new ParseOptions.Builder().build();
+
+        assertThrows(IllegalStateException.class, () -> parser.getReachabilities(
+                graph.withVertices(vertices.stream(), vertices), options, (start, end) -> {
+                    throw new IllegalStateException();
+                }));
+        assertEquals(reachabilities(new IguanaParser(grammar), graph, vertices, options), reachabilities(parser, graph, vertices, options));
+    }
+}